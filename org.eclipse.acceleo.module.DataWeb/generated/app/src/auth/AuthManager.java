@@ -3,12 +3,28 @@ package auth;
 import java.util.HashMap;
 import java.util.Map;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.SecureRandom;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import config.AppConfig;
+import persistence.AtomicFile;
+import persistence.BinaryReader;
+import persistence.Journal;
 import view.util.ConsoleUtils;
 
 /**
  * Gestor de autenticación y autorización
+ * Además del usuario actual de la consola mantiene un registro de sesiones (token -> sesión),
+ * de modo que varios usuarios pueden estar autenticados a la vez, cada uno con su rol activo
  * Implementa el patrón Singleton
  */
 public class AuthManager {
@@ -16,6 +32,29 @@ public class AuthManager {
     private Map<String, Usuario> usuarios;
     private Usuario usuarioActual;
     private static final String DATA_FILE = "usuarios.dat";
+    private static final String JOURNAL_FILE = "usuarios.journal";
+    private static final String ACCESOS_FILE = "accesos.journal";
+    
+    // Tipos de registro de los logs de usuarios
+    private static final byte REG_USUARIO = 1;
+    private static final byte REG_ELIMINAR_USUARIO = 2;
+    private static final byte REG_ACCESOS = 3;
+    
+    private Journal journal;        // Altas, modificaciones y bajas de usuarios (null en modo "snapshot")
+    private Journal accesosJournal; // Últimos accesos, separados de los datos de los usuarios
+    private int snapshotInterval;
+    
+    // Últimos accesos pendientes de guardar (username -> fecha), se vuelcan por lotes en segundo plano
+    private final Map<String, String> accesosPendientes = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushExecutor;
+    
+    // Sesiones abiertas (token -> sesión); las que superan el tiempo de inactividad se eliminan en segundo plano
+    private final Map<String, Sesion> sesiones = new ConcurrentHashMap<>();
+    private final SecureRandom generadorTokens = new SecureRandom();
+    private long inactividadSesion; // Milisegundos
+    
+    // Hash y verificación de contraseñas en un pool acotado, con caché de verificaciones recientes
+    private VerificadorCredenciales verificador;
     
     /**
      * Constructor privado (Singleton)
@@ -23,11 +62,14 @@ public class AuthManager {
     private AuthManager() {
         usuarios = new HashMap<>();
         cargarUsuarios();
+        abrirJournals();
+        verificador = crearVerificador();
         
         // Si no hay usuarios, crear el administrador por defecto
         if (usuarios.isEmpty()) {
             crearUsuarioAdmin();
         }
+        iniciarTareasPeriodicas();
     }
     
     /**
@@ -51,8 +93,9 @@ public class AuthManager {
         admin.addRol("GerenteOperaciones");
         admin.addRol("EmpleadoBanco");
         admin.addRol("Cliente");
+        protegerContrasena(admin);
         usuarios.put(admin.getUsername(), admin);
-        guardarUsuarios();
+        esperarPersistencia(registrarCambio(REG_USUARIO, admin));
         System.out.println("Usuario administrador creado con credenciales: admin/admin");
     }
     
@@ -63,14 +106,119 @@ public class AuthManager {
      * @return true si la autenticación es correcta, false en caso contrario
      */
     public boolean login(String username, String password) {
-        Usuario usuario = usuarios.get(username);
-        if (usuario != null && usuario.getPassword().equals(password) && usuario.isActivo()) {
-            usuarioActual = usuario;
-            usuario.setUltimoAcceso(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            guardarUsuarios();
-            return true;
+        Usuario usuario = autenticar(username, password);
+        if (usuario == null) {
+            return false;
         }
-        return false;
+        usuarioActual = usuario;
+        return true;
+    }
+    
+    /**
+     * Comprueba las credenciales de un usuario y registra su último acceso
+     * Si la contraseña estaba guardada en claro o con un coste menor que el configurado,
+     * se guarda de nuevo con el hash actual
+     * @param username Nombre de usuario
+     * @param password Contraseña
+     * @return Usuario autenticado, o null si las credenciales no son válidas o el usuario está inactivo
+     */
+    private Usuario autenticar(String username, String password) {
+        Usuario usuario = getUsuario(username);
+        if (usuario == null || !usuario.isActivo()) {
+            // Se paga igualmente el coste de una verificación: el tiempo de respuesta no revela qué usuarios existen
+            try {
+                verificador.verificarFicticio(password);
+            } catch (IllegalStateException e) {
+                // Se rechaza igualmente
+            }
+            return null;
+        }
+        String almacenado = usuario.getPassword();
+        try {
+            if (!verificador.verificar(username, password, almacenado)) {
+                return null;
+            }
+        } catch (IllegalStateException e) {
+            System.err.println("Error al verificar las credenciales de " + username + ": " + e.getMessage());
+            return null;
+        }
+        if (verificador.necesitaActualizar(almacenado)) {
+            migrarContrasena(usuario, password);
+        }
+        String ultimoAcceso = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        usuario.setUltimoAcceso(ultimoAcceso);
+        // El último acceso no se escribe en disco durante el login: se vuelca por lotes en segundo plano
+        accesosPendientes.put(username, ultimoAcceso);
+        return usuario;
+    }
+    
+    /**
+     * Comprueba la contraseña de un usuario sin iniciar sesión (p. ej. antes de cambiarla)
+     * @param username Nombre de usuario
+     * @param password Contraseña a comprobar
+     * @return true si la contraseña es correcta, false en caso contrario
+     */
+    public boolean verificarContrasena(String username, String password) {
+        Usuario usuario = getUsuario(username);
+        if (usuario == null) {
+            return false;
+        }
+        try {
+            return verificador.verificar(username, password, usuario.getPassword());
+        } catch (IllegalStateException e) {
+            System.err.println("Error al verificar las credenciales de " + username + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Guarda la contraseña de un usuario con el hash y el coste actuales
+     * @param usuario Usuario recién autenticado
+     * @param password Contraseña en claro ya verificada
+     */
+    private void migrarContrasena(Usuario usuario, String password) {
+        String hash;
+        try {
+            hash = verificador.generar(password);
+        } catch (IllegalStateException e) {
+            System.err.println("Error al actualizar la contraseña de " + usuario.getUsername() + ": " + e.getMessage());
+            return;
+        }
+        // La migración es oportunista: si no llega a disco se repetirá en el siguiente inicio de sesión
+        try {
+            long seq;
+            synchronized (this) {
+                if (usuarios.get(usuario.getUsername()) != usuario) {
+                    return;
+                }
+                usuario.setPassword(hash);
+                seq = registrarCambio(REG_USUARIO, usuario);
+                verificador.recordar(usuario.getUsername(), password, hash);
+            }
+            esperarPersistencia(seq);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error al actualizar la contraseña de " + usuario.getUsername() + ": " + e.getCause().getMessage());
+        }
+    }
+    
+    /**
+     * Sustituye la contraseña en claro de un usuario por su hash (no hace nada si ya es un hash)
+     * @param usuario Usuario a proteger
+     */
+    private void protegerContrasena(Usuario usuario) {
+        usuario.setPassword(calcularHash(usuario.getPassword()));
+    }
+    
+    /**
+     * Calcula el hash de una contraseña en claro sin modificar ningún usuario
+     * @param password Contraseña en claro o ya protegida
+     * @return Hash de la contraseña (la misma si ya es un hash o es null)
+     */
+    private String calcularHash(String password) {
+        if (password != null && !HashContrasena.esHash(password)) {
+            return verificador.generar(password);
+        }
+        return password;
     }
     
     /**
@@ -118,18 +266,178 @@ public class AuthManager {
         return false;
     }
     
+    /**
+     * Autentica a un usuario y abre una sesión nueva, independiente del usuario actual y de las demás sesiones
+     * @param username Nombre de usuario
+     * @param password Contraseña
+     * @return Token de la sesión, o null si las credenciales no son válidas
+     */
+    public String iniciarSesion(String username, String password) {
+        Usuario usuario = autenticar(username, password);
+        if (usuario == null) {
+            return null;
+        }
+        Sesion sesion = new Sesion(generarToken(), usuario, inactividadSesion);
+        sesiones.put(sesion.getToken(), sesion);
+        return sesion.getToken();
+    }
+    
+    /**
+     * Obtiene una sesión abierta y aplaza su caducidad
+     * @param token Token de la sesión
+     * @return Sesión, o null si no existe o ha caducado
+     */
+    public Sesion getSesion(String token) {
+        if (token == null) {
+            return null;
+        }
+        Sesion sesion = sesiones.get(token);
+        if (sesion == null) {
+            return null;
+        }
+        if (sesion.isCaducada(System.currentTimeMillis())) {
+            sesiones.remove(token, sesion);
+            return null;
+        }
+        sesion.tocar();
+        return sesion;
+    }
+    
+    /**
+     * Obtiene el usuario de una sesión
+     * @param token Token de la sesión
+     * @return Usuario o null si la sesión no existe o ha caducado
+     */
+    public Usuario getUsuarioSesion(String token) {
+        Sesion sesion = getSesion(token);
+        return sesion != null ? sesion.getUsuario() : null;
+    }
+    
+    /**
+     * Cierra una sesión
+     * @param token Token de la sesión
+     * @return true si la sesión estaba abierta, false en caso contrario
+     */
+    public boolean cerrarSesion(String token) {
+        return token != null && sesiones.remove(token) != null;
+    }
+    
+    /**
+     * Verifica si el usuario de una sesión tiene un rol específico
+     * @param token Token de la sesión
+     * @param rol Rol a verificar
+     * @return true si la sesión está abierta y su usuario tiene el rol, false en caso contrario
+     */
+    public boolean tieneRol(String token, String rol) {
+        Sesion sesion = getSesion(token);
+        return sesion != null && sesion.tieneRol(rol);
+    }
+    
+    /**
+     * Cambia el rol activo de una sesión (las demás sesiones del usuario conservan el suyo)
+     * @param token Token de la sesión
+     * @param rol Nuevo rol activo
+     * @return true si se cambió correctamente, false si la sesión no está abierta o el usuario no tiene ese rol
+     */
+    public boolean cambiarRolActivo(String token, String rol) {
+        Sesion sesion = getSesion(token);
+        if (sesion != null && sesion.tieneRol(rol)) {
+            sesion.setRolActivo(rol);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Obtiene el número de sesiones abiertas (incluidas las caducadas que aún no se han eliminado)
+     * @return Número de sesiones
+     */
+    public int contarSesiones() {
+        return sesiones.size();
+    }
+    
+    /**
+     * Obtiene las sesiones abiertas de un usuario
+     * @param username Nombre del usuario
+     * @return Lista de sesiones no caducadas del usuario
+     */
+    public List<Sesion> getSesionesDeUsuario(String username) {
+        long ahora = System.currentTimeMillis();
+        List<Sesion> resultado = new ArrayList<>();
+        for (Sesion sesion : sesiones.values()) {
+            if (sesion.getUsername().equals(username) && !sesion.isCaducada(ahora)) {
+                resultado.add(sesion);
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Elimina las sesiones que han superado el tiempo de inactividad
+     * @return Número de sesiones eliminadas
+     */
+    public int eliminarSesionesCaducadas() {
+        long ahora = System.currentTimeMillis();
+        int antes = sesiones.size();
+        sesiones.values().removeIf(sesion -> sesion.isCaducada(ahora));
+        return antes - sesiones.size();
+    }
+    
+    /**
+     * Genera un token de sesión aleatorio (256 bits en Base64 apto para URL)
+     */
+    private String generarToken() {
+        byte[] bytes = new byte[32];
+        generadorTokens.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    /**
+     * Actualiza las sesiones de un usuario tras modificarlo: se cierran si el usuario se ha
+     * desactivado o eliminado, y se corrige el rol activo si el usuario ya no lo tiene
+     * @param username Nombre del usuario
+     * @param usuario Usuario modificado, o null si se ha eliminado
+     */
+    private void actualizarSesiones(String username, Usuario usuario) {
+        for (Sesion sesion : sesiones.values()) {
+            if (!sesion.getUsername().equals(username)) {
+                continue;
+            }
+            if (usuario == null || !usuario.isActivo()) {
+                sesiones.remove(sesion.getToken(), sesion);
+                continue;
+            }
+            sesion.setUsuario(usuario);
+            if (!usuario.tieneRol(sesion.getRolActivo())) {
+                sesion.setRolActivo(usuario.getRolActivo());
+            }
+        }
+    }
+    
     /**
      * Registra un nuevo usuario
      * @param usuario Usuario a registrar
      * @return true si se registró correctamente, false si ya existe
+     * @throws UncheckedIOException si el alta no se pudo persistir
      */
     public boolean registrarUsuario(Usuario usuario) {
-        if (usuarios.containsKey(usuario.getUsername())) {
+        if (getUsuario(usuario.getUsername()) != null) {
             return false;
         }
-        
-        usuarios.put(usuario.getUsername(), usuario);
-        guardarUsuarios();
+        // El hash se calcula fuera del bloqueo para no detener a los demás usuarios del gestor,
+        // y solo se asigna al usuario si finalmente se registra
+        String hash = calcularHash(usuario.getPassword());
+        long seq;
+        synchronized (this) {
+            if (usuarios.containsKey(usuario.getUsername())) {
+                return false;
+            }
+            
+            usuario.setPassword(hash);
+            usuarios.put(usuario.getUsername(), usuario);
+            seq = registrarCambio(REG_USUARIO, usuario);
+        }
+        esperarPersistencia(seq);
         return true;
     }
     
@@ -137,14 +445,26 @@ public class AuthManager {
      * Actualiza un usuario existente
      * @param usuario Usuario a actualizar
      * @return true si se actualizó correctamente, false si no existe
+     * @throws UncheckedIOException si el cambio no se pudo persistir
      */
     public boolean actualizarUsuario(Usuario usuario) {
-        if (!usuarios.containsKey(usuario.getUsername())) {
+        if (getUsuario(usuario.getUsername()) == null) {
             return false;
         }
-        
-        usuarios.put(usuario.getUsername(), usuario);
-        guardarUsuarios();
+        // Una contraseña nueva llega en claro: se sustituye por su hash antes de guardarla
+        String hash = calcularHash(usuario.getPassword());
+        long seq;
+        synchronized (this) {
+            if (!usuarios.containsKey(usuario.getUsername())) {
+                return false;
+            }
+            
+            usuario.setPassword(hash);
+            usuarios.put(usuario.getUsername(), usuario);
+            seq = registrarCambio(REG_USUARIO, usuario);
+            actualizarSesiones(usuario.getUsername(), usuario);
+        }
+        esperarPersistencia(seq);
         return true;
     }
     
@@ -152,14 +472,24 @@ public class AuthManager {
      * Elimina un usuario
      * @param username Nombre del usuario a eliminar
      * @return true si se eliminó correctamente, false si no existe
+     * @throws UncheckedIOException si la baja no se pudo persistir
      */
     public boolean eliminarUsuario(String username) {
-        if (!usuarios.containsKey(username)) {
-            return false;
+        long seq;
+        synchronized (this) {
+            if (!usuarios.containsKey(username)) {
+                return false;
+            }
+            
+            usuarios.remove(username);
+            accesosPendientes.remove(username);
+            verificador.invalidar(username);
+            Usuario eliminado = new Usuario();
+            eliminado.setUsername(username);
+            seq = registrarCambio(REG_ELIMINAR_USUARIO, eliminado);
+            actualizarSesiones(username, null);
         }
-        
-        usuarios.remove(username);
-        guardarUsuarios();
+        esperarPersistencia(seq);
         return true;
     }
     
@@ -168,7 +498,7 @@ public class AuthManager {
      * @param username Nombre del usuario
      * @return Usuario o null si no existe
      */
-    public Usuario getUsuario(String username) {
+    public synchronized Usuario getUsuario(String username) {
         return usuarios.get(username);
     }
     
@@ -176,21 +506,30 @@ public class AuthManager {
      * Obtiene todos los usuarios registrados
      * @return Mapa de usuarios (username -> Usuario)
      */
-    public Map<String, Usuario> getUsuarios() {
+    public synchronized Map<String, Usuario> getUsuarios() {
         return new HashMap<>(usuarios);
     }
     
     /**
      * Carga los usuarios desde archivo
+     * Si el fichero está en el formato antiguo (serialización de Java) se carga igualmente
+     * y se reescribe en el formato binario
      */
     @SuppressWarnings("unchecked")
     private void cargarUsuarios() {
         try {
             File file = new File(DATA_FILE);
             if (file.exists()) {
-                ObjectInputStream in = new ObjectInputStream(new FileInputStream(file));
-                usuarios = (Map<String, Usuario>) in.readObject();
-                in.close();
+                byte[] datos = Files.readAllBytes(file.toPath());
+                if (BinaryReader.hasMagic(datos)) {
+                    usuarios = UsuarioCodec.readUsuarios(ByteBuffer.wrap(datos));
+                } else {
+                    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(datos))) {
+                        usuarios = (Map<String, Usuario>) in.readObject();
+                    }
+                    guardarUsuarios();
+                    System.out.println("Usuarios migrados al formato binario");
+                }
                 System.out.println("Usuarios cargados correctamente desde " + DATA_FILE);
             }
         } catch (Exception e) {
@@ -200,15 +539,287 @@ public class AuthManager {
     }
     
     /**
-     * Guarda los usuarios en archivo
+     * Guarda los usuarios en archivo (instantánea completa)
+     * El fichero se sustituye de forma atómica y persistente (ver AtomicFile)
+     * @return true si la instantánea se guardó; si es false los logs no deben vaciarse
      */
-    private void guardarUsuarios() {
+    private synchronized boolean guardarUsuarios() {
         try {
-            ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(DATA_FILE));
-            out.writeObject(usuarios);
-            out.close();
+            AtomicFile.write(new File(DATA_FILE), out -> UsuarioCodec.writeUsuarios(out, usuarios.values()));
+            return true;
         } catch (Exception e) {
             System.err.println("Error al guardar usuarios: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Abre los logs de usuarios y de accesos y reproduce los cambios posteriores a la última instantánea
+     * En modo "snapshot" (persistence.mode) cada cambio reescribe el fichero completo
+     */
+    private void abrirJournals() {
+        AppConfig config = AppConfig.getInstance();
+        if (!"journal".equalsIgnoreCase(config.getProperty("persistence.mode", "journal"))) {
+            return;
+        }
+        try {
+            snapshotInterval = Integer.parseInt(config.getProperty("persistence.snapshotInterval", "1000"));
+        } catch (NumberFormatException e) {
+            snapshotInterval = 1000;
+        }
+        
+        try {
+            journal = new Journal(new File(JOURNAL_FILE));
+            journal.replay(this::aplicarRegistro);
+            accesosJournal = new Journal(new File(ACCESOS_FILE));
+            accesosJournal.replay(this::aplicarRegistro);
+        } catch (IOException e) {
+            System.err.println("Error al abrir los logs de usuarios, se usará la instantánea completa: " + e.getMessage());
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (accesosJournal != null) {
+                accesosJournal.close();
+                accesosJournal = null;
+            }
+        }
+    }
+    
+    /**
+     * Aplica un registro de los logs sobre los usuarios en memoria
+     * @param tipo Tipo de registro
+     * @param datos Contenido del registro
+     * @throws IOException si el registro no se puede interpretar
+     */
+    private void aplicarRegistro(byte tipo, byte[] datos) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(datos));
+        switch (tipo) {
+            case REG_USUARIO:
+                if (BinaryReader.hasMagic(datos)) {
+                    Usuario usuario = UsuarioCodec.decodeUsuario(datos);
+                    usuarios.put(usuario.getUsername(), usuario);
+                    break;
+                }
+                // Registro anterior al formato binario
+                try (ObjectInputStream objIn = new ObjectInputStream(in)) {
+                    Usuario usuario = (Usuario) objIn.readObject();
+                    usuarios.put(usuario.getUsername(), usuario);
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Clase desconocida en el log: " + e.getMessage());
+                }
+                break;
+            case REG_ELIMINAR_USUARIO:
+                usuarios.remove(in.readUTF());
+                break;
+            case REG_ACCESOS:
+                int total = in.readInt();
+                for (int i = 0; i < total; i++) {
+                    Usuario usuario = usuarios.get(in.readUTF());
+                    String ultimoAcceso = in.readUTF();
+                    if (usuario != null) {
+                        usuario.setUltimoAcceso(ultimoAcceso);
+                    }
+                }
+                break;
+            default:
+                throw new IOException("Tipo de registro desconocido: " + tipo);
+        }
+    }
+    
+    /**
+     * Registra el cambio de un único usuario
+     * Con log de cambios solo se anexa el registro del usuario, sin esperar a que sea persistente
+     * (ver esperarPersistencia); cada snapshotInterval registros se compacta el log guardando una
+     * instantánea completa. Debe llamarse con el cerrojo del gestor adquirido para mantener el orden de los cambios
+     * @param tipo REG_USUARIO o REG_ELIMINAR_USUARIO
+     * @param usuario Usuario modificado (para las bajas solo se usa el username)
+     * @return Número de secuencia del registro (0 si no hay que esperar)
+     * @throws UncheckedIOException si el cambio no se pudo registrar
+     */
+    private synchronized long registrarCambio(byte tipo, Usuario usuario) {
+        if (journal == null) {
+            if (!guardarUsuarios()) {
+                throw new UncheckedIOException(new IOException("No se pudo guardar el fichero de usuarios"));
+            }
+            return 0;
+        }
+        try {
+            byte[] datos;
+            if (tipo == REG_USUARIO) {
+                datos = UsuarioCodec.encodeUsuario(usuario);
+            } else {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                new DataOutputStream(bytes).writeUTF(usuario.getUsername());
+                datos = bytes.toByteArray();
+            }
+            long seq = journal.append(tipo, datos);
+            if (journal.getRecordCount() >= snapshotInterval && compactar()) {
+                return 0;
+            }
+            return seq;
+        } catch (IOException e) {
+            System.err.println("Error al guardar usuarios: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            System.err.println("Error al guardar usuarios: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Espera, fuera del cerrojo del gestor, a que un cambio esté persistido en disco
+     * Varios hilos esperando a la vez comparten una única sincronización con disco
+     * @param seq Número de secuencia devuelto por registrarCambio
+     * @throws UncheckedIOException si el cambio no se pudo persistir
+     */
+    private void esperarPersistencia(long seq) {
+        Journal actual;
+        synchronized (this) {
+            actual = journal;
+        }
+        if (seq <= 0 || actual == null) {
+            return;
+        }
+        try {
+            actual.awaitDurable(seq);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error al guardar usuarios: " + e.getCause().getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Inicia las tareas periódicas en segundo plano: el volcado de los últimos accesos y la
+     * eliminación de las sesiones caducadas, ambas en el mismo hilo
+     * Los intervalos se configuran con persistence.accessFlushSeconds (por defecto 5 segundos),
+     * auth.sessionTimeoutMinutes (inactividad máxima de una sesión, por defecto 30 minutos)
+     * y auth.sessionSweepSeconds (por defecto 60 segundos)
+     */
+    private void iniciarTareasPeriodicas() {
+        AppConfig config = AppConfig.getInstance();
+        long intervalo = leerEntero(config, "persistence.accessFlushSeconds", 5);
+        inactividadSesion = TimeUnit.MINUTES.toMillis(leerEntero(config, "auth.sessionTimeoutMinutes", 30));
+        long intervaloSesiones = leerEntero(config, "auth.sessionSweepSeconds", 60);
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auth-mantenimiento");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::volcarAccesos, intervalo, intervalo, TimeUnit.SECONDS);
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            eliminarSesionesCaducadas();
+            verificador.limpiarCaducadas();
+        }, intervaloSesiones, intervaloSesiones, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "auth-shutdown"));
+    }
+    
+    /**
+     * Crea el verificador de credenciales según la configuración: auth.hashIterations (coste de PBKDF2),
+     * auth.hashThreads (hilos de verificación, por defecto la mitad de los procesadores) y
+     * auth.credentialCacheSeconds (duración de la caché de verificaciones, por defecto 300 segundos)
+     */
+    private static VerificadorCredenciales crearVerificador() {
+        AppConfig config = AppConfig.getInstance();
+        long iteraciones = leerEntero(config, "auth.hashIterations", HashContrasena.ITERACIONES_POR_DEFECTO);
+        long hilos = leerEntero(config, "auth.hashThreads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        long cache = leerEntero(config, "auth.credentialCacheSeconds", 300);
+        return new VerificadorCredenciales((int) Math.min(hilos, 64), (int) Math.min(iteraciones, Integer.MAX_VALUE),
+                TimeUnit.SECONDS.toMillis(cache));
+    }
+    
+    /**
+     * Lee un valor numérico positivo de la configuración
+     * @return Valor configurado, o el valor por defecto si no es un número positivo
+     */
+    private static long leerEntero(AppConfig config, String clave, long porDefecto) {
+        try {
+            long valor = Long.parseLong(config.getProperty(clave, String.valueOf(porDefecto)));
+            return valor > 0 ? valor : porDefecto;
+        } catch (NumberFormatException e) {
+            return porDefecto;
+        }
+    }
+    
+    /**
+     * Vuelca en un único registro todos los últimos accesos pendientes
+     */
+    public void volcarAccesos() {
+        if (accesosPendientes.isEmpty()) {
+            return;
+        }
+        Map<String, String> lote = new HashMap<>();
+        for (String username : accesosPendientes.keySet()) {
+            String ultimoAcceso = accesosPendientes.remove(username);
+            if (ultimoAcceso != null) {
+                lote.put(username, ultimoAcceso);
+            }
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+        
+        synchronized (this) {
+            if (accesosJournal == null) {
+                guardarUsuarios();
+                return;
+            }
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(lote.size());
+                for (Map.Entry<String, String> acceso : lote.entrySet()) {
+                    out.writeUTF(acceso.getKey());
+                    out.writeUTF(acceso.getValue());
+                }
+                accesosJournal.append(REG_ACCESOS, bytes.toByteArray());
+                if (accesosJournal.getRecordCount() >= snapshotInterval) {
+                    compactar();
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error al guardar los últimos accesos: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Guarda una instantánea completa de los usuarios y vacía ambos logs
+     * Los logs solo se vacían si la instantánea ya está en disco
+     * @return true si se compactó, false si no se pudo guardar la instantánea
+     * @throws IOException si no se pueden vaciar los logs
+     */
+    private synchronized boolean compactar() throws IOException {
+        if (!guardarUsuarios()) {
+            return false;
+        }
+        journal.reset();
+        accesosJournal.reset();
+        return true;
+    }
+    
+    /**
+     * Vuelca los accesos pendientes, compacta los logs y los cierra
+     */
+    public void cerrar() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        sesiones.clear();
+        verificador.cerrar();
+        volcarAccesos();
+        synchronized (this) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                compactar();
+            } catch (IOException e) {
+                System.err.println("Error al compactar los logs de usuarios: " + e.getMessage());
+            }
+            journal.close();
+            accesosJournal.close();
+            journal = null;
+            accesosJournal = null;
         }
     }
 }
@@ -0,0 +1,115 @@
+package auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hash de contraseñas con PBKDF2 (HMAC-SHA256) y sal aleatoria
+ * Formato almacenado: pbkdf2$iteraciones$sal$hash (sal y hash en Base64).
+ * Las contraseñas guardadas en claro por versiones anteriores se siguen pudiendo verificar
+ */
+public class HashContrasena {
+    public static final int ITERACIONES_POR_DEFECTO = 120000;
+
+    private static final String PREFIJO = "pbkdf2$";
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private HashContrasena() {
+    }
+
+    /**
+     * Calcula el hash de una contraseña con una sal nueva
+     * @param password Contraseña en claro
+     * @param iteraciones Coste (número de iteraciones de PBKDF2)
+     * @return Hash en el formato almacenado
+     * @throws IllegalArgumentException si la contraseña es null o el coste no es positivo
+     */
+    public static String generar(String password, int iteraciones) {
+        if (password == null || iteraciones <= 0) {
+            throw new IllegalArgumentException("La contraseña es obligatoria y el coste debe ser positivo");
+        }
+        byte[] sal = new byte[BYTES_SAL];
+        ALEATORIO.nextBytes(sal);
+        byte[] hash = derivar(password, sal, iteraciones, BITS_HASH);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIJO + iteraciones + "$" + base64.encodeToString(sal) + "$" + base64.encodeToString(hash);
+    }
+
+    /**
+     * Comprueba una contraseña contra el valor almacenado, en tiempo constante respecto al contenido
+     * @param password Contraseña en claro
+     * @param almacenado Hash almacenado (o la contraseña en claro de versiones anteriores)
+     * @return true si la contraseña es correcta
+     */
+    public static boolean verificar(String password, String almacenado) {
+        if (password == null || almacenado == null) {
+            return false;
+        }
+        if (!almacenado.startsWith(PREFIJO)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    almacenado.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] partes = almacenado.split("\\$");
+        if (partes.length != 4) {
+            return false;
+        }
+        try {
+            int iteraciones = Integer.parseInt(partes[1]);
+            byte[] sal = Base64.getDecoder().decode(partes[2]);
+            byte[] esperado = Base64.getDecoder().decode(partes[3]);
+            if (iteraciones <= 0 || esperado.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(esperado, derivar(password, sal, iteraciones, esperado.length * 8));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indica si un valor almacenado es un hash (y no una contraseña en claro)
+     * @param almacenado Valor almacenado
+     * @return true si tiene el formato de hash
+     */
+    public static boolean esHash(String almacenado) {
+        return getIteraciones(almacenado) > 0;
+    }
+
+    /**
+     * Obtiene el coste con el que se calculó un hash
+     * @param almacenado Valor almacenado
+     * @return Número de iteraciones, o 0 si no es un hash
+     */
+    public static int getIteraciones(String almacenado) {
+        if (almacenado == null || !almacenado.startsWith(PREFIJO)) {
+            return 0;
+        }
+        int fin = almacenado.indexOf('$', PREFIJO.length());
+        if (fin < 0) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(almacenado.substring(PREFIJO.length(), fin)));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] derivar(String password, byte[] sal, int iteraciones, int bits) {
+        KeySpec spec = new PBEKeySpec(password.toCharArray(), sal, iteraciones, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular el hash de la contraseña: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package auth;
+
+/**
+ * Sesión de un usuario autenticado
+ * Cada sesión tiene su propio rol activo, de modo que un mismo usuario puede tener
+ * varias sesiones abiertas con roles distintos. Caduca tras un tiempo sin usarse
+ */
+public class Sesion {
+    private final String token;
+    private final long creada;
+    private final long inactividadMaxima; // Milisegundos sin uso tras los que caduca
+    private volatile Usuario usuario;
+    private volatile String rolActivo;
+    private volatile long ultimoUso;
+
+    /**
+     * Constructor
+     * @param token Identificador de la sesión
+     * @param usuario Usuario autenticado
+     * @param inactividadMaxima Milisegundos sin uso tras los que la sesión caduca
+     */
+    Sesion(String token, Usuario usuario, long inactividadMaxima) {
+        this.token = token;
+        this.usuario = usuario;
+        this.rolActivo = usuario.getRolActivo();
+        this.inactividadMaxima = inactividadMaxima;
+        this.creada = System.currentTimeMillis();
+        this.ultimoUso = creada;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public String getUsername() {
+        return usuario.getUsername();
+    }
+
+    public String getRolActivo() {
+        return rolActivo;
+    }
+
+    void setRolActivo(String rolActivo) {
+        this.rolActivo = rolActivo;
+    }
+
+    /**
+     * Verifica si el usuario de la sesión tiene un rol específico
+     * @param rol Rol a verificar
+     * @return true si el usuario tiene el rol, false en caso contrario
+     */
+    public boolean tieneRol(String rol) {
+        return usuario.tieneRol(rol);
+    }
+
+    public long getCreada() {
+        return creada;
+    }
+
+    public long getUltimoUso() {
+        return ultimoUso;
+    }
+
+    /**
+     * Obtiene el instante en que caducará la sesión si no se vuelve a usar
+     * @return Instante de caducidad en milisegundos
+     */
+    public long getCaducidad() {
+        return ultimoUso + inactividadMaxima;
+    }
+
+    /**
+     * Registra un uso de la sesión, lo que aplaza su caducidad
+     */
+    void tocar() {
+        ultimoUso = System.currentTimeMillis();
+    }
+
+    boolean isCaducada(long ahora) {
+        return ahora >= getCaducidad();
+    }
+
+    @Override
+    public String toString() {
+        return "Sesion{" +
+                "usuario='" + usuario.getUsername() + '\'' +
+                ", rolActivo='" + rolActivo + '\'' +
+                ", ultimoUso=" + ultimoUso +
+                '}';
+    }
+}
@@ -0,0 +1,131 @@
+package auth;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+
+/**
+ * Codificación binaria de usuarios
+ * Sustituye a la serialización de Java: los nombres de rol y las fechas de acceso,
+ * que se repiten entre usuarios, se guardan una sola vez en la tabla de cadenas
+ */
+public final class UsuarioCodec {
+    /** Versión actual del formato */
+    public static final int FORMAT_VERSION = 1;
+
+    private UsuarioCodec() {
+    }
+
+    /**
+     * Escribe un usuario
+     * @param out Escritor binario
+     * @param usuario Usuario a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    public static void writeUsuario(BinaryWriter out, Usuario usuario) throws IOException {
+        out.writeString(usuario.getUsername());
+        out.writeString(usuario.getPassword());
+        out.writeString(usuario.getNombre());
+        out.writeString(usuario.getEmail());
+        out.writeVarint(usuario.getRoles().size());
+        for (String rol : usuario.getRoles()) {
+            out.writeString(rol);
+        }
+        out.writeString(usuario.getRolActivo());
+        out.writeBoolean(usuario.isActivo());
+        out.writeString(usuario.getUltimoAcceso());
+    }
+
+    /**
+     * Lee un usuario
+     * @param in Lector binario
+     * @return Usuario leído
+     * @throws IOException si los datos no son válidos
+     */
+    public static Usuario readUsuario(BinaryReader in) throws IOException {
+        Usuario usuario = new Usuario();
+        usuario.setUsername(in.readString());
+        usuario.setPassword(in.readString());
+        usuario.setNombre(in.readString());
+        usuario.setEmail(in.readString());
+        int roles = in.readVarint();
+        for (int i = 0; i < roles; i++) {
+            usuario.addRol(in.readString());
+        }
+        usuario.setRolActivo(in.readString());
+        usuario.setActivo(in.readBoolean());
+        usuario.setUltimoAcceso(in.readString());
+        return usuario;
+    }
+
+    /**
+     * Escribe todos los usuarios como instantánea completa
+     * @param stream Flujo de salida (no se cierra)
+     * @param usuarios Usuarios a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    public static void writeUsuarios(OutputStream stream, Collection<Usuario> usuarios) throws IOException {
+        BinaryWriter out = new BinaryWriter(stream);
+        out.writeHeader(FORMAT_VERSION);
+        out.writeVarint(usuarios.size());
+        for (Usuario usuario : usuarios) {
+            writeUsuario(out, usuario);
+        }
+        out.flush();
+    }
+
+    /**
+     * Lee una instantánea escrita con writeUsuarios
+     * @param buffer Datos de la instantánea
+     * @return Mapa de usuarios (username -> Usuario)
+     * @throws IOException si los datos no son válidos o la versión no está soportada
+     */
+    public static Map<String, Usuario> readUsuarios(ByteBuffer buffer) throws IOException {
+        BinaryReader in = new BinaryReader(buffer);
+        in.readHeader(FORMAT_VERSION);
+        int total = in.readVarint();
+        Map<String, Usuario> usuarios = new HashMap<>();
+        for (int i = 0; i < total; i++) {
+            Usuario usuario = readUsuario(in);
+            usuarios.put(usuario.getUsername(), usuario);
+        }
+        return usuarios;
+    }
+
+    /**
+     * Codifica un usuario como bloque independiente (con cabecera y su propia tabla de cadenas)
+     * @param usuario Usuario a codificar
+     * @return Bytes del usuario
+     */
+    public static byte[] encodeUsuario(Usuario usuario) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            BinaryWriter out = new BinaryWriter(bytes);
+            out.writeHeader(FORMAT_VERSION);
+            writeUsuario(out, usuario);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica un bloque generado por encodeUsuario
+     * @param datos Bytes del bloque
+     * @return Usuario decodificado
+     * @throws IOException si los datos no son válidos
+     */
+    public static Usuario decodeUsuario(byte[] datos) throws IOException {
+        BinaryReader in = new BinaryReader(datos);
+        in.readHeader(FORMAT_VERSION);
+        return readUsuario(in);
+    }
+}
@@ -0,0 +1,202 @@
+package auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verificación de credenciales para AuthManager
+ * Los hashes se calculan en un pool de hilos acotado (con cola acotada), de modo que una
+ * avalancha de logins no puede ocupar todos los procesadores. Las verificaciones correctas
+ * se recuerdan durante un tiempo corto: una nueva autenticación del mismo usuario con la misma
+ * contraseña se comprueba con un resumen SHA-256 con sal en lugar de repetir PBKDF2.
+ * La caché solo está en memoria y no guarda la contraseña en claro
+ */
+class VerificadorCredenciales {
+    private static final int CAPACIDAD_COLA = 256;
+
+    private final ThreadPoolExecutor pool;
+    private final int iteraciones;
+    private final long duracionCache; // Milisegundos (0 desactiva la caché)
+    private final Map<String, Verificacion> cache = new ConcurrentHashMap<>();
+    private final byte[] salCache = new byte[16];
+    private volatile String hashFicticio; // Para verificar cuando el usuario no existe (ver verificarFicticio)
+
+    /**
+     * Constructor
+     * @param hilos Número máximo de hilos de verificación
+     * @param iteraciones Coste de los hashes nuevos
+     * @param duracionCache Milisegundos durante los que se recuerda una verificación correcta
+     */
+    VerificadorCredenciales(int hilos, int iteraciones, long duracionCache) {
+        this.iteraciones = iteraciones;
+        this.duracionCache = duracionCache;
+        new SecureRandom().nextBytes(salCache);
+        AtomicInteger numero = new AtomicInteger(1);
+        pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CAPACIDAD_COLA), r -> {
+                    Thread thread = new Thread(r, "auth-verificacion-" + numero.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // El hash ficticio se calcula en segundo plano para no retrasar el arranque
+        pool.execute(this::generarHashFicticio);
+    }
+
+    /**
+     * Comprueba la contraseña de un usuario
+     * @param username Nombre del usuario (clave de la caché)
+     * @param password Contraseña en claro
+     * @param almacenado Hash almacenado del usuario
+     * @return true si la contraseña es correcta
+     * @throws IllegalStateException si hay demasiadas verificaciones pendientes
+     */
+    boolean verificar(String username, String password, String almacenado) {
+        if (password == null || almacenado == null) {
+            return false;
+        }
+        Verificacion reciente = cache.get(username);
+        // Una contraseña distinta de la recordada se verifica completa: los intentos fallidos siempre pagan el coste del hash
+        if (reciente != null && reciente.almacenado.equals(almacenado)
+                && reciente.caducidad > System.currentTimeMillis()
+                && MessageDigest.isEqual(reciente.resumen, resumir(password))) {
+            return true;
+        }
+        boolean correcta = ejecutar(() -> HashContrasena.verificar(password, almacenado));
+        if (correcta) {
+            recordar(username, password, almacenado);
+        }
+        return correcta;
+    }
+
+    /**
+     * Realiza una verificación completa contra un hash ficticio con el coste configurado
+     * Se usa cuando el usuario no existe o está inactivo, para que esos intentos tarden
+     * lo mismo que una contraseña incorrecta y no revelen qué usuarios existen
+     * @param password Contraseña en claro recibida
+     * @throws IllegalStateException si hay demasiadas verificaciones pendientes
+     */
+    void verificarFicticio(String password) {
+        String almacenado = hashFicticio != null ? hashFicticio : generarHashFicticio();
+        ejecutar(() -> HashContrasena.verificar(password != null ? password : "", almacenado));
+    }
+
+    private String generarHashFicticio() {
+        byte[] aleatorio = new byte[16];
+        new SecureRandom().nextBytes(aleatorio);
+        String hash = HashContrasena.generar(Base64.getEncoder().encodeToString(aleatorio), iteraciones);
+        hashFicticio = hash;
+        return hash;
+    }
+
+    /**
+     * Recuerda una verificación correcta (p. ej. tras recalcular el hash de un usuario ya verificado)
+     * @param username Nombre del usuario
+     * @param password Contraseña en claro verificada
+     * @param almacenado Hash almacenado del usuario
+     */
+    void recordar(String username, String password, String almacenado) {
+        if (duracionCache > 0) {
+            cache.put(username, new Verificacion(almacenado, resumir(password), System.currentTimeMillis() + duracionCache));
+        }
+    }
+
+    /**
+     * Calcula el hash de una contraseña con el coste configurado
+     * @param password Contraseña en claro
+     * @return Hash en el formato almacenado
+     * @throws IllegalStateException si hay demasiadas verificaciones pendientes
+     */
+    String generar(String password) {
+        return ejecutar(() -> HashContrasena.generar(password, iteraciones));
+    }
+
+    /**
+     * Indica si un valor almacenado debe recalcularse: está en claro o su coste es menor que el configurado
+     * @param almacenado Valor almacenado
+     * @return true si hay que volver a calcular el hash
+     */
+    boolean necesitaActualizar(String almacenado) {
+        return HashContrasena.getIteraciones(almacenado) < iteraciones;
+    }
+
+    /**
+     * Olvida la verificación recordada de un usuario
+     * @param username Nombre del usuario
+     */
+    void invalidar(String username) {
+        cache.remove(username);
+    }
+
+    /**
+     * Elimina de la caché las verificaciones caducadas
+     */
+    void limpiarCaducadas() {
+        long ahora = System.currentTimeMillis();
+        cache.values().removeIf(verificacion -> verificacion.caducidad <= ahora);
+    }
+
+    void cerrar() {
+        pool.shutdown();
+        cache.clear();
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> resultado;
+        try {
+            resultado = pool.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Demasiadas verificaciones de credenciales pendientes");
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new IllegalStateException("Verificación de credenciales interrumpida");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    private byte[] resumir(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salCache);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Verificación correcta recordada: válida mientras no caduque ni cambie el hash almacenado
+     */
+    private static class Verificacion {
+        final String almacenado;
+        final byte[] resumen;
+        final long caducidad;
+
+        Verificacion(String almacenado, byte[] resumen, long caducidad) {
+            this.almacenado = almacenado;
+            this.resumen = resumen;
+            this.caducidad = caducidad;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package bench;
+
+import auth.Usuario;
+import auth.UsuarioCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import survey.Cuestionario;
+import survey.Encuesta;
+import survey.Pregunta;
+import survey.Respuesta;
+import survey.SurveyCodec;
+
+/**
+ * Comparación del formato binario con la serialización de Java
+ * Genera datos sintéticos de encuestas y usuarios y mide, en memoria, el tiempo de guardado,
+ * el tiempo de carga y el tamaño resultante con ambos formatos
+ * Uso: java bench.CodecBenchmark [encuestas] [respuestasPorEncuesta] [usuarios]
+ */
+public class CodecBenchmark {
+    private static final int CALENTAMIENTO = 5;
+    private static final int REPETICIONES = 10;
+    private static final String[] ROLES = {"ADMINISTRADOR", "GESTOR", "EMPLEADO", "CLIENTE", "AUDITOR"};
+
+    /**
+     * Operación a medir
+     */
+    private interface Operacion {
+        Object ejecutar() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int numEncuestas = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int respuestasPorEncuesta = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int numUsuarios = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        Random random = new Random(42);
+
+        Map<Integer, Encuesta> encuestas = new HashMap<>();
+        Map<Integer, Map<Integer, Respuesta>> respuestas = new HashMap<>();
+        int preguntaId = 1;
+        int respuestaId = 1;
+        for (int e = 1; e <= numEncuestas; e++) {
+            Encuesta encuesta = e % 2 == 0 ? new Cuestionario(e, "Encuesta " + e, "Descripción de la encuesta " + e, "admin")
+                    : new Encuesta(e, "Encuesta " + e, "Descripción de la encuesta " + e, "admin");
+            encuesta.addRolPermitido(ROLES[random.nextInt(ROLES.length)]);
+            encuesta.addRolPermitido(ROLES[random.nextInt(ROLES.length)]);
+            for (int p = 0; p < 10; p++) {
+                Pregunta pregunta = new Pregunta(preguntaId++, "¿Pregunta " + p + " de la encuesta " + e + "?",
+                        Pregunta.TipoPregunta.OPCION_MULTIPLE);
+                pregunta.addOpcion("Muy de acuerdo");
+                pregunta.addOpcion("De acuerdo");
+                pregunta.addOpcion("En desacuerdo");
+                pregunta.addOpcion("Muy en desacuerdo");
+                pregunta.setRespuestaCorrecta("De acuerdo");
+                encuesta.addPregunta(pregunta);
+            }
+            encuestas.put(e, encuesta);
+
+            Map<Integer, Respuesta> grupo = new HashMap<>();
+            for (int r = 0; r < respuestasPorEncuesta; r++) {
+                Respuesta respuesta = new Respuesta(respuestaId++, e, "usuario" + random.nextInt(Math.max(1, numUsuarios)));
+                for (Pregunta pregunta : encuesta.getPreguntas()) {
+                    respuesta.setRespuesta(pregunta.getId(), pregunta.getOpciones().get(random.nextInt(4)));
+                }
+                respuesta.setCompletada(true);
+                grupo.put(respuesta.getId(), respuesta);
+            }
+            respuestas.put(e, grupo);
+        }
+        SurveyCodec.Snapshot snapshot = new SurveyCodec.Snapshot(encuestas, respuestas, numEncuestas + 1, respuestaId, preguntaId);
+
+        Map<String, Usuario> usuarios = new HashMap<>();
+        for (int u = 0; u < numUsuarios; u++) {
+            Usuario usuario = new Usuario("usuario" + u, "clave" + u, "Usuario " + u, "usuario" + u + "@ejemplo.com");
+            usuario.addRol(ROLES[random.nextInt(ROLES.length)]);
+            usuario.addRol(ROLES[random.nextInt(ROLES.length)]);
+            usuario.setUltimoAcceso("2024-01-" + (10 + random.nextInt(20)) + " 10:00:00");
+            usuarios.put(usuario.getUsername(), usuario);
+        }
+
+        System.out.println("Encuestas: " + numEncuestas + ", respuestas: " + (respuestaId - 1) + ", usuarios: " + numUsuarios);
+        System.out.printf("%-22s %12s %12s %12s%n", "Formato", "Tamaño (B)", "Guardar (ms)", "Cargar (ms)");
+
+        byte[] javaEncuestas = serializar(encuestas, respuestas);
+        comparar("Encuestas (Java)", javaEncuestas,
+                () -> serializar(encuestas, respuestas),
+                () -> deserializar(javaEncuestas, 2));
+        byte[] binEncuestas = codificar(snapshot);
+        comparar("Encuestas (binario)", binEncuestas,
+                () -> codificar(snapshot),
+                () -> decodificar(binEncuestas));
+
+        byte[] javaUsuarios = serializar(usuarios);
+        comparar("Usuarios (Java)", javaUsuarios,
+                () -> serializar(usuarios),
+                () -> deserializar(javaUsuarios, 1));
+        byte[] binUsuarios = codificar(usuarios);
+        comparar("Usuarios (binario)", binUsuarios,
+                () -> codificar(usuarios),
+                () -> UsuarioCodec.readUsuarios(ByteBuffer.wrap(binUsuarios)));
+    }
+
+    private static void comparar(String nombre, byte[] datos, Operacion guardar, Operacion cargar) throws Exception {
+        System.out.printf("%-22s %12d %12.2f %12.2f%n", nombre, datos.length, medir(guardar), medir(cargar));
+    }
+
+    /**
+     * Mide una operación tras un calentamiento y devuelve la mediana de las repeticiones
+     * @param operacion Operación a medir
+     * @return Tiempo en milisegundos
+     */
+    private static double medir(Operacion operacion) throws Exception {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            operacion.ejecutar();
+        }
+        long[] tiempos = new long[REPETICIONES];
+        for (int i = 0; i < REPETICIONES; i++) {
+            long inicio = System.nanoTime();
+            operacion.ejecutar();
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[REPETICIONES / 2] / 1_000_000.0;
+    }
+
+    private static byte[] serializar(Object... objetos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Object objeto : objetos) {
+                out.writeObject(objeto);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object[] deserializar(byte[] datos, int numObjetos) throws IOException, ClassNotFoundException {
+        Object[] objetos = new Object[numObjetos];
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(datos))) {
+            for (int i = 0; i < numObjetos; i++) {
+                objetos[i] = in.readObject();
+            }
+        }
+        return objetos;
+    }
+
+    private static byte[] codificar(SurveyCodec.Snapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SurveyCodec.writeSnapshot(bytes, snapshot);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lee una instantánea de encuestas decodificando también todos sus bloques de respuestas,
+     * para comparar con la carga completa de la serialización de Java
+     */
+    private static SurveyCodec.Snapshot decodificar(byte[] datos) throws IOException {
+        SurveyCodec.Snapshot snapshot = SurveyCodec.readSnapshot(ByteBuffer.wrap(datos));
+        for (Map.Entry<Integer, ByteBuffer> bloque : snapshot.getBloquesRespuestas().entrySet()) {
+            snapshot.getRespuestas().put(bloque.getKey(), SurveyCodec.readRespuestas(bloque.getValue()));
+        }
+        return snapshot;
+    }
+
+    private static byte[] codificar(Map<String, Usuario> usuarios) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        UsuarioCodec.writeUsuarios(bytes, usuarios.values());
+        return bytes.toByteArray();
+    }
+}
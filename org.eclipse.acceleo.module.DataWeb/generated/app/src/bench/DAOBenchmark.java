@@ -0,0 +1,908 @@
+package bench;
+
+import dao.GeneradorDatos;
+import dao.ClienteDAO;
+import dao.CuentaDAO;
+import dao.TransaccionDAO;
+import dao.EmpleadoDAO;
+import dao.PrestamoDAO;
+import dao.TarjetaCreditoDAO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import model.Cliente;
+import model.Cuenta;
+import model.Transaccion;
+import model.Empleado;
+import model.Prestamo;
+import model.TarjetaCredito;
+
+/**
+ * Medición del rendimiento de las operaciones de los DAOs
+ * Para cada tamaño de datos genera su propio conjunto con GeneradorDatos (misma semilla, mismos datos)
+ * y mide, con cada número de hilos, todas las consultas de cada DAO (findById, findAll, findByFilter,
+ * countByFilter, getPage, getFilteredPage y cada findByX generado) y sus escrituras (save, update, delete).
+ * Las consultas y update se miden como rendimiento durante un tiempo fijo, con iteraciones de
+ * calentamiento previas; save y delete se miden por lotes de filas nuevas que se preparan y se
+ * eliminan fuera de la medición, de modo que el conjunto de datos no cambia entre mediciones.
+ * Los resultados se escriben en JSON para poder compararlos entre versiones.
+ * Uso: java [-Dbench.calentamiento=2 -Dbench.iteraciones=3 -Dbench.duracionMs=500 -Dbench.lote=2000 -Dbench.revision=...]
+ *          bench.DAOBenchmark [tamaños, p. ej. S,M] [hilos, p. ej. 1,4] [fichero.json] [filtro, p. ej. Cliente.findBy]
+ */
+public class DAOBenchmark {
+    private static final int CALENTAMIENTO = Math.max(0, Integer.getInteger("bench.calentamiento", 2));
+    private static final int ITERACIONES = Math.max(1, Integer.getInteger("bench.iteraciones", 3));
+    private static final long DURACION_MS = Math.max(1, Long.getLong("bench.duracionMs", 500L));
+    private static final int TAMANO_LOTE = Math.max(1, Integer.getInteger("bench.lote", 2000));
+    private static final long SEMILLA = Long.getLong("bench.semilla", 42L);
+    private static final int NUM_MUESTRAS = 1024;
+    private static final int TAMANO_PAGINA = 20;
+    
+    // Identificadores de las filas que crean save y delete, fuera del rango de los datos generados
+    private static final AtomicInteger SIGUIENTE_ID = new AtomicInteger(1_000_000_000);
+    // Destino de los resultados de las operaciones, para que no se eliminen como código muerto
+    private static final AtomicLong SUMIDERO = new AtomicLong();
+    
+    /**
+     * Operación medida por tiempo: se repite sin parar hasta que termina la iteración
+     */
+    private interface Operacion {
+        Object ejecutar(SplittableRandom random);
+    }
+    
+    /**
+     * Operación medida por lotes: cada hilo prepara sus elementos antes de medir y se limpian después
+     */
+    private static final class Lote<T> {
+        final Supplier<List<T>> preparar;
+        final Consumer<T> accion;
+        final Consumer<T> limpiar;
+        
+        Lote(Supplier<List<T>> preparar, Consumer<T> accion, Consumer<T> limpiar) {
+            this.preparar = preparar;
+            this.accion = accion;
+            this.limpiar = limpiar;
+        }
+    }
+    
+    /**
+     * Caso de medición: una operación de un DAO
+     */
+    private static final class Caso {
+        final String entidad;
+        final String metodo;
+        final Operacion operacion;
+        final Lote<?> lote;
+        
+        Caso(String entidad, String metodo, Operacion operacion) {
+            this(entidad, metodo, operacion, null);
+        }
+        
+        Caso(String entidad, String metodo, Lote<?> lote) {
+            this(entidad, metodo, null, lote);
+        }
+        
+        private Caso(String entidad, String metodo, Operacion operacion, Lote<?> lote) {
+            this.entidad = entidad;
+            this.metodo = metodo;
+            this.operacion = operacion;
+            this.lote = lote;
+        }
+        
+        String getNombre() {
+            return entidad + "." + metodo;
+        }
+    }
+    
+    /**
+     * Resultado de un caso con un tamaño y un número de hilos (operaciones por segundo de cada iteración medida)
+     */
+    private static final class Resultado {
+        final Caso caso;
+        final GeneradorDatos.Tamano tamano;
+        final int filas;
+        final int hilos;
+        final double[] iteraciones;
+        
+        Resultado(Caso caso, GeneradorDatos.Tamano tamano, int filas, int hilos, double[] iteraciones) {
+            this.caso = caso;
+            this.tamano = tamano;
+            this.filas = filas;
+            this.hilos = hilos;
+            this.iteraciones = iteraciones;
+        }
+        
+        double getMedia() {
+            double suma = 0;
+            for (double valor : iteraciones) {
+                suma += valor;
+            }
+            return suma / iteraciones.length;
+        }
+        
+        double getDesviacion() {
+            if (iteraciones.length < 2) {
+                return 0;
+            }
+            double media = getMedia();
+            double suma = 0;
+            for (double valor : iteraciones) {
+                suma += (valor - media) * (valor - media);
+            }
+            return Math.sqrt(suma / (iteraciones.length - 1));
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        List<GeneradorDatos.Tamano> tamanos = new ArrayList<>();
+        for (String tamano : (args.length > 0 ? args[0] : "S").split(",")) {
+            tamanos.add(GeneradorDatos.Tamano.valueOf(tamano.trim().toUpperCase()));
+        }
+        Set<Integer> numHilos = new LinkedHashSet<>();
+        if (args.length > 1) {
+            for (String hilos : args[1].split(",")) {
+                numHilos.add(Integer.parseInt(hilos.trim()));
+            }
+        } else {
+            numHilos.add(1);
+            numHilos.add(Runtime.getRuntime().availableProcessors());
+        }
+        Path fichero = Paths.get(args.length > 2 ? args[2] : "dao-benchmark.json");
+        String filtro = args.length > 3 ? args[3] : "";
+        
+        PrintStream consola = System.out;
+        PrintStream silencio = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        List<Resultado> resultados = new ArrayList<>();
+        for (GeneradorDatos.Tamano tamano : tamanos) {
+            GeneradorDatos generador = new GeneradorDatos(tamano, SEMILLA);
+            generador.generarEnDAOs();
+            List<Caso> casos = new ArrayList<>();
+            registrarCliente(casos, generador);
+            registrarCuenta(casos, generador);
+            registrarTransaccion(casos, generador);
+            registrarEmpleado(casos, generador);
+            registrarPrestamo(casos, generador);
+            registrarTarjetaCredito(casos, generador);
+            
+            for (int hilos : numHilos) {
+                for (Caso caso : casos) {
+                    if (!caso.getNombre().contains(filtro)) {
+                        continue;
+                    }
+                    // Los DAOs escriben en la consola cada modificación: se descarta durante la medición
+                    System.setOut(silencio);
+                    double[] iteraciones;
+                    try {
+                        iteraciones = medir(caso, hilos);
+                    } finally {
+                        System.setOut(consola);
+                    }
+                    Resultado resultado = new Resultado(caso, tamano, generador.getFilas(entidadDe(caso)), hilos, iteraciones);
+                    resultados.add(resultado);
+                    System.out.printf("%-45s %-3s %3d hilos: %14.1f ± %10.1f ops/s%n", caso.getNombre(), tamano, hilos,
+                            resultado.getMedia(), resultado.getDesviacion());
+                }
+            }
+        }
+        escribirJson(fichero, tamanos, numHilos, resultados);
+        System.out.println("Resultados guardados en " + fichero.toAbsolutePath() + " (" + resultados.size() + " mediciones)");
+    }
+    
+    private static Class<?> entidadDe(Caso caso) {
+        switch (caso.entidad) {
+            case "Cliente":
+                return Cliente.class;
+            case "Cuenta":
+                return Cuenta.class;
+            case "Transaccion":
+                return Transaccion.class;
+            case "Empleado":
+                return Empleado.class;
+            case "Prestamo":
+                return Prestamo.class;
+            case "TarjetaCredito":
+                return TarjetaCredito.class;
+            default:
+                throw new IllegalArgumentException("Entidad desconocida: " + caso.entidad);
+        }
+    }
+    
+    /**
+     * Mide un caso: iteraciones de calentamiento (descartadas) seguidas de las iteraciones medidas
+     * @return Operaciones por segundo de cada iteración medida
+     */
+    private static double[] medir(Caso caso, int hilos) throws InterruptedException {
+        double[] iteraciones = new double[ITERACIONES];
+        for (int i = -CALENTAMIENTO; i < ITERACIONES; i++) {
+            long semilla = SEMILLA ^ ((i + CALENTAMIENTO + 1) * 0x9E3779B97F4A7C15L);
+            double valor = caso.operacion != null ? iteracion(caso.operacion, hilos, semilla) : iteracion(caso.lote, hilos);
+            if (i >= 0) {
+                iteraciones[i] = valor;
+            }
+        }
+        return iteraciones;
+    }
+    
+    /**
+     * Ejecuta la operación en todos los hilos hasta que pasa DURACION_MS
+     * @return Operaciones por segundo
+     */
+    private static double iteracion(Operacion operacion, int hilos, long semilla) throws InterruptedException {
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicBoolean parar = new AtomicBoolean(false);
+        long[] operaciones = new long[hilos];
+        Throwable[] error = new Throwable[1];
+        Thread[] threads = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            int hilo = h;
+            threads[h] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(semilla + hilo);
+                long sumidero = 0;
+                long n = 0;
+                try {
+                    inicio.await();
+                    while (!parar.get()) {
+                        sumidero += consumir(operacion.ejecutar(random));
+                        n++;
+                    }
+                } catch (Throwable e) {
+                    error[0] = e;
+                }
+                operaciones[hilo] = n;
+                SUMIDERO.addAndGet(sumidero);
+            }, "bench-" + h);
+            threads[h].start();
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        Thread.sleep(DURACION_MS);
+        parar.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long duracion = System.nanoTime() - comienzo;
+        comprobar(error[0]);
+        long total = 0;
+        for (long n : operaciones) {
+            total += n;
+        }
+        return total * 1e9 / duracion;
+    }
+    
+    /**
+     * Prepara un lote por hilo, mide el tiempo que tardan todos los hilos en procesarlo y lo limpia
+     * @return Operaciones por segundo
+     */
+    private static <T> double iteracion(Lote<T> lote, int hilos) throws InterruptedException {
+        List<List<T>> elementos = new ArrayList<>(hilos);
+        for (int h = 0; h < hilos; h++) {
+            elementos.add(lote.preparar.get());
+        }
+        CountDownLatch inicio = new CountDownLatch(1);
+        Throwable[] error = new Throwable[1];
+        Thread[] threads = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            List<T> propios = elementos.get(h);
+            threads[h] = new Thread(() -> {
+                try {
+                    inicio.await();
+                    for (T elemento : propios) {
+                        lote.accion.accept(elemento);
+                    }
+                } catch (Throwable e) {
+                    error[0] = e;
+                }
+            }, "bench-" + h);
+            threads[h].start();
+        }
+        long comienzo = System.nanoTime();
+        inicio.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long duracion = System.nanoTime() - comienzo;
+        for (List<T> propios : elementos) {
+            for (T elemento : propios) {
+                lote.limpiar.accept(elemento);
+            }
+        }
+        comprobar(error[0]);
+        return (double) hilos * TAMANO_LOTE * 1e9 / duracion;
+    }
+    
+    private static void comprobar(Throwable error) {
+        if (error != null) {
+            throw new IllegalStateException("Error durante la medición: " + error, error);
+        }
+    }
+    
+    private static long consumir(Object resultado) {
+        return resultado == null ? 0 : System.identityHashCode(resultado);
+    }
+    
+    private static <T> List<T> muestras(int filas, IntFunction<T> buscar) {
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        List<T> muestras = new ArrayList<>(NUM_MUESTRAS);
+        for (int i = 0; i < NUM_MUESTRAS && filas > 0; i++) {
+            T entity = buscar.apply(1 + random.nextInt(filas));
+            if (entity != null) {
+                muestras.add(entity);
+            }
+        }
+        return muestras;
+    }
+    
+    private static <T> T elegir(List<T> muestras, SplittableRandom random) {
+        return muestras.get(random.nextInt(muestras.size()));
+    }
+    
+    /**
+     * Copias de las muestras con identificadores nuevos, tantas como TAMANO_LOTE
+     */
+    private static <T> List<T> copias(List<T> muestras, UnaryOperator<T> copiar) {
+        List<T> copias = new ArrayList<>(TAMANO_LOTE);
+        for (int i = 0; i < TAMANO_LOTE; i++) {
+            copias.add(copiar.apply(muestras.get(i % muestras.size())));
+        }
+        return copias;
+    }
+    
+    // Casos de cada DAO
+    
+    private static void registrarCliente(List<Caso> casos, GeneradorDatos generador) {
+        ClienteDAO dao = ClienteDAO.getInstance();
+        int filas = generador.getFilas(Cliente.class);
+        List<Cliente> muestras = muestras(filas, fila -> dao.findById(idCliente(fila)));
+        if (muestras.isEmpty()) {
+            return;
+        }
+        int paginas = Math.max(1, filas / TAMANO_PAGINA);
+        String e = "Cliente";
+        casos.add(new Caso(e, "findById", random -> dao.findById(idCliente(1 + random.nextInt(filas)))));
+        casos.add(new Caso(e, "findAll", random -> dao.findAll()));
+        casos.add(new Caso(e, "getPage", random -> dao.getPage(1 + random.nextInt(paginas), TAMANO_PAGINA)));
+        // Los filtros comparan el primer atributo con el de una muestra y recorren toda la tabla
+        casos.add(new Caso(e, "findByFilter", random -> {
+            Cliente muestra = elegir(muestras, random);
+            return dao.findByFilter(x -> Objects.equals(x.getDni(), muestra.getDni()));
+        }));
+        casos.add(new Caso(e, "countByFilter", random -> {
+            Cliente muestra = elegir(muestras, random);
+            return dao.countByFilter(x -> Objects.equals(x.getDni(), muestra.getDni()));
+        }));
+        casos.add(new Caso(e, "getFilteredPage", random -> {
+            Cliente muestra = elegir(muestras, random);
+            return dao.getFilteredPage(x -> Objects.equals(x.getDni(), muestra.getDni()), 1, TAMANO_PAGINA);
+        }));
+        casos.add(new Caso(e, "findByDni", random -> dao.findByDni(elegir(muestras, random).getDni())));
+        casos.add(new Caso(e, "findByDniContaining", random -> dao.findByDniContaining(elegir(muestras, random).getDni())));
+        casos.add(new Caso(e, "findByNombre", random -> dao.findByNombre(elegir(muestras, random).getNombre())));
+        casos.add(new Caso(e, "findByNombreContaining", random -> dao.findByNombreContaining(elegir(muestras, random).getNombre())));
+        casos.add(new Caso(e, "findByApellidos", random -> dao.findByApellidos(elegir(muestras, random).getApellidos())));
+        casos.add(new Caso(e, "findByApellidosContaining", random -> dao.findByApellidosContaining(elegir(muestras, random).getApellidos())));
+        casos.add(new Caso(e, "findByEmail", random -> dao.findByEmail(elegir(muestras, random).getEmail())));
+        casos.add(new Caso(e, "findByEmailContaining", random -> dao.findByEmailContaining(elegir(muestras, random).getEmail())));
+        casos.add(new Caso(e, "findByTelefono", random -> dao.findByTelefono(elegir(muestras, random).getTelefono())));
+        casos.add(new Caso(e, "findByTelefonoContaining", random -> dao.findByTelefonoContaining(elegir(muestras, random).getTelefono())));
+        casos.add(new Caso(e, "findByFecha_registro", random -> dao.findByFecha_registro(elegir(muestras, random).getFecha_registro())));
+        casos.add(new Caso(e, "findByFecha_registroContaining", random -> dao.findByFecha_registroContaining(elegir(muestras, random).getFecha_registro())));
+        casos.add(new Caso(e, "findByFecha_registroBetween", random -> {
+            String valor = elegir(muestras, random).getFecha_registro();
+            return dao.findByFecha_registroBetween(valor, valor);
+        }));
+        casos.add(new Caso(e, "findByActivo", random -> dao.findByActivo(elegir(muestras, random).getActivo())));
+        casos.add(new Caso(e, "update", random -> dao.update(elegir(muestras, random))));
+        casos.add(new Caso(e, "save", new Lote<Cliente>(
+                () -> copias(muestras, DAOBenchmark::copiarCliente),
+                dao::save,
+                x -> dao.delete(x.getId_cliente()))));
+        casos.add(new Caso(e, "delete", new Lote<Cliente>(
+                () -> {
+                    List<Cliente> nuevas = copias(muestras, DAOBenchmark::copiarCliente);
+                    dao.saveAll(nuevas);
+                    return nuevas;
+                },
+                x -> dao.delete(x.getId_cliente()),
+                x -> { })));
+    }
+    
+    private static Integer idCliente(int fila) {
+        return fila;
+    }
+    
+    /**
+     * Copia de una entidad con un identificador nuevo (mismos valores y referencias)
+     */
+    private static Cliente copiarCliente(Cliente original) {
+        Cliente copia = new Cliente();
+        copia.setId_cliente(SIGUIENTE_ID.getAndIncrement());
+        copia.setDni(original.getDni());
+        copia.setNombre(original.getNombre());
+        copia.setApellidos(original.getApellidos());
+        copia.setEmail(original.getEmail());
+        copia.setTelefono(original.getTelefono());
+        copia.setFecha_registro(original.getFecha_registro());
+        copia.setActivo(original.getActivo());
+        return copia;
+    }
+    
+    private static void registrarCuenta(List<Caso> casos, GeneradorDatos generador) {
+        CuentaDAO dao = CuentaDAO.getInstance();
+        int filas = generador.getFilas(Cuenta.class);
+        List<Cuenta> muestras = muestras(filas, fila -> dao.findById(idCuenta(fila)));
+        if (muestras.isEmpty()) {
+            return;
+        }
+        int paginas = Math.max(1, filas / TAMANO_PAGINA);
+        String e = "Cuenta";
+        casos.add(new Caso(e, "findById", random -> dao.findById(idCuenta(1 + random.nextInt(filas)))));
+        casos.add(new Caso(e, "findAll", random -> dao.findAll()));
+        casos.add(new Caso(e, "getPage", random -> dao.getPage(1 + random.nextInt(paginas), TAMANO_PAGINA)));
+        // Los filtros comparan el primer atributo con el de una muestra y recorren toda la tabla
+        casos.add(new Caso(e, "findByFilter", random -> {
+            Cuenta muestra = elegir(muestras, random);
+            return dao.findByFilter(x -> Objects.equals(x.getTipo_cuenta(), muestra.getTipo_cuenta()));
+        }));
+        casos.add(new Caso(e, "countByFilter", random -> {
+            Cuenta muestra = elegir(muestras, random);
+            return dao.countByFilter(x -> Objects.equals(x.getTipo_cuenta(), muestra.getTipo_cuenta()));
+        }));
+        casos.add(new Caso(e, "getFilteredPage", random -> {
+            Cuenta muestra = elegir(muestras, random);
+            return dao.getFilteredPage(x -> Objects.equals(x.getTipo_cuenta(), muestra.getTipo_cuenta()), 1, TAMANO_PAGINA);
+        }));
+        casos.add(new Caso(e, "findByTipo_cuenta", random -> dao.findByTipo_cuenta(elegir(muestras, random).getTipo_cuenta())));
+        casos.add(new Caso(e, "findByTipo_cuentaContaining", random -> dao.findByTipo_cuentaContaining(elegir(muestras, random).getTipo_cuenta())));
+        casos.add(new Caso(e, "findBySaldo", random -> dao.findBySaldo(elegir(muestras, random).getSaldo())));
+        casos.add(new Caso(e, "findBySaldoBetween", random -> {
+            double valor = elegir(muestras, random).getSaldo();
+            return dao.findBySaldoBetween(valor * 0.99, valor * 1.01);
+        }));
+        casos.add(new Caso(e, "findByFecha_apertura", random -> dao.findByFecha_apertura(elegir(muestras, random).getFecha_apertura())));
+        casos.add(new Caso(e, "findByFecha_aperturaContaining", random -> dao.findByFecha_aperturaContaining(elegir(muestras, random).getFecha_apertura())));
+        casos.add(new Caso(e, "findByFecha_aperturaBetween", random -> {
+            String valor = elegir(muestras, random).getFecha_apertura();
+            return dao.findByFecha_aperturaBetween(valor, valor);
+        }));
+        casos.add(new Caso(e, "findByActiva", random -> dao.findByActiva(elegir(muestras, random).getActiva())));
+        casos.add(new Caso(e, "findByCliente_titular", random -> {
+            Cliente referencia = elegir(muestras, random).getCliente_titular();
+            return referencia != null ? dao.findByCliente_titular(referencia.getId_cliente()) : null;
+        }));
+        casos.add(new Caso(e, "update", random -> dao.update(elegir(muestras, random))));
+        casos.add(new Caso(e, "save", new Lote<Cuenta>(
+                () -> copias(muestras, DAOBenchmark::copiarCuenta),
+                dao::save,
+                x -> dao.delete(x.getNumero_cuenta()))));
+        casos.add(new Caso(e, "delete", new Lote<Cuenta>(
+                () -> {
+                    List<Cuenta> nuevas = copias(muestras, DAOBenchmark::copiarCuenta);
+                    dao.saveAll(nuevas);
+                    return nuevas;
+                },
+                x -> dao.delete(x.getNumero_cuenta()),
+                x -> { })));
+    }
+    
+    private static String idCuenta(int fila) {
+        return "Cuenta_" + fila;
+    }
+    
+    /**
+     * Copia de una entidad con un identificador nuevo (mismos valores y referencias)
+     */
+    private static Cuenta copiarCuenta(Cuenta original) {
+        Cuenta copia = new Cuenta();
+        copia.setNumero_cuenta("Cuenta_bench_" + SIGUIENTE_ID.getAndIncrement());
+        copia.setTipo_cuenta(original.getTipo_cuenta());
+        copia.setSaldo(original.getSaldo());
+        copia.setFecha_apertura(original.getFecha_apertura());
+        copia.setActiva(original.getActiva());
+        copia.setCliente_titular(original.getCliente_titular());
+        return copia;
+    }
+    
+    private static void registrarTransaccion(List<Caso> casos, GeneradorDatos generador) {
+        TransaccionDAO dao = TransaccionDAO.getInstance();
+        int filas = generador.getFilas(Transaccion.class);
+        List<Transaccion> muestras = muestras(filas, fila -> dao.findById(idTransaccion(fila)));
+        if (muestras.isEmpty()) {
+            return;
+        }
+        int paginas = Math.max(1, filas / TAMANO_PAGINA);
+        String e = "Transaccion";
+        casos.add(new Caso(e, "findById", random -> dao.findById(idTransaccion(1 + random.nextInt(filas)))));
+        casos.add(new Caso(e, "findAll", random -> dao.findAll()));
+        casos.add(new Caso(e, "getPage", random -> dao.getPage(1 + random.nextInt(paginas), TAMANO_PAGINA)));
+        // Los filtros comparan el primer atributo con el de una muestra y recorren toda la tabla
+        casos.add(new Caso(e, "findByFilter", random -> {
+            Transaccion muestra = elegir(muestras, random);
+            return dao.findByFilter(x -> Objects.equals(x.getFecha_transaccion(), muestra.getFecha_transaccion()));
+        }));
+        casos.add(new Caso(e, "countByFilter", random -> {
+            Transaccion muestra = elegir(muestras, random);
+            return dao.countByFilter(x -> Objects.equals(x.getFecha_transaccion(), muestra.getFecha_transaccion()));
+        }));
+        casos.add(new Caso(e, "getFilteredPage", random -> {
+            Transaccion muestra = elegir(muestras, random);
+            return dao.getFilteredPage(x -> Objects.equals(x.getFecha_transaccion(), muestra.getFecha_transaccion()), 1, TAMANO_PAGINA);
+        }));
+        casos.add(new Caso(e, "findByFecha_transaccion", random -> dao.findByFecha_transaccion(elegir(muestras, random).getFecha_transaccion())));
+        casos.add(new Caso(e, "findByFecha_transaccionContaining", random -> dao.findByFecha_transaccionContaining(elegir(muestras, random).getFecha_transaccion())));
+        casos.add(new Caso(e, "findByFecha_transaccionBetween", random -> {
+            String valor = elegir(muestras, random).getFecha_transaccion();
+            return dao.findByFecha_transaccionBetween(valor, valor);
+        }));
+        casos.add(new Caso(e, "findByTipo_transaccion", random -> dao.findByTipo_transaccion(elegir(muestras, random).getTipo_transaccion())));
+        casos.add(new Caso(e, "findByTipo_transaccionContaining", random -> dao.findByTipo_transaccionContaining(elegir(muestras, random).getTipo_transaccion())));
+        casos.add(new Caso(e, "findByMonto", random -> dao.findByMonto(elegir(muestras, random).getMonto())));
+        casos.add(new Caso(e, "findByMontoBetween", random -> {
+            double valor = elegir(muestras, random).getMonto();
+            return dao.findByMontoBetween(valor * 0.99, valor * 1.01);
+        }));
+        casos.add(new Caso(e, "findByDescripcion", random -> dao.findByDescripcion(elegir(muestras, random).getDescripcion())));
+        casos.add(new Caso(e, "findByDescripcionContaining", random -> dao.findByDescripcionContaining(elegir(muestras, random).getDescripcion())));
+        casos.add(new Caso(e, "findByEstado", random -> dao.findByEstado(elegir(muestras, random).getEstado())));
+        casos.add(new Caso(e, "findByEstadoContaining", random -> dao.findByEstadoContaining(elegir(muestras, random).getEstado())));
+        casos.add(new Caso(e, "findByCuenta_origen", random -> {
+            Cuenta referencia = elegir(muestras, random).getCuenta_origen();
+            return referencia != null ? dao.findByCuenta_origen(referencia.getNumero_cuenta()) : null;
+        }));
+        casos.add(new Caso(e, "findByCuenta_destino", random -> {
+            Cuenta referencia = elegir(muestras, random).getCuenta_destino();
+            return referencia != null ? dao.findByCuenta_destino(referencia.getNumero_cuenta()) : null;
+        }));
+        casos.add(new Caso(e, "update", random -> dao.update(elegir(muestras, random))));
+        casos.add(new Caso(e, "save", new Lote<Transaccion>(
+                () -> copias(muestras, DAOBenchmark::copiarTransaccion),
+                dao::save,
+                x -> dao.delete(x.getId_transaccion()))));
+        casos.add(new Caso(e, "delete", new Lote<Transaccion>(
+                () -> {
+                    List<Transaccion> nuevas = copias(muestras, DAOBenchmark::copiarTransaccion);
+                    dao.saveAll(nuevas);
+                    return nuevas;
+                },
+                x -> dao.delete(x.getId_transaccion()),
+                x -> { })));
+    }
+    
+    private static Integer idTransaccion(int fila) {
+        return fila;
+    }
+    
+    /**
+     * Copia de una entidad con un identificador nuevo (mismos valores y referencias)
+     */
+    private static Transaccion copiarTransaccion(Transaccion original) {
+        Transaccion copia = new Transaccion();
+        copia.setId_transaccion(SIGUIENTE_ID.getAndIncrement());
+        copia.setFecha_transaccion(original.getFecha_transaccion());
+        copia.setTipo_transaccion(original.getTipo_transaccion());
+        copia.setMonto(original.getMonto());
+        copia.setDescripcion(original.getDescripcion());
+        copia.setEstado(original.getEstado());
+        copia.setCuenta_origen(original.getCuenta_origen());
+        copia.setCuenta_destino(original.getCuenta_destino());
+        return copia;
+    }
+    
+    private static void registrarEmpleado(List<Caso> casos, GeneradorDatos generador) {
+        EmpleadoDAO dao = EmpleadoDAO.getInstance();
+        int filas = generador.getFilas(Empleado.class);
+        List<Empleado> muestras = muestras(filas, fila -> dao.findById(idEmpleado(fila)));
+        if (muestras.isEmpty()) {
+            return;
+        }
+        int paginas = Math.max(1, filas / TAMANO_PAGINA);
+        String e = "Empleado";
+        casos.add(new Caso(e, "findById", random -> dao.findById(idEmpleado(1 + random.nextInt(filas)))));
+        casos.add(new Caso(e, "findAll", random -> dao.findAll()));
+        casos.add(new Caso(e, "getPage", random -> dao.getPage(1 + random.nextInt(paginas), TAMANO_PAGINA)));
+        // Los filtros comparan el primer atributo con el de una muestra y recorren toda la tabla
+        casos.add(new Caso(e, "findByFilter", random -> {
+            Empleado muestra = elegir(muestras, random);
+            return dao.findByFilter(x -> Objects.equals(x.getCodigo_empleado(), muestra.getCodigo_empleado()));
+        }));
+        casos.add(new Caso(e, "countByFilter", random -> {
+            Empleado muestra = elegir(muestras, random);
+            return dao.countByFilter(x -> Objects.equals(x.getCodigo_empleado(), muestra.getCodigo_empleado()));
+        }));
+        casos.add(new Caso(e, "getFilteredPage", random -> {
+            Empleado muestra = elegir(muestras, random);
+            return dao.getFilteredPage(x -> Objects.equals(x.getCodigo_empleado(), muestra.getCodigo_empleado()), 1, TAMANO_PAGINA);
+        }));
+        casos.add(new Caso(e, "findByCodigo_empleado", random -> dao.findByCodigo_empleado(elegir(muestras, random).getCodigo_empleado())));
+        casos.add(new Caso(e, "findByCodigo_empleadoContaining", random -> dao.findByCodigo_empleadoContaining(elegir(muestras, random).getCodigo_empleado())));
+        casos.add(new Caso(e, "findByNombre", random -> dao.findByNombre(elegir(muestras, random).getNombre())));
+        casos.add(new Caso(e, "findByNombreContaining", random -> dao.findByNombreContaining(elegir(muestras, random).getNombre())));
+        casos.add(new Caso(e, "findByPuesto", random -> dao.findByPuesto(elegir(muestras, random).getPuesto())));
+        casos.add(new Caso(e, "findByPuestoContaining", random -> dao.findByPuestoContaining(elegir(muestras, random).getPuesto())));
+        casos.add(new Caso(e, "findByDepartamento", random -> dao.findByDepartamento(elegir(muestras, random).getDepartamento())));
+        casos.add(new Caso(e, "findByDepartamentoContaining", random -> dao.findByDepartamentoContaining(elegir(muestras, random).getDepartamento())));
+        casos.add(new Caso(e, "findByEmail", random -> dao.findByEmail(elegir(muestras, random).getEmail())));
+        casos.add(new Caso(e, "findByEmailContaining", random -> dao.findByEmailContaining(elegir(muestras, random).getEmail())));
+        casos.add(new Caso(e, "findByActivo", random -> dao.findByActivo(elegir(muestras, random).getActivo())));
+        casos.add(new Caso(e, "update", random -> dao.update(elegir(muestras, random))));
+        casos.add(new Caso(e, "save", new Lote<Empleado>(
+                () -> copias(muestras, DAOBenchmark::copiarEmpleado),
+                dao::save,
+                x -> dao.delete(x.getId_empleado()))));
+        casos.add(new Caso(e, "delete", new Lote<Empleado>(
+                () -> {
+                    List<Empleado> nuevas = copias(muestras, DAOBenchmark::copiarEmpleado);
+                    dao.saveAll(nuevas);
+                    return nuevas;
+                },
+                x -> dao.delete(x.getId_empleado()),
+                x -> { })));
+    }
+    
+    private static Integer idEmpleado(int fila) {
+        return fila;
+    }
+    
+    /**
+     * Copia de una entidad con un identificador nuevo (mismos valores y referencias)
+     */
+    private static Empleado copiarEmpleado(Empleado original) {
+        Empleado copia = new Empleado();
+        copia.setId_empleado(SIGUIENTE_ID.getAndIncrement());
+        copia.setCodigo_empleado(original.getCodigo_empleado());
+        copia.setNombre(original.getNombre());
+        copia.setPuesto(original.getPuesto());
+        copia.setDepartamento(original.getDepartamento());
+        copia.setEmail(original.getEmail());
+        copia.setActivo(original.getActivo());
+        return copia;
+    }
+    
+    private static void registrarPrestamo(List<Caso> casos, GeneradorDatos generador) {
+        PrestamoDAO dao = PrestamoDAO.getInstance();
+        int filas = generador.getFilas(Prestamo.class);
+        List<Prestamo> muestras = muestras(filas, fila -> dao.findById(idPrestamo(fila)));
+        if (muestras.isEmpty()) {
+            return;
+        }
+        int paginas = Math.max(1, filas / TAMANO_PAGINA);
+        String e = "Prestamo";
+        casos.add(new Caso(e, "findById", random -> dao.findById(idPrestamo(1 + random.nextInt(filas)))));
+        casos.add(new Caso(e, "findAll", random -> dao.findAll()));
+        casos.add(new Caso(e, "getPage", random -> dao.getPage(1 + random.nextInt(paginas), TAMANO_PAGINA)));
+        // Los filtros comparan el primer atributo con el de una muestra y recorren toda la tabla
+        casos.add(new Caso(e, "findByFilter", random -> {
+            Prestamo muestra = elegir(muestras, random);
+            return dao.findByFilter(x -> Objects.equals(x.getMonto_solicitado(), muestra.getMonto_solicitado()));
+        }));
+        casos.add(new Caso(e, "countByFilter", random -> {
+            Prestamo muestra = elegir(muestras, random);
+            return dao.countByFilter(x -> Objects.equals(x.getMonto_solicitado(), muestra.getMonto_solicitado()));
+        }));
+        casos.add(new Caso(e, "getFilteredPage", random -> {
+            Prestamo muestra = elegir(muestras, random);
+            return dao.getFilteredPage(x -> Objects.equals(x.getMonto_solicitado(), muestra.getMonto_solicitado()), 1, TAMANO_PAGINA);
+        }));
+        casos.add(new Caso(e, "findByMonto_solicitado", random -> dao.findByMonto_solicitado(elegir(muestras, random).getMonto_solicitado())));
+        casos.add(new Caso(e, "findByMonto_solicitadoBetween", random -> {
+            double valor = elegir(muestras, random).getMonto_solicitado();
+            return dao.findByMonto_solicitadoBetween(valor * 0.99, valor * 1.01);
+        }));
+        casos.add(new Caso(e, "findByTasa_interes", random -> dao.findByTasa_interes(elegir(muestras, random).getTasa_interes())));
+        casos.add(new Caso(e, "findByTasa_interesBetween", random -> {
+            double valor = elegir(muestras, random).getTasa_interes();
+            return dao.findByTasa_interesBetween(valor * 0.99, valor * 1.01);
+        }));
+        casos.add(new Caso(e, "findByPlazo_meses", random -> dao.findByPlazo_meses(elegir(muestras, random).getPlazo_meses())));
+        casos.add(new Caso(e, "findByEstado_prestamo", random -> dao.findByEstado_prestamo(elegir(muestras, random).getEstado_prestamo())));
+        casos.add(new Caso(e, "findByEstado_prestamoContaining", random -> dao.findByEstado_prestamoContaining(elegir(muestras, random).getEstado_prestamo())));
+        casos.add(new Caso(e, "findByFecha_solicitud", random -> dao.findByFecha_solicitud(elegir(muestras, random).getFecha_solicitud())));
+        casos.add(new Caso(e, "findByFecha_solicitudContaining", random -> dao.findByFecha_solicitudContaining(elegir(muestras, random).getFecha_solicitud())));
+        casos.add(new Caso(e, "findByFecha_solicitudBetween", random -> {
+            String valor = elegir(muestras, random).getFecha_solicitud();
+            return dao.findByFecha_solicitudBetween(valor, valor);
+        }));
+        casos.add(new Caso(e, "findByFecha_aprobacion", random -> dao.findByFecha_aprobacion(elegir(muestras, random).getFecha_aprobacion())));
+        casos.add(new Caso(e, "findByFecha_aprobacionContaining", random -> dao.findByFecha_aprobacionContaining(elegir(muestras, random).getFecha_aprobacion())));
+        casos.add(new Caso(e, "findByFecha_aprobacionBetween", random -> {
+            String valor = elegir(muestras, random).getFecha_aprobacion();
+            return dao.findByFecha_aprobacionBetween(valor, valor);
+        }));
+        casos.add(new Caso(e, "findByCliente_solicitante", random -> {
+            Cliente referencia = elegir(muestras, random).getCliente_solicitante();
+            return referencia != null ? dao.findByCliente_solicitante(referencia.getId_cliente()) : null;
+        }));
+        casos.add(new Caso(e, "findByEmpleado_aprobador", random -> {
+            Empleado referencia = elegir(muestras, random).getEmpleado_aprobador();
+            return referencia != null ? dao.findByEmpleado_aprobador(referencia.getId_empleado()) : null;
+        }));
+        casos.add(new Caso(e, "update", random -> dao.update(elegir(muestras, random))));
+        casos.add(new Caso(e, "save", new Lote<Prestamo>(
+                () -> copias(muestras, DAOBenchmark::copiarPrestamo),
+                dao::save,
+                x -> dao.delete(x.getId_prestamo()))));
+        casos.add(new Caso(e, "delete", new Lote<Prestamo>(
+                () -> {
+                    List<Prestamo> nuevas = copias(muestras, DAOBenchmark::copiarPrestamo);
+                    dao.saveAll(nuevas);
+                    return nuevas;
+                },
+                x -> dao.delete(x.getId_prestamo()),
+                x -> { })));
+    }
+    
+    private static Integer idPrestamo(int fila) {
+        return fila;
+    }
+    
+    /**
+     * Copia de una entidad con un identificador nuevo (mismos valores y referencias)
+     */
+    private static Prestamo copiarPrestamo(Prestamo original) {
+        Prestamo copia = new Prestamo();
+        copia.setId_prestamo(SIGUIENTE_ID.getAndIncrement());
+        copia.setMonto_solicitado(original.getMonto_solicitado());
+        copia.setTasa_interes(original.getTasa_interes());
+        copia.setPlazo_meses(original.getPlazo_meses());
+        copia.setEstado_prestamo(original.getEstado_prestamo());
+        copia.setFecha_solicitud(original.getFecha_solicitud());
+        copia.setFecha_aprobacion(original.getFecha_aprobacion());
+        copia.setCliente_solicitante(original.getCliente_solicitante());
+        copia.setEmpleado_aprobador(original.getEmpleado_aprobador());
+        return copia;
+    }
+    
+    private static void registrarTarjetaCredito(List<Caso> casos, GeneradorDatos generador) {
+        TarjetaCreditoDAO dao = TarjetaCreditoDAO.getInstance();
+        int filas = generador.getFilas(TarjetaCredito.class);
+        List<TarjetaCredito> muestras = muestras(filas, fila -> dao.findById(idTarjetaCredito(fila)));
+        if (muestras.isEmpty()) {
+            return;
+        }
+        int paginas = Math.max(1, filas / TAMANO_PAGINA);
+        String e = "TarjetaCredito";
+        casos.add(new Caso(e, "findById", random -> dao.findById(idTarjetaCredito(1 + random.nextInt(filas)))));
+        casos.add(new Caso(e, "findAll", random -> dao.findAll()));
+        casos.add(new Caso(e, "getPage", random -> dao.getPage(1 + random.nextInt(paginas), TAMANO_PAGINA)));
+        // Los filtros comparan el primer atributo con el de una muestra y recorren toda la tabla
+        casos.add(new Caso(e, "findByFilter", random -> {
+            TarjetaCredito muestra = elegir(muestras, random);
+            return dao.findByFilter(x -> Objects.equals(x.getLimite_credito(), muestra.getLimite_credito()));
+        }));
+        casos.add(new Caso(e, "countByFilter", random -> {
+            TarjetaCredito muestra = elegir(muestras, random);
+            return dao.countByFilter(x -> Objects.equals(x.getLimite_credito(), muestra.getLimite_credito()));
+        }));
+        casos.add(new Caso(e, "getFilteredPage", random -> {
+            TarjetaCredito muestra = elegir(muestras, random);
+            return dao.getFilteredPage(x -> Objects.equals(x.getLimite_credito(), muestra.getLimite_credito()), 1, TAMANO_PAGINA);
+        }));
+        casos.add(new Caso(e, "findByLimite_credito", random -> dao.findByLimite_credito(elegir(muestras, random).getLimite_credito())));
+        casos.add(new Caso(e, "findByLimite_creditoBetween", random -> {
+            double valor = elegir(muestras, random).getLimite_credito();
+            return dao.findByLimite_creditoBetween(valor * 0.99, valor * 1.01);
+        }));
+        casos.add(new Caso(e, "findBySaldo_actual", random -> dao.findBySaldo_actual(elegir(muestras, random).getSaldo_actual())));
+        casos.add(new Caso(e, "findBySaldo_actualBetween", random -> {
+            double valor = elegir(muestras, random).getSaldo_actual();
+            return dao.findBySaldo_actualBetween(valor * 0.99, valor * 1.01);
+        }));
+        casos.add(new Caso(e, "findByFecha_vencimiento", random -> dao.findByFecha_vencimiento(elegir(muestras, random).getFecha_vencimiento())));
+        casos.add(new Caso(e, "findByFecha_vencimientoContaining", random -> dao.findByFecha_vencimientoContaining(elegir(muestras, random).getFecha_vencimiento())));
+        casos.add(new Caso(e, "findByFecha_vencimientoBetween", random -> {
+            String valor = elegir(muestras, random).getFecha_vencimiento();
+            return dao.findByFecha_vencimientoBetween(valor, valor);
+        }));
+        casos.add(new Caso(e, "findByActiva", random -> dao.findByActiva(elegir(muestras, random).getActiva())));
+        casos.add(new Caso(e, "findByCliente_propietario", random -> {
+            Cliente referencia = elegir(muestras, random).getCliente_propietario();
+            return referencia != null ? dao.findByCliente_propietario(referencia.getId_cliente()) : null;
+        }));
+        casos.add(new Caso(e, "update", random -> dao.update(elegir(muestras, random))));
+        casos.add(new Caso(e, "save", new Lote<TarjetaCredito>(
+                () -> copias(muestras, DAOBenchmark::copiarTarjetaCredito),
+                dao::save,
+                x -> dao.delete(x.getNumero_tarjeta()))));
+        casos.add(new Caso(e, "delete", new Lote<TarjetaCredito>(
+                () -> {
+                    List<TarjetaCredito> nuevas = copias(muestras, DAOBenchmark::copiarTarjetaCredito);
+                    dao.saveAll(nuevas);
+                    return nuevas;
+                },
+                x -> dao.delete(x.getNumero_tarjeta()),
+                x -> { })));
+    }
+    
+    private static String idTarjetaCredito(int fila) {
+        return "TarjetaCredito_" + fila;
+    }
+    
+    /**
+     * Copia de una entidad con un identificador nuevo (mismos valores y referencias)
+     */
+    private static TarjetaCredito copiarTarjetaCredito(TarjetaCredito original) {
+        TarjetaCredito copia = new TarjetaCredito();
+        copia.setNumero_tarjeta("TarjetaCredito_bench_" + SIGUIENTE_ID.getAndIncrement());
+        copia.setLimite_credito(original.getLimite_credito());
+        copia.setSaldo_actual(original.getSaldo_actual());
+        copia.setFecha_vencimiento(original.getFecha_vencimiento());
+        copia.setActiva(original.getActiva());
+        copia.setCliente_propietario(original.getCliente_propietario());
+        return copia;
+    }
+    
+    // Resultados en JSON
+    
+    private static void escribirJson(Path fichero, List<GeneradorDatos.Tamano> tamanos, Set<Integer> numHilos,
+                                     List<Resultado> resultados) throws IOException {
+        Path directorio = fichero.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            writer.write("  \"revision\": " + texto(System.getProperty("bench.revision", "")) + ",\n");
+            writer.write("  \"fecha\": " + texto(Instant.now().toString()) + ",\n");
+            writer.write("  \"java\": " + texto(System.getProperty("java.version")) + ",\n");
+            writer.write("  \"procesadores\": " + Runtime.getRuntime().availableProcessors() + ",\n");
+            writer.write("  \"configuracion\": {\"semilla\": " + SEMILLA + ", \"calentamiento\": " + CALENTAMIENTO
+                    + ", \"iteraciones\": " + ITERACIONES + ", \"duracionMs\": " + DURACION_MS
+                    + ", \"lote\": " + TAMANO_LOTE + ", \"tamanos\": " + texto(tamanos.toString())
+                    + ", \"hilos\": " + texto(numHilos.toString()) + "},\n");
+            writer.write("  \"resultados\": [");
+            for (int r = 0; r < resultados.size(); r++) {
+                Resultado resultado = resultados.get(r);
+                StringBuilder linea = new StringBuilder(r == 0 ? "\n" : ",\n");
+                linea.append("    {\"benchmark\": ").append(texto(resultado.caso.getNombre()))
+                        .append(", \"entidad\": ").append(texto(resultado.caso.entidad))
+                        .append(", \"metodo\": ").append(texto(resultado.caso.metodo))
+                        .append(", \"modo\": ").append(texto(resultado.caso.lote != null ? "lote" : "rendimiento"))
+                        .append(", \"tamano\": ").append(texto(resultado.tamano.name()))
+                        .append(", \"filas\": ").append(resultado.filas)
+                        .append(", \"hilos\": ").append(resultado.hilos)
+                        .append(", \"unidad\": \"ops/s\"")
+                        .append(", \"media\": ").append(resultado.getMedia())
+                        .append(", \"desviacion\": ").append(resultado.getDesviacion())
+                        .append(", \"usPorOperacion\": ").append(resultado.hilos * 1e6 / resultado.getMedia())
+                        .append(", \"iteraciones\": [");
+                for (int i = 0; i < resultado.iteraciones.length; i++) {
+                    linea.append(i > 0 ? ", " : "").append(resultado.iteraciones[i]);
+                }
+                linea.append("]}");
+                writer.write(linea.toString());
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+    
+    private static String texto(String valor) {
+        return "\"" + valor.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -55,6 +55,26 @@ public class AppConfig {
         properties.setProperty("display.paginationSize", "5");
         properties.setProperty("display.showColors", "true");
         properties.setProperty("display.dateFormat", "yyyy-MM-dd");
+        
+        // Configuración de persistencia ("journal": log de cambios + instantáneas, "snapshot": fichero completo)
+        properties.setProperty("persistence.mode", "journal");
+        properties.setProperty("persistence.snapshotInterval", "1000");
+        properties.setProperty("persistence.journalIdleSeconds", "30");
+        properties.setProperty("persistence.accessFlushSeconds", "5");
+        
+        // Carga de los DAOs: "eager" carga todos al iniciar, "lazy" cada uno en su primer acceso
+        properties.setProperty("dao.loadMode", "eager");
+        
+        // Configuración de sesiones (inactividad máxima y frecuencia de eliminación de las caducadas)
+        properties.setProperty("auth.sessionTimeoutMinutes", "30");
+        properties.setProperty("auth.sessionSweepSeconds", "60");
+        
+        // Configuración de contraseñas (coste del hash PBKDF2 y duración de la caché de verificaciones)
+        properties.setProperty("auth.hashIterations", "120000");
+        properties.setProperty("auth.credentialCacheSeconds", "300");
+        
+        // Configuración de cuestionarios (intervalo de guardado automático de los intentos en curso)
+        properties.setProperty("quiz.autosaveSeconds", "10");
     }
     
     /**
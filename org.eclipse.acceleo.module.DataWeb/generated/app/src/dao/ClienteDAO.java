@@ -3,14 +3,21 @@ package dao;
 import model.Cliente;
 // Importación de modelos relacionados
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Date;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -19,14 +26,31 @@ import java.util.stream.Collectors;
  */
 public class ClienteDAO implements IDAO<Cliente, Integer> {
     private static ClienteDAO instance;
-    private Map<Integer, Cliente> data;
-    private int nextId = 1; // Para generar IDs automáticamente
-    
+    private final Map<Integer, Cliente> data;
+    private final AtomicInteger nextId = new AtomicInteger(1); // Para generar IDs automáticamente
+    private final StripedLock locks = new StripedLock(); // Cerrojos por ID para las escrituras
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>(); // Versión de cada entidad modificada
+
+    // Índice primario ordenado por ID (paginación estable por cursor)
+    private final NavigableSet<Integer> primaryIndex = new ConcurrentSkipListSet<>();
+
+    // Índices secundarios por atributo (valor normalizado -> IDs de las entidades)
+    private final HashIndex<String, Integer> dniIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> nombreIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> apellidosIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> emailIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> telefonoIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> fecha_registroIndex = new HashIndex<>();
+    private final HashIndex<Boolean, Integer> activoIndex = new HashIndex<>();
+
+    // Índices ordenados para consultas por rango (fechas en días desde la época, importes en céntimos)
+    private final RangeIndex<Long, Integer> fecha_registroRangeIndex = new RangeIndex<>();
+
     /**
      * Constructor privado para aplicar el patrón Singleton
      */
     private ClienteDAO() {
-        data = new HashMap<>();
+        data = new ConcurrentHashMap<>();
         initData();
     }
     
@@ -34,7 +58,7 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
      * Obtiene la instancia única del DAO
      * @return Instancia del DAO de Cliente
      */
-    public static ClienteDAO getInstance() {
+    public static synchronized ClienteDAO getInstance() {
         if (instance == null) {
             instance = new ClienteDAO();
         }
@@ -79,11 +103,10 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
             
             // Guardamos la entidad en el mapa
             data.put(entity.getId_cliente(), entity);
+            indexEntity(entity);
             
             // Actualizamos el contador de ID para la próxima entidad
-            if (entity.getId_cliente() >= nextId) {
-                nextId = entity.getId_cliente() + 1;
-            }
+            nextId.accumulateAndGet(entity.getId_cliente() + 1, Math::max);
         }
         
         System.out.println("Se han creado " + numInstancias + " instancias de prueba para Cliente");
@@ -103,7 +126,7 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
      */
     @Override
 	public Cliente findById(Integer id) {
-	    return data.get(id);
+	    return id == null ? null : data.get(id);
 	}
     
     /**
@@ -123,15 +146,50 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
     @Override
     public Cliente save(Cliente entity) {
         // Si es una entidad nueva y tiene ID numérico, asignarle uno automáticamente
-        if (entity.getId_cliente() == 0) {
-            entity.setId_cliente(nextId++);
+        if (entity.getId_cliente() == null || entity.getId_cliente() == 0) {
+            entity.setId_cliente(nextId.getAndIncrement());
+        }
+        if (entity.getId_cliente() == null) {
+            throw new IllegalArgumentException("El identificador de Cliente no puede ser null");
         }
         
-        data.put(entity.getId_cliente(), entity);
+        synchronized (locks.forKey(entity.getId_cliente())) {
+            data.put(entity.getId_cliente(), entity);
+            indexEntity(entity);
+            versions.merge(entity.getId_cliente(), 1L, Long::sum);
+        }
+        // Un identificador explícito no debe volver a asignarse a una entidad nueva
+        nextId.accumulateAndGet(entity.getId_cliente() + 1, Math::max);
         System.out.println("Cliente guardado: " + entity);
         return entity;
     }
     
+    /**
+     * Guarda un lote de entidades sin mostrar cada una (pensado para cargas masivas)
+     * Las entidades que traen su identificador lo conservan y el contador de IDs se ajusta después
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    @Override
+    public int saveAll(Collection<Cliente> entities) {
+        for (Cliente entity : entities) {
+            if (entity.getId_cliente() == null || entity.getId_cliente() == 0) {
+                entity.setId_cliente(nextId.getAndIncrement());
+            }
+            if (entity.getId_cliente() == null) {
+                throw new IllegalArgumentException("El identificador de Cliente no puede ser null");
+            }
+            
+            synchronized (locks.forKey(entity.getId_cliente())) {
+                data.put(entity.getId_cliente(), entity);
+                indexEntity(entity);
+                versions.merge(entity.getId_cliente(), 1L, Long::sum);
+            }
+            nextId.accumulateAndGet(entity.getId_cliente() + 1, Math::max);
+        }
+        return entities.size();
+    }
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -139,8 +197,18 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
      */
     @Override
     public boolean update(Cliente entity) {
-        if (data.containsKey(entity.getId_cliente())) {
-            data.put(entity.getId_cliente(), entity);
+        boolean actualizado = false;
+        if (entity.getId_cliente() != null) {
+            synchronized (locks.forKey(entity.getId_cliente())) {
+                if (data.replace(entity.getId_cliente(), entity) != null) {
+                    indexEntity(entity);
+                    versions.merge(entity.getId_cliente(), 1L, Long::sum);
+                    actualizado = true;
+                }
+            }
+        }
+        // La salida por consola se hace sin el cerrojo de la entidad
+        if (actualizado) {
             System.out.println("Cliente actualizado: " + entity);
             return true;
         }
@@ -155,7 +223,17 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
      */
     @Override
 	public boolean delete(Integer id) {
-	    Cliente removed = data.remove(id);
+	    Cliente removed = null;
+	    if (id != null) {
+	        synchronized (locks.forKey(id)) {
+	            removed = data.remove(id);
+	            if (removed != null) {
+	                unindexEntity(id);
+	                // La versión se conserva para que una entidad vuelta a crear no repita una versión ya leída
+	                versions.merge(id, 1L, Long::sum);
+	            }
+	        }
+	    }
 	    if (removed != null) {
 	        System.out.println("Cliente con id " + id + " eliminado correctamente");
 	        return true;
@@ -170,7 +248,14 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
      */
     @Override
     public void deleteAll() {
-        data.clear();
+        // Se toman todos los cerrojos para no intercalarse con altas, cambios o compareAndUpdate en curso
+        locks.withAllStripes(() -> {
+            data.clear();
+            clearIndexes();
+            // Las versiones se invalidan en lugar de borrarse (ver delete)
+            versions.replaceAll((id, version) -> version + 1);
+            return null;
+        });
         System.out.println("Todas las entidades Cliente han sido eliminadas");
     }
     
@@ -205,7 +290,9 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
@@ -223,13 +310,80 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .filter(filter)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * El coste no depende de la posición de la página, a diferencia de getPage
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    @Override
+    public Page<Cliente> getPageAfter(String cursor, int pageSize) {
+        return getPageAfter(cursor, pageSize, false, null);
+    }
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor
+     * El cursor solo es válido para el mismo orden con el que se obtuvo
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @param descending true para recorrer las entidades por identificador descendente
+     * @param filter Predicado que deben cumplir las entidades (null para no filtrar)
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    public Page<Cliente> getPageAfter(String cursor, int pageSize, boolean descending, Predicate<Cliente> filter) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser mayor que 0");
+        }
+        
+        NavigableSet<Integer> ids = descending ? primaryIndex.descendingSet() : primaryIndex;
+        Integer after = parseCursor(cursor);
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        
+        List<Cliente> items = new ArrayList<>(pageSize);
+        Integer last = null;
+        for (Integer id : ids) {
+            Cliente entity = data.get(id);
+            if (entity == null || (filter != null && !filter.test(entity))) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeCursor(last));
+            }
+            items.add(entity);
+            last = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    /**
+     * Convierte un cursor de paginación en el identificador que representa
+     * @param cursor Cursor opaco
+     * @return Identificador o null si no hay cursor
+     */
+    private Integer parseCursor(String cursor) {
+        String value = Page.decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+    
     /**
      * Cuenta el número de entidades que cumplen un criterio
      * @param filter Predicado que define el criterio
@@ -241,89 +395,278 @@ public class ClienteDAO implements IDAO<Cliente, Integer> {
                 .count();
     }
     
+    // Control de concurrencia optimista
+    
+    /**
+     * Obtiene la versión actual de una entidad
+     * La versión se incrementa cada vez que la entidad se guarda, se actualiza o se elimina a través del DAO
+     * @param id Identificador de la entidad
+     * @return Versión de la entidad (0 si no se ha modificado desde la carga inicial)
+     */
+    public long getVersion(Integer id) {
+        return id == null ? 0L : versions.getOrDefault(id, 0L);
+    }
+    
+    /**
+     * Modifica una entidad solo si su versión no ha cambiado desde que se leyó (compare-and-set)
+     * La comprobación y el cambio se hacen con el cerrojo de esa única entidad, como en update,
+     * por lo que las operaciones que usan este método no mantienen cerrojos entre una entidad y otra
+     * @param id Identificador de la entidad
+     * @param expectedVersion Versión obtenida con getVersion antes de leer la entidad
+     * @param change Cambio a aplicar sobre la entidad guardada
+     * @return true si se aplicó el cambio, false si la entidad no existe o su versión ha cambiado
+     */
+    public boolean compareAndUpdate(Integer id, long expectedVersion, Consumer<Cliente> change) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (locks.forKey(id)) {
+            Cliente entity = data.get(id);
+            if (entity == null || versions.getOrDefault(id, 0L) != expectedVersion) {
+                return false;
+            }
+            change.accept(entity);
+            indexEntity(entity);
+            versions.merge(id, 1L, Long::sum);
+            return true;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción con los cerrojos de escritura de varias entidades adquiridos
+     * Permite validar versiones y aplicar cambios sobre varias entidades como una única operación
+     * @param <R> Tipo del resultado
+     * @param ids Identificadores de las entidades a bloquear
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     */
+    public <R> R withLocks(Collection<Integer> ids, Supplier<R> action) {
+        return locks.withAll(ids, action);
+    }
+    
+    // Mantenimiento de los índices secundarios
+    
+    /**
+     * Actualiza los índices secundarios con los valores actuales de una entidad
+     * @param entity Entidad a indexar
+     */
+    private void indexEntity(Cliente entity) {
+        Integer id = entity.getId_cliente();
+        primaryIndex.add(id);
+        dniIndex.put(id, HashIndex.normalize(entity.getDni()));
+        nombreIndex.put(id, HashIndex.normalize(entity.getNombre()));
+        apellidosIndex.put(id, HashIndex.normalize(entity.getApellidos()));
+        emailIndex.put(id, HashIndex.normalize(entity.getEmail()));
+        telefonoIndex.put(id, HashIndex.normalize(entity.getTelefono()));
+        fecha_registroIndex.put(id, HashIndex.normalize(entity.getFecha_registro()));
+        activoIndex.put(id, entity.getActivo());
+        fecha_registroRangeIndex.put(id, RangeIndex.toEpochDay(entity.getFecha_registro()));
+    }
+    
+    /**
+     * Elimina una entidad de los índices secundarios
+     * @param id Identificador de la entidad
+     */
+    private void unindexEntity(Integer id) {
+        primaryIndex.remove(id);
+        dniIndex.remove(id);
+        nombreIndex.remove(id);
+        apellidosIndex.remove(id);
+        emailIndex.remove(id);
+        telefonoIndex.remove(id);
+        fecha_registroIndex.remove(id);
+        activoIndex.remove(id);
+        fecha_registroRangeIndex.remove(id);
+    }
+    
+    /**
+     * Vacía todos los índices secundarios
+     */
+    private void clearIndexes() {
+        primaryIndex.clear();
+        dniIndex.clear();
+        nombreIndex.clear();
+        apellidosIndex.clear();
+        emailIndex.clear();
+        telefonoIndex.clear();
+        fecha_registroIndex.clear();
+        activoIndex.clear();
+        fecha_registroRangeIndex.clear();
+    }
+    
+    /**
+     * Obtiene las entidades correspondientes a un conjunto de IDs
+     * @param ids IDs obtenidos de un índice
+     * @return Lista con las entidades existentes
+     */
+    private List<Cliente> findByIds(Collection<Integer> ids) {
+        List<Cliente> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Cliente entity = data.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
     // Métodos específicos para búsquedas por atributos
     
     /**
-     * Busca entidades por el atributo dni
+     * Busca entidades por el atributo dni usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByDni(String value) {
-        return findByFilter(entity -> {
-            return entity.getDni() != null && 
-                   entity.getDni().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(dniIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo dni contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByDni
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cliente> findByDniContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getDni() != null && 
+            entity.getDni().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo nombre
+     * Busca entidades por el atributo nombre usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByNombre(String value) {
-        return findByFilter(entity -> {
-            return entity.getNombre() != null && 
-                   entity.getNombre().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(nombreIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo nombre contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByNombre
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cliente> findByNombreContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getNombre() != null && 
+            entity.getNombre().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo apellidos
+     * Busca entidades por el atributo apellidos usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByApellidos(String value) {
-        return findByFilter(entity -> {
-            return entity.getApellidos() != null && 
-                   entity.getApellidos().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(apellidosIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo apellidos contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByApellidos
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cliente> findByApellidosContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getApellidos() != null && 
+            entity.getApellidos().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo email
+     * Busca entidades por el atributo email usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByEmail(String value) {
-        return findByFilter(entity -> {
-            return entity.getEmail() != null && 
-                   entity.getEmail().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(emailIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo email contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByEmail
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cliente> findByEmailContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getEmail() != null && 
+            entity.getEmail().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo telefono
+     * Busca entidades por el atributo telefono usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByTelefono(String value) {
-        return findByFilter(entity -> {
-            return entity.getTelefono() != null && 
-                   entity.getTelefono().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(telefonoIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo telefono contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByTelefono
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cliente> findByTelefonoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getTelefono() != null && 
+            entity.getTelefono().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo fecha_registro
+     * Busca entidades por el atributo fecha_registro usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByFecha_registro(String value) {
-        return findByFilter(entity -> {
-            return entity.getFecha_registro() != null && 
-                   entity.getFecha_registro().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(fecha_registroIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo activo
+     * Busca entidades cuyo atributo fecha_registro contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByFecha_registro
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cliente> findByFecha_registroContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getFecha_registro() != null && 
+            entity.getFecha_registro().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_registro está entre dos fechas usando el índice ordenado
+     * @param from Fecha inicial con formato yyyy-MM-dd (incluida)
+     * @param to Fecha final con formato yyyy-MM-dd (incluida)
+     * @return Lista de entidades ordenada por fecha_registro
+     */
+    public List<Cliente> findByFecha_registroBetween(String from, String to) {
+        return findByIds(fecha_registroRangeIndex.range(RangeIndex.requireEpochDay(from), RangeIndex.requireEpochDay(to)));
+    }
+    
+    /**
+     * Busca entidades por el atributo activo usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cliente> findByActivo(boolean value) {
-        return findByFilter(entity -> {
-            return entity.getActivo() == value;
-        });
+        return findByIds(activoIndex.get(value));
     }
     
     
@@ -5,14 +5,21 @@ import model.Cuenta;
 import model.Cliente;
 import dao.ClienteDAO;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Date;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -21,14 +28,32 @@ import java.util.stream.Collectors;
  */
 public class CuentaDAO implements IDAO<Cuenta, String> {
     private static CuentaDAO instance;
-    private Map<String, Cuenta> data;
-    private int nextId = 1; // Para generar IDs automáticamente
-    
+    private final Map<String, Cuenta> data;
+    private final AtomicInteger nextId = new AtomicInteger(1); // Para generar IDs automáticamente
+    private final StripedLock locks = new StripedLock(); // Cerrojos por ID para las escrituras
+    private final Map<String, Long> versions = new ConcurrentHashMap<>(); // Versión de cada entidad modificada
+
+    // Índice primario ordenado por ID (paginación estable por cursor)
+    private final NavigableSet<String> primaryIndex = new ConcurrentSkipListSet<>();
+
+    // Índices secundarios por atributo (valor normalizado -> IDs de las entidades)
+    private final HashIndex<String, String> tipo_cuentaIndex = new HashIndex<>();
+    private final HashIndex<Double, String> saldoIndex = new HashIndex<>();
+    private final HashIndex<String, String> fecha_aperturaIndex = new HashIndex<>();
+    private final HashIndex<Boolean, String> activaIndex = new HashIndex<>();
+
+    // Índices ordenados para consultas por rango (fechas en días desde la época, importes en céntimos)
+    private final RangeIndex<Long, String> saldoRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, String> fecha_aperturaRangeIndex = new RangeIndex<>();
+
+    // Índices inversos de relaciones (ID de la entidad referenciada -> IDs de las entidades)
+    private final HashIndex<Integer, String> cliente_titularIndex = new HashIndex<>();
+
     /**
      * Constructor privado para aplicar el patrón Singleton
      */
     private CuentaDAO() {
-        data = new HashMap<>();
+        data = new ConcurrentHashMap<>();
         initData();
     }
     
@@ -36,7 +61,7 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
      * Obtiene la instancia única del DAO
      * @return Instancia del DAO de Cuenta
      */
-    public static CuentaDAO getInstance() {
+    public static synchronized CuentaDAO getInstance() {
         if (instance == null) {
             instance = new CuentaDAO();
         }
@@ -78,6 +103,7 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
             
             // Guardamos la entidad en el mapa
             data.put(entity.getNumero_cuenta(), entity);
+            indexEntity(entity);
             
             // Actualizamos el contador de ID para la próxima entidad
         }
@@ -109,6 +135,7 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
                 if (rand.nextDouble() < 0.8) {
                     Cliente related = cliente_titularList.get(rand.nextInt(cliente_titularList.size()));
                     entity.setCliente_titular(related);
+                    cliente_titularIndex.put(entity.getNumero_cuenta(), related.getId_cliente());
                 }
             }
             System.out.println("Relaciones cliente_titular configuradas correctamente");
@@ -125,7 +152,7 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
      */
     @Override
 	public Cuenta findById(String id) {
-	    return data.get(id);
+	    return id == null ? null : data.get(id);
 	}
     
     /**
@@ -145,12 +172,41 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
     @Override
     public Cuenta save(Cuenta entity) {
         // Si es una entidad nueva y tiene ID numérico, asignarle uno automáticamente
+        if (entity.getNumero_cuenta() == null) {
+            throw new IllegalArgumentException("El identificador de Cuenta no puede ser null");
+        }
         
-        data.put(entity.getNumero_cuenta(), entity);
+        synchronized (locks.forKey(entity.getNumero_cuenta())) {
+            data.put(entity.getNumero_cuenta(), entity);
+            indexEntity(entity);
+            versions.merge(entity.getNumero_cuenta(), 1L, Long::sum);
+        }
         System.out.println("Cuenta guardado: " + entity);
         return entity;
     }
     
+    /**
+     * Guarda un lote de entidades sin mostrar cada una (pensado para cargas masivas)
+     * Las entidades que traen su identificador lo conservan y el contador de IDs se ajusta después
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    @Override
+    public int saveAll(Collection<Cuenta> entities) {
+        for (Cuenta entity : entities) {
+            if (entity.getNumero_cuenta() == null) {
+                throw new IllegalArgumentException("El identificador de Cuenta no puede ser null");
+            }
+            
+            synchronized (locks.forKey(entity.getNumero_cuenta())) {
+                data.put(entity.getNumero_cuenta(), entity);
+                indexEntity(entity);
+                versions.merge(entity.getNumero_cuenta(), 1L, Long::sum);
+            }
+        }
+        return entities.size();
+    }
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -158,8 +214,18 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
      */
     @Override
     public boolean update(Cuenta entity) {
-        if (data.containsKey(entity.getNumero_cuenta())) {
-            data.put(entity.getNumero_cuenta(), entity);
+        boolean actualizado = false;
+        if (entity.getNumero_cuenta() != null) {
+            synchronized (locks.forKey(entity.getNumero_cuenta())) {
+                if (data.replace(entity.getNumero_cuenta(), entity) != null) {
+                    indexEntity(entity);
+                    versions.merge(entity.getNumero_cuenta(), 1L, Long::sum);
+                    actualizado = true;
+                }
+            }
+        }
+        // La salida por consola se hace sin el cerrojo de la entidad
+        if (actualizado) {
             System.out.println("Cuenta actualizado: " + entity);
             return true;
         }
@@ -174,7 +240,17 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
      */
     @Override
 	public boolean delete(String id) {
-	    Cuenta removed = data.remove(id);
+	    Cuenta removed = null;
+	    if (id != null) {
+	        synchronized (locks.forKey(id)) {
+	            removed = data.remove(id);
+	            if (removed != null) {
+	                unindexEntity(id);
+	                // La versión se conserva para que una entidad vuelta a crear no repita una versión ya leída
+	                versions.merge(id, 1L, Long::sum);
+	            }
+	        }
+	    }
 	    if (removed != null) {
 	        System.out.println("Cuenta con id " + id + " eliminado correctamente");
 	        return true;
@@ -189,7 +265,14 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
      */
     @Override
     public void deleteAll() {
-        data.clear();
+        // Se toman todos los cerrojos para no intercalarse con altas, cambios o compareAndUpdate en curso
+        locks.withAllStripes(() -> {
+            data.clear();
+            clearIndexes();
+            // Las versiones se invalidan en lugar de borrarse (ver delete)
+            versions.replaceAll((id, version) -> version + 1);
+            return null;
+        });
         System.out.println("Todas las entidades Cuenta han sido eliminadas");
     }
     
@@ -224,7 +307,9 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
@@ -242,13 +327,76 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .filter(filter)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * El coste no depende de la posición de la página, a diferencia de getPage
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    @Override
+    public Page<Cuenta> getPageAfter(String cursor, int pageSize) {
+        return getPageAfter(cursor, pageSize, false, null);
+    }
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor
+     * El cursor solo es válido para el mismo orden con el que se obtuvo
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @param descending true para recorrer las entidades por identificador descendente
+     * @param filter Predicado que deben cumplir las entidades (null para no filtrar)
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    public Page<Cuenta> getPageAfter(String cursor, int pageSize, boolean descending, Predicate<Cuenta> filter) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser mayor que 0");
+        }
+        
+        NavigableSet<String> ids = descending ? primaryIndex.descendingSet() : primaryIndex;
+        String after = parseCursor(cursor);
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        
+        List<Cuenta> items = new ArrayList<>(pageSize);
+        String last = null;
+        for (String id : ids) {
+            Cuenta entity = data.get(id);
+            if (entity == null || (filter != null && !filter.test(entity))) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeCursor(last));
+            }
+            items.add(entity);
+            last = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    /**
+     * Convierte un cursor de paginación en el identificador que representa
+     * @param cursor Cursor opaco
+     * @return Identificador o null si no hay cursor
+     */
+    private String parseCursor(String cursor) {
+        String value = Page.decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        return value;
+    }
+    
     /**
      * Cuenta el número de entidades que cumplen un criterio
      * @param filter Predicado que define el criterio
@@ -260,68 +408,214 @@ public class CuentaDAO implements IDAO<Cuenta, String> {
                 .count();
     }
     
+    // Control de concurrencia optimista
+    
+    /**
+     * Obtiene la versión actual de una entidad
+     * La versión se incrementa cada vez que la entidad se guarda, se actualiza o se elimina a través del DAO
+     * @param id Identificador de la entidad
+     * @return Versión de la entidad (0 si no se ha modificado desde la carga inicial)
+     */
+    public long getVersion(String id) {
+        return id == null ? 0L : versions.getOrDefault(id, 0L);
+    }
+    
+    /**
+     * Modifica una entidad solo si su versión no ha cambiado desde que se leyó (compare-and-set)
+     * La comprobación y el cambio se hacen con el cerrojo de esa única entidad, como en update,
+     * por lo que las operaciones que usan este método no mantienen cerrojos entre una entidad y otra
+     * @param id Identificador de la entidad
+     * @param expectedVersion Versión obtenida con getVersion antes de leer la entidad
+     * @param change Cambio a aplicar sobre la entidad guardada
+     * @return true si se aplicó el cambio, false si la entidad no existe o su versión ha cambiado
+     */
+    public boolean compareAndUpdate(String id, long expectedVersion, Consumer<Cuenta> change) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (locks.forKey(id)) {
+            Cuenta entity = data.get(id);
+            if (entity == null || versions.getOrDefault(id, 0L) != expectedVersion) {
+                return false;
+            }
+            change.accept(entity);
+            indexEntity(entity);
+            versions.merge(id, 1L, Long::sum);
+            return true;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción con los cerrojos de escritura de varias entidades adquiridos
+     * Permite validar versiones y aplicar cambios sobre varias entidades como una única operación
+     * @param <R> Tipo del resultado
+     * @param ids Identificadores de las entidades a bloquear
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     */
+    public <R> R withLocks(Collection<String> ids, Supplier<R> action) {
+        return locks.withAll(ids, action);
+    }
+    
+    // Mantenimiento de los índices secundarios
+    
+    /**
+     * Actualiza los índices secundarios con los valores actuales de una entidad
+     * @param entity Entidad a indexar
+     */
+    private void indexEntity(Cuenta entity) {
+        String id = entity.getNumero_cuenta();
+        primaryIndex.add(id);
+        tipo_cuentaIndex.put(id, HashIndex.normalize(entity.getTipo_cuenta()));
+        saldoIndex.put(id, entity.getSaldo());
+        fecha_aperturaIndex.put(id, HashIndex.normalize(entity.getFecha_apertura()));
+        activaIndex.put(id, entity.getActiva());
+        saldoRangeIndex.put(id, RangeIndex.toCents(entity.getSaldo()));
+        fecha_aperturaRangeIndex.put(id, RangeIndex.toEpochDay(entity.getFecha_apertura()));
+        cliente_titularIndex.put(id, entity.getCliente_titular() != null ? entity.getCliente_titular().getId_cliente() : null);
+    }
+    
+    /**
+     * Elimina una entidad de los índices secundarios
+     * @param id Identificador de la entidad
+     */
+    private void unindexEntity(String id) {
+        primaryIndex.remove(id);
+        tipo_cuentaIndex.remove(id);
+        saldoIndex.remove(id);
+        fecha_aperturaIndex.remove(id);
+        activaIndex.remove(id);
+        saldoRangeIndex.remove(id);
+        fecha_aperturaRangeIndex.remove(id);
+        cliente_titularIndex.remove(id);
+    }
+    
+    /**
+     * Vacía todos los índices secundarios
+     */
+    private void clearIndexes() {
+        primaryIndex.clear();
+        tipo_cuentaIndex.clear();
+        saldoIndex.clear();
+        fecha_aperturaIndex.clear();
+        activaIndex.clear();
+        saldoRangeIndex.clear();
+        fecha_aperturaRangeIndex.clear();
+        cliente_titularIndex.clear();
+    }
+    
+    /**
+     * Obtiene las entidades correspondientes a un conjunto de IDs
+     * @param ids IDs obtenidos de un índice
+     * @return Lista con las entidades existentes
+     */
+    private List<Cuenta> findByIds(Collection<String> ids) {
+        List<Cuenta> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Cuenta entity = data.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
     // Métodos específicos para búsquedas por atributos
     
     /**
-     * Busca entidades por el atributo tipo_cuenta
+     * Busca entidades por el atributo tipo_cuenta usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cuenta> findByTipo_cuenta(String value) {
-        return findByFilter(entity -> {
-            return entity.getTipo_cuenta() != null && 
-                   entity.getTipo_cuenta().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(tipo_cuentaIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo saldo
+     * Busca entidades cuyo atributo tipo_cuenta contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByTipo_cuenta
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cuenta> findByTipo_cuentaContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getTipo_cuenta() != null && 
+            entity.getTipo_cuenta().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades por el atributo saldo usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cuenta> findBySaldo(double value) {
-        return findByFilter(entity -> {
-            return entity.getSaldo() == value;
-        });
+        return findByIds(saldoIndex.get(value));
     }
     
     /**
-     * Busca entidades por el atributo fecha_apertura
+     * Busca entidades cuyo atributo saldo está entre dos importes usando el índice ordenado
+     * @param min Importe mínimo (incluido)
+     * @param max Importe máximo (incluido)
+     * @return Lista de entidades ordenada por saldo
+     */
+    public List<Cuenta> findBySaldoBetween(double min, double max) {
+        return findByIds(saldoRangeIndex.range(RangeIndex.toCents(min), RangeIndex.toCents(max)));
+    }
+    
+    /**
+     * Busca entidades por el atributo fecha_apertura usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cuenta> findByFecha_apertura(String value) {
-        return findByFilter(entity -> {
-            return entity.getFecha_apertura() != null && 
-                   entity.getFecha_apertura().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(fecha_aperturaIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo activa
+     * Busca entidades cuyo atributo fecha_apertura contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByFecha_apertura
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Cuenta> findByFecha_aperturaContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getFecha_apertura() != null && 
+            entity.getFecha_apertura().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_apertura está entre dos fechas usando el índice ordenado
+     * @param from Fecha inicial con formato yyyy-MM-dd (incluida)
+     * @param to Fecha final con formato yyyy-MM-dd (incluida)
+     * @return Lista de entidades ordenada por fecha_apertura
+     */
+    public List<Cuenta> findByFecha_aperturaBetween(String from, String to) {
+        return findByIds(fecha_aperturaRangeIndex.range(RangeIndex.requireEpochDay(from), RangeIndex.requireEpochDay(to)));
+    }
+    
+    /**
+     * Busca entidades por el atributo activa usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Cuenta> findByActiva(boolean value) {
-        return findByFilter(entity -> {
-            return entity.getActiva() == value;
-        });
+        return findByIds(activaIndex.get(value));
     }
     
     
     // Métodos para búsqueda por relaciones
     
     /**
-     * Busca entidades por su relación con Cliente
-     * @param clienteId ID de la entidad Cliente relacionada
+     * Busca entidades por su relación con Cliente usando el índice inverso
+     * @param refId ID de la entidad Cliente relacionada
      * @return Lista de entidades relacionadas con la Cliente especificada
      */
 	public List<Cuenta> findByCliente_titular(Integer refId) {
-	    return findByFilter(entity -> 
-	        entity.getCliente_titular() != null && 
-	        entity.getCliente_titular().getId_cliente() != null && 
-	        entity.getCliente_titular().getId_cliente() == refId
-	    );
+	    return findByIds(cliente_titularIndex.get(refId));
 	}
     
     
@@ -1,8 +1,22 @@
 package dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import config.AppConfig;
 import model.Cliente;
 import model.Cuenta;
 import model.Transaccion;
@@ -12,56 +26,171 @@ import model.TarjetaCredito;
 
 /**
  * Factoría para la creación y obtención de DAOs
+ * La inicialización sigue el grafo de referencias entre entidades: los DAOs se cargan en paralelo
+ * y las relaciones de cada entidad se configuran en cuanto están cargados su DAO y los de las
+ * entidades a las que referencia. Se mide el tiempo de cada fase.
+ * Con dao.loadMode=lazy cada DAO se crea y se carga solo en su primer acceso (junto con los DAOs
+ * a los que referencia), de modo que una sesión que solo usa unas entidades no carga las demás
  * Implementa el patrón Factory y Singleton
  */
 public class DAOFactory {
-    private static Map<Class<?>, IDAO<?, ?>> daoMap = new HashMap<>();
-    private static boolean initialized = false;
-    private static boolean initializing = false;
+    private static final Map<Class<?>, IDAO<?, ?>> daoMap = new ConcurrentHashMap<>();
+    private static volatile boolean initialized = false;
+    private static volatile boolean initializing = false;
+    
+    // Duración de cada fase de la última inicialización (fase -> milisegundos), en orden de finalización
+    private static final Map<String, Long> tiemposFases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final int NUM_DAOS = 6;
+    
+    // Modo de carga: todos los DAOs al inicializar ("eager") o cada uno en su primer acceso ("lazy")
+    private static final boolean cargaPerezosa =
+            "lazy".equalsIgnoreCase(AppConfig.getInstance().getProperty("dao.loadMode", "eager"));
+    
+    // Contenedores para la carga bajo demanda (clase de entidad -> contenedor); el mapa no cambia tras crearse
+    private static final Map<Class<?>, Contenedor<?>> contenedores = crearContenedores();
+    
+    // Cerrojo único de la carga bajo demanda: configurar las relaciones de un DAO carga los que referencia,
+    // y con un cerrojo por contenedor dos hilos que cargan entidades con referencias cruzadas se bloquearían
+    private static final Object cargaBajoDemanda = new Object();
+    
+    // Carga inicial: DAOs ya creados cuyas relaciones aún se están configurando (no publicados en daoMap),
+    // visibles solo para los hilos de la inicialización, que los necesitan para configurar las relaciones
+    private static final Map<Class<?>, IDAO<?, ?>> daosEnCarga = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> hiloDeCarga = ThreadLocal.withInitial(() -> false);
     
     /**
      * Inicializa todos los DAOs del sistema
+     * En modo de carga bajo demanda no carga ninguno: cada DAO se carga en su primer acceso
      */
     public static synchronized void initialize() {
+        if (cargaPerezosa) {
+            if (!initialized) {
+                initialized = true;
+                System.out.println("DAOFactory en modo de carga bajo demanda");
+            }
+            return;
+        }
         if (!initialized && !initializing) {
             initializing = true;
             System.out.println("Inicializando DAOFactory...");
+            long inicio = System.nanoTime();
+            tiemposFases.clear();
             
-            // Primero registramos todos los DAOs
-            daoMap.put(Cliente.class, ClienteDAO.getInstance());
-            daoMap.put(Cuenta.class, CuentaDAO.getInstance());
-            daoMap.put(Transaccion.class, TransaccionDAO.getInstance());
-            daoMap.put(Empleado.class, EmpleadoDAO.getInstance());
-            daoMap.put(Prestamo.class, PrestamoDAO.getInstance());
-            daoMap.put(TarjetaCredito.class, TarjetaCreditoDAO.getInstance());
-            
-            // Marcamos como inicializado antes de configurar relaciones
-            initialized = true;
+            int hilos = Math.max(1, Math.min(NUM_DAOS, Runtime.getRuntime().availableProcessors()));
+            AtomicInteger numero = new AtomicInteger(1);
+            ExecutorService executor = Executors.newFixedThreadPool(hilos, r -> {
+                Thread thread = new Thread(() -> {
+                    hiloDeCarga.set(true);
+                    r.run();
+                }, "dao-init-" + numero.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                // Primero se cargan los DAOs, que no dependen unos de otros
+                CompletableFuture<ClienteDAO> cliente = cargar(Cliente.class, ClienteDAO::getInstance, executor);
+                CompletableFuture<CuentaDAO> cuenta = cargar(Cuenta.class, CuentaDAO::getInstance, executor);
+                CompletableFuture<TransaccionDAO> transaccion = cargar(Transaccion.class, TransaccionDAO::getInstance, executor);
+                CompletableFuture<EmpleadoDAO> empleado = cargar(Empleado.class, EmpleadoDAO::getInstance, executor);
+                CompletableFuture<PrestamoDAO> prestamo = cargar(Prestamo.class, PrestamoDAO::getInstance, executor);
+                CompletableFuture<TarjetaCreditoDAO> tarjetaCredito = cargar(TarjetaCredito.class, TarjetaCreditoDAO::getInstance, executor);
+                
+                // Las relaciones de cada entidad esperan solo a los DAOs que intervienen en ellas,
+                // y cada DAO se publica cuando sus relaciones están configuradas (o nada más cargarse si no tiene)
+                List<CompletableFuture<?>> fases = new ArrayList<>();
+                fases.add(cliente.thenAccept(dao -> publicar(Cliente.class, dao)));
+                fases.add(empleado.thenAccept(dao -> publicar(Empleado.class, dao)));
+                fases.add(relacionar(Cuenta.class, cuenta, CuentaDAO::setupRelationships, executor, cliente));
+                fases.add(relacionar(Transaccion.class, transaccion, TransaccionDAO::setupRelationships, executor, cuenta));
+                fases.add(relacionar(Prestamo.class, prestamo, PrestamoDAO::setupRelationships, executor, cliente, empleado));
+                fases.add(relacionar(TarjetaCredito.class, tarjetaCredito, TarjetaCreditoDAO::setupRelationships, executor, cliente));
+                
+                CompletableFuture.allOf(fases.toArray(new CompletableFuture<?>[0])).join();
+                initialized = true;
+            } catch (CompletionException e) {
+                Throwable causa = e.getCause();
+                throw causa instanceof RuntimeException ? (RuntimeException) causa : e;
+            } finally {
+                executor.shutdown();
+                daosEnCarga.clear();
+                initializing = false;
+            }
             
-            // Después configuramos las relaciones entre entidades
-            ((CuentaDAO) daoMap.get(Cuenta.class)).setupRelationships();
-            ((TransaccionDAO) daoMap.get(Transaccion.class)).setupRelationships();
-            ((PrestamoDAO) daoMap.get(Prestamo.class)).setupRelationships();
-            ((TarjetaCreditoDAO) daoMap.get(TarjetaCredito.class)).setupRelationships();
-            
-            initializing = false;
+            tiemposFases.put("total", (System.nanoTime() - inicio) / 1_000_000);
             System.out.println("DAOFactory inicializado correctamente");
+            for (Map.Entry<String, Long> fase : getTiemposInicializacion().entrySet()) {
+                System.out.println("  " + fase.getKey() + ": " + fase.getValue() + " ms");
+            }
+        }
+    }
+    
+    /**
+     * Carga un DAO en el executor; no se publica hasta que sus relaciones están configuradas (ver publicar)
+     */
+    private static <D extends IDAO<?, ?>> CompletableFuture<D> cargar(Class<?> entityClass, Supplier<D> creador, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            long inicio = System.nanoTime();
+            D dao = creador.get();
+            daosEnCarga.put(entityClass, dao);
+            tiemposFases.put("carga " + entityClass.getSimpleName(), (System.nanoTime() - inicio) / 1_000_000);
+            return dao;
+        }, executor);
+    }
+    
+    /**
+     * Configura las relaciones de una entidad cuando han terminado su carga y las de las entidades
+     * a las que referencia, y después publica su DAO
+     */
+    private static <D extends IDAO<?, ?>> CompletableFuture<Void> relacionar(Class<?> entityClass, CompletableFuture<D> carga,
+                                                                            Consumer<D> configuracion, Executor executor,
+                                                                            CompletableFuture<?>... dependencias) {
+        return CompletableFuture.allOf(dependencias).thenCombineAsync(carga, (ignorado, dao) -> {
+            long inicio = System.nanoTime();
+            configuracion.accept(dao);
+            tiemposFases.put("relaciones " + entityClass.getSimpleName(), (System.nanoTime() - inicio) / 1_000_000);
+            publicar(entityClass, dao);
+            return null;
+        }, executor);
+    }
+    
+    /**
+     * Publica en daoMap un DAO de la carga inicial cuyas relaciones ya están configuradas
+     */
+    private static void publicar(Class<?> entityClass, IDAO<?, ?> dao) {
+        daoMap.put(entityClass, dao);
+        daosEnCarga.remove(entityClass);
+    }
+    
+    /**
+     * Obtiene la duración de cada fase de la última inicialización
+     * @return Mapa ordenado (fase -> milisegundos): cargas, relaciones y "total"
+     */
+    public static Map<String, Long> getTiemposInicializacion() {
+        synchronized (tiemposFases) {
+            return new LinkedHashMap<>(tiemposFases);
         }
     }
     
     /**
      * Obtiene el DAO para una clase de entidad específica
+     * Cada DAO se publica cuando sus relaciones ya están configuradas; solo los hilos de la inicialización
+     * obtienen los DAOs ya cargados pero aún sin publicar, que necesitan para configurar las relaciones
      * @param <T> Tipo de entidad
      * @param entityClass Clase de la entidad
      * @return DAO correspondiente a la entidad
      */
     @SuppressWarnings("unchecked")
     public static <T> IDAO<T, ?> getDAO(Class<T> entityClass) {
-        if (!initialized && !initializing) {
+        IDAO<?, ?> dao = daoMap.get(entityClass);
+        if (dao == null && hiloDeCarga.get()) {
+            dao = daosEnCarga.get(entityClass);
+        } else if (dao == null && cargaPerezosa) {
+            Contenedor<?> contenedor = contenedores.get(entityClass);
+            dao = contenedor != null ? contenedor.obtener() : null;
+        } else if (dao == null && !initialized) {
             initialize();
+            dao = daoMap.get(entityClass);
         }
-        
-        IDAO<?, ?> dao = daoMap.get(entityClass);
         if (dao == null) {
             throw new IllegalArgumentException("No se ha encontrado un DAO para la clase " + entityClass.getName());
         }
@@ -74,13 +203,35 @@ public class DAOFactory {
      * @return Colección con todos los DAOs
      */
     public static Collection<IDAO<?, ?>> getAllDAOs() {
-        if (!initialized && !initializing) {
+        if (cargaPerezosa) {
+            for (Contenedor<?> contenedor : contenedores.values()) {
+                contenedor.obtener();
+            }
+        } else if (!initialized) {
             initialize();
         }
         
         return daoMap.values();
     }
     
+    /**
+     * Obtiene los DAOs ya cargados, sin cargar ninguno
+     * En modo de carga bajo demanda solo incluye los de las entidades que ya se han usado
+     * @return Colección con los DAOs cargados
+     */
+    public static Collection<IDAO<?, ?>> getDAOsCargados() {
+        return daoMap.values();
+    }
+    
+    /**
+     * Indica si un DAO ya está cargado (sin cargarlo)
+     * @param entityClass Clase de la entidad
+     * @return true si el DAO de la entidad ya está disponible
+     */
+    public static boolean isCargado(Class<?> entityClass) {
+        return daoMap.containsKey(entityClass);
+    }
+    
     /**
      * Obtiene directamente un DAO sin verificar inicialización (para uso interno)
      * @param <T> Tipo de entidad
@@ -104,7 +255,80 @@ public class DAOFactory {
     public static synchronized void reset() {
         System.out.println("Reiniciando DAOFactory...");
         daoMap.clear();
+        daosEnCarga.clear();
+        for (Contenedor<?> contenedor : contenedores.values()) {
+            contenedor.olvidar();
+        }
         initialized = false;
         initializing = false;
     }
+    
+    private static Map<Class<?>, Contenedor<?>> crearContenedores() {
+        Map<Class<?>, Contenedor<?>> mapa = new HashMap<>();
+        mapa.put(Cliente.class, new Contenedor<>(Cliente.class, ClienteDAO::getInstance, null));
+        mapa.put(Cuenta.class, new Contenedor<>(Cuenta.class, CuentaDAO::getInstance, CuentaDAO::setupRelationships));
+        mapa.put(Transaccion.class, new Contenedor<>(Transaccion.class, TransaccionDAO::getInstance, TransaccionDAO::setupRelationships));
+        mapa.put(Empleado.class, new Contenedor<>(Empleado.class, EmpleadoDAO::getInstance, null));
+        mapa.put(Prestamo.class, new Contenedor<>(Prestamo.class, PrestamoDAO::getInstance, PrestamoDAO::setupRelationships));
+        mapa.put(TarjetaCredito.class, new Contenedor<>(TarjetaCredito.class, TarjetaCreditoDAO::getInstance, TarjetaCreditoDAO::setupRelationships));
+        return Collections.unmodifiableMap(mapa);
+    }
+    
+    /**
+     * Contenedor de un DAO para la carga bajo demanda
+     * Crea el DAO y configura sus relaciones (lo que carga también los DAOs referenciados) en el
+     * primer acceso; a partir de entonces el DAO se lee del registro sin bloqueos.
+     * Todas las cargas comparten el cerrojo cargaBajoDemanda, que es reentrante para el hilo que carga
+     */
+    private static final class Contenedor<D extends IDAO<?, ?>> {
+        private final Class<?> entityClass;
+        private final Supplier<D> creador;
+        private final Consumer<D> relaciones; // null si la entidad no referencia a otras
+        private volatile D dao;               // Se publica cuando sus relaciones ya están configuradas
+        private D enCarga;                    // DAO creado cuyas relaciones se están configurando
+        
+        Contenedor(Class<?> entityClass, Supplier<D> creador, Consumer<D> relaciones) {
+            this.entityClass = entityClass;
+            this.creador = creador;
+            this.relaciones = relaciones;
+        }
+        
+        IDAO<?, ?> obtener() {
+            D listo = dao;
+            if (listo != null) {
+                return listo;
+            }
+            synchronized (cargaBajoDemanda) {
+                if (dao != null) {
+                    return dao;
+                }
+                // Referencia circular: el mismo hilo vuelve a pedir el DAO mientras configura sus relaciones
+                if (enCarga != null) {
+                    return enCarga;
+                }
+                String nombre = entityClass.getSimpleName();
+                long inicio = System.nanoTime();
+                try {
+                    enCarga = creador.get();
+                    tiemposFases.put("carga " + nombre, (System.nanoTime() - inicio) / 1_000_000);
+                    if (relaciones != null) {
+                        inicio = System.nanoTime();
+                        relaciones.accept(enCarga);
+                        tiemposFases.put("relaciones " + nombre, (System.nanoTime() - inicio) / 1_000_000);
+                    }
+                    daoMap.put(entityClass, enCarga);
+                    dao = enCarga;
+                } finally {
+                    enCarga = null;
+                }
+                return dao;
+            }
+        }
+        
+        void olvidar() {
+            synchronized (cargaBajoDemanda) {
+                dao = null;
+            }
+        }
+    }
 }
@@ -3,14 +3,21 @@ package dao;
 import model.Empleado;
 // Importación de modelos relacionados
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Date;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -19,14 +26,27 @@ import java.util.stream.Collectors;
  */
 public class EmpleadoDAO implements IDAO<Empleado, Integer> {
     private static EmpleadoDAO instance;
-    private Map<Integer, Empleado> data;
-    private int nextId = 1; // Para generar IDs automáticamente
-    
+    private final Map<Integer, Empleado> data;
+    private final AtomicInteger nextId = new AtomicInteger(1); // Para generar IDs automáticamente
+    private final StripedLock locks = new StripedLock(); // Cerrojos por ID para las escrituras
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>(); // Versión de cada entidad modificada
+
+    // Índice primario ordenado por ID (paginación estable por cursor)
+    private final NavigableSet<Integer> primaryIndex = new ConcurrentSkipListSet<>();
+
+    // Índices secundarios por atributo (valor normalizado -> IDs de las entidades)
+    private final HashIndex<String, Integer> codigo_empleadoIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> nombreIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> puestoIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> departamentoIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> emailIndex = new HashIndex<>();
+    private final HashIndex<Boolean, Integer> activoIndex = new HashIndex<>();
+
     /**
      * Constructor privado para aplicar el patrón Singleton
      */
     private EmpleadoDAO() {
-        data = new HashMap<>();
+        data = new ConcurrentHashMap<>();
         initData();
     }
     
@@ -34,7 +54,7 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
      * Obtiene la instancia única del DAO
      * @return Instancia del DAO de Empleado
      */
-    public static EmpleadoDAO getInstance() {
+    public static synchronized EmpleadoDAO getInstance() {
         if (instance == null) {
             instance = new EmpleadoDAO();
         }
@@ -75,11 +95,10 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
             
             // Guardamos la entidad en el mapa
             data.put(entity.getId_empleado(), entity);
+            indexEntity(entity);
             
             // Actualizamos el contador de ID para la próxima entidad
-            if (entity.getId_empleado() >= nextId) {
-                nextId = entity.getId_empleado() + 1;
-            }
+            nextId.accumulateAndGet(entity.getId_empleado() + 1, Math::max);
         }
         
         System.out.println("Se han creado " + numInstancias + " instancias de prueba para Empleado");
@@ -99,7 +118,7 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
      */
     @Override
 	public Empleado findById(Integer id) {
-	    return data.get(id);
+	    return id == null ? null : data.get(id);
 	}
     
     /**
@@ -119,15 +138,50 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
     @Override
     public Empleado save(Empleado entity) {
         // Si es una entidad nueva y tiene ID numérico, asignarle uno automáticamente
-        if (entity.getId_empleado() == 0) {
-            entity.setId_empleado(nextId++);
+        if (entity.getId_empleado() == null || entity.getId_empleado() == 0) {
+            entity.setId_empleado(nextId.getAndIncrement());
+        }
+        if (entity.getId_empleado() == null) {
+            throw new IllegalArgumentException("El identificador de Empleado no puede ser null");
         }
         
-        data.put(entity.getId_empleado(), entity);
+        synchronized (locks.forKey(entity.getId_empleado())) {
+            data.put(entity.getId_empleado(), entity);
+            indexEntity(entity);
+            versions.merge(entity.getId_empleado(), 1L, Long::sum);
+        }
+        // Un identificador explícito no debe volver a asignarse a una entidad nueva
+        nextId.accumulateAndGet(entity.getId_empleado() + 1, Math::max);
         System.out.println("Empleado guardado: " + entity);
         return entity;
     }
     
+    /**
+     * Guarda un lote de entidades sin mostrar cada una (pensado para cargas masivas)
+     * Las entidades que traen su identificador lo conservan y el contador de IDs se ajusta después
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    @Override
+    public int saveAll(Collection<Empleado> entities) {
+        for (Empleado entity : entities) {
+            if (entity.getId_empleado() == null || entity.getId_empleado() == 0) {
+                entity.setId_empleado(nextId.getAndIncrement());
+            }
+            if (entity.getId_empleado() == null) {
+                throw new IllegalArgumentException("El identificador de Empleado no puede ser null");
+            }
+            
+            synchronized (locks.forKey(entity.getId_empleado())) {
+                data.put(entity.getId_empleado(), entity);
+                indexEntity(entity);
+                versions.merge(entity.getId_empleado(), 1L, Long::sum);
+            }
+            nextId.accumulateAndGet(entity.getId_empleado() + 1, Math::max);
+        }
+        return entities.size();
+    }
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -135,8 +189,18 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
      */
     @Override
     public boolean update(Empleado entity) {
-        if (data.containsKey(entity.getId_empleado())) {
-            data.put(entity.getId_empleado(), entity);
+        boolean actualizado = false;
+        if (entity.getId_empleado() != null) {
+            synchronized (locks.forKey(entity.getId_empleado())) {
+                if (data.replace(entity.getId_empleado(), entity) != null) {
+                    indexEntity(entity);
+                    versions.merge(entity.getId_empleado(), 1L, Long::sum);
+                    actualizado = true;
+                }
+            }
+        }
+        // La salida por consola se hace sin el cerrojo de la entidad
+        if (actualizado) {
             System.out.println("Empleado actualizado: " + entity);
             return true;
         }
@@ -151,7 +215,17 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
      */
     @Override
 	public boolean delete(Integer id) {
-	    Empleado removed = data.remove(id);
+	    Empleado removed = null;
+	    if (id != null) {
+	        synchronized (locks.forKey(id)) {
+	            removed = data.remove(id);
+	            if (removed != null) {
+	                unindexEntity(id);
+	                // La versión se conserva para que una entidad vuelta a crear no repita una versión ya leída
+	                versions.merge(id, 1L, Long::sum);
+	            }
+	        }
+	    }
 	    if (removed != null) {
 	        System.out.println("Empleado con id " + id + " eliminado correctamente");
 	        return true;
@@ -166,7 +240,14 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
      */
     @Override
     public void deleteAll() {
-        data.clear();
+        // Se toman todos los cerrojos para no intercalarse con altas, cambios o compareAndUpdate en curso
+        locks.withAllStripes(() -> {
+            data.clear();
+            clearIndexes();
+            // Las versiones se invalidan en lugar de borrarse (ver delete)
+            versions.replaceAll((id, version) -> version + 1);
+            return null;
+        });
         System.out.println("Todas las entidades Empleado han sido eliminadas");
     }
     
@@ -201,7 +282,9 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
@@ -219,13 +302,80 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .filter(filter)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * El coste no depende de la posición de la página, a diferencia de getPage
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    @Override
+    public Page<Empleado> getPageAfter(String cursor, int pageSize) {
+        return getPageAfter(cursor, pageSize, false, null);
+    }
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor
+     * El cursor solo es válido para el mismo orden con el que se obtuvo
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @param descending true para recorrer las entidades por identificador descendente
+     * @param filter Predicado que deben cumplir las entidades (null para no filtrar)
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    public Page<Empleado> getPageAfter(String cursor, int pageSize, boolean descending, Predicate<Empleado> filter) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser mayor que 0");
+        }
+        
+        NavigableSet<Integer> ids = descending ? primaryIndex.descendingSet() : primaryIndex;
+        Integer after = parseCursor(cursor);
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        
+        List<Empleado> items = new ArrayList<>(pageSize);
+        Integer last = null;
+        for (Integer id : ids) {
+            Empleado entity = data.get(id);
+            if (entity == null || (filter != null && !filter.test(entity))) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeCursor(last));
+            }
+            items.add(entity);
+            last = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    /**
+     * Convierte un cursor de paginación en el identificador que representa
+     * @param cursor Cursor opaco
+     * @return Identificador o null si no hay cursor
+     */
+    private Integer parseCursor(String cursor) {
+        String value = Page.decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+    
     /**
      * Cuenta el número de entidades que cumplen un criterio
      * @param filter Predicado que define el criterio
@@ -237,77 +387,239 @@ public class EmpleadoDAO implements IDAO<Empleado, Integer> {
                 .count();
     }
     
+    // Control de concurrencia optimista
+    
+    /**
+     * Obtiene la versión actual de una entidad
+     * La versión se incrementa cada vez que la entidad se guarda, se actualiza o se elimina a través del DAO
+     * @param id Identificador de la entidad
+     * @return Versión de la entidad (0 si no se ha modificado desde la carga inicial)
+     */
+    public long getVersion(Integer id) {
+        return id == null ? 0L : versions.getOrDefault(id, 0L);
+    }
+    
+    /**
+     * Modifica una entidad solo si su versión no ha cambiado desde que se leyó (compare-and-set)
+     * La comprobación y el cambio se hacen con el cerrojo de esa única entidad, como en update,
+     * por lo que las operaciones que usan este método no mantienen cerrojos entre una entidad y otra
+     * @param id Identificador de la entidad
+     * @param expectedVersion Versión obtenida con getVersion antes de leer la entidad
+     * @param change Cambio a aplicar sobre la entidad guardada
+     * @return true si se aplicó el cambio, false si la entidad no existe o su versión ha cambiado
+     */
+    public boolean compareAndUpdate(Integer id, long expectedVersion, Consumer<Empleado> change) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (locks.forKey(id)) {
+            Empleado entity = data.get(id);
+            if (entity == null || versions.getOrDefault(id, 0L) != expectedVersion) {
+                return false;
+            }
+            change.accept(entity);
+            indexEntity(entity);
+            versions.merge(id, 1L, Long::sum);
+            return true;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción con los cerrojos de escritura de varias entidades adquiridos
+     * Permite validar versiones y aplicar cambios sobre varias entidades como una única operación
+     * @param <R> Tipo del resultado
+     * @param ids Identificadores de las entidades a bloquear
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     */
+    public <R> R withLocks(Collection<Integer> ids, Supplier<R> action) {
+        return locks.withAll(ids, action);
+    }
+    
+    // Mantenimiento de los índices secundarios
+    
+    /**
+     * Actualiza los índices secundarios con los valores actuales de una entidad
+     * @param entity Entidad a indexar
+     */
+    private void indexEntity(Empleado entity) {
+        Integer id = entity.getId_empleado();
+        primaryIndex.add(id);
+        codigo_empleadoIndex.put(id, HashIndex.normalize(entity.getCodigo_empleado()));
+        nombreIndex.put(id, HashIndex.normalize(entity.getNombre()));
+        puestoIndex.put(id, HashIndex.normalize(entity.getPuesto()));
+        departamentoIndex.put(id, HashIndex.normalize(entity.getDepartamento()));
+        emailIndex.put(id, HashIndex.normalize(entity.getEmail()));
+        activoIndex.put(id, entity.getActivo());
+    }
+    
+    /**
+     * Elimina una entidad de los índices secundarios
+     * @param id Identificador de la entidad
+     */
+    private void unindexEntity(Integer id) {
+        primaryIndex.remove(id);
+        codigo_empleadoIndex.remove(id);
+        nombreIndex.remove(id);
+        puestoIndex.remove(id);
+        departamentoIndex.remove(id);
+        emailIndex.remove(id);
+        activoIndex.remove(id);
+    }
+    
+    /**
+     * Vacía todos los índices secundarios
+     */
+    private void clearIndexes() {
+        primaryIndex.clear();
+        codigo_empleadoIndex.clear();
+        nombreIndex.clear();
+        puestoIndex.clear();
+        departamentoIndex.clear();
+        emailIndex.clear();
+        activoIndex.clear();
+    }
+    
+    /**
+     * Obtiene las entidades correspondientes a un conjunto de IDs
+     * @param ids IDs obtenidos de un índice
+     * @return Lista con las entidades existentes
+     */
+    private List<Empleado> findByIds(Collection<Integer> ids) {
+        List<Empleado> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Empleado entity = data.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
     // Métodos específicos para búsquedas por atributos
     
     /**
-     * Busca entidades por el atributo codigo_empleado
+     * Busca entidades por el atributo codigo_empleado usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Empleado> findByCodigo_empleado(String value) {
-        return findByFilter(entity -> {
-            return entity.getCodigo_empleado() != null && 
-                   entity.getCodigo_empleado().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(codigo_empleadoIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo codigo_empleado contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByCodigo_empleado
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Empleado> findByCodigo_empleadoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getCodigo_empleado() != null && 
+            entity.getCodigo_empleado().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo nombre
+     * Busca entidades por el atributo nombre usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Empleado> findByNombre(String value) {
-        return findByFilter(entity -> {
-            return entity.getNombre() != null && 
-                   entity.getNombre().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(nombreIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo puesto
+     * Busca entidades cuyo atributo nombre contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByNombre
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Empleado> findByNombreContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getNombre() != null && 
+            entity.getNombre().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades por el atributo puesto usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Empleado> findByPuesto(String value) {
-        return findByFilter(entity -> {
-            return entity.getPuesto() != null && 
-                   entity.getPuesto().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(puestoIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo puesto contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByPuesto
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Empleado> findByPuestoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getPuesto() != null && 
+            entity.getPuesto().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo departamento
+     * Busca entidades por el atributo departamento usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Empleado> findByDepartamento(String value) {
-        return findByFilter(entity -> {
-            return entity.getDepartamento() != null && 
-                   entity.getDepartamento().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(departamentoIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo departamento contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByDepartamento
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Empleado> findByDepartamentoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getDepartamento() != null && 
+            entity.getDepartamento().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo email
+     * Busca entidades por el atributo email usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Empleado> findByEmail(String value) {
-        return findByFilter(entity -> {
-            return entity.getEmail() != null && 
-                   entity.getEmail().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(emailIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo activo
+     * Busca entidades cuyo atributo email contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByEmail
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Empleado> findByEmailContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getEmail() != null && 
+            entity.getEmail().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades por el atributo activo usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Empleado> findByActivo(boolean value) {
-        return findByFilter(entity -> {
-            return entity.getActivo() == value;
-        });
+        return findByIds(activoIndex.get(value));
     }
     
     
@@ -0,0 +1,751 @@
+package dao;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import model.Cliente;
+import model.Cuenta;
+import model.Transaccion;
+import model.Empleado;
+import model.Prestamo;
+import model.TarjetaCredito;
+
+/**
+ * Generador de datos sintéticos para pruebas de rendimiento
+ * Genera las filas de todas las entidades de forma determinista: con la misma semilla y el mismo
+ * tamaño se obtienen siempre los mismos datos, sea cual sea el número de hilos. Las distribuciones
+ * imitan datos reales: las referencias siguen una distribución de Zipf (unas pocas filas de la entidad
+ * referenciada concentran la mayoría de las referencias), los importes una log-normal y los estados
+ * y categorías están sesgados hacia los valores más habituales.
+ * Las filas se generan en paralelo por tramos, cada uno con su propio SplittableRandom derivado de la
+ * semilla, y se vuelcan directamente en los DAOs o en un fichero CSV por entidad. Cada entidad se
+ * genera en cuanto han terminado las entidades a las que referencia.
+ * Uso: java dao.GeneradorDatos [S|M|L|XL] [semilla] [directorio]
+ */
+public class GeneradorDatos {
+    
+    /**
+     * Tamaños predefinidos: filas de las entidades que no referencian a otras
+     * Cada nivel de referencias multiplica las filas por FACTOR_POR_NIVEL
+     */
+    public enum Tamano {
+        S(1_000), M(50_000), L(500_000), XL(2_000_000);
+        
+        private final int filasBase;
+        
+        Tamano(int filasBase) {
+            this.filasBase = filasBase;
+        }
+        
+        public int getFilasBase() {
+            return filasBase;
+        }
+    }
+    
+    private static final int FILAS_POR_TRAMO = 10_000;
+    private static final int FACTOR_POR_NIVEL = 3;
+    private static final double EXPONENTE_ZIPF_POR_DEFECTO = 0.9;
+    // Primo mayor que cualquier número de filas: reparte los rangos de Zipf por toda la tabla
+    private static final long PASO_PERMUTACION = 1_000_000_007L;
+    private static final LocalDate FECHA_INICIAL = LocalDate.of(2020, 1, 1);
+    private static final int DIAS_FECHAS = 5 * 365;
+    private static final double IMPORTE_MEDIANO = 300.0;
+    private static final double DISPERSION_IMPORTES = 1.2;
+    private static final double IMPORTE_MAXIMO = 1_000_000.0;
+    private static final String LETRAS_DNI = "TRWAGMYFPDXBNJZSQVHLCKE";
+    
+    // Valores de ejemplo, ordenados de más a menos frecuente
+    private static final String[] NOMBRES = {"María", "Antonio", "Carmen", "José", "Ana", "Manuel", "Laura", "Francisco",
+                                            "Isabel", "David", "Lucía", "Javier", "Marta", "Daniel", "Elena", "Carlos"};
+    private static final String[] APELLIDOS = {"García", "Rodríguez", "González", "Fernández", "López", "Martínez",
+                                              "Sánchez", "Pérez", "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz"};
+    private static final String[] ESTADOS = {"Activo", "Completado", "Pendiente", "En proceso", "Inactivo", "Cancelado"};
+    private static final String[] DOMINIOS = {"gmail.com", "hotmail.com", "yahoo.es", "outlook.com", "telefonica.net"};
+    private static final String[] DESCRIPCIONES = {"Descripción detallada sobre este elemento",
+                                                  "Información básica y generalizada",
+                                                  "Datos principales y características específicas",
+                                                  "Detalles técnicos y especificaciones",
+                                                  "Información complementaria sobre el elemento"};
+    private static final int[] PLAZOS_MESES = {12, 24, 36, 60, 48, 120, 240, 360};
+    private static final int NUM_CATEGORIAS = 8;
+    
+    private static final Zipf ZIPF_NOMBRES = new Zipf(NOMBRES.length, 1.0);
+    private static final Zipf ZIPF_APELLIDOS = new Zipf(APELLIDOS.length, 1.0);
+    private static final Zipf ZIPF_ESTADOS = new Zipf(ESTADOS.length, 1.0);
+    private static final Zipf ZIPF_DOMINIOS = new Zipf(DOMINIOS.length, 1.0);
+    private static final Zipf ZIPF_PLAZOS = new Zipf(PLAZOS_MESES.length, 1.0);
+    private static final Zipf ZIPF_CATEGORIAS = new Zipf(NUM_CATEGORIAS, 1.0);
+    
+    // Entidades a las que referencia cada entidad (sin contar las referencias a sí misma)
+    private static final Map<Class<?>, List<Class<?>>> DEPENDENCIAS = crearDependencias();
+    
+    private final long semilla;
+    private final Map<Class<?>, Integer> filas = new HashMap<>();
+    private double exponenteZipf = EXPONENTE_ZIPF_POR_DEFECTO;
+    private int hilos = Runtime.getRuntime().availableProcessors();
+    
+    // Estado de la generación en curso
+    private volatile boolean destinoDAOs;
+    private volatile Map<Class<?>, Zipf> zipfs = Collections.emptyMap();
+    private final Map<String, Long> tiempos = Collections.synchronizedMap(new LinkedHashMap<>());
+    
+    /**
+     * Constructor
+     * @param tamano Tamaño predefinido
+     * @param semilla Semilla de la generación
+     * @throws IllegalArgumentException si el tamaño es null
+     */
+    public GeneradorDatos(Tamano tamano, long semilla) {
+        if (tamano == null) {
+            throw new IllegalArgumentException("El tamaño es obligatorio");
+        }
+        this.semilla = semilla;
+        for (Class<?> entidad : DEPENDENCIAS.keySet()) {
+            long numero = tamano.getFilasBase();
+            for (int nivel = profundidad(entidad); nivel > 0; nivel--) {
+                numero *= FACTOR_POR_NIVEL;
+            }
+            filas.put(entidad, (int) Math.min(Integer.MAX_VALUE, numero));
+        }
+    }
+    
+    private static Map<Class<?>, List<Class<?>>> crearDependencias() {
+        Map<Class<?>, List<Class<?>>> dependencias = new LinkedHashMap<>();
+        dependencias.put(Cliente.class, Arrays.<Class<?>>asList());
+        dependencias.put(Cuenta.class, Arrays.<Class<?>>asList(Cliente.class));
+        dependencias.put(Transaccion.class, Arrays.<Class<?>>asList(Cuenta.class));
+        dependencias.put(Empleado.class, Arrays.<Class<?>>asList());
+        dependencias.put(Prestamo.class, Arrays.<Class<?>>asList(Cliente.class, Empleado.class));
+        dependencias.put(TarjetaCredito.class, Arrays.<Class<?>>asList(Cliente.class));
+        return Collections.unmodifiableMap(dependencias);
+    }
+    
+    /**
+     * Niveles de referencias por debajo de una entidad (0 si no referencia a ninguna)
+     */
+    private static int profundidad(Class<?> entidad) {
+        int maxima = 0;
+        for (Class<?> destino : DEPENDENCIAS.get(entidad)) {
+            maxima = Math.max(maxima, profundidad(destino) + 1);
+        }
+        return maxima;
+    }
+    
+    /**
+     * Cambia el número de filas de una entidad
+     * @param entidad Clase de la entidad
+     * @param numero Número de filas
+     * @return Este generador
+     * @throws IllegalArgumentException si la entidad no existe o el número es negativo
+     */
+    public GeneradorDatos setFilas(Class<?> entidad, int numero) {
+        if (!filas.containsKey(entidad) || numero < 0) {
+            throw new IllegalArgumentException("Entidad o número de filas no válido: " + entidad + " = " + numero);
+        }
+        filas.put(entidad, numero);
+        return this;
+    }
+    
+    /**
+     * Obtiene el número de filas que se generarán de una entidad
+     * @param entidad Clase de la entidad
+     * @return Número de filas
+     * @throws IllegalArgumentException si la entidad no existe
+     */
+    public int getFilas(Class<?> entidad) {
+        Integer numero = filas.get(entidad);
+        if (numero == null) {
+            throw new IllegalArgumentException("Entidad desconocida: " + entidad);
+        }
+        return numero;
+    }
+    
+    /**
+     * Cambia el sesgo de las referencias (exponente de Zipf; 0 las reparte uniformemente)
+     * @param exponenteZipf Exponente, mayor o igual que 0
+     * @return Este generador
+     * @throws IllegalArgumentException si el exponente es negativo
+     */
+    public GeneradorDatos setExponenteZipf(double exponenteZipf) {
+        if (!(exponenteZipf >= 0)) {
+            throw new IllegalArgumentException("El exponente de Zipf no puede ser negativo");
+        }
+        this.exponenteZipf = exponenteZipf;
+        return this;
+    }
+    
+    /**
+     * Cambia el número de hilos de generación (no afecta a los datos generados)
+     * @param hilos Número de hilos
+     * @return Este generador
+     * @throws IllegalArgumentException si el número no es positivo
+     */
+    public GeneradorDatos setHilos(int hilos) {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("El número de hilos debe ser positivo");
+        }
+        this.hilos = hilos;
+        return this;
+    }
+    
+    public long getSemilla() {
+        return semilla;
+    }
+    
+    /**
+     * Sustituye el contenido de los DAOs por los datos generados
+     * Las referencias apuntan a las entidades guardadas en los DAOs de destino
+     * @return Duración de la generación de cada entidad y total (nombre -> milisegundos)
+     */
+    public synchronized Map<String, Long> generarEnDAOs() {
+        try {
+            return generar(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Escribe los datos generados en un fichero CSV por entidad (Entidad.csv, con cabecera)
+     * Las referencias se escriben como el identificador de la entidad referenciada
+     * @param directorio Directorio de destino (se crea si no existe)
+     * @return Duración de la generación de cada entidad y total (nombre -> milisegundos)
+     * @throws IOException si no se pueden escribir los ficheros
+     */
+    public synchronized Map<String, Long> generarEnDirectorio(Path directorio) throws IOException {
+        if (directorio == null) {
+            throw new IllegalArgumentException("El directorio es obligatorio");
+        }
+        Files.createDirectories(directorio);
+        try {
+            return generar(directorio);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private Map<String, Long> generar(Path directorio) throws IOException {
+        long inicio = System.nanoTime();
+        tiempos.clear();
+        destinoDAOs = directorio == null;
+        Map<Class<?>, Zipf> distribuciones = new HashMap<>();
+        for (Map.Entry<Class<?>, Integer> entrada : filas.entrySet()) {
+            if (entrada.getValue() > 0) {
+                distribuciones.put(entrada.getKey(), new Zipf(entrada.getValue(), exponenteZipf));
+            }
+        }
+        zipfs = distribuciones;
+        System.out.println("Generando datos sintéticos (semilla " + semilla + ") en "
+                + (destinoDAOs ? "los DAOs" : directorio) + "...");
+        
+        List<EscritorCsv> escritores = new ArrayList<>();
+        AtomicInteger numero = new AtomicInteger(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread thread = new Thread(r, "datos-gen-" + numero.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Salida<Cliente> salidaCliente = salida(Cliente.class, ClienteDAO::getInstance,
+                    "id_cliente,dni,nombre,apellidos,email,telefono,fecha_registro,activo", GeneradorDatos::csvCliente, directorio, escritores);
+            Salida<Cuenta> salidaCuenta = salida(Cuenta.class, CuentaDAO::getInstance,
+                    "numero_cuenta,tipo_cuenta,saldo,fecha_apertura,activa,cliente_titular", GeneradorDatos::csvCuenta, directorio, escritores);
+            Salida<Transaccion> salidaTransaccion = salida(Transaccion.class, TransaccionDAO::getInstance,
+                    "id_transaccion,fecha_transaccion,tipo_transaccion,monto,descripcion,estado,cuenta_origen,cuenta_destino", GeneradorDatos::csvTransaccion, directorio, escritores);
+            Salida<Empleado> salidaEmpleado = salida(Empleado.class, EmpleadoDAO::getInstance,
+                    "id_empleado,codigo_empleado,nombre,puesto,departamento,email,activo", GeneradorDatos::csvEmpleado, directorio, escritores);
+            Salida<Prestamo> salidaPrestamo = salida(Prestamo.class, PrestamoDAO::getInstance,
+                    "id_prestamo,monto_solicitado,tasa_interes,plazo_meses,estado_prestamo,fecha_solicitud,fecha_aprobacion,cliente_solicitante,empleado_aprobador", GeneradorDatos::csvPrestamo, directorio, escritores);
+            Salida<TarjetaCredito> salidaTarjetaCredito = salida(TarjetaCredito.class, TarjetaCreditoDAO::getInstance,
+                    "numero_tarjeta,limite_credito,saldo_actual,fecha_vencimiento,activa,cliente_propietario", GeneradorDatos::csvTarjetaCredito, directorio, escritores);
+            
+            CompletableFuture<Void> cliente = fase(Cliente.class, 1, this::crearCliente, salidaCliente, executor);
+            CompletableFuture<Void> cuenta = fase(Cuenta.class, 2, this::crearCuenta, salidaCuenta, executor, cliente);
+            CompletableFuture<Void> transaccion = fase(Transaccion.class, 3, this::crearTransaccion, salidaTransaccion, executor, cuenta);
+            CompletableFuture<Void> empleado = fase(Empleado.class, 4, this::crearEmpleado, salidaEmpleado, executor);
+            CompletableFuture<Void> prestamo = fase(Prestamo.class, 5, this::crearPrestamo, salidaPrestamo, executor, cliente, empleado);
+            CompletableFuture<Void> tarjetaCredito = fase(TarjetaCredito.class, 6, this::crearTarjetaCredito, salidaTarjetaCredito, executor, cliente);
+            CompletableFuture.allOf(cliente, cuenta, transaccion, empleado, prestamo, tarjetaCredito).join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            throw causa instanceof RuntimeException ? (RuntimeException) causa : e;
+        } finally {
+            executor.shutdown();
+            for (EscritorCsv escritor : escritores) {
+                escritor.close();
+            }
+        }
+        
+        tiempos.put("total", (System.nanoTime() - inicio) / 1_000_000);
+        System.out.println("Datos sintéticos generados en " + tiempos.get("total") + " ms");
+        synchronized (tiempos) {
+            return new LinkedHashMap<>(tiempos);
+        }
+    }
+    
+    /**
+     * Genera por tramos en paralelo las filas de una entidad cuando han terminado las entidades de las que depende
+     * Cada tramo usa un SplittableRandom propio obtenido de (semilla, entidad, tramo), de modo que el
+     * resultado no depende del orden en que se ejecuten los tramos
+     */
+    private <T> CompletableFuture<Void> fase(Class<T> entidad, int orden, Fila<T> fila, Salida<T> salida,
+                                            Executor executor, CompletableFuture<?>... dependencias) {
+        return CompletableFuture.allOf(dependencias).thenComposeAsync(v -> {
+            long inicio = System.nanoTime();
+            int total = getFilas(entidad);
+            int numTramos = (int) (((long) total + FILAS_POR_TRAMO - 1) / FILAS_POR_TRAMO);
+            CompletableFuture<?>[] tramos = new CompletableFuture<?>[numTramos];
+            for (int t = 0; t < numTramos; t++) {
+                int tramo = t;
+                tramos[t] = CompletableFuture.runAsync(() -> {
+                    SplittableRandom random = new SplittableRandom(mezclar(semilla, orden, tramo));
+                    int desde = tramo * FILAS_POR_TRAMO + 1;
+                    int hasta = (int) Math.min(total, (long) desde + FILAS_POR_TRAMO - 1);
+                    List<T> lote = new ArrayList<>(hasta - desde + 1);
+                    for (int i = desde; i <= hasta; i++) {
+                        lote.add(fila.crear(i, random));
+                    }
+                    try {
+                        salida.escribir(tramo, lote);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+            }
+            return CompletableFuture.allOf(tramos).thenRun(() -> {
+                long duracion = (System.nanoTime() - inicio) / 1_000_000;
+                tiempos.put(entidad.getSimpleName(), duracion);
+                System.out.println("  " + entidad.getSimpleName() + ": " + total + " filas en " + duracion + " ms");
+            });
+        }, executor);
+    }
+    
+    /**
+     * Crea el destino de una entidad: su DAO (que se vacía) o su fichero CSV
+     */
+    private <T> Salida<T> salida(Class<T> entidad, Supplier<? extends IDAO<T, ?>> daos, String cabecera,
+                                 BiConsumer<StringBuilder, T> formato, Path directorio,
+                                 List<EscritorCsv> escritores) throws IOException {
+        if (directorio == null) {
+            IDAO<T, ?> dao = daos.get();
+            dao.deleteAll();
+            return (tramo, lote) -> dao.saveAll(lote);
+        }
+        EscritorCsv escritor = new EscritorCsv(directorio.resolve(entidad.getSimpleName() + ".csv"), cabecera);
+        escritores.add(escritor);
+        return (tramo, lote) -> {
+            StringBuilder texto = new StringBuilder(lote.size() * 128);
+            for (T entity : lote) {
+                formato.accept(texto, entity);
+                texto.setCharAt(texto.length() - 1, '\n'); // El último separador de la línea
+            }
+            escritor.escribir(tramo, texto.toString());
+        };
+    }
+    
+    // Creación de filas
+    
+    private Cliente crearCliente(int fila, SplittableRandom random) {
+        Cliente entity = new Cliente();
+        entity.setId_cliente(fila);
+        entity.setDni(dni(random));
+        entity.setNombre(NOMBRES[ZIPF_NOMBRES.muestra(random) - 1]);
+        entity.setApellidos(APELLIDOS[ZIPF_APELLIDOS.muestra(random) - 1] + " " + APELLIDOS[ZIPF_APELLIDOS.muestra(random) - 1]);
+        entity.setEmail("cliente" + fila + "@" + DOMINIOS[ZIPF_DOMINIOS.muestra(random) - 1]);
+        entity.setTelefono(Integer.toString(600_000_000 + random.nextInt(100_000_000)));
+        entity.setFecha_registro(fecha(random));
+        entity.setActivo(random.nextInt(10) != 0); // La gran mayoría activas
+        return entity;
+    }
+    
+    private Cuenta crearCuenta(int fila, SplittableRandom random) {
+        Cuenta entity = new Cuenta();
+        entity.setNumero_cuenta("Cuenta_" + fila);
+        entity.setTipo_cuenta("tipo_cuenta_" + ZIPF_CATEGORIAS.muestra(random));
+        entity.setSaldo(importe(random));
+        entity.setFecha_apertura(fecha(random));
+        entity.setActiva(random.nextInt(10) != 0); // La gran mayoría activas
+        entity.setCliente_titular(referenciaCliente(random));
+        return entity;
+    }
+    
+    private Transaccion crearTransaccion(int fila, SplittableRandom random) {
+        Transaccion entity = new Transaccion();
+        entity.setId_transaccion(fila);
+        entity.setFecha_transaccion(fecha(random));
+        entity.setTipo_transaccion("tipo_transaccion_" + ZIPF_CATEGORIAS.muestra(random));
+        entity.setMonto(importe(random));
+        entity.setDescripcion(DESCRIPCIONES[random.nextInt(DESCRIPCIONES.length)]);
+        entity.setEstado(ESTADOS[ZIPF_ESTADOS.muestra(random) - 1]);
+        entity.setCuenta_origen(referenciaCuenta(random));
+        entity.setCuenta_destino(referenciaCuenta(random));
+        return entity;
+    }
+    
+    private Empleado crearEmpleado(int fila, SplittableRandom random) {
+        Empleado entity = new Empleado();
+        entity.setId_empleado(fila);
+        entity.setCodigo_empleado("codigo_empleado_" + fila);
+        entity.setNombre(NOMBRES[ZIPF_NOMBRES.muestra(random) - 1]);
+        entity.setPuesto("puesto_" + ZIPF_CATEGORIAS.muestra(random));
+        entity.setDepartamento("departamento_" + ZIPF_CATEGORIAS.muestra(random));
+        entity.setEmail("empleado" + fila + "@" + DOMINIOS[ZIPF_DOMINIOS.muestra(random) - 1]);
+        entity.setActivo(random.nextInt(10) != 0); // La gran mayoría activas
+        return entity;
+    }
+    
+    private Prestamo crearPrestamo(int fila, SplittableRandom random) {
+        Prestamo entity = new Prestamo();
+        entity.setId_prestamo(fila);
+        entity.setMonto_solicitado(importe(random));
+        entity.setTasa_interes(redondear(1.5 + random.nextDouble() * 13.5));
+        entity.setPlazo_meses(PLAZOS_MESES[ZIPF_PLAZOS.muestra(random) - 1]);
+        entity.setEstado_prestamo(ESTADOS[ZIPF_ESTADOS.muestra(random) - 1]);
+        entity.setFecha_solicitud(fecha(random));
+        entity.setFecha_aprobacion(fecha(random));
+        entity.setCliente_solicitante(referenciaCliente(random));
+        entity.setEmpleado_aprobador(referenciaEmpleado(random));
+        return entity;
+    }
+    
+    private TarjetaCredito crearTarjetaCredito(int fila, SplittableRandom random) {
+        TarjetaCredito entity = new TarjetaCredito();
+        entity.setNumero_tarjeta("TarjetaCredito_" + fila);
+        entity.setLimite_credito(importe(random));
+        entity.setSaldo_actual(importe(random));
+        entity.setFecha_vencimiento(fecha(random));
+        entity.setActiva(random.nextInt(10) != 0); // La gran mayoría activas
+        entity.setCliente_propietario(referenciaCliente(random));
+        return entity;
+    }
+    
+    // Referencias: la fila referenciada se elige con la distribución de Zipf de la entidad de destino
+    
+    private Cliente referenciaCliente(SplittableRandom random) {
+        int fila = elegirFila(Cliente.class, random);
+        if (fila == 0) {
+            return null;
+        }
+        Integer id = fila;
+        if (destinoDAOs) {
+            return ClienteDAO.getInstance().findById(id);
+        }
+        Cliente referencia = new Cliente();
+        referencia.setId_cliente(id);
+        return referencia;
+    }
+    
+    private Cuenta referenciaCuenta(SplittableRandom random) {
+        int fila = elegirFila(Cuenta.class, random);
+        if (fila == 0) {
+            return null;
+        }
+        String id = "Cuenta_" + fila;
+        if (destinoDAOs) {
+            return CuentaDAO.getInstance().findById(id);
+        }
+        Cuenta referencia = new Cuenta();
+        referencia.setNumero_cuenta(id);
+        return referencia;
+    }
+    
+    private Empleado referenciaEmpleado(SplittableRandom random) {
+        int fila = elegirFila(Empleado.class, random);
+        if (fila == 0) {
+            return null;
+        }
+        Integer id = fila;
+        if (destinoDAOs) {
+            return EmpleadoDAO.getInstance().findById(id);
+        }
+        Empleado referencia = new Empleado();
+        referencia.setId_empleado(id);
+        return referencia;
+    }
+    
+    /**
+     * Elige una fila de una entidad: el rango de Zipf se permuta para que las filas más referenciadas
+     * queden repartidas por toda la tabla en lugar de ser las primeras
+     * @return Número de fila (desde 1), o 0 si la entidad no tiene filas
+     */
+    private int elegirFila(Class<?> entidad, SplittableRandom random) {
+        Zipf zipf = zipfs.get(entidad);
+        if (zipf == null) {
+            return 0;
+        }
+        long rango = zipf.muestra(random) - 1;
+        return (int) (rango * PASO_PERMUTACION % zipf.getN()) + 1;
+    }
+    
+    // Formato CSV
+    
+    private static void csvCliente(StringBuilder linea, Cliente entity) {
+        campo(linea, entity.getId_cliente());
+        campo(linea, entity.getDni());
+        campo(linea, entity.getNombre());
+        campo(linea, entity.getApellidos());
+        campo(linea, entity.getEmail());
+        campo(linea, entity.getTelefono());
+        campo(linea, entity.getFecha_registro());
+        campo(linea, entity.getActivo());
+    }
+    
+    private static void csvCuenta(StringBuilder linea, Cuenta entity) {
+        campo(linea, entity.getNumero_cuenta());
+        campo(linea, entity.getTipo_cuenta());
+        campo(linea, entity.getSaldo());
+        campo(linea, entity.getFecha_apertura());
+        campo(linea, entity.getActiva());
+        campo(linea, entity.getCliente_titular() != null ? entity.getCliente_titular().getId_cliente() : null);
+    }
+    
+    private static void csvTransaccion(StringBuilder linea, Transaccion entity) {
+        campo(linea, entity.getId_transaccion());
+        campo(linea, entity.getFecha_transaccion());
+        campo(linea, entity.getTipo_transaccion());
+        campo(linea, entity.getMonto());
+        campo(linea, entity.getDescripcion());
+        campo(linea, entity.getEstado());
+        campo(linea, entity.getCuenta_origen() != null ? entity.getCuenta_origen().getNumero_cuenta() : null);
+        campo(linea, entity.getCuenta_destino() != null ? entity.getCuenta_destino().getNumero_cuenta() : null);
+    }
+    
+    private static void csvEmpleado(StringBuilder linea, Empleado entity) {
+        campo(linea, entity.getId_empleado());
+        campo(linea, entity.getCodigo_empleado());
+        campo(linea, entity.getNombre());
+        campo(linea, entity.getPuesto());
+        campo(linea, entity.getDepartamento());
+        campo(linea, entity.getEmail());
+        campo(linea, entity.getActivo());
+    }
+    
+    private static void csvPrestamo(StringBuilder linea, Prestamo entity) {
+        campo(linea, entity.getId_prestamo());
+        campo(linea, entity.getMonto_solicitado());
+        campo(linea, entity.getTasa_interes());
+        campo(linea, entity.getPlazo_meses());
+        campo(linea, entity.getEstado_prestamo());
+        campo(linea, entity.getFecha_solicitud());
+        campo(linea, entity.getFecha_aprobacion());
+        campo(linea, entity.getCliente_solicitante() != null ? entity.getCliente_solicitante().getId_cliente() : null);
+        campo(linea, entity.getEmpleado_aprobador() != null ? entity.getEmpleado_aprobador().getId_empleado() : null);
+    }
+    
+    private static void csvTarjetaCredito(StringBuilder linea, TarjetaCredito entity) {
+        campo(linea, entity.getNumero_tarjeta());
+        campo(linea, entity.getLimite_credito());
+        campo(linea, entity.getSaldo_actual());
+        campo(linea, entity.getFecha_vencimiento());
+        campo(linea, entity.getActiva());
+        campo(linea, entity.getCliente_propietario() != null ? entity.getCliente_propietario().getId_cliente() : null);
+    }
+    
+    /**
+     * Añade un campo seguido de una coma, entre comillas si contiene separadores
+     */
+    private static void campo(StringBuilder linea, Object valor) {
+        if (valor != null) {
+            String texto = valor.toString();
+            if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0) {
+                linea.append('"').append(texto.replace("\"", "\"\"")).append('"');
+            } else {
+                linea.append(texto);
+            }
+        }
+        linea.append(',');
+    }
+    
+    // Distribuciones
+    
+    /**
+     * Importe con distribución log-normal (muchos importes pequeños y pocos muy grandes), con dos decimales
+     */
+    private static double importe(SplittableRandom random) {
+        double valor = IMPORTE_MEDIANO * Math.exp(DISPERSION_IMPORTES * gaussiana(random));
+        return redondear(Math.min(IMPORTE_MAXIMO, valor));
+    }
+    
+    /**
+     * Normal estándar por el método de Box-Muller
+     */
+    private static double gaussiana(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble(); // En (0, 1] para evitar log(0)
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * random.nextDouble());
+    }
+    
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+    
+    private static String fecha(SplittableRandom random) {
+        return FECHA_INICIAL.plusDays(random.nextInt(DIAS_FECHAS)).toString();
+    }
+    
+    /**
+     * DNI con letra de control válida
+     */
+    private static String dni(SplittableRandom random) {
+        int numero = random.nextInt(100_000_000);
+        String digitos = Integer.toString(numero);
+        StringBuilder dni = new StringBuilder(9);
+        for (int i = digitos.length(); i < 8; i++) {
+            dni.append('0');
+        }
+        return dni.append(digitos).append(LETRAS_DNI.charAt(numero % 23)).toString();
+    }
+    
+    /**
+     * Semilla de un tramo: mezcla SplitMix64 de la semilla, la entidad y el tramo
+     */
+    private static long mezclar(long semilla, int orden, int tramo) {
+        long z = semilla + 0x9E3779B97F4A7C15L * ((((long) orden) << 32) | tramo);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Creación de la fila i-ésima de una entidad
+     */
+    private interface Fila<T> {
+        T crear(int fila, SplittableRandom random);
+    }
+    
+    /**
+     * Destino de los lotes generados (puede llamarse desde varios hilos a la vez)
+     */
+    private interface Salida<T> {
+        void escribir(int tramo, List<T> lote) throws IOException;
+    }
+    
+    /**
+     * Fichero CSV que recibe los tramos en cualquier orden y los escribe en orden
+     * Los tramos que llegan antes de tiempo esperan en memoria a que lleguen los anteriores
+     */
+    private static class EscritorCsv implements Closeable {
+        private final BufferedWriter writer;
+        private final Map<Integer, String> pendientes = new HashMap<>();
+        private int siguiente = 0;
+        
+        EscritorCsv(Path fichero, String cabecera) throws IOException {
+            writer = Files.newBufferedWriter(fichero, StandardCharsets.UTF_8);
+            writer.write(cabecera);
+            writer.write('\n');
+        }
+        
+        synchronized void escribir(int tramo, String texto) throws IOException {
+            pendientes.put(tramo, texto);
+            String listo;
+            while ((listo = pendientes.remove(siguiente)) != null) {
+                writer.write(listo);
+                siguiente++;
+            }
+        }
+        
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+    
+    /**
+     * Distribución de Zipf sobre 1..n (el valor k tiene probabilidad proporcional a 1/k^exponente)
+     * Muestreo por rechazo-inversión (Hörmann y Derflinger): tiempo constante sin tablas, sea cual sea n
+     */
+    static final class Zipf {
+        private final int n;
+        private final double exponente;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+        
+        Zipf(int n, double exponente) {
+            if (n <= 0 || !(exponente >= 0)) {
+                throw new IllegalArgumentException("Parámetros de Zipf no válidos: n=" + n + ", exponente=" + exponente);
+            }
+            this.n = n;
+            this.exponente = exponente;
+            this.hIntegralX1 = hIntegral(1.5) - 1.0;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2.0 - hIntegralInversa(hIntegral(2.5) - h(2.0));
+        }
+        
+        int getN() {
+            return n;
+        }
+        
+        int muestra(SplittableRandom random) {
+            while (true) {
+                double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInversa(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > n) {
+                    k = n;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+        
+        private double h(double x) {
+            return Math.exp(-exponente * Math.log(x));
+        }
+        
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return auxiliar2((1.0 - exponente) * logX) * logX;
+        }
+        
+        private double hIntegralInversa(double x) {
+            double t = x * (1.0 - exponente);
+            if (t < -1.0) {
+                t = -1.0;
+            }
+            return Math.exp(auxiliar1(t) * x);
+        }
+        
+        // log(1+x)/x y (exp(x)-1)/x, estables cerca de 0
+        private static double auxiliar1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+        }
+        
+        private static double auxiliar2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        Tamano tamano = args.length > 0 ? Tamano.valueOf(args[0].toUpperCase()) : Tamano.S;
+        long semilla = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        GeneradorDatos generador = new GeneradorDatos(tamano, semilla);
+        Map<String, Long> resultado = args.length > 2 ? generador.generarEnDirectorio(Paths.get(args[2]))
+                : generador.generarEnDAOs();
+        System.out.println("Tiempos (ms): " + resultado);
+    }
+}
@@ -0,0 +1,121 @@
+package dao;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundario en memoria utilizado por los DAOs
+ * Asocia cada valor de un atributo con los IDs de las entidades que lo contienen,
+ * de forma que las búsquedas por igualdad no necesitan recorrer todos los datos
+ * Es seguro para su uso concurrente siempre que no se modifique la misma entidad
+ * desde varios hilos a la vez (los DAOs lo garantizan con su StripedLock)
+ * @param <K> Tipo del valor indexado
+ * @param <ID> Tipo de identificador de la entidad
+ */
+public class HashIndex<K, ID> {
+    private final Map<K, Set<ID>> entries;
+    private final Map<ID, K> keysById; // Última clave indexada para cada entidad
+    private final StripedLock locks = new StripedLock(); // Protege cada conjunto de IDs
+
+    /**
+     * Constructor por defecto (índice hash)
+     */
+    public HashIndex() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Constructor para subclases que necesitan otra implementación de mapa
+     * @param entries Mapa concurrente vacío donde se almacenarán las entradas del índice
+     */
+    protected HashIndex(Map<K, Set<ID>> entries) {
+        this.entries = entries;
+        this.keysById = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Indexa una entidad con el valor indicado
+     * Si la entidad ya estaba indexada con otro valor, la entrada anterior se elimina
+     * @param id Identificador de la entidad
+     * @param key Valor del atributo (los valores null no se indexan)
+     */
+    public void put(ID id, K key) {
+        remove(id);
+        if (key == null) {
+            return;
+        }
+        synchronized (locks.forKey(key)) {
+            entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        keysById.put(id, key);
+    }
+
+    /**
+     * Elimina una entidad del índice
+     * @param id Identificador de la entidad
+     */
+    public void remove(ID id) {
+        K key = keysById.remove(id);
+        if (key == null) {
+            return;
+        }
+        synchronized (locks.forKey(key)) {
+            Set<ID> ids = entries.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene los IDs de las entidades indexadas con un valor
+     * @param key Valor a buscar
+     * @return Conjunto (no modificable) de IDs, vacío si no hay coincidencias
+     */
+    public Set<ID> get(K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        Set<ID> ids = entries.get(key);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Elimina todas las entradas del índice
+     */
+    public void clear() {
+        entries.clear();
+        keysById.clear();
+    }
+
+    /**
+     * Obtiene el número de valores distintos indexados
+     * @return Número de claves del índice
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Acceso a las entradas para las subclases
+     * @return Mapa valor -> IDs
+     */
+    protected Map<K, Set<ID>> entries() {
+        return entries;
+    }
+
+    /**
+     * Normaliza un valor de texto para su indexación
+     * Elimina los espacios de los extremos y lo pasa a minúsculas
+     * @param value Valor original
+     * @return Valor normalizado o null si el valor es null
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase();
+    }
+}
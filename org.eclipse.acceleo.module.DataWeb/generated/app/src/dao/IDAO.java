@@ -1,5 +1,6 @@
 package dao;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +29,13 @@ public interface IDAO<T, ID> {
      */
     T save(T entity);
     
+    /**
+     * Guarda un lote de entidades de una vez (cargas masivas)
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    int saveAll(Collection<T> entities);
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -52,4 +60,12 @@ public interface IDAO<T, ID> {
      * @return Número total de entidades
      */
     int count();
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    Page<T> getPageAfter(String cursor, int pageSize);
 }
@@ -0,0 +1,78 @@
+package dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados obtenida mediante paginación por cursor (keyset)
+ * El cursor identifica la última entidad devuelta, por lo que las páginas siguientes
+ * no se desplazan aunque se inserten o eliminen entidades entre llamadas
+ * @param <T> Tipo de entidad
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Constructor
+     * @param items Entidades de la página
+     * @param nextCursor Cursor para obtener la página siguiente o null si es la última
+     */
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Obtiene las entidades de la página
+     * @return Lista (no modificable) de entidades
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Obtiene el cursor de la página siguiente
+     * @return Cursor opaco o null si no hay más páginas
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Indica si existen más páginas
+     * @return true si hay una página siguiente
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Codifica el identificador de la última entidad de una página como cursor opaco
+     * @param lastId Identificador de la última entidad devuelta
+     * @return Cursor en Base64 apto para URLs
+     */
+    public static String encodeCursor(Object lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor generado por encodeCursor
+     * @param cursor Cursor opaco (null o vacío para empezar desde el principio)
+     * @return Identificador en texto o null si no hay cursor
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+}
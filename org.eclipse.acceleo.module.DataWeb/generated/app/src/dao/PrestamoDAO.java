@@ -7,14 +7,21 @@ import dao.ClienteDAO;
 import model.Empleado;
 import dao.EmpleadoDAO;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Date;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -23,14 +30,37 @@ import java.util.stream.Collectors;
  */
 public class PrestamoDAO implements IDAO<Prestamo, Integer> {
     private static PrestamoDAO instance;
-    private Map<Integer, Prestamo> data;
-    private int nextId = 1; // Para generar IDs automáticamente
-    
+    private final Map<Integer, Prestamo> data;
+    private final AtomicInteger nextId = new AtomicInteger(1); // Para generar IDs automáticamente
+    private final StripedLock locks = new StripedLock(); // Cerrojos por ID para las escrituras
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>(); // Versión de cada entidad modificada
+
+    // Índice primario ordenado por ID (paginación estable por cursor)
+    private final NavigableSet<Integer> primaryIndex = new ConcurrentSkipListSet<>();
+
+    // Índices secundarios por atributo (valor normalizado -> IDs de las entidades)
+    private final HashIndex<Double, Integer> monto_solicitadoIndex = new HashIndex<>();
+    private final HashIndex<Double, Integer> tasa_interesIndex = new HashIndex<>();
+    private final HashIndex<Integer, Integer> plazo_mesesIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> estado_prestamoIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> fecha_solicitudIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> fecha_aprobacionIndex = new HashIndex<>();
+
+    // Índices ordenados para consultas por rango (fechas en días desde la época, importes en céntimos)
+    private final RangeIndex<Long, Integer> monto_solicitadoRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, Integer> tasa_interesRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, Integer> fecha_solicitudRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, Integer> fecha_aprobacionRangeIndex = new RangeIndex<>();
+
+    // Índices inversos de relaciones (ID de la entidad referenciada -> IDs de las entidades)
+    private final HashIndex<Integer, Integer> cliente_solicitanteIndex = new HashIndex<>();
+    private final HashIndex<Integer, Integer> empleado_aprobadorIndex = new HashIndex<>();
+
     /**
      * Constructor privado para aplicar el patrón Singleton
      */
     private PrestamoDAO() {
-        data = new HashMap<>();
+        data = new ConcurrentHashMap<>();
         initData();
     }
     
@@ -38,7 +68,7 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
      * Obtiene la instancia única del DAO
      * @return Instancia del DAO de Prestamo
      */
-    public static PrestamoDAO getInstance() {
+    public static synchronized PrestamoDAO getInstance() {
         if (instance == null) {
             instance = new PrestamoDAO();
         }
@@ -85,11 +115,10 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
             
             // Guardamos la entidad en el mapa
             data.put(entity.getId_prestamo(), entity);
+            indexEntity(entity);
             
             // Actualizamos el contador de ID para la próxima entidad
-            if (entity.getId_prestamo() >= nextId) {
-                nextId = entity.getId_prestamo() + 1;
-            }
+            nextId.accumulateAndGet(entity.getId_prestamo() + 1, Math::max);
         }
         
         System.out.println("Se han creado " + numInstancias + " instancias de prueba para Prestamo");
@@ -119,6 +148,7 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
                 if (rand.nextDouble() < 0.8) {
                     Cliente related = cliente_solicitanteList.get(rand.nextInt(cliente_solicitanteList.size()));
                     entity.setCliente_solicitante(related);
+                    cliente_solicitanteIndex.put(entity.getId_prestamo(), related.getId_cliente());
                 }
             }
             System.out.println("Relaciones cliente_solicitante configuradas correctamente");
@@ -142,6 +172,7 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
                 if (rand.nextDouble() < 0.8) {
                     Empleado related = empleado_aprobadorList.get(rand.nextInt(empleado_aprobadorList.size()));
                     entity.setEmpleado_aprobador(related);
+                    empleado_aprobadorIndex.put(entity.getId_prestamo(), related.getId_empleado());
                 }
             }
             System.out.println("Relaciones empleado_aprobador configuradas correctamente");
@@ -158,7 +189,7 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
      */
     @Override
 	public Prestamo findById(Integer id) {
-	    return data.get(id);
+	    return id == null ? null : data.get(id);
 	}
     
     /**
@@ -178,15 +209,50 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
     @Override
     public Prestamo save(Prestamo entity) {
         // Si es una entidad nueva y tiene ID numérico, asignarle uno automáticamente
-        if (entity.getId_prestamo() == 0) {
-            entity.setId_prestamo(nextId++);
+        if (entity.getId_prestamo() == null || entity.getId_prestamo() == 0) {
+            entity.setId_prestamo(nextId.getAndIncrement());
+        }
+        if (entity.getId_prestamo() == null) {
+            throw new IllegalArgumentException("El identificador de Prestamo no puede ser null");
         }
         
-        data.put(entity.getId_prestamo(), entity);
+        synchronized (locks.forKey(entity.getId_prestamo())) {
+            data.put(entity.getId_prestamo(), entity);
+            indexEntity(entity);
+            versions.merge(entity.getId_prestamo(), 1L, Long::sum);
+        }
+        // Un identificador explícito no debe volver a asignarse a una entidad nueva
+        nextId.accumulateAndGet(entity.getId_prestamo() + 1, Math::max);
         System.out.println("Prestamo guardado: " + entity);
         return entity;
     }
     
+    /**
+     * Guarda un lote de entidades sin mostrar cada una (pensado para cargas masivas)
+     * Las entidades que traen su identificador lo conservan y el contador de IDs se ajusta después
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    @Override
+    public int saveAll(Collection<Prestamo> entities) {
+        for (Prestamo entity : entities) {
+            if (entity.getId_prestamo() == null || entity.getId_prestamo() == 0) {
+                entity.setId_prestamo(nextId.getAndIncrement());
+            }
+            if (entity.getId_prestamo() == null) {
+                throw new IllegalArgumentException("El identificador de Prestamo no puede ser null");
+            }
+            
+            synchronized (locks.forKey(entity.getId_prestamo())) {
+                data.put(entity.getId_prestamo(), entity);
+                indexEntity(entity);
+                versions.merge(entity.getId_prestamo(), 1L, Long::sum);
+            }
+            nextId.accumulateAndGet(entity.getId_prestamo() + 1, Math::max);
+        }
+        return entities.size();
+    }
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -194,8 +260,18 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
      */
     @Override
     public boolean update(Prestamo entity) {
-        if (data.containsKey(entity.getId_prestamo())) {
-            data.put(entity.getId_prestamo(), entity);
+        boolean actualizado = false;
+        if (entity.getId_prestamo() != null) {
+            synchronized (locks.forKey(entity.getId_prestamo())) {
+                if (data.replace(entity.getId_prestamo(), entity) != null) {
+                    indexEntity(entity);
+                    versions.merge(entity.getId_prestamo(), 1L, Long::sum);
+                    actualizado = true;
+                }
+            }
+        }
+        // La salida por consola se hace sin el cerrojo de la entidad
+        if (actualizado) {
             System.out.println("Prestamo actualizado: " + entity);
             return true;
         }
@@ -210,7 +286,17 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
      */
     @Override
 	public boolean delete(Integer id) {
-	    Prestamo removed = data.remove(id);
+	    Prestamo removed = null;
+	    if (id != null) {
+	        synchronized (locks.forKey(id)) {
+	            removed = data.remove(id);
+	            if (removed != null) {
+	                unindexEntity(id);
+	                // La versión se conserva para que una entidad vuelta a crear no repita una versión ya leída
+	                versions.merge(id, 1L, Long::sum);
+	            }
+	        }
+	    }
 	    if (removed != null) {
 	        System.out.println("Prestamo con id " + id + " eliminado correctamente");
 	        return true;
@@ -225,7 +311,14 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
      */
     @Override
     public void deleteAll() {
-        data.clear();
+        // Se toman todos los cerrojos para no intercalarse con altas, cambios o compareAndUpdate en curso
+        locks.withAllStripes(() -> {
+            data.clear();
+            clearIndexes();
+            // Las versiones se invalidan en lugar de borrarse (ver delete)
+            versions.replaceAll((id, version) -> version + 1);
+            return null;
+        });
         System.out.println("Todas las entidades Prestamo han sido eliminadas");
     }
     
@@ -260,7 +353,9 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
@@ -278,13 +373,80 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .filter(filter)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * El coste no depende de la posición de la página, a diferencia de getPage
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    @Override
+    public Page<Prestamo> getPageAfter(String cursor, int pageSize) {
+        return getPageAfter(cursor, pageSize, false, null);
+    }
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor
+     * El cursor solo es válido para el mismo orden con el que se obtuvo
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @param descending true para recorrer las entidades por identificador descendente
+     * @param filter Predicado que deben cumplir las entidades (null para no filtrar)
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    public Page<Prestamo> getPageAfter(String cursor, int pageSize, boolean descending, Predicate<Prestamo> filter) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser mayor que 0");
+        }
+        
+        NavigableSet<Integer> ids = descending ? primaryIndex.descendingSet() : primaryIndex;
+        Integer after = parseCursor(cursor);
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        
+        List<Prestamo> items = new ArrayList<>(pageSize);
+        Integer last = null;
+        for (Integer id : ids) {
+            Prestamo entity = data.get(id);
+            if (entity == null || (filter != null && !filter.test(entity))) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeCursor(last));
+            }
+            items.add(entity);
+            last = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    /**
+     * Convierte un cursor de paginación en el identificador que representa
+     * @param cursor Cursor opaco
+     * @return Identificador o null si no hay cursor
+     */
+    private Integer parseCursor(String cursor) {
+        String value = Page.decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+    
     /**
      * Cuenta el número de entidades que cumplen un criterio
      * @param filter Predicado que define el criterio
@@ -296,104 +458,290 @@ public class PrestamoDAO implements IDAO<Prestamo, Integer> {
                 .count();
     }
     
+    // Control de concurrencia optimista
+    
+    /**
+     * Obtiene la versión actual de una entidad
+     * La versión se incrementa cada vez que la entidad se guarda, se actualiza o se elimina a través del DAO
+     * @param id Identificador de la entidad
+     * @return Versión de la entidad (0 si no se ha modificado desde la carga inicial)
+     */
+    public long getVersion(Integer id) {
+        return id == null ? 0L : versions.getOrDefault(id, 0L);
+    }
+    
+    /**
+     * Modifica una entidad solo si su versión no ha cambiado desde que se leyó (compare-and-set)
+     * La comprobación y el cambio se hacen con el cerrojo de esa única entidad, como en update,
+     * por lo que las operaciones que usan este método no mantienen cerrojos entre una entidad y otra
+     * @param id Identificador de la entidad
+     * @param expectedVersion Versión obtenida con getVersion antes de leer la entidad
+     * @param change Cambio a aplicar sobre la entidad guardada
+     * @return true si se aplicó el cambio, false si la entidad no existe o su versión ha cambiado
+     */
+    public boolean compareAndUpdate(Integer id, long expectedVersion, Consumer<Prestamo> change) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (locks.forKey(id)) {
+            Prestamo entity = data.get(id);
+            if (entity == null || versions.getOrDefault(id, 0L) != expectedVersion) {
+                return false;
+            }
+            change.accept(entity);
+            indexEntity(entity);
+            versions.merge(id, 1L, Long::sum);
+            return true;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción con los cerrojos de escritura de varias entidades adquiridos
+     * Permite validar versiones y aplicar cambios sobre varias entidades como una única operación
+     * @param <R> Tipo del resultado
+     * @param ids Identificadores de las entidades a bloquear
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     */
+    public <R> R withLocks(Collection<Integer> ids, Supplier<R> action) {
+        return locks.withAll(ids, action);
+    }
+    
+    // Mantenimiento de los índices secundarios
+    
+    /**
+     * Actualiza los índices secundarios con los valores actuales de una entidad
+     * @param entity Entidad a indexar
+     */
+    private void indexEntity(Prestamo entity) {
+        Integer id = entity.getId_prestamo();
+        primaryIndex.add(id);
+        monto_solicitadoIndex.put(id, entity.getMonto_solicitado());
+        tasa_interesIndex.put(id, entity.getTasa_interes());
+        plazo_mesesIndex.put(id, entity.getPlazo_meses());
+        estado_prestamoIndex.put(id, HashIndex.normalize(entity.getEstado_prestamo()));
+        fecha_solicitudIndex.put(id, HashIndex.normalize(entity.getFecha_solicitud()));
+        fecha_aprobacionIndex.put(id, HashIndex.normalize(entity.getFecha_aprobacion()));
+        monto_solicitadoRangeIndex.put(id, RangeIndex.toCents(entity.getMonto_solicitado()));
+        tasa_interesRangeIndex.put(id, RangeIndex.toCents(entity.getTasa_interes()));
+        fecha_solicitudRangeIndex.put(id, RangeIndex.toEpochDay(entity.getFecha_solicitud()));
+        fecha_aprobacionRangeIndex.put(id, RangeIndex.toEpochDay(entity.getFecha_aprobacion()));
+        cliente_solicitanteIndex.put(id, entity.getCliente_solicitante() != null ? entity.getCliente_solicitante().getId_cliente() : null);
+        empleado_aprobadorIndex.put(id, entity.getEmpleado_aprobador() != null ? entity.getEmpleado_aprobador().getId_empleado() : null);
+    }
+    
+    /**
+     * Elimina una entidad de los índices secundarios
+     * @param id Identificador de la entidad
+     */
+    private void unindexEntity(Integer id) {
+        primaryIndex.remove(id);
+        monto_solicitadoIndex.remove(id);
+        tasa_interesIndex.remove(id);
+        plazo_mesesIndex.remove(id);
+        estado_prestamoIndex.remove(id);
+        fecha_solicitudIndex.remove(id);
+        fecha_aprobacionIndex.remove(id);
+        monto_solicitadoRangeIndex.remove(id);
+        tasa_interesRangeIndex.remove(id);
+        fecha_solicitudRangeIndex.remove(id);
+        fecha_aprobacionRangeIndex.remove(id);
+        cliente_solicitanteIndex.remove(id);
+        empleado_aprobadorIndex.remove(id);
+    }
+    
+    /**
+     * Vacía todos los índices secundarios
+     */
+    private void clearIndexes() {
+        primaryIndex.clear();
+        monto_solicitadoIndex.clear();
+        tasa_interesIndex.clear();
+        plazo_mesesIndex.clear();
+        estado_prestamoIndex.clear();
+        fecha_solicitudIndex.clear();
+        fecha_aprobacionIndex.clear();
+        monto_solicitadoRangeIndex.clear();
+        tasa_interesRangeIndex.clear();
+        fecha_solicitudRangeIndex.clear();
+        fecha_aprobacionRangeIndex.clear();
+        cliente_solicitanteIndex.clear();
+        empleado_aprobadorIndex.clear();
+    }
+    
+    /**
+     * Obtiene las entidades correspondientes a un conjunto de IDs
+     * @param ids IDs obtenidos de un índice
+     * @return Lista con las entidades existentes
+     */
+    private List<Prestamo> findByIds(Collection<Integer> ids) {
+        List<Prestamo> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Prestamo entity = data.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
     // Métodos específicos para búsquedas por atributos
     
     /**
-     * Busca entidades por el atributo monto_solicitado
+     * Busca entidades por el atributo monto_solicitado usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Prestamo> findByMonto_solicitado(double value) {
-        return findByFilter(entity -> {
-            return entity.getMonto_solicitado() == value;
-        });
+        return findByIds(monto_solicitadoIndex.get(value));
     }
     
     /**
-     * Busca entidades por el atributo tasa_interes
+     * Busca entidades cuyo atributo monto_solicitado está entre dos importes usando el índice ordenado
+     * @param min Importe mínimo (incluido)
+     * @param max Importe máximo (incluido)
+     * @return Lista de entidades ordenada por monto_solicitado
+     */
+    public List<Prestamo> findByMonto_solicitadoBetween(double min, double max) {
+        return findByIds(monto_solicitadoRangeIndex.range(RangeIndex.toCents(min), RangeIndex.toCents(max)));
+    }
+    
+    /**
+     * Busca entidades por el atributo tasa_interes usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Prestamo> findByTasa_interes(double value) {
-        return findByFilter(entity -> {
-            return entity.getTasa_interes() == value;
-        });
+        return findByIds(tasa_interesIndex.get(value));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo tasa_interes está entre dos importes usando el índice ordenado
+     * @param min Importe mínimo (incluido)
+     * @param max Importe máximo (incluido)
+     * @return Lista de entidades ordenada por tasa_interes
+     */
+    public List<Prestamo> findByTasa_interesBetween(double min, double max) {
+        return findByIds(tasa_interesRangeIndex.range(RangeIndex.toCents(min), RangeIndex.toCents(max)));
     }
     
     /**
-     * Busca entidades por el atributo plazo_meses
+     * Busca entidades por el atributo plazo_meses usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Prestamo> findByPlazo_meses(int value) {
-        return findByFilter(entity -> {
-            return entity.getPlazo_meses() == value;
-        });
+        return findByIds(plazo_mesesIndex.get(value));
     }
     
     /**
-     * Busca entidades por el atributo estado_prestamo
+     * Busca entidades por el atributo estado_prestamo usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Prestamo> findByEstado_prestamo(String value) {
-        return findByFilter(entity -> {
-            return entity.getEstado_prestamo() != null && 
-                   entity.getEstado_prestamo().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(estado_prestamoIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo estado_prestamo contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByEstado_prestamo
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Prestamo> findByEstado_prestamoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getEstado_prestamo() != null && 
+            entity.getEstado_prestamo().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo fecha_solicitud
+     * Busca entidades por el atributo fecha_solicitud usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Prestamo> findByFecha_solicitud(String value) {
-        return findByFilter(entity -> {
-            return entity.getFecha_solicitud() != null && 
-                   entity.getFecha_solicitud().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(fecha_solicitudIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo fecha_aprobacion
+     * Busca entidades cuyo atributo fecha_solicitud contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByFecha_solicitud
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Prestamo> findByFecha_solicitudContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getFecha_solicitud() != null && 
+            entity.getFecha_solicitud().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_solicitud está entre dos fechas usando el índice ordenado
+     * @param from Fecha inicial con formato yyyy-MM-dd (incluida)
+     * @param to Fecha final con formato yyyy-MM-dd (incluida)
+     * @return Lista de entidades ordenada por fecha_solicitud
+     */
+    public List<Prestamo> findByFecha_solicitudBetween(String from, String to) {
+        return findByIds(fecha_solicitudRangeIndex.range(RangeIndex.requireEpochDay(from), RangeIndex.requireEpochDay(to)));
+    }
+    
+    /**
+     * Busca entidades por el atributo fecha_aprobacion usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Prestamo> findByFecha_aprobacion(String value) {
-        return findByFilter(entity -> {
-            return entity.getFecha_aprobacion() != null && 
-                   entity.getFecha_aprobacion().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(fecha_aprobacionIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_aprobacion contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByFecha_aprobacion
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Prestamo> findByFecha_aprobacionContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getFecha_aprobacion() != null && 
+            entity.getFecha_aprobacion().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_aprobacion está entre dos fechas usando el índice ordenado
+     * @param from Fecha inicial con formato yyyy-MM-dd (incluida)
+     * @param to Fecha final con formato yyyy-MM-dd (incluida)
+     * @return Lista de entidades ordenada por fecha_aprobacion
+     */
+    public List<Prestamo> findByFecha_aprobacionBetween(String from, String to) {
+        return findByIds(fecha_aprobacionRangeIndex.range(RangeIndex.requireEpochDay(from), RangeIndex.requireEpochDay(to)));
     }
     
     
     // Métodos para búsqueda por relaciones
     
     /**
-     * Busca entidades por su relación con Cliente
-     * @param clienteId ID de la entidad Cliente relacionada
+     * Busca entidades por su relación con Cliente usando el índice inverso
+     * @param refId ID de la entidad Cliente relacionada
      * @return Lista de entidades relacionadas con la Cliente especificada
      */
 	public List<Prestamo> findByCliente_solicitante(Integer refId) {
-	    return findByFilter(entity -> 
-	        entity.getCliente_solicitante() != null && 
-	        entity.getCliente_solicitante().getId_cliente() != null && 
-	        entity.getCliente_solicitante().getId_cliente() == refId
-	    );
+	    return findByIds(cliente_solicitanteIndex.get(refId));
 	}
     
     /**
-     * Busca entidades por su relación con Empleado
-     * @param empleadoId ID de la entidad Empleado relacionada
+     * Busca entidades por su relación con Empleado usando el índice inverso
+     * @param refId ID de la entidad Empleado relacionada
      * @return Lista de entidades relacionadas con la Empleado especificada
      */
 	public List<Prestamo> findByEmpleado_aprobador(Integer refId) {
-	    return findByFilter(entity -> 
-	        entity.getEmpleado_aprobador() != null && 
-	        entity.getEmpleado_aprobador().getId_empleado() != null && 
-	        entity.getEmpleado_aprobador().getId_empleado() == refId
-	    );
+	    return findByIds(empleado_aprobadorIndex.get(refId));
 	}
     
     
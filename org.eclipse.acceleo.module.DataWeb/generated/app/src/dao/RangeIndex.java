@@ -0,0 +1,87 @@
+package dao;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice secundario ordenado utilizado por los DAOs para consultas por rango
+ * Las claves se mantienen ordenadas, de forma que una consulta entre dos valores
+ * solo recorre las entradas que están dentro del rango
+ * @param <K> Tipo del valor indexado
+ * @param <ID> Tipo de identificador de la entidad
+ */
+public class RangeIndex<K extends Comparable<K>, ID> extends HashIndex<K, ID> {
+
+    /**
+     * Constructor por defecto (índice ordenado)
+     */
+    public RangeIndex() {
+        super(new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Obtiene los IDs de las entidades cuyo valor está dentro del rango indicado
+     * @param from Valor mínimo (incluido)
+     * @param to Valor máximo (incluido)
+     * @return Lista de IDs ordenada por valor, vacía si no hay coincidencias
+     */
+    public List<ID> range(K from, K to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Los límites del rango no pueden ser null");
+        }
+        List<ID> result = new ArrayList<>();
+        if (from.compareTo(to) > 0) {
+            return result;
+        }
+        NavigableMap<K, Set<ID>> entries = (NavigableMap<K, Set<ID>>) entries();
+        for (Collection<ID> ids : entries.subMap(from, true, to, true).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    /**
+     * Convierte una fecha con formato yyyy-MM-dd al número de días desde 1970-01-01
+     * @param value Fecha en texto
+     * @return Días desde la época o null si el valor no es una fecha válida
+     */
+    public static Long toEpochDay(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Convierte un importe decimal a céntimos para evitar errores de redondeo en las comparaciones
+     * @param value Importe
+     * @return Importe en céntimos
+     */
+    public static Long toCents(double value) {
+        return Math.round(value * 100);
+    }
+
+    /**
+     * Convierte una fecha usada como límite de una consulta
+     * @param value Fecha en texto con formato yyyy-MM-dd
+     * @return Días desde la época
+     * @throws IllegalArgumentException si la fecha no es válida
+     */
+    public static Long requireEpochDay(String value) {
+        Long epochDay = toEpochDay(value);
+        if (epochDay == null) {
+            throw new IllegalArgumentException("Fecha no válida (formato esperado yyyy-MM-dd): " + value);
+        }
+        return epochDay;
+    }
+}
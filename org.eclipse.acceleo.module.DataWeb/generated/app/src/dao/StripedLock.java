@@ -0,0 +1,103 @@
+package dao;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Conjunto de cerrojos repartidos por clave (lock striping)
+ * Cada clave se asigna siempre al mismo cerrojo, de modo que las operaciones sobre
+ * claves distintas pueden ejecutarse en paralelo sin un bloqueo global
+ */
+public class StripedLock {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Object[] stripes;
+
+    /**
+     * Constructor por defecto
+     */
+    public StripedLock() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor con número de cerrojos
+     * @param numStripes Número de cerrojos (mayor que 0)
+     */
+    public StripedLock(int numStripes) {
+        if (numStripes < 1) {
+            throw new IllegalArgumentException("El número de cerrojos debe ser mayor que 0");
+        }
+        stripes = new Object[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Obtiene la posición del cerrojo asociado a una clave
+     * Permite adquirir varios cerrojos siempre en el mismo orden y evitar interbloqueos
+     * @param key Clave
+     * @return Posición del cerrojo
+     */
+    public int indexFor(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= (h >>> 16);
+        return (h & 0x7fffffff) % stripes.length;
+    }
+
+    /**
+     * Obtiene el cerrojo asociado a una clave
+     * @param key Clave
+     * @return Objeto sobre el que sincronizar
+     */
+    public Object forKey(Object key) {
+        return stripes[indexFor(key)];
+    }
+
+    /**
+     * Obtiene el cerrojo de una posición concreta
+     * @param index Posición obtenida con indexFor
+     * @return Objeto sobre el que sincronizar
+     */
+    public Object get(int index) {
+        return stripes[index];
+    }
+
+    /**
+     * Ejecuta una acción con los cerrojos de varias claves adquiridos
+     * Los cerrojos se adquieren siempre en orden creciente de posición para evitar interbloqueos
+     * @param <R> Tipo del resultado
+     * @param keys Claves a bloquear
+     * @param action Acción a ejecutar con todos los cerrojos adquiridos
+     * @return Resultado de la acción
+     */
+    public <R> R withAll(Collection<?> keys, Supplier<R> action) {
+        int[] indexes = keys.stream().mapToInt(this::indexFor).distinct().sorted().toArray();
+        return withAll(indexes, 0, action);
+    }
+
+    /**
+     * Ejecuta una acción con todos los cerrojos adquiridos, en orden creciente de posición
+     * Sirve para las operaciones que afectan a todas las claves a la vez (por ejemplo, vaciar el almacén)
+     * @param <R> Tipo del resultado
+     * @param action Acción a ejecutar con todos los cerrojos adquiridos
+     * @return Resultado de la acción
+     */
+    public <R> R withAllStripes(Supplier<R> action) {
+        int[] indexes = new int[stripes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        return withAll(indexes, 0, action);
+    }
+
+    private <R> R withAll(int[] indexes, int pos, Supplier<R> action) {
+        if (pos == indexes.length) {
+            return action.get();
+        }
+        synchronized (stripes[indexes[pos]]) {
+            return withAll(indexes, pos + 1, action);
+        }
+    }
+}
@@ -5,14 +5,21 @@ import model.TarjetaCredito;
 import model.Cliente;
 import dao.ClienteDAO;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Date;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -21,14 +28,33 @@ import java.util.stream.Collectors;
  */
 public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
     private static TarjetaCreditoDAO instance;
-    private Map<String, TarjetaCredito> data;
-    private int nextId = 1; // Para generar IDs automáticamente
-    
+    private final Map<String, TarjetaCredito> data;
+    private final AtomicInteger nextId = new AtomicInteger(1); // Para generar IDs automáticamente
+    private final StripedLock locks = new StripedLock(); // Cerrojos por ID para las escrituras
+    private final Map<String, Long> versions = new ConcurrentHashMap<>(); // Versión de cada entidad modificada
+
+    // Índice primario ordenado por ID (paginación estable por cursor)
+    private final NavigableSet<String> primaryIndex = new ConcurrentSkipListSet<>();
+
+    // Índices secundarios por atributo (valor normalizado -> IDs de las entidades)
+    private final HashIndex<Double, String> limite_creditoIndex = new HashIndex<>();
+    private final HashIndex<Double, String> saldo_actualIndex = new HashIndex<>();
+    private final HashIndex<String, String> fecha_vencimientoIndex = new HashIndex<>();
+    private final HashIndex<Boolean, String> activaIndex = new HashIndex<>();
+
+    // Índices ordenados para consultas por rango (fechas en días desde la época, importes en céntimos)
+    private final RangeIndex<Long, String> limite_creditoRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, String> saldo_actualRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, String> fecha_vencimientoRangeIndex = new RangeIndex<>();
+
+    // Índices inversos de relaciones (ID de la entidad referenciada -> IDs de las entidades)
+    private final HashIndex<Integer, String> cliente_propietarioIndex = new HashIndex<>();
+
     /**
      * Constructor privado para aplicar el patrón Singleton
      */
     private TarjetaCreditoDAO() {
-        data = new HashMap<>();
+        data = new ConcurrentHashMap<>();
         initData();
     }
     
@@ -36,7 +62,7 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
      * Obtiene la instancia única del DAO
      * @return Instancia del DAO de TarjetaCredito
      */
-    public static TarjetaCreditoDAO getInstance() {
+    public static synchronized TarjetaCreditoDAO getInstance() {
         if (instance == null) {
             instance = new TarjetaCreditoDAO();
         }
@@ -78,6 +104,7 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
             
             // Guardamos la entidad en el mapa
             data.put(entity.getNumero_tarjeta(), entity);
+            indexEntity(entity);
             
             // Actualizamos el contador de ID para la próxima entidad
         }
@@ -109,6 +136,7 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
                 if (rand.nextDouble() < 0.8) {
                     Cliente related = cliente_propietarioList.get(rand.nextInt(cliente_propietarioList.size()));
                     entity.setCliente_propietario(related);
+                    cliente_propietarioIndex.put(entity.getNumero_tarjeta(), related.getId_cliente());
                 }
             }
             System.out.println("Relaciones cliente_propietario configuradas correctamente");
@@ -125,7 +153,7 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
      */
     @Override
 	public TarjetaCredito findById(String id) {
-	    return data.get(id);
+	    return id == null ? null : data.get(id);
 	}
     
     /**
@@ -145,12 +173,41 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
     @Override
     public TarjetaCredito save(TarjetaCredito entity) {
         // Si es una entidad nueva y tiene ID numérico, asignarle uno automáticamente
+        if (entity.getNumero_tarjeta() == null) {
+            throw new IllegalArgumentException("El identificador de TarjetaCredito no puede ser null");
+        }
         
-        data.put(entity.getNumero_tarjeta(), entity);
+        synchronized (locks.forKey(entity.getNumero_tarjeta())) {
+            data.put(entity.getNumero_tarjeta(), entity);
+            indexEntity(entity);
+            versions.merge(entity.getNumero_tarjeta(), 1L, Long::sum);
+        }
         System.out.println("TarjetaCredito guardado: " + entity);
         return entity;
     }
     
+    /**
+     * Guarda un lote de entidades sin mostrar cada una (pensado para cargas masivas)
+     * Las entidades que traen su identificador lo conservan y el contador de IDs se ajusta después
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    @Override
+    public int saveAll(Collection<TarjetaCredito> entities) {
+        for (TarjetaCredito entity : entities) {
+            if (entity.getNumero_tarjeta() == null) {
+                throw new IllegalArgumentException("El identificador de TarjetaCredito no puede ser null");
+            }
+            
+            synchronized (locks.forKey(entity.getNumero_tarjeta())) {
+                data.put(entity.getNumero_tarjeta(), entity);
+                indexEntity(entity);
+                versions.merge(entity.getNumero_tarjeta(), 1L, Long::sum);
+            }
+        }
+        return entities.size();
+    }
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -158,8 +215,18 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
      */
     @Override
     public boolean update(TarjetaCredito entity) {
-        if (data.containsKey(entity.getNumero_tarjeta())) {
-            data.put(entity.getNumero_tarjeta(), entity);
+        boolean actualizado = false;
+        if (entity.getNumero_tarjeta() != null) {
+            synchronized (locks.forKey(entity.getNumero_tarjeta())) {
+                if (data.replace(entity.getNumero_tarjeta(), entity) != null) {
+                    indexEntity(entity);
+                    versions.merge(entity.getNumero_tarjeta(), 1L, Long::sum);
+                    actualizado = true;
+                }
+            }
+        }
+        // La salida por consola se hace sin el cerrojo de la entidad
+        if (actualizado) {
             System.out.println("TarjetaCredito actualizado: " + entity);
             return true;
         }
@@ -174,7 +241,17 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
      */
     @Override
 	public boolean delete(String id) {
-	    TarjetaCredito removed = data.remove(id);
+	    TarjetaCredito removed = null;
+	    if (id != null) {
+	        synchronized (locks.forKey(id)) {
+	            removed = data.remove(id);
+	            if (removed != null) {
+	                unindexEntity(id);
+	                // La versión se conserva para que una entidad vuelta a crear no repita una versión ya leída
+	                versions.merge(id, 1L, Long::sum);
+	            }
+	        }
+	    }
 	    if (removed != null) {
 	        System.out.println("TarjetaCredito con id " + id + " eliminado correctamente");
 	        return true;
@@ -189,7 +266,14 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
      */
     @Override
     public void deleteAll() {
-        data.clear();
+        // Se toman todos los cerrojos para no intercalarse con altas, cambios o compareAndUpdate en curso
+        locks.withAllStripes(() -> {
+            data.clear();
+            clearIndexes();
+            // Las versiones se invalidan en lugar de borrarse (ver delete)
+            versions.replaceAll((id, version) -> version + 1);
+            return null;
+        });
         System.out.println("Todas las entidades TarjetaCredito han sido eliminadas");
     }
     
@@ -224,7 +308,9 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
@@ -242,13 +328,76 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .filter(filter)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * El coste no depende de la posición de la página, a diferencia de getPage
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    @Override
+    public Page<TarjetaCredito> getPageAfter(String cursor, int pageSize) {
+        return getPageAfter(cursor, pageSize, false, null);
+    }
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor
+     * El cursor solo es válido para el mismo orden con el que se obtuvo
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @param descending true para recorrer las entidades por identificador descendente
+     * @param filter Predicado que deben cumplir las entidades (null para no filtrar)
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    public Page<TarjetaCredito> getPageAfter(String cursor, int pageSize, boolean descending, Predicate<TarjetaCredito> filter) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser mayor que 0");
+        }
+        
+        NavigableSet<String> ids = descending ? primaryIndex.descendingSet() : primaryIndex;
+        String after = parseCursor(cursor);
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        
+        List<TarjetaCredito> items = new ArrayList<>(pageSize);
+        String last = null;
+        for (String id : ids) {
+            TarjetaCredito entity = data.get(id);
+            if (entity == null || (filter != null && !filter.test(entity))) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeCursor(last));
+            }
+            items.add(entity);
+            last = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    /**
+     * Convierte un cursor de paginación en el identificador que representa
+     * @param cursor Cursor opaco
+     * @return Identificador o null si no hay cursor
+     */
+    private String parseCursor(String cursor) {
+        String value = Page.decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        return value;
+    }
+    
     /**
      * Cuenta el número de entidades que cumplen un criterio
      * @param filter Predicado que define el criterio
@@ -260,67 +409,213 @@ public class TarjetaCreditoDAO implements IDAO<TarjetaCredito, String> {
                 .count();
     }
     
+    // Control de concurrencia optimista
+    
+    /**
+     * Obtiene la versión actual de una entidad
+     * La versión se incrementa cada vez que la entidad se guarda, se actualiza o se elimina a través del DAO
+     * @param id Identificador de la entidad
+     * @return Versión de la entidad (0 si no se ha modificado desde la carga inicial)
+     */
+    public long getVersion(String id) {
+        return id == null ? 0L : versions.getOrDefault(id, 0L);
+    }
+    
+    /**
+     * Modifica una entidad solo si su versión no ha cambiado desde que se leyó (compare-and-set)
+     * La comprobación y el cambio se hacen con el cerrojo de esa única entidad, como en update,
+     * por lo que las operaciones que usan este método no mantienen cerrojos entre una entidad y otra
+     * @param id Identificador de la entidad
+     * @param expectedVersion Versión obtenida con getVersion antes de leer la entidad
+     * @param change Cambio a aplicar sobre la entidad guardada
+     * @return true si se aplicó el cambio, false si la entidad no existe o su versión ha cambiado
+     */
+    public boolean compareAndUpdate(String id, long expectedVersion, Consumer<TarjetaCredito> change) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (locks.forKey(id)) {
+            TarjetaCredito entity = data.get(id);
+            if (entity == null || versions.getOrDefault(id, 0L) != expectedVersion) {
+                return false;
+            }
+            change.accept(entity);
+            indexEntity(entity);
+            versions.merge(id, 1L, Long::sum);
+            return true;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción con los cerrojos de escritura de varias entidades adquiridos
+     * Permite validar versiones y aplicar cambios sobre varias entidades como una única operación
+     * @param <R> Tipo del resultado
+     * @param ids Identificadores de las entidades a bloquear
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     */
+    public <R> R withLocks(Collection<String> ids, Supplier<R> action) {
+        return locks.withAll(ids, action);
+    }
+    
+    // Mantenimiento de los índices secundarios
+    
+    /**
+     * Actualiza los índices secundarios con los valores actuales de una entidad
+     * @param entity Entidad a indexar
+     */
+    private void indexEntity(TarjetaCredito entity) {
+        String id = entity.getNumero_tarjeta();
+        primaryIndex.add(id);
+        limite_creditoIndex.put(id, entity.getLimite_credito());
+        saldo_actualIndex.put(id, entity.getSaldo_actual());
+        fecha_vencimientoIndex.put(id, HashIndex.normalize(entity.getFecha_vencimiento()));
+        activaIndex.put(id, entity.getActiva());
+        limite_creditoRangeIndex.put(id, RangeIndex.toCents(entity.getLimite_credito()));
+        saldo_actualRangeIndex.put(id, RangeIndex.toCents(entity.getSaldo_actual()));
+        fecha_vencimientoRangeIndex.put(id, RangeIndex.toEpochDay(entity.getFecha_vencimiento()));
+        cliente_propietarioIndex.put(id, entity.getCliente_propietario() != null ? entity.getCliente_propietario().getId_cliente() : null);
+    }
+    
+    /**
+     * Elimina una entidad de los índices secundarios
+     * @param id Identificador de la entidad
+     */
+    private void unindexEntity(String id) {
+        primaryIndex.remove(id);
+        limite_creditoIndex.remove(id);
+        saldo_actualIndex.remove(id);
+        fecha_vencimientoIndex.remove(id);
+        activaIndex.remove(id);
+        limite_creditoRangeIndex.remove(id);
+        saldo_actualRangeIndex.remove(id);
+        fecha_vencimientoRangeIndex.remove(id);
+        cliente_propietarioIndex.remove(id);
+    }
+    
+    /**
+     * Vacía todos los índices secundarios
+     */
+    private void clearIndexes() {
+        primaryIndex.clear();
+        limite_creditoIndex.clear();
+        saldo_actualIndex.clear();
+        fecha_vencimientoIndex.clear();
+        activaIndex.clear();
+        limite_creditoRangeIndex.clear();
+        saldo_actualRangeIndex.clear();
+        fecha_vencimientoRangeIndex.clear();
+        cliente_propietarioIndex.clear();
+    }
+    
+    /**
+     * Obtiene las entidades correspondientes a un conjunto de IDs
+     * @param ids IDs obtenidos de un índice
+     * @return Lista con las entidades existentes
+     */
+    private List<TarjetaCredito> findByIds(Collection<String> ids) {
+        List<TarjetaCredito> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            TarjetaCredito entity = data.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
     // Métodos específicos para búsquedas por atributos
     
     /**
-     * Busca entidades por el atributo limite_credito
+     * Busca entidades por el atributo limite_credito usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<TarjetaCredito> findByLimite_credito(double value) {
-        return findByFilter(entity -> {
-            return entity.getLimite_credito() == value;
-        });
+        return findByIds(limite_creditoIndex.get(value));
     }
     
     /**
-     * Busca entidades por el atributo saldo_actual
+     * Busca entidades cuyo atributo limite_credito está entre dos importes usando el índice ordenado
+     * @param min Importe mínimo (incluido)
+     * @param max Importe máximo (incluido)
+     * @return Lista de entidades ordenada por limite_credito
+     */
+    public List<TarjetaCredito> findByLimite_creditoBetween(double min, double max) {
+        return findByIds(limite_creditoRangeIndex.range(RangeIndex.toCents(min), RangeIndex.toCents(max)));
+    }
+    
+    /**
+     * Busca entidades por el atributo saldo_actual usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<TarjetaCredito> findBySaldo_actual(double value) {
-        return findByFilter(entity -> {
-            return entity.getSaldo_actual() == value;
-        });
+        return findByIds(saldo_actualIndex.get(value));
     }
     
     /**
-     * Busca entidades por el atributo fecha_vencimiento
+     * Busca entidades cuyo atributo saldo_actual está entre dos importes usando el índice ordenado
+     * @param min Importe mínimo (incluido)
+     * @param max Importe máximo (incluido)
+     * @return Lista de entidades ordenada por saldo_actual
+     */
+    public List<TarjetaCredito> findBySaldo_actualBetween(double min, double max) {
+        return findByIds(saldo_actualRangeIndex.range(RangeIndex.toCents(min), RangeIndex.toCents(max)));
+    }
+    
+    /**
+     * Busca entidades por el atributo fecha_vencimiento usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<TarjetaCredito> findByFecha_vencimiento(String value) {
-        return findByFilter(entity -> {
-            return entity.getFecha_vencimiento() != null && 
-                   entity.getFecha_vencimiento().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(fecha_vencimientoIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo activa
+     * Busca entidades cuyo atributo fecha_vencimiento contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByFecha_vencimiento
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<TarjetaCredito> findByFecha_vencimientoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getFecha_vencimiento() != null && 
+            entity.getFecha_vencimiento().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_vencimiento está entre dos fechas usando el índice ordenado
+     * @param from Fecha inicial con formato yyyy-MM-dd (incluida)
+     * @param to Fecha final con formato yyyy-MM-dd (incluida)
+     * @return Lista de entidades ordenada por fecha_vencimiento
+     */
+    public List<TarjetaCredito> findByFecha_vencimientoBetween(String from, String to) {
+        return findByIds(fecha_vencimientoRangeIndex.range(RangeIndex.requireEpochDay(from), RangeIndex.requireEpochDay(to)));
+    }
+    
+    /**
+     * Busca entidades por el atributo activa usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<TarjetaCredito> findByActiva(boolean value) {
-        return findByFilter(entity -> {
-            return entity.getActiva() == value;
-        });
+        return findByIds(activaIndex.get(value));
     }
     
     
     // Métodos para búsqueda por relaciones
     
     /**
-     * Busca entidades por su relación con Cliente
-     * @param clienteId ID de la entidad Cliente relacionada
+     * Busca entidades por su relación con Cliente usando el índice inverso
+     * @param refId ID de la entidad Cliente relacionada
      * @return Lista de entidades relacionadas con la Cliente especificada
      */
 	public List<TarjetaCredito> findByCliente_propietario(Integer refId) {
-	    return findByFilter(entity -> 
-	        entity.getCliente_propietario() != null && 
-	        entity.getCliente_propietario().getId_cliente() != null && 
-	        entity.getCliente_propietario().getId_cliente() == refId
-	    );
+	    return findByIds(cliente_propietarioIndex.get(refId));
 	}
     
     
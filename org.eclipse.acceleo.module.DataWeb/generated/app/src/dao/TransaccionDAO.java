@@ -7,14 +7,21 @@ import dao.CuentaDAO;
 import model.Cuenta;
 import dao.CuentaDAO;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Date;
 import java.text.SimpleDateFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -23,14 +30,34 @@ import java.util.stream.Collectors;
  */
 public class TransaccionDAO implements IDAO<Transaccion, Integer> {
     private static TransaccionDAO instance;
-    private Map<Integer, Transaccion> data;
-    private int nextId = 1; // Para generar IDs automáticamente
-    
+    private final Map<Integer, Transaccion> data;
+    private final AtomicInteger nextId = new AtomicInteger(1); // Para generar IDs automáticamente
+    private final StripedLock locks = new StripedLock(); // Cerrojos por ID para las escrituras
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>(); // Versión de cada entidad modificada
+
+    // Índice primario ordenado por ID (paginación estable por cursor)
+    private final NavigableSet<Integer> primaryIndex = new ConcurrentSkipListSet<>();
+
+    // Índices secundarios por atributo (valor normalizado -> IDs de las entidades)
+    private final HashIndex<String, Integer> fecha_transaccionIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> tipo_transaccionIndex = new HashIndex<>();
+    private final HashIndex<Double, Integer> montoIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> descripcionIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> estadoIndex = new HashIndex<>();
+
+    // Índices ordenados para consultas por rango (fechas en días desde la época, importes en céntimos)
+    private final RangeIndex<Long, Integer> fecha_transaccionRangeIndex = new RangeIndex<>();
+    private final RangeIndex<Long, Integer> montoRangeIndex = new RangeIndex<>();
+
+    // Índices inversos de relaciones (ID de la entidad referenciada -> IDs de las entidades)
+    private final HashIndex<String, Integer> cuenta_origenIndex = new HashIndex<>();
+    private final HashIndex<String, Integer> cuenta_destinoIndex = new HashIndex<>();
+
     /**
      * Constructor privado para aplicar el patrón Singleton
      */
     private TransaccionDAO() {
-        data = new HashMap<>();
+        data = new ConcurrentHashMap<>();
         initData();
     }
     
@@ -38,7 +65,7 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
      * Obtiene la instancia única del DAO
      * @return Instancia del DAO de Transaccion
      */
-    public static TransaccionDAO getInstance() {
+    public static synchronized TransaccionDAO getInstance() {
         if (instance == null) {
             instance = new TransaccionDAO();
         }
@@ -81,11 +108,10 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
             
             // Guardamos la entidad en el mapa
             data.put(entity.getId_transaccion(), entity);
+            indexEntity(entity);
             
             // Actualizamos el contador de ID para la próxima entidad
-            if (entity.getId_transaccion() >= nextId) {
-                nextId = entity.getId_transaccion() + 1;
-            }
+            nextId.accumulateAndGet(entity.getId_transaccion() + 1, Math::max);
         }
         
         System.out.println("Se han creado " + numInstancias + " instancias de prueba para Transaccion");
@@ -115,6 +141,7 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
                 if (rand.nextDouble() < 0.8) {
                     Cuenta related = cuenta_origenList.get(rand.nextInt(cuenta_origenList.size()));
                     entity.setCuenta_origen(related);
+                    cuenta_origenIndex.put(entity.getId_transaccion(), related.getNumero_cuenta());
                 }
             }
             System.out.println("Relaciones cuenta_origen configuradas correctamente");
@@ -138,6 +165,7 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
                 if (rand.nextDouble() < 0.8) {
                     Cuenta related = cuenta_destinoList.get(rand.nextInt(cuenta_destinoList.size()));
                     entity.setCuenta_destino(related);
+                    cuenta_destinoIndex.put(entity.getId_transaccion(), related.getNumero_cuenta());
                 }
             }
             System.out.println("Relaciones cuenta_destino configuradas correctamente");
@@ -154,7 +182,7 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
      */
     @Override
 	public Transaccion findById(Integer id) {
-	    return data.get(id);
+	    return id == null ? null : data.get(id);
 	}
     
     /**
@@ -174,15 +202,50 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
     @Override
     public Transaccion save(Transaccion entity) {
         // Si es una entidad nueva y tiene ID numérico, asignarle uno automáticamente
-        if (entity.getId_transaccion() == 0) {
-            entity.setId_transaccion(nextId++);
+        if (entity.getId_transaccion() == null || entity.getId_transaccion() == 0) {
+            entity.setId_transaccion(nextId.getAndIncrement());
+        }
+        if (entity.getId_transaccion() == null) {
+            throw new IllegalArgumentException("El identificador de Transaccion no puede ser null");
         }
         
-        data.put(entity.getId_transaccion(), entity);
+        synchronized (locks.forKey(entity.getId_transaccion())) {
+            data.put(entity.getId_transaccion(), entity);
+            indexEntity(entity);
+            versions.merge(entity.getId_transaccion(), 1L, Long::sum);
+        }
+        // Un identificador explícito no debe volver a asignarse a una entidad nueva
+        nextId.accumulateAndGet(entity.getId_transaccion() + 1, Math::max);
         System.out.println("Transaccion guardado: " + entity);
         return entity;
     }
     
+    /**
+     * Guarda un lote de entidades sin mostrar cada una (pensado para cargas masivas)
+     * Las entidades que traen su identificador lo conservan y el contador de IDs se ajusta después
+     * @param entities Entidades a guardar
+     * @return Número de entidades guardadas
+     */
+    @Override
+    public int saveAll(Collection<Transaccion> entities) {
+        for (Transaccion entity : entities) {
+            if (entity.getId_transaccion() == null || entity.getId_transaccion() == 0) {
+                entity.setId_transaccion(nextId.getAndIncrement());
+            }
+            if (entity.getId_transaccion() == null) {
+                throw new IllegalArgumentException("El identificador de Transaccion no puede ser null");
+            }
+            
+            synchronized (locks.forKey(entity.getId_transaccion())) {
+                data.put(entity.getId_transaccion(), entity);
+                indexEntity(entity);
+                versions.merge(entity.getId_transaccion(), 1L, Long::sum);
+            }
+            nextId.accumulateAndGet(entity.getId_transaccion() + 1, Math::max);
+        }
+        return entities.size();
+    }
+    
     /**
      * Actualiza una entidad existente
      * @param entity Entidad a actualizar
@@ -190,8 +253,18 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
      */
     @Override
     public boolean update(Transaccion entity) {
-        if (data.containsKey(entity.getId_transaccion())) {
-            data.put(entity.getId_transaccion(), entity);
+        boolean actualizado = false;
+        if (entity.getId_transaccion() != null) {
+            synchronized (locks.forKey(entity.getId_transaccion())) {
+                if (data.replace(entity.getId_transaccion(), entity) != null) {
+                    indexEntity(entity);
+                    versions.merge(entity.getId_transaccion(), 1L, Long::sum);
+                    actualizado = true;
+                }
+            }
+        }
+        // La salida por consola se hace sin el cerrojo de la entidad
+        if (actualizado) {
             System.out.println("Transaccion actualizado: " + entity);
             return true;
         }
@@ -206,7 +279,17 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
      */
     @Override
 	public boolean delete(Integer id) {
-	    Transaccion removed = data.remove(id);
+	    Transaccion removed = null;
+	    if (id != null) {
+	        synchronized (locks.forKey(id)) {
+	            removed = data.remove(id);
+	            if (removed != null) {
+	                unindexEntity(id);
+	                // La versión se conserva para que una entidad vuelta a crear no repita una versión ya leída
+	                versions.merge(id, 1L, Long::sum);
+	            }
+	        }
+	    }
 	    if (removed != null) {
 	        System.out.println("Transaccion con id " + id + " eliminado correctamente");
 	        return true;
@@ -221,7 +304,14 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
      */
     @Override
     public void deleteAll() {
-        data.clear();
+        // Se toman todos los cerrojos para no intercalarse con altas, cambios o compareAndUpdate en curso
+        locks.withAllStripes(() -> {
+            data.clear();
+            clearIndexes();
+            // Las versiones se invalidan en lugar de borrarse (ver delete)
+            versions.replaceAll((id, version) -> version + 1);
+            return null;
+        });
         System.out.println("Todas las entidades Transaccion han sido eliminadas");
     }
     
@@ -256,7 +346,9 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
@@ -274,13 +366,80 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
             throw new IllegalArgumentException("El número de página y el tamaño deben ser mayores que 0");
         }
         
-        return data.values().stream()
+        return primaryIndex.stream()
+                .map(data::get)
+                .filter(Objects::nonNull)
                 .filter(filter)
                 .skip((long) (pageNumber - 1) * pageSize)
                 .limit(pageSize)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene la página de entidades siguiente a un cursor, ordenadas por identificador
+     * El coste no depende de la posición de la página, a diferencia de getPage
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    @Override
+    public Page<Transaccion> getPageAfter(String cursor, int pageSize) {
+        return getPageAfter(cursor, pageSize, false, null);
+    }
+    
+    /**
+     * Obtiene la página de entidades siguiente a un cursor
+     * El cursor solo es válido para el mismo orden con el que se obtuvo
+     * @param cursor Cursor devuelto por la página anterior (null para la primera página)
+     * @param pageSize Tamaño de la página
+     * @param descending true para recorrer las entidades por identificador descendente
+     * @param filter Predicado que deben cumplir las entidades (null para no filtrar)
+     * @return Página de entidades con el cursor de la página siguiente
+     */
+    public Page<Transaccion> getPageAfter(String cursor, int pageSize, boolean descending, Predicate<Transaccion> filter) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser mayor que 0");
+        }
+        
+        NavigableSet<Integer> ids = descending ? primaryIndex.descendingSet() : primaryIndex;
+        Integer after = parseCursor(cursor);
+        if (after != null) {
+            ids = ids.tailSet(after, false);
+        }
+        
+        List<Transaccion> items = new ArrayList<>(pageSize);
+        Integer last = null;
+        for (Integer id : ids) {
+            Transaccion entity = data.get(id);
+            if (entity == null || (filter != null && !filter.test(entity))) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeCursor(last));
+            }
+            items.add(entity);
+            last = id;
+        }
+        return new Page<>(items, null);
+    }
+    
+    /**
+     * Convierte un cursor de paginación en el identificador que representa
+     * @param cursor Cursor opaco
+     * @return Identificador o null si no hay cursor
+     */
+    private Integer parseCursor(String cursor) {
+        String value = Page.decodeCursor(cursor);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+    
     /**
      * Cuenta el número de entidades que cumplen un criterio
      * @param filter Predicado que define el criterio
@@ -292,94 +451,266 @@ public class TransaccionDAO implements IDAO<Transaccion, Integer> {
                 .count();
     }
     
+    // Control de concurrencia optimista
+    
+    /**
+     * Obtiene la versión actual de una entidad
+     * La versión se incrementa cada vez que la entidad se guarda, se actualiza o se elimina a través del DAO
+     * @param id Identificador de la entidad
+     * @return Versión de la entidad (0 si no se ha modificado desde la carga inicial)
+     */
+    public long getVersion(Integer id) {
+        return id == null ? 0L : versions.getOrDefault(id, 0L);
+    }
+    
+    /**
+     * Modifica una entidad solo si su versión no ha cambiado desde que se leyó (compare-and-set)
+     * La comprobación y el cambio se hacen con el cerrojo de esa única entidad, como en update,
+     * por lo que las operaciones que usan este método no mantienen cerrojos entre una entidad y otra
+     * @param id Identificador de la entidad
+     * @param expectedVersion Versión obtenida con getVersion antes de leer la entidad
+     * @param change Cambio a aplicar sobre la entidad guardada
+     * @return true si se aplicó el cambio, false si la entidad no existe o su versión ha cambiado
+     */
+    public boolean compareAndUpdate(Integer id, long expectedVersion, Consumer<Transaccion> change) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (locks.forKey(id)) {
+            Transaccion entity = data.get(id);
+            if (entity == null || versions.getOrDefault(id, 0L) != expectedVersion) {
+                return false;
+            }
+            change.accept(entity);
+            indexEntity(entity);
+            versions.merge(id, 1L, Long::sum);
+            return true;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción con los cerrojos de escritura de varias entidades adquiridos
+     * Permite validar versiones y aplicar cambios sobre varias entidades como una única operación
+     * @param <R> Tipo del resultado
+     * @param ids Identificadores de las entidades a bloquear
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     */
+    public <R> R withLocks(Collection<Integer> ids, Supplier<R> action) {
+        return locks.withAll(ids, action);
+    }
+    
+    // Mantenimiento de los índices secundarios
+    
+    /**
+     * Actualiza los índices secundarios con los valores actuales de una entidad
+     * @param entity Entidad a indexar
+     */
+    private void indexEntity(Transaccion entity) {
+        Integer id = entity.getId_transaccion();
+        primaryIndex.add(id);
+        fecha_transaccionIndex.put(id, HashIndex.normalize(entity.getFecha_transaccion()));
+        tipo_transaccionIndex.put(id, HashIndex.normalize(entity.getTipo_transaccion()));
+        montoIndex.put(id, entity.getMonto());
+        descripcionIndex.put(id, HashIndex.normalize(entity.getDescripcion()));
+        estadoIndex.put(id, HashIndex.normalize(entity.getEstado()));
+        fecha_transaccionRangeIndex.put(id, RangeIndex.toEpochDay(entity.getFecha_transaccion()));
+        montoRangeIndex.put(id, RangeIndex.toCents(entity.getMonto()));
+        cuenta_origenIndex.put(id, entity.getCuenta_origen() != null ? entity.getCuenta_origen().getNumero_cuenta() : null);
+        cuenta_destinoIndex.put(id, entity.getCuenta_destino() != null ? entity.getCuenta_destino().getNumero_cuenta() : null);
+    }
+    
+    /**
+     * Elimina una entidad de los índices secundarios
+     * @param id Identificador de la entidad
+     */
+    private void unindexEntity(Integer id) {
+        primaryIndex.remove(id);
+        fecha_transaccionIndex.remove(id);
+        tipo_transaccionIndex.remove(id);
+        montoIndex.remove(id);
+        descripcionIndex.remove(id);
+        estadoIndex.remove(id);
+        fecha_transaccionRangeIndex.remove(id);
+        montoRangeIndex.remove(id);
+        cuenta_origenIndex.remove(id);
+        cuenta_destinoIndex.remove(id);
+    }
+    
+    /**
+     * Vacía todos los índices secundarios
+     */
+    private void clearIndexes() {
+        primaryIndex.clear();
+        fecha_transaccionIndex.clear();
+        tipo_transaccionIndex.clear();
+        montoIndex.clear();
+        descripcionIndex.clear();
+        estadoIndex.clear();
+        fecha_transaccionRangeIndex.clear();
+        montoRangeIndex.clear();
+        cuenta_origenIndex.clear();
+        cuenta_destinoIndex.clear();
+    }
+    
+    /**
+     * Obtiene las entidades correspondientes a un conjunto de IDs
+     * @param ids IDs obtenidos de un índice
+     * @return Lista con las entidades existentes
+     */
+    private List<Transaccion> findByIds(Collection<Integer> ids) {
+        List<Transaccion> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Transaccion entity = data.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
     // Métodos específicos para búsquedas por atributos
     
     /**
-     * Busca entidades por el atributo fecha_transaccion
+     * Busca entidades por el atributo fecha_transaccion usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Transaccion> findByFecha_transaccion(String value) {
-        return findByFilter(entity -> {
-            return entity.getFecha_transaccion() != null && 
-                   entity.getFecha_transaccion().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(fecha_transaccionIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo fecha_transaccion contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByFecha_transaccion
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Transaccion> findByFecha_transaccionContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getFecha_transaccion() != null && 
+            entity.getFecha_transaccion().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo tipo_transaccion
+     * Busca entidades cuyo atributo fecha_transaccion está entre dos fechas usando el índice ordenado
+     * @param from Fecha inicial con formato yyyy-MM-dd (incluida)
+     * @param to Fecha final con formato yyyy-MM-dd (incluida)
+     * @return Lista de entidades ordenada por fecha_transaccion
+     */
+    public List<Transaccion> findByFecha_transaccionBetween(String from, String to) {
+        return findByIds(fecha_transaccionRangeIndex.range(RangeIndex.requireEpochDay(from), RangeIndex.requireEpochDay(to)));
+    }
+    
+    /**
+     * Busca entidades por el atributo tipo_transaccion usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Transaccion> findByTipo_transaccion(String value) {
-        return findByFilter(entity -> {
-            return entity.getTipo_transaccion() != null && 
-                   entity.getTipo_transaccion().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(tipo_transaccionIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo tipo_transaccion contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByTipo_transaccion
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Transaccion> findByTipo_transaccionContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getTipo_transaccion() != null && 
+            entity.getTipo_transaccion().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     /**
-     * Busca entidades por el atributo monto
+     * Busca entidades por el atributo monto usando su índice secundario
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Transaccion> findByMonto(double value) {
-        return findByFilter(entity -> {
-            return entity.getMonto() == value;
-        });
+        return findByIds(montoIndex.get(value));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo monto está entre dos importes usando el índice ordenado
+     * @param min Importe mínimo (incluido)
+     * @param max Importe máximo (incluido)
+     * @return Lista de entidades ordenada por monto
+     */
+    public List<Transaccion> findByMontoBetween(double min, double max) {
+        return findByIds(montoRangeIndex.range(RangeIndex.toCents(min), RangeIndex.toCents(max)));
     }
     
     /**
-     * Busca entidades por el atributo descripcion
+     * Busca entidades por el atributo descripcion usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Transaccion> findByDescripcion(String value) {
-        return findByFilter(entity -> {
-            return entity.getDescripcion() != null && 
-                   entity.getDescripcion().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(descripcionIndex.get(HashIndex.normalize(value)));
     }
     
     /**
-     * Busca entidades por el atributo estado
+     * Busca entidades cuyo atributo descripcion contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByDescripcion
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Transaccion> findByDescripcionContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getDescripcion() != null && 
+            entity.getDescripcion().toLowerCase().contains(value.toLowerCase())
+        );
+    }
+    
+    /**
+     * Busca entidades por el atributo estado usando su índice secundario
+     * La comparación es exacta, sin distinguir mayúsculas ni espacios en los extremos
      * @param value Valor a buscar
      * @return Lista de entidades que coinciden con el valor
      */
     public List<Transaccion> findByEstado(String value) {
-        return findByFilter(entity -> {
-            return entity.getEstado() != null && 
-                   entity.getEstado().toLowerCase().contains(value.toLowerCase());
-        });
+        return findByIds(estadoIndex.get(HashIndex.normalize(value)));
+    }
+    
+    /**
+     * Busca entidades cuyo atributo estado contiene el texto indicado
+     * Recorre todas las entidades, por lo que es más lento que findByEstado
+     * @param value Texto a buscar (sin distinguir mayúsculas)
+     * @return Lista de entidades que contienen el texto
+     */
+    public List<Transaccion> findByEstadoContaining(String value) {
+        return findByFilter(entity -> 
+            entity.getEstado() != null && 
+            entity.getEstado().toLowerCase().contains(value.toLowerCase())
+        );
     }
     
     
     // Métodos para búsqueda por relaciones
     
     /**
-     * Busca entidades por su relación con Cuenta
-     * @param cuentaId ID de la entidad Cuenta relacionada
+     * Busca entidades por su relación con Cuenta usando el índice inverso
+     * @param refId ID de la entidad Cuenta relacionada
      * @return Lista de entidades relacionadas con la Cuenta especificada
      */
 	public List<Transaccion> findByCuenta_origen(String refId) {
-	    return findByFilter(entity -> 
-	        entity.getCuenta_origen() != null && 
-	        entity.getCuenta_origen().getNumero_cuenta() != null && 
-	        entity.getCuenta_origen().getNumero_cuenta().equals(refId)
-	    );
+	    return findByIds(cuenta_origenIndex.get(refId));
 	}
     
     /**
-     * Busca entidades por su relación con Cuenta
-     * @param cuentaId ID de la entidad Cuenta relacionada
+     * Busca entidades por su relación con Cuenta usando el índice inverso
+     * @param refId ID de la entidad Cuenta relacionada
      * @return Lista de entidades relacionadas con la Cuenta especificada
      */
 	public List<Transaccion> findByCuenta_destino(String refId) {
-	    return findByFilter(entity -> 
-	        entity.getCuenta_destino() != null && 
-	        entity.getCuenta_destino().getNumero_cuenta() != null && 
-	        entity.getCuenta_destino().getNumero_cuenta().equals(refId)
-	    );
+	    return findByIds(cuenta_destinoIndex.get(refId));
 	}
     
     
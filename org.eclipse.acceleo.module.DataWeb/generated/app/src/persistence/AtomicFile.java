@@ -0,0 +1,76 @@
+package persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sustitución atómica y persistente de un fichero completo (instantáneas)
+ * El contenido se escribe en un fichero temporal que se sincroniza con disco, se renombra
+ * atómicamente sobre el destino y se sincroniza el directorio. Tras una caída queda la versión
+ * anterior o la nueva completa, por lo que solo después de write es seguro vaciar el log
+ */
+public final class AtomicFile {
+
+    /**
+     * Productor del contenido del fichero
+     */
+    public interface Content {
+        /**
+         * Escribe el contenido completo
+         * @param out Flujo de salida (no debe cerrarse)
+         * @throws IOException si hay un error de escritura
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFile() {
+    }
+
+    /**
+     * Sustituye el contenido de un fichero
+     * Si falla, el fichero original queda intacto
+     * @param file Fichero de destino
+     * @param content Productor del contenido
+     * @throws IOException si no se puede escribir, sincronizar o renombrar el fichero temporal
+     */
+    public static void write(File file, Content content) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            BufferedOutputStream out = new BufferedOutputStream(fos);
+            content.writeTo(out);
+            out.flush();
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(file.getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * Sincroniza con disco la entrada de directorio del renombrado
+     * Algunos sistemas (Windows) no permiten abrir un directorio; allí el renombrado ya es persistente
+     * @param dir Directorio
+     */
+    private static void syncDirectory(File dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // No soportado en esta plataforma
+        }
+    }
+}
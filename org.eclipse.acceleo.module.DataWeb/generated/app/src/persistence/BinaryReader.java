@@ -0,0 +1,214 @@
+package persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector del formato binario compacto escrito por BinaryWriter
+ * Lee desde un ByteBuffer, de modo que puede trabajar sobre un array en memoria
+ * o directamente sobre un fichero proyectado en memoria
+ */
+public class BinaryReader {
+    private final ByteBuffer buffer;
+    private final List<String> stringTable = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param buffer Datos a leer (se lee desde su posición actual)
+     */
+    public BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Constructor a partir de un array de bytes
+     * @param data Datos a leer
+     */
+    public BinaryReader(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Indica si unos datos comienzan con la cabecera del formato binario
+     * @param data Primeros bytes de los datos
+     * @return true si los datos están en formato binario
+     */
+    public static boolean hasMagic(byte[] data) {
+        if (data.length < BinaryWriter.MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < BinaryWriter.MAGIC.length; i++) {
+            if (data[i] != BinaryWriter.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si un buffer comienza con la cabecera del formato binario (no modifica su posición)
+     * @param data Datos
+     * @return true si los datos están en formato binario
+     */
+    public static boolean hasMagic(ByteBuffer data) {
+        if (data.remaining() < BinaryWriter.MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < BinaryWriter.MAGIC.length; i++) {
+            if (data.get(data.position() + i) != BinaryWriter.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene una vista de una región de un buffer, sin copiar los datos
+     * @param data Buffer completo
+     * @param offset Posición inicial (absoluta)
+     * @param length Longitud de la región
+     * @return Buffer que comparte los datos de la región
+     * @throws IOException si la región queda fuera del buffer
+     */
+    public static ByteBuffer slice(ByteBuffer data, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > data.limit()) {
+            throw new IOException("Región fuera de los datos: " + offset + "+" + length);
+        }
+        ByteBuffer region = data.duplicate();
+        region.limit((int) (offset + length));
+        region.position((int) offset);
+        return region.slice();
+    }
+
+    /**
+     * Lee y valida la cabecera de un fichero
+     * @param maxVersion Versión más reciente del formato que se sabe leer
+     * @return Versión del formato de los datos
+     * @throws IOException si la cabecera no es válida o la versión no está soportada
+     */
+    public int readHeader(int maxVersion) throws IOException {
+        for (byte expected : BinaryWriter.MAGIC) {
+            if (readByte() != expected) {
+                throw new IOException("Los datos no están en el formato binario de la aplicación");
+            }
+        }
+        int version = readVarint();
+        if (version < 1 || version > maxVersion) {
+            throw new IOException("Versión de formato no soportada: " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Lee un entero sin signo codificado como varint
+     * @return Valor leído
+     * @throws IOException si los datos están incompletos o no son válidos
+     */
+    public int readVarint() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte() & 0xFF;
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Varint mal formado");
+    }
+
+    /**
+     * Lee un entero con signo (zigzag + varint)
+     * @return Valor leído
+     * @throws IOException si los datos están incompletos o no son válidos
+     */
+    public int readInt() throws IOException {
+        int v = readVarint();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Lee un entero largo con signo (zigzag + varint)
+     * @return Valor leído
+     * @throws IOException si los datos están incompletos o no son válidos
+     */
+    public long readLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            long b = readByte() & 0xFF;
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (result >>> 1) ^ -(result & 1);
+            }
+        }
+        throw new IOException("Varint mal formado");
+    }
+
+    /**
+     * Lee un valor lógico
+     * @return Valor leído
+     * @throws IOException si los datos están incompletos
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Lee un byte
+     * @return Valor leído
+     * @throws IOException si los datos están incompletos
+     */
+    public byte readByte() throws IOException {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Fin de datos inesperado");
+        }
+    }
+
+    /**
+     * Lee una cadena escrita con la tabla de cadenas
+     * @return Cadena leída (puede ser null)
+     * @throws IOException si los datos están incompletos o no son válidos
+     */
+    public String readString() throws IOException {
+        int marker = readVarint();
+        if (marker == BinaryWriter.STRING_NULL) {
+            return null;
+        }
+        if (marker == BinaryWriter.STRING_NEW) {
+            int length = readVarint();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new EOFException("Cadena truncada");
+            }
+            String value;
+            if (buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            stringTable.add(value);
+            return value;
+        }
+        int index = marker - BinaryWriter.STRING_REF_BASE;
+        if (index >= stringTable.size()) {
+            throw new IOException("Referencia a cadena no válida: " + index);
+        }
+        return stringTable.get(index);
+    }
+
+    /**
+     * Indica si quedan datos por leer
+     * @return true si quedan bytes
+     */
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+}
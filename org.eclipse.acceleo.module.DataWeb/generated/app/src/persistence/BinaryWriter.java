@@ -0,0 +1,218 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escritor del formato binario compacto de la aplicación
+ * Los enteros se codifican como varint (zigzag para admitir negativos) y las cadenas
+ * pasan por una tabla de cadenas: la primera aparición se escribe completa y las
+ * siguientes solo como una referencia a su posición en la tabla
+ * Los bytes se acumulan en un buffer propio y se vuelcan al flujo por bloques
+ */
+public class BinaryWriter implements Closeable {
+    /** Cabecera de los ficheros en formato binario */
+    public static final byte[] MAGIC = {'D', 'M', 'S', 'S'};
+
+    // Marcadores de cadena: 0 = null, 1 = cadena nueva, n >= 2 = referencia a la entrada n - 2
+    static final int STRING_NULL = 0;
+    static final int STRING_NEW = 1;
+    static final int STRING_REF_BASE = 2;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final Map<String, Integer> stringTable = new HashMap<>();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private long flushed = 0;
+
+    /**
+     * Constructor
+     * @param out Flujo de salida
+     */
+    public BinaryWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Escribe la cabecera de un fichero: marca y versión del formato
+     * @param version Versión del formato
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeHeader(int version) throws IOException {
+        for (byte b : MAGIC) {
+            put(b);
+        }
+        writeVarint(version);
+    }
+
+    /**
+     * Escribe un entero sin signo como varint (7 bits por byte)
+     * @param value Valor (se interpreta sin signo)
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            put((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        put(value);
+    }
+
+    /**
+     * Escribe un entero con signo (codificación zigzag + varint)
+     * @param value Valor
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeInt(int value) throws IOException {
+        writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Escribe un entero largo con signo (codificación zigzag + varint)
+     * @param value Valor
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeLong(long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            put((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        put((int) v);
+    }
+
+    /**
+     * Escribe un valor lógico
+     * @param value Valor
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeBoolean(boolean value) throws IOException {
+        put(value ? 1 : 0);
+    }
+
+    /**
+     * Escribe un byte
+     * @param value Valor
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeByte(int value) throws IOException {
+        put(value);
+    }
+
+    /**
+     * Escribe un entero largo con tamaño fijo (8 bytes, big-endian)
+     * Se usa para posiciones que deben poder leerse directamente sin decodificar varints
+     * @param value Valor
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeFixedLong(long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            put((int) (value >>> shift));
+        }
+    }
+
+    /**
+     * Copia sin transformar los bytes restantes de un buffer (no modifica su posición)
+     * @param data Bytes a copiar
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeBytes(ByteBuffer data) throws IOException {
+        ByteBuffer source = data.duplicate();
+        while (source.hasRemaining()) {
+            if (position == BUFFER_SIZE) {
+                flushBuffer();
+            }
+            int chunk = Math.min(source.remaining(), BUFFER_SIZE - position);
+            source.get(buffer, position, chunk);
+            position += chunk;
+        }
+    }
+
+    /**
+     * Vacía la tabla de cadenas, de modo que lo escrito a continuación pueda decodificarse
+     * de forma independiente (por ejemplo, un bloque que se lee por separado)
+     */
+    public void resetStringTable() {
+        stringTable.clear();
+    }
+
+    /**
+     * Obtiene el número de bytes escritos desde la creación del escritor
+     * @return Número de bytes
+     */
+    public long size() {
+        return flushed + position;
+    }
+
+    /**
+     * Escribe una cadena usando la tabla de cadenas
+     * @param value Cadena (puede ser null)
+     * @throws IOException si hay un error de escritura
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarint(STRING_NULL);
+            return;
+        }
+        Integer index = stringTable.get(value);
+        if (index != null) {
+            writeVarint(STRING_REF_BASE + index);
+            return;
+        }
+        stringTable.put(value, stringTable.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(STRING_NEW);
+        writeVarint(bytes.length);
+        if (bytes.length > BUFFER_SIZE - position) {
+            flushBuffer();
+            if (bytes.length > BUFFER_SIZE) {
+                out.write(bytes);
+                flushed += bytes.length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Vuelca el buffer y vacía el flujo de salida
+     * @throws IOException si hay un error de escritura
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Cierra el flujo de salida
+     * @throws IOException si hay un error de escritura
+     */
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private void put(int b) throws IOException {
+        if (position == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            flushed += position;
+            position = 0;
+        }
+    }
+}
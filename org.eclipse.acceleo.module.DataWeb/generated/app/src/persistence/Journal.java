@@ -0,0 +1,305 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de escritura anticipada (write-ahead log) de solo anexado
+ * Cada registro se escribe con su longitud, su tipo y una suma de comprobación CRC32,
+ * de modo que una escritura incompleta al final del fichero se detecta y se descarta al reproducirlo.
+ * Las escrituras se agrupan (group commit): un único hilo escritor vuelca en cada lote todos los
+ * registros pendientes y realiza una sola sincronización con disco para todos ellos
+ */
+public class Journal implements Closeable {
+    private static final int HEADER_SIZE = 5; // longitud (int) + tipo (byte)
+    private static final int CRC_SIZE = 4;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Receptor de los registros leídos durante la reproducción del log
+     */
+    public interface RecordHandler {
+        /**
+         * Procesa un registro
+         * @param type Tipo del registro
+         * @param payload Contenido del registro
+         * @throws IOException si el contenido no se puede interpretar
+         */
+        void onRecord(byte type, byte[] payload) throws IOException;
+    }
+
+    /**
+     * Registro pendiente de escribir
+     */
+    private static class Pending {
+        final long seq;
+        final byte type;
+        final byte[] payload;
+
+        Pending(long seq, byte type, byte[] payload) {
+            this.seq = seq;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Object durableLock = new Object();
+    private final Thread writer;
+
+    private long nextSeq = 1;          // Protegido por this
+    private long durableSeq = 0;       // Protegido por durableLock
+    private long recordCount = 0;      // Registros desde la última compactación
+    private long syncCount = 0;        // Sincronizaciones con disco realizadas
+    private IOException failure;       // Protegido por durableLock
+    private volatile boolean closed = false;
+
+    /**
+     * Abre (o crea) un log
+     * @param file Fichero del log
+     * @throws IOException si el fichero no se puede abrir
+     */
+    public Journal(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.writer = new Thread(this::writeLoop, "journal-" + file.getName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Reproduce los registros válidos del log
+     * Si el final del fichero contiene un registro incompleto o corrupto, se trunca en ese punto
+     * Debe llamarse antes de anexar registros nuevos
+     * @param handler Receptor de los registros
+     * @return Número de registros reproducidos
+     * @throws IOException si hay un error de lectura o el receptor no puede procesar un registro
+     */
+    public synchronized int replay(RecordHandler handler) throws IOException {
+        long position = 0;
+        long size = channel.size();
+        int count = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ByteBuffer crcBuffer = ByteBuffer.allocate(CRC_SIZE);
+
+        while (position < size) {
+            header.clear();
+            if (!readFully(header, position)) {
+                break;
+            }
+            header.flip();
+            int length = header.getInt();
+            byte type = header.get();
+            if (length < 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length + CRC_SIZE > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            crcBuffer.clear();
+            if (!readFully(payload, position + HEADER_SIZE) || !readFully(crcBuffer, position + HEADER_SIZE + length)) {
+                break;
+            }
+            crcBuffer.flip();
+            if (crcBuffer.getInt() != checksum(type, payload.array())) {
+                break;
+            }
+            handler.onRecord(type, payload.array());
+            position += HEADER_SIZE + length + CRC_SIZE;
+            count++;
+        }
+
+        if (position < size) {
+            System.err.println("Registro incompleto o corrupto en " + file.getName() + " (posición " + position
+                    + "), se descarta el final del log");
+            channel.truncate(position);
+        }
+        channel.position(position);
+        recordCount = count;
+        return count;
+    }
+
+    /**
+     * Anexa un registro al log sin esperar a que sea persistente
+     * @param type Tipo del registro
+     * @param payload Contenido del registro
+     * @return Número de secuencia del registro, para usar con awaitDurable
+     */
+    public synchronized long append(byte type, byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("El log " + file.getName() + " está cerrado");
+        }
+        long seq = nextSeq++;
+        recordCount++;
+        queue.add(new Pending(seq, type, payload));
+        return seq;
+    }
+
+    /**
+     * Espera a que un registro anexado esté sincronizado en disco
+     * @param seq Número de secuencia devuelto por append
+     * @throws UncheckedIOException si el hilo escritor no pudo escribir el registro o si el hilo
+     *         que espera se interrumpe antes de que el registro sea persistente
+     */
+    public void awaitDurable(long seq) {
+        synchronized (durableLock) {
+            while (durableSeq < seq && failure == null) {
+                try {
+                    durableLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException(
+                            "Interrumpido antes de persistir el registro " + seq + " de " + file.getName()));
+                }
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        }
+    }
+
+    /**
+     * Anexa un registro y espera a que sea persistente
+     * @param type Tipo del registro
+     * @param payload Contenido del registro
+     */
+    public void write(byte type, byte[] payload) {
+        awaitDurable(append(type, payload));
+    }
+
+    /**
+     * Vacía el log después de guardar una instantánea que contiene todos sus registros
+     * Espera a que se hayan escrito los registros pendientes antes de truncar el fichero
+     * @throws IOException si no se puede truncar el fichero
+     */
+    public synchronized void reset() throws IOException {
+        awaitDurable(nextSeq - 1);
+        synchronized (durableLock) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+        recordCount = 0;
+    }
+
+    /**
+     * Obtiene el número de registros anexados desde la última compactación
+     * @return Número de registros
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Obtiene el número de sincronizaciones con disco realizadas
+     * Comparado con el número de registros indica la eficacia de la agrupación de escrituras
+     * @return Número de sincronizaciones
+     */
+    public long getSyncCount() {
+        synchronized (durableLock) {
+            return syncCount;
+        }
+    }
+
+    /**
+     * Cierra el log esperando a que se escriban los registros pendientes
+     */
+    @Override
+    public void close() {
+        long last;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            last = nextSeq - 1;
+        }
+        try {
+            awaitDurable(last);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error al cerrar el log " + file.getName() + ": " + e.getCause().getMessage());
+        }
+        writer.interrupt();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el log " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: toma todos los registros pendientes, los escribe y sincroniza una vez
+     */
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            queue.drainTo(batch);
+
+            int size = 0;
+            for (Pending p : batch) {
+                size += HEADER_SIZE + p.payload.length + CRC_SIZE;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (Pending p : batch) {
+                buffer.putInt(p.payload.length);
+                buffer.put(p.type);
+                buffer.put(p.payload);
+                buffer.putInt(checksum(p.type, p.payload));
+            }
+            buffer.flip();
+
+            synchronized (durableLock) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                    syncCount++;
+                    durableSeq = batch.get(batch.size() - 1).seq;
+                } catch (IOException e) {
+                    System.err.println("Error al escribir en el log " + file.getName() + ": " + e.getMessage());
+                    failure = e;
+                }
+                durableLock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,17 @@
+package service;
+
+/**
+ * Excepción que indica que una operación no se ha podido completar porque otras operaciones
+ * concurrentes han modificado las mismas entidades en todos los reintentos
+ */
+public class ConflictoConcurrenteException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    public ConflictoConcurrenteException(String mensaje) {
+        super(mensaje);
+    }
+    
+    public ConflictoConcurrenteException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
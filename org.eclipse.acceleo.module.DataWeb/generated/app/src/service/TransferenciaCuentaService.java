@@ -0,0 +1,207 @@
+package service;
+
+import dao.CuentaDAO;
+import dao.TransaccionDAO;
+import model.Cuenta;
+import model.Transaccion;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio de transferencias entre entidades Cuenta
+ * Realiza el cargo, el abono y el registro de la entidad Transaccion con control de concurrencia
+ * optimista: lee la versión de cada entidad sin bloquear y aplica el cargo y el abono con
+ * compareAndUpdate, que solo toma el cerrojo de esa entidad mientras comprueba la versión y cambia
+ * el saldo. Una transferencia nunca retiene el cerrojo de una entidad mientras opera con otra, por lo
+ * que las transferencias sobre entidades distintas no se bloquean entre sí; las que encuentran una
+ * versión distinta de la leída se reintentan hasta MAX_REINTENTOS veces.
+ * Entre el cargo y el abono el importe no figura en ninguna de las dos entidades; si el abono o el
+ * registro del movimiento fallan, se deshacen los cambios ya aplicados
+ */
+public class TransferenciaCuentaService {
+    private static final int MAX_REINTENTOS = 50;
+
+    private static TransferenciaCuentaService instance;
+    private final CuentaDAO cuentaDAO;
+    private final TransaccionDAO transaccionDAO;
+    private final AtomicLong transferencias = new AtomicLong();
+    private final AtomicLong conflictos = new AtomicLong();
+
+    /**
+     * Constructor privado para aplicar el patrón Singleton
+     */
+    private TransferenciaCuentaService() {
+        cuentaDAO = CuentaDAO.getInstance();
+        transaccionDAO = TransaccionDAO.getInstance();
+    }
+
+    /**
+     * Obtiene la instancia única del servicio
+     * @return Instancia del servicio
+     */
+    public static synchronized TransferenciaCuentaService getInstance() {
+        if (instance == null) {
+            instance = new TransferenciaCuentaService();
+        }
+        return instance;
+    }
+
+    /**
+     * Transfiere un importe entre dos entidades Cuenta y registra la entidad Transaccion correspondiente
+     * @param origenId Identificador de la entidad de origen
+     * @param destinoId Identificador de la entidad de destino
+     * @param importe Importe a transferir (mayor que 0)
+     * @param descripcion Descripción del movimiento
+     * @return Entidad Transaccion registrada
+     * @throws IllegalArgumentException si los datos de la transferencia no son válidos
+     * @throws IllegalStateException si no hay saldo suficiente o alguna de las entidades está inactiva
+     * @throws ConflictoConcurrenteException si se agotan los reintentos por conflictos concurrentes
+     */
+    public Transaccion transferir(String origenId, String destinoId, double importe, String descripcion) {
+        if (origenId == null || destinoId == null) {
+            throw new IllegalArgumentException("Debe indicar el origen y el destino de la transferencia");
+        }
+        if (origenId.equals(destinoId)) {
+            throw new IllegalArgumentException("El origen y el destino de la transferencia deben ser distintos");
+        }
+        if (!(importe > 0)) {
+            throw new IllegalArgumentException("El importe de la transferencia debe ser mayor que 0");
+        }
+
+        // El destino se comprueba antes del cargo para no cargar un importe que no se puede abonar
+        comprobar(destinoId, 0);
+        Cuenta origen = modificarSaldo(origenId, -importe, true);
+        Cuenta destino;
+        try {
+            destino = modificarSaldo(destinoId, importe, true);
+        } catch (RuntimeException e) {
+            deshacer(origenId, importe, e);
+            throw e;
+        }
+
+        Transaccion movimiento = crearTransaccion(origen, destino, importe, descripcion);
+        try {
+            // Operación por lotes: no escribe cada entidad en la consola
+            transaccionDAO.saveAll(Collections.singletonList(movimiento));
+        } catch (RuntimeException e) {
+            // Se deshacen el cargo y el abono para no dejar saldos sin su movimiento
+            deshacer(destinoId, -importe, e);
+            deshacer(origenId, importe, e);
+            throw e;
+        }
+
+        transferencias.incrementAndGet();
+        System.out.println("Transferencia registrada: " + movimiento);
+        return movimiento;
+    }
+
+    /**
+     * Suma un importe al saldo de una entidad con compare-and-set sobre su versión
+     * Si otra operación ha modificado la entidad entre la lectura y el cambio, se vuelve a leer y a validar
+     * @param id Identificador de la entidad
+     * @param importe Importe a sumar (negativo para un cargo)
+     * @param validar Si se comprueba que la entidad está activa y, en un cargo, que tiene saldo suficiente
+     * @return Entidad modificada
+     * @throws IllegalArgumentException si la entidad no existe
+     * @throws IllegalStateException si la validación falla
+     * @throws ConflictoConcurrenteException si se agotan los reintentos
+     */
+    private Cuenta modificarSaldo(String id, double importe, boolean validar) {
+        for (int intento = 1; intento <= MAX_REINTENTOS; intento++) {
+            // Primero la versión y después los datos: si cambian entre medias, compareAndUpdate falla
+            long version = cuentaDAO.getVersion(id);
+            Cuenta cuenta = validar ? comprobar(id, importe) : buscar(id);
+            if (cuentaDAO.compareAndUpdate(id, version, c -> c.setSaldo(c.getSaldo() + importe))) {
+                return cuenta;
+            }
+            conflictos.incrementAndGet();
+            Thread.yield();
+        }
+        throw new ConflictoConcurrenteException("No se ha podido modificar el saldo de Cuenta " + id
+                + " tras " + MAX_REINTENTOS + " intentos por conflictos concurrentes");
+    }
+
+    /**
+     * Deshace un cargo o un abono ya aplicado
+     * Si no es posible, el error se añade al de la transferencia para no ocultarlo
+     * @param id Identificador de la entidad
+     * @param importe Importe a sumar para deshacer el cambio
+     * @param causa Error que ha interrumpido la transferencia
+     */
+    private void deshacer(String id, double importe, RuntimeException causa) {
+        try {
+            modificarSaldo(id, importe, false);
+        } catch (RuntimeException e) {
+            System.err.println("No se ha podido deshacer el cambio de saldo en Cuenta " + id + ": " + e.getMessage());
+            causa.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Obtiene una entidad y comprueba que admite el cambio de saldo
+     * @param id Identificador de la entidad
+     * @param importe Importe que se va a sumar (negativo para un cargo)
+     * @return Entidad leída
+     */
+    private Cuenta comprobar(String id, double importe) {
+        Cuenta cuenta = buscar(id);
+        if (!cuenta.getActiva()) {
+            throw new IllegalStateException("No se puede operar con una Cuenta inactiva");
+        }
+        if (importe < 0 && cuenta.getSaldo() < -importe) {
+            throw new IllegalStateException("Saldo insuficiente en Cuenta " + id);
+        }
+        return cuenta;
+    }
+
+    /**
+     * Obtiene una entidad que debe existir
+     * @param id Identificador de la entidad
+     * @return Entidad leída
+     * @throws IllegalArgumentException si la entidad no existe
+     */
+    private Cuenta buscar(String id) {
+        Cuenta cuenta = cuentaDAO.findById(id);
+        if (cuenta == null) {
+            throw new IllegalArgumentException("No existe Cuenta con id " + id);
+        }
+        return cuenta;
+    }
+
+    /**
+     * Crea la entidad Transaccion que registra una transferencia
+     * @param origen Entidad de origen
+     * @param destino Entidad de destino
+     * @param importe Importe transferido
+     * @param descripcion Descripción del movimiento
+     * @return Entidad Transaccion sin guardar
+     */
+    private Transaccion crearTransaccion(Cuenta origen, Cuenta destino, double importe, String descripcion) {
+        Transaccion movimiento = new Transaccion();
+        movimiento.setCuenta_origen(origen);
+        movimiento.setCuenta_destino(destino);
+        movimiento.setFecha_transaccion(LocalDate.now().toString());
+        movimiento.setTipo_transaccion("Transferencia");
+        movimiento.setMonto(importe);
+        movimiento.setDescripcion(descripcion);
+        movimiento.setEstado("Completado");
+        return movimiento;
+    }
+
+    /**
+     * Obtiene el número de transferencias completadas
+     * @return Número de transferencias
+     */
+    public long getTransferencias() {
+        return transferencias.get();
+    }
+
+    /**
+     * Obtiene el número de reintentos provocados por conflictos concurrentes
+     * @return Número de conflictos detectados
+     */
+    public long getConflictos() {
+        return conflictos.get();
+    }
+}
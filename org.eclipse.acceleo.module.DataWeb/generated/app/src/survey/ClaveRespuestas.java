@@ -0,0 +1,216 @@
+package survey;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Clave de corrección compilada de un cuestionario
+ * Es inmutable: guarda las respuestas correctas ya normalizadas, la puntuación de cada pregunta,
+ * la puntuación máxima y el umbral de aprobado en puntos, de modo que corregir una respuesta
+ * no vuelve a recorrer ni a normalizar la definición del cuestionario.
+ * Se obtiene con Cuestionario.getClaveRespuestas, que la recompila si el cuestionario cambia
+ */
+public final class ClaveRespuestas {
+    // Por debajo de este número de respuestas la corrección en paralelo no compensa
+    private static final int UMBRAL_PARALELO = 2048;
+
+    private static final byte NO_EVALUABLE = 0;
+    private static final byte OPCION_MULTIPLE = 1;
+    private static final byte VERDADERO_FALSO = 2;
+    private static final byte RESPUESTA_CORTA = 3;
+
+    // Preguntas y versiones con las que se compiló (para detectar cambios)
+    private final Pregunta[] preguntas;
+    private final int[] versiones;
+    private final int puntuacionMinima;
+
+    private final int[] preguntaIds;
+    private final byte[] tipos;
+    private final String[] correctas;   // Respuesta correcta normalizada
+    private final int[] indicesOpcion;  // Opción correcta (-1 si no es de opción múltiple)
+    private final int[] puntos;
+    private final int puntuacionMaxima;
+    private final int umbralAprobado;   // Puntos mínimos para aprobar
+
+    /**
+     * Compila la clave de un cuestionario
+     * @param cuestionario Cuestionario a compilar
+     */
+    ClaveRespuestas(Cuestionario cuestionario) {
+        List<Pregunta> lista = cuestionario.getPreguntas();
+        int n = lista.size();
+        this.preguntas = lista.toArray(new Pregunta[n]);
+        this.versiones = new int[n];
+        this.puntuacionMinima = cuestionario.getPuntuacionMinima();
+        this.preguntaIds = new int[n];
+        this.tipos = new byte[n];
+        this.correctas = new String[n];
+        this.indicesOpcion = new int[n];
+        this.puntos = new int[n];
+
+        int maximo = 0;
+        for (int i = 0; i < n; i++) {
+            Pregunta pregunta = preguntas[i];
+            versiones[i] = pregunta.getVersion();
+            preguntaIds[i] = pregunta.getId();
+            puntos[i] = pregunta.getPuntuacion();
+            indicesOpcion[i] = -1;
+            maximo += pregunta.getPuntuacion();
+
+            String correcta = pregunta.getRespuestaCorrecta();
+            if (correcta == null || pregunta.getTipo() == null) {
+                tipos[i] = NO_EVALUABLE;
+                continue;
+            }
+            switch (pregunta.getTipo()) {
+                case OPCION_MULTIPLE:
+                    tipos[i] = OPCION_MULTIPLE;
+                    correctas[i] = correcta;
+                    try {
+                        indicesOpcion[i] = Integer.parseInt(correcta);
+                    } catch (NumberFormatException e) {
+                        indicesOpcion[i] = pregunta.getOpciones().indexOf(correcta);
+                    }
+                    break;
+                case VERDADERO_FALSO:
+                    tipos[i] = VERDADERO_FALSO;
+                    correctas[i] = correcta;
+                    break;
+                case RESPUESTA_CORTA:
+                    tipos[i] = RESPUESTA_CORTA;
+                    correctas[i] = correcta.trim();
+                    break;
+                default:
+                    tipos[i] = NO_EVALUABLE;
+            }
+        }
+        this.puntuacionMaxima = maximo;
+        // porcentaje >= mínimo  <=>  puntos * 100 >= mínimo * máximo (en enteros, sin redondeos)
+        this.umbralAprobado = maximo == 0 ? Integer.MAX_VALUE
+                : (int) -Math.floorDiv(-(long) puntuacionMinima * maximo, 100);
+    }
+
+    /**
+     * Indica si la clave sigue correspondiendo al cuestionario
+     * @param cuestionario Cuestionario del que se compiló
+     * @return true si no han cambiado sus preguntas ni la puntuación mínima
+     */
+    boolean esVigente(Cuestionario cuestionario) {
+        List<Pregunta> lista = cuestionario.getPreguntas();
+        if (lista.size() != preguntas.length || cuestionario.getPuntuacionMinima() != puntuacionMinima) {
+            return false;
+        }
+        for (int i = 0; i < preguntas.length; i++) {
+            Pregunta pregunta = lista.get(i);
+            if (pregunta != preguntas[i] || pregunta.getVersion() != versiones[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calcula la puntuación de una respuesta
+     * @param respuesta Respuesta a corregir
+     * @return Puntuación obtenida
+     */
+    public int puntuar(Respuesta respuesta) {
+        int puntuacion = 0;
+        for (int i = 0; i < preguntaIds.length; i++) {
+            if (tipos[i] == NO_EVALUABLE) {
+                continue;
+            }
+            String valor = respuesta.getRespuesta(preguntaIds[i]);
+            if (valor != null && acierta(i, valor)) {
+                puntuacion += puntos[i];
+            }
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Corrige una respuesta y guarda en ella la puntuación y si aprueba
+     * Si ya se corrigió con esta misma clave se reutiliza el resultado guardado
+     * @param respuesta Respuesta a corregir
+     * @return Puntuación obtenida
+     */
+    public int corregir(Respuesta respuesta) {
+        int puntuacion = respuesta.getPuntuacion(this);
+        if (puntuacion == Respuesta.SIN_CORREGIR) {
+            puntuacion = puntuar(respuesta);
+            respuesta.setCorreccion(this, puntuacion);
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Corrige un lote de respuestas, en paralelo si el lote es grande
+     * Cada respuesta guarda su resultado como en corregir
+     * @param respuestas Respuestas a corregir (no deben modificarse durante la corrección)
+     * @return Puntuaciones, en el mismo orden que las respuestas
+     */
+    public int[] puntuar(List<Respuesta> respuestas) {
+        Respuesta[] lote = respuestas.toArray(new Respuesta[0]);
+        int[] resultado = new int[lote.length];
+        IntStream indices = IntStream.range(0, lote.length);
+        if (lote.length >= UMBRAL_PARALELO) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> resultado[i] = corregir(lote[i]));
+        return resultado;
+    }
+
+    private boolean acierta(int i, String valor) {
+        switch (tipos[i]) {
+            case OPCION_MULTIPLE:
+                return valor.equals(correctas[i]);
+            case VERDADERO_FALSO:
+                return valor.equalsIgnoreCase(correctas[i]);
+            case RESPUESTA_CORTA:
+                // Equivale a valor.trim().equalsIgnoreCase(correcta) sin crear cadenas nuevas
+                int inicio = 0;
+                int fin = valor.length();
+                while (inicio < fin && valor.charAt(inicio) <= ' ') {
+                    inicio++;
+                }
+                while (fin > inicio && valor.charAt(fin - 1) <= ' ') {
+                    fin--;
+                }
+                String correcta = correctas[i];
+                return fin - inicio == correcta.length() && valor.regionMatches(true, inicio, correcta, 0, correcta.length());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Determina si una puntuación es suficiente para aprobar
+     * @param puntuacion Puntuación obtenida
+     * @return true si aprueba
+     */
+    public boolean esAprobado(int puntuacion) {
+        return puntuacion >= umbralAprobado;
+    }
+
+    /**
+     * Obtiene la opción correcta de una pregunta de opción múltiple
+     * @param preguntaId ID de la pregunta
+     * @return Índice de la opción correcta, o -1 si la pregunta no es de opción múltiple o no tiene respuesta correcta
+     */
+    public int getIndiceOpcionCorrecta(int preguntaId) {
+        for (int i = 0; i < preguntaIds.length; i++) {
+            if (preguntaIds[i] == preguntaId) {
+                return indicesOpcion[i];
+            }
+        }
+        return -1;
+    }
+
+    public int getPuntuacionMaxima() {
+        return puntuacionMaxima;
+    }
+
+    public int getUmbralAprobado() {
+        return umbralAprobado;
+    }
+}
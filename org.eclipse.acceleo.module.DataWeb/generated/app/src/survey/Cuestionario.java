@@ -1,6 +1,7 @@
 package survey;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Clase que representa un cuestionario evaluable
@@ -13,6 +14,7 @@ public class Cuestionario extends Encuesta implements Serializable {
     private int puntuacionMinima; // para aprobar
     private boolean mostrarResultadosInmediatos;
     private boolean aleatorio;
+    private transient volatile ClaveRespuestas clave; // Se compila en el primer uso
     
     /**
      * Constructor por defecto
@@ -74,34 +76,45 @@ public class Cuestionario extends Encuesta implements Serializable {
         this.aleatorio = aleatorio;
     }
     
+    /**
+     * Obtiene la clave de corrección compilada del cuestionario
+     * Se recompila automáticamente si han cambiado las preguntas o la puntuación mínima
+     * @return Clave de corrección
+     */
+    public ClaveRespuestas getClaveRespuestas() {
+        ClaveRespuestas actual = clave;
+        if (actual == null || !actual.esVigente(this)) {
+            actual = new ClaveRespuestas(this);
+            clave = actual;
+        }
+        return actual;
+    }
+    
     /**
      * Calcula la puntuación máxima posible del cuestionario
      * @return Puntuación máxima
      */
     public int calcularPuntuacionMaxima() {
-        int total = 0;
-        for (Pregunta pregunta : getPreguntas()) {
-            total += pregunta.getPuntuacion();
-        }
-        return total;
+        return getClaveRespuestas().getPuntuacionMaxima();
     }
     
     /**
      * Evalúa las respuestas de un usuario y calcula su puntuación
+     * La puntuación queda guardada en la respuesta mientras no cambie la clave de corrección
      * @param respuesta Respuesta a evaluar
      * @return Puntuación obtenida
      */
     public int evaluarRespuesta(Respuesta respuesta) {
-        int puntuacion = 0;
-        
-        for (Pregunta pregunta : getPreguntas()) {
-            String respuestaUser = respuesta.getRespuesta(pregunta.getId());
-            if (respuestaUser != null && pregunta.evaluarRespuesta(respuestaUser)) {
-                puntuacion += pregunta.getPuntuacion();
-            }
-        }
-        
-        return puntuacion;
+        return getClaveRespuestas().corregir(respuesta);
+    }
+    
+    /**
+     * Evalúa un lote de respuestas en paralelo
+     * @param respuestas Respuestas a evaluar
+     * @return Puntuaciones, en el mismo orden que las respuestas
+     */
+    public int[] evaluarRespuestas(List<Respuesta> respuestas) {
+        return getClaveRespuestas().puntuar(respuestas);
     }
     
     /**
@@ -110,13 +123,7 @@ public class Cuestionario extends Encuesta implements Serializable {
      * @return true si aprueba, false en caso contrario
      */
     public boolean esAprobado(int puntuacion) {
-        int maximo = calcularPuntuacionMaxima();
-        if (maximo == 0) {
-            return false;
-        }
-        
-        double porcentaje = ((double) puntuacion / maximo) * 100;
-        return porcentaje >= puntuacionMinima;
+        return getClaveRespuestas().esAprobado(puntuacion);
     }
     
     @Override
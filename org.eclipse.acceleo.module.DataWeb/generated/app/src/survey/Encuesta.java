@@ -2,9 +2,10 @@ package survey;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Date;
-import java.text.SimpleDateFormat;
+import java.util.function.Consumer;
+import java.time.LocalDate;
 
 /**
  * Clase que representa una encuesta
@@ -19,8 +20,9 @@ public class Encuesta implements Serializable {
     private String fechaCreacion;
     private String fechaCierre;
     private boolean activa;
-    private List<String> rolesPermitidos;
+    private List<String> rolesPermitidos; // Nombres de rol internados: se repiten en todas las encuestas
     private List<Pregunta> preguntas;
+    private transient Consumer<Encuesta> observador; // Avisa al gestor de cambios en el acceso
     
     /**
      * Constructor por defecto
@@ -29,7 +31,7 @@ public class Encuesta implements Serializable {
         this.rolesPermitidos = new ArrayList<>();
         this.preguntas = new ArrayList<>();
         this.activa = true;
-        this.fechaCreacion = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+        this.fechaCreacion = LocalDate.now().toString();
     }
     
     /**
@@ -102,21 +104,41 @@ public class Encuesta implements Serializable {
     }
     
     public void setActiva(boolean activa) {
-        this.activa = activa;
+        if (this.activa != activa) {
+            this.activa = activa;
+            notificarCambioAcceso();
+        }
     }
     
     public List<String> getRolesPermitidos() {
-        return rolesPermitidos;
+        return Collections.unmodifiableList(rolesPermitidos);
     }
     
     public void addRolPermitido(String rol) {
         if (!rolesPermitidos.contains(rol)) {
-            rolesPermitidos.add(rol);
+            rolesPermitidos.add(rol != null ? rol.intern() : null);
+            notificarCambioAcceso();
         }
     }
     
     public void removeRolPermitido(String rol) {
-        rolesPermitidos.remove(rol);
+        if (rolesPermitidos.remove(rol)) {
+            notificarCambioAcceso();
+        }
+    }
+    
+    /**
+     * Registra quién debe ser avisado cuando cambia el estado o los roles permitidos
+     * @param observador Función a llamar tras cada cambio (null para dejar de avisar)
+     */
+    void setObservador(Consumer<Encuesta> observador) {
+        this.observador = observador;
+    }
+    
+    private void notificarCambioAcceso() {
+        if (observador != null) {
+            observador.accept(this);
+        }
     }
     
     public List<Pregunta> getPreguntas() {
@@ -0,0 +1,249 @@
+package survey;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de respuestas a CSV o JSON Lines para su análisis externo
+ * Las respuestas se recorren de una en una con SurveyManager.recorrerRespuestas y se escriben
+ * según se leen, por lo que la memoria usada no depende del número de respuestas exportadas.
+ * La salida va a un FileChannel a través de un buffer y, opcionalmente, comprimida con gzip
+ *
+ * CSV: una fila por valor respondido (encuestaId, encuesta, respuestaId, usuario, fecha,
+ * completada, preguntaId, pregunta, valor); las respuestas sin valores generan una fila sin pregunta.
+ * JSON Lines: un objeto por respuesta con sus valores en "respuestas" (preguntaId -> valor)
+ */
+public class ExportadorRespuestas {
+    /**
+     * Formatos de exportación
+     */
+    public enum Formato {
+        CSV,
+        JSONL
+    }
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final String CABECERA_CSV = "encuestaId,encuesta,respuestaId,usuario,fecha,completada,preguntaId,pregunta,valor\n";
+
+    private final SurveyManager surveyManager;
+    private final Formato formato;
+    private final boolean gzip;
+
+    private long respuestasExportadas;
+    private long valoresExportados;
+
+    /**
+     * Constructor
+     * @param formato Formato de salida
+     * @param gzip Si la salida se comprime con gzip
+     */
+    public ExportadorRespuestas(Formato formato, boolean gzip) {
+        if (formato == null) {
+            throw new IllegalArgumentException("El formato es obligatorio");
+        }
+        this.surveyManager = SurveyManager.getInstance();
+        this.formato = formato;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Exporta las respuestas de una encuesta
+     * @param encuestaId ID de la encuesta
+     * @param destino Fichero de destino (se sobrescribe si existe)
+     * @return Número de respuestas exportadas
+     * @throws IOException si hay un error de lectura o escritura
+     * @throws IllegalArgumentException si la encuesta no existe
+     */
+    public long exportar(int encuestaId, Path destino) throws IOException {
+        Encuesta encuesta = surveyManager.getEncuesta(encuestaId);
+        if (encuesta == null) {
+            throw new IllegalArgumentException("No existe la encuesta con ID " + encuestaId);
+        }
+        List<Encuesta> encuestas = new ArrayList<>();
+        encuestas.add(encuesta);
+        return exportar(encuestas, destino);
+    }
+
+    /**
+     * Exporta las respuestas de todas las encuestas, en orden de ID
+     * @param destino Fichero de destino (se sobrescribe si existe)
+     * @return Número de respuestas exportadas
+     * @throws IOException si hay un error de lectura o escritura
+     */
+    public long exportarTodas(Path destino) throws IOException {
+        List<Encuesta> encuestas = surveyManager.getEncuestas();
+        encuestas.sort(Comparator.comparingInt(Encuesta::getId));
+        return exportar(encuestas, destino);
+    }
+
+    /**
+     * Obtiene el número de valores (respuestas a preguntas) escritos en la última exportación
+     * @return Número de valores exportados
+     */
+    public long getValoresExportados() {
+        return valoresExportados;
+    }
+
+    private long exportar(List<Encuesta> encuestas, Path destino) throws IOException {
+        respuestasExportadas = 0;
+        valoresExportados = 0;
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = abrirSalida(canal)) {
+            if (formato == Formato.CSV) {
+                out.write(CABECERA_CSV);
+            }
+            StringBuilder linea = new StringBuilder(256);
+            for (Encuesta encuesta : encuestas) {
+                Map<Integer, String> textos = new HashMap<>();
+                for (Pregunta pregunta : encuesta.getPreguntas()) {
+                    textos.put(pregunta.getId(), pregunta.getTexto());
+                }
+                surveyManager.recorrerRespuestas(encuesta.getId(), respuesta -> {
+                    linea.setLength(0);
+                    if (formato == Formato.CSV) {
+                        escribirCsv(linea, encuesta, textos, respuesta);
+                    } else {
+                        escribirJson(linea, respuesta);
+                    }
+                    out.append(linea);
+                    respuestasExportadas++;
+                });
+            }
+        }
+        return respuestasExportadas;
+    }
+
+    private Writer abrirSalida(FileChannel canal) throws IOException {
+        OutputStream salida = new BufferedOutputStream(Channels.newOutputStream(canal), TAMANO_BUFFER);
+        if (gzip) {
+            salida = new GZIPOutputStream(salida, TAMANO_BUFFER);
+        }
+        return new OutputStreamWriter(salida, StandardCharsets.UTF_8);
+    }
+
+    private void escribirCsv(StringBuilder linea, Encuesta encuesta, Map<Integer, String> textos, Respuesta respuesta) {
+        if (respuesta.getRespuestas().isEmpty()) {
+            filaCsv(linea, encuesta, respuesta, null, null, null);
+            return;
+        }
+        for (Map.Entry<Integer, String> valor : respuesta.getRespuestas().entrySet()) {
+            filaCsv(linea, encuesta, respuesta, valor.getKey(), textos.get(valor.getKey()), valor.getValue());
+            valoresExportados++;
+        }
+    }
+
+    private static void filaCsv(StringBuilder linea, Encuesta encuesta, Respuesta respuesta,
+                                Integer preguntaId, String pregunta, String valor) {
+        linea.append(encuesta.getId()).append(',');
+        campoCsv(linea, encuesta.getTitulo()).append(',');
+        linea.append(respuesta.getId()).append(',');
+        campoCsv(linea, respuesta.getUsuario()).append(',');
+        campoCsv(linea, respuesta.getFechaRespuesta()).append(',');
+        linea.append(respuesta.isCompletada()).append(',');
+        if (preguntaId != null) {
+            linea.append(preguntaId.intValue());
+        }
+        linea.append(',');
+        campoCsv(linea, pregunta).append(',');
+        campoCsv(linea, valor).append('\n');
+    }
+
+    /**
+     * Añade un campo CSV, entre comillas si contiene separadores, comillas o saltos de línea
+     */
+    private static StringBuilder campoCsv(StringBuilder linea, String valor) {
+        if (valor == null) {
+            return linea;
+        }
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            return linea.append(valor);
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                linea.append('"');
+            }
+            linea.append(c);
+        }
+        return linea.append('"');
+    }
+
+    private void escribirJson(StringBuilder linea, Respuesta respuesta) {
+        linea.append("{\"encuestaId\":").append(respuesta.getEncuestaId());
+        linea.append(",\"respuestaId\":").append(respuesta.getId());
+        linea.append(",\"usuario\":");
+        cadenaJson(linea, respuesta.getUsuario());
+        linea.append(",\"fecha\":");
+        cadenaJson(linea, respuesta.getFechaRespuesta());
+        linea.append(",\"completada\":").append(respuesta.isCompletada());
+        linea.append(",\"aprobada\":").append(respuesta.isAprobada());
+        linea.append(",\"respuestas\":{");
+        boolean primero = true;
+        for (Map.Entry<Integer, String> valor : respuesta.getRespuestas().entrySet()) {
+            if (!primero) {
+                linea.append(',');
+            }
+            primero = false;
+            linea.append('"').append(valor.getKey().intValue()).append("\":");
+            cadenaJson(linea, valor.getValue());
+            valoresExportados++;
+        }
+        linea.append("}}\n");
+    }
+
+    private static void cadenaJson(StringBuilder linea, String valor) {
+        if (valor == null) {
+            linea.append("null");
+            return;
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    linea.append("\\\"");
+                    break;
+                case '\\':
+                    linea.append("\\\\");
+                    break;
+                case '\n':
+                    linea.append("\\n");
+                    break;
+                case '\r':
+                    linea.append("\\r");
+                    break;
+                case '\t':
+                    linea.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        linea.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linea.append(c);
+                    }
+            }
+        }
+        linea.append('"');
+    }
+}
@@ -0,0 +1,599 @@
+package survey;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import persistence.AtomicFile;
+import persistence.Journal;
+
+/**
+ * Fragmento del almacén de respuestas: las respuestas de una única encuesta
+ * Cada fragmento tiene su propio cerrojo, su propio fichero, su propio log de cambios y su propio
+ * contador de IDs, de modo que las respuestas a encuestas distintas se guardan en paralelo y una
+ * encuesta con mucha actividad no retrasa a las demás. Los IDs de respuesta son únicos dentro de la encuesta.
+ *
+ * El fichero se proyecta en memoria en el primer acceso: las respuestas se decodifican cuando se
+ * necesitan y el índice por usuario del fragmento se guarda aparte para consultarlo sin decodificarlas.
+ * El log solo se abre si tiene registros pendientes o al guardar el primer cambio, y se cierra
+ * cuando el fragmento pasa un tiempo sin cambios (ver cerrarJournalInactivo)
+ */
+class FragmentoRespuestas {
+    // Tipos de registro del log del fragmento (los mismos que usaba el log de encuestas)
+    private static final byte REG_RESPUESTA = 3;
+    private static final byte REG_ELIMINAR_RESPUESTA = 4;
+    private static final byte REG_LOTE_RESPUESTAS = 5;
+
+    private final int encuestaId;
+    private final IndiceEncuestasPorUsuario indiceEncuestas;
+    private final File fichero;
+    private final File ficheroJournal;
+    private final boolean modoJournal;
+    private final int snapshotInterval;
+
+    private boolean cargado;
+    private boolean eliminado;
+    private Map<Integer, Respuesta> respuestas;  // null mientras el bloque del fichero siga sin decodificar
+    private ByteBuffer bloque;                   // Respuestas del fichero aún sin decodificar
+    private IndiceUsuarios indiceUsuarios;       // Se construye en la primera consulta por usuario
+    private ByteBuffer bloqueUsuarios;           // Índice por usuario del fichero aún sin decodificar
+    private ResultadosEncuesta resultados;       // Se calculan en la primera consulta
+    private int nextRespuestaId = 1;
+    private Journal journal;
+    private long seqBase;                        // Último número de secuencia de los logs ya cerrados
+    private long ultimoSeq;                      // Último número de secuencia devuelto (incluye seqBase)
+    private long ultimoCambio;                   // System.nanoTime() del último cambio en el log
+    private boolean modificado;                  // Cambios que aún no están en el fichero ni en el log
+
+    /**
+     * Constructor: no lee nada hasta el primer acceso
+     * @param directorio Directorio de los ficheros de respuestas
+     * @param encuestaId ID de la encuesta
+     * @param modoJournal Si los cambios se anexan a un log (si no, cada cambio reescribe el fichero)
+     * @param snapshotInterval Registros del log tras los que se reescribe el fichero y se vacía el log
+     * @param indiceEncuestas Índice global usuario -> encuestas, que se actualiza con cada respuesta
+     */
+    FragmentoRespuestas(File directorio, int encuestaId, boolean modoJournal, int snapshotInterval,
+            IndiceEncuestasPorUsuario indiceEncuestas) {
+        this.encuestaId = encuestaId;
+        this.indiceEncuestas = indiceEncuestas;
+        this.fichero = new File(directorio, "encuesta_" + encuestaId + ".dat");
+        this.ficheroJournal = new File(directorio, "encuesta_" + encuestaId + ".journal");
+        this.modoJournal = modoJournal;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Inicializa el fragmento con un bloque de respuestas de una instantánea anterior al almacén
+     * por encuestas; el fragmento queda pendiente de guardar (ver guardarInstantanea)
+     * @param bloqueRespuestas Respuestas sin decodificar
+     * @param indice Índice por usuario de la encuesta
+     * @param nextRespuestaId Siguiente ID de respuesta
+     */
+    synchronized void migrar(ByteBuffer bloqueRespuestas, IndiceUsuarios indice, int nextRespuestaId) {
+        cargado = true;
+        bloque = bloqueRespuestas;
+        indiceUsuarios = indice;
+        this.nextRespuestaId = nextRespuestaId;
+        modificado = true;
+    }
+
+    /**
+     * Obtiene todas las respuestas
+     * @return Lista de respuestas
+     */
+    synchronized List<Respuesta> getRespuestas() {
+        return new ArrayList<>(respuestas().values());
+    }
+
+    /**
+     * Recorre las respuestas de una en una, fuera del cerrojo del fragmento
+     * Si aún no se han decodificado, se leen directamente del fichero y no quedan en memoria
+     * @param consumidor Receptor de cada respuesta
+     * @throws IOException si falla la lectura del fichero o el consumidor
+     */
+    void recorrer(SurveyCodec.ConsumidorRespuestas consumidor) throws IOException {
+        ByteBuffer pendiente;
+        Respuesta[] cargadas = null;
+        synchronized (this) {
+            cargar();
+            pendiente = bloque;
+            if (pendiente == null) {
+                cargadas = respuestas.values().toArray(new Respuesta[0]);
+            }
+        }
+
+        if (pendiente != null) {
+            SurveyCodec.recorrerRespuestas(pendiente, consumidor);
+            return;
+        }
+        for (Respuesta respuesta : cargadas) {
+            consumidor.aceptar(respuesta);
+        }
+    }
+
+    synchronized Respuesta get(int respuestaId) {
+        return respuestas().get(respuestaId);
+    }
+
+    /**
+     * Cuenta las respuestas sin decodificarlas
+     * @return Número de respuestas
+     */
+    synchronized int contar() {
+        cargar();
+        if (bloque != null) {
+            try {
+                return SurveyCodec.contarRespuestas(bloque);
+            } catch (IOException e) {
+                // Se informa del error al decodificar el bloque
+            }
+        }
+        return respuestas().size();
+    }
+
+    /**
+     * Reserva un bloque de IDs de respuesta consecutivos
+     * @param cantidad Número de IDs
+     * @return Primer ID del bloque
+     */
+    synchronized int reservarIds(int cantidad) {
+        comprobarNoEliminado();
+        cargar();
+        int primero = nextRespuestaId;
+        nextRespuestaId += cantidad;
+        return primero;
+    }
+
+    /**
+     * Guarda una respuesta (le asigna ID si no lo tiene)
+     * @param respuesta Respuesta a guardar
+     * @return Número de secuencia del cambio, para esperarPersistencia
+     */
+    synchronized long guardar(Respuesta respuesta) {
+        comprobarNoEliminado();
+        cargar();
+        asignarId(respuesta);
+        almacenar(respuesta);
+        return registrarCambio(REG_RESPUESTA, SurveyCodec.encodeRespuesta(respuesta));
+    }
+
+    /**
+     * Guarda un lote de respuestas con un único registro en el log
+     * @param lote Respuestas a guardar (las que tienen ID 0 reciben uno nuevo)
+     * @return Número de secuencia del cambio, para esperarPersistencia
+     */
+    synchronized long guardarLote(List<Respuesta> lote) {
+        comprobarNoEliminado();
+        cargar();
+        for (Respuesta respuesta : lote) {
+            asignarId(respuesta);
+            almacenar(respuesta);
+        }
+        return registrarCambio(REG_LOTE_RESPUESTAS, SurveyCodec.encodeRespuestas(lote));
+    }
+
+    /**
+     * Elimina una respuesta
+     * @param respuestaId ID de la respuesta
+     * @return Número de secuencia del cambio, o -1 si la respuesta no existía
+     */
+    synchronized long eliminar(int respuestaId) {
+        if (eliminado) {
+            return -1;
+        }
+        Respuesta eliminada = respuestas().remove(respuestaId);
+        if (eliminada == null) {
+            return -1;
+        }
+        actualizarIndiceUsuarios(eliminada, null);
+        if (resultados != null) {
+            resultados.quitar(respuestaId);
+        }
+        return registrarCambio(REG_ELIMINAR_RESPUESTA, SurveyCodec.encodeIds(encuestaId, respuestaId));
+    }
+
+    synchronized List<Respuesta> getRespuestasDeUsuario(String usuario) {
+        List<Respuesta> result = new ArrayList<>();
+        Map<Integer, Boolean> ids = indiceUsuarios().get(usuario).get(encuestaId);
+        if (ids != null) {
+            Map<Integer, Respuesta> todas = respuestas();
+            for (Integer respuestaId : ids.keySet()) {
+                Respuesta respuesta = todas.get(respuestaId);
+                if (respuesta != null) {
+                    result.add(respuesta);
+                }
+            }
+        }
+        return result;
+    }
+
+    synchronized int contarRespuestasDeUsuario(String usuario) {
+        Map<Integer, Boolean> ids = indiceUsuarios().get(usuario).get(encuestaId);
+        return ids != null ? ids.size() : 0;
+    }
+
+    synchronized boolean haCompletado(String usuario) {
+        return indiceUsuarios().haCompletado(usuario, encuestaId);
+    }
+
+    /**
+     * Añade los usuarios del fragmento al índice global (al reconstruirlo o si el log tiene
+     * cambios posteriores al índice guardado); usa el índice por usuario sin decodificar las respuestas
+     */
+    synchronized void indexarUsuarios() {
+        for (String usuario : indiceUsuarios().usuarios()) {
+            indiceEncuestas.agregar(usuario, encuestaId);
+        }
+    }
+
+    /**
+     * Obtiene los resultados agregados, calculándolos la primera vez
+     * @param encuesta Encuesta del fragmento
+     * @return Resultados de la encuesta
+     */
+    synchronized ResultadosEncuesta getResultados(Encuesta encuesta) {
+        if (resultados == null) {
+            resultados = new ResultadosEncuesta(encuesta, respuestas().values());
+        }
+        return resultados;
+    }
+
+    /**
+     * Descarta los resultados calculados (p. ej. porque han cambiado las preguntas)
+     */
+    synchronized void invalidarResultados() {
+        resultados = null;
+    }
+
+    /**
+     * Añade una respuesta que no procede del log del fragmento (al migrar datos de versiones
+     * anteriores); el fragmento queda pendiente de guardar (ver guardarInstantanea)
+     * @param respuesta Respuesta con ID asignado
+     */
+    synchronized void aplicar(Respuesta respuesta) {
+        reproducir(respuesta);
+        modificado = true;
+    }
+
+    /**
+     * Elimina una respuesta sin registrarlo en el log (al migrar datos de versiones anteriores);
+     * el fragmento queda pendiente de guardar (ver guardarInstantanea)
+     * @param respuestaId ID de la respuesta
+     */
+    synchronized void aplicarEliminacion(int respuestaId) {
+        actualizarIndiceUsuarios(respuestas().remove(respuestaId), null);
+        modificado = true;
+    }
+
+    /**
+     * Aplica un registro del log del fragmento
+     * @param tipo Tipo de registro
+     * @param datos Contenido del registro
+     * @throws IOException si el registro no se puede interpretar
+     */
+    private void aplicarRegistro(byte tipo, byte[] datos) throws IOException {
+        switch (tipo) {
+            case REG_RESPUESTA:
+                reproducir(SurveyCodec.decodeRespuesta(datos));
+                break;
+            case REG_LOTE_RESPUESTAS:
+                for (Respuesta respuesta : SurveyCodec.decodeRespuestas(datos)) {
+                    reproducir(respuesta);
+                }
+                break;
+            case REG_ELIMINAR_RESPUESTA:
+                actualizarIndiceUsuarios(respuestas().remove(SurveyCodec.decodeIds(datos)[1]), null);
+                break;
+            default:
+                throw new IOException("Tipo de registro desconocido: " + tipo);
+        }
+    }
+
+    /**
+     * Espera, fuera del cerrojo del fragmento, a que un cambio esté persistido en disco
+     * @param seq Número de secuencia devuelto por guardar, guardarLote o eliminar
+     * @throws UncheckedIOException si el cambio no se pudo persistir
+     */
+    void esperarPersistencia(long seq) {
+        Journal actual;
+        long base;
+        synchronized (this) {
+            actual = journal;
+            base = seqBase;
+        }
+        // Los cambios de un log ya cerrado son persistentes: se cierra tras guardar el fichero
+        if (seq <= base || actual == null) {
+            return;
+        }
+        try {
+            actual.awaitDurable(seq - base);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error al guardar las respuestas de la encuesta " + encuestaId + ": " + e.getCause().getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Reescribe el fichero del fragmento si tiene cambios y vacía su log
+     * El fichero se sustituye de forma atómica y persistente (ver AtomicFile) antes de vaciar el log
+     * @return true si el fichero está al día; si es false el log no se ha vaciado
+     */
+    synchronized boolean guardarInstantanea() {
+        if (!cargado || eliminado || (!modificado && (journal == null || journal.getRecordCount() == 0))) {
+            return true;
+        }
+        File directorio = fichero.getParentFile();
+        if (directorio != null && !directorio.exists() && !directorio.mkdirs()) {
+            System.err.println("No se pudo crear el directorio " + directorio);
+            return false;
+        }
+        try {
+            boolean indiceGuardado = indiceUsuarios == null && bloqueUsuarios != null && respuestas == null;
+            // El índice global debe reflejar las respuestas del fichero antes de vaciar el log
+            indiceEncuestas.guardar();
+            SurveyCodec.Fragmento datos = new SurveyCodec.Fragmento(nextRespuestaId,
+                    respuestas, bloque,
+                    indiceGuardado ? null : indiceUsuarios(), indiceGuardado ? bloqueUsuarios : null);
+            AtomicFile.write(fichero, out -> SurveyCodec.writeFragmento(out, datos));
+            modificado = false;
+            if (journal != null) {
+                journal.reset();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error al guardar las respuestas de la encuesta " + encuestaId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persiste las correcciones guardadas en las respuestas tras una recorrección
+     * No pasan por el log, por lo que el fragmento queda modificado y se reescribe su fichero
+     */
+    synchronized void guardarCorrecciones() {
+        if (!cargado || eliminado) {
+            return;
+        }
+        modificado = true;
+        guardarInstantanea();
+    }
+
+    /**
+     * Guarda el fichero del fragmento y cierra su log
+     */
+    synchronized void cerrar() {
+        guardarInstantanea();
+        cerrarJournal();
+    }
+
+    /**
+     * Guarda el fichero y cierra el log si el fragmento lleva un tiempo sin cambios, para no mantener
+     * un hilo escritor y un fichero abierto por cada encuesta usada; el log se reabre con el siguiente cambio
+     * @param inactividad Nanosegundos sin cambios tras los que se cierra el log
+     */
+    synchronized void cerrarJournalInactivo(long inactividad) {
+        if (journal == null || System.nanoTime() - ultimoCambio < inactividad) {
+            return;
+        }
+        if (guardarInstantanea()) {
+            cerrarJournal();
+        }
+    }
+
+    /**
+     * Marca el fragmento como eliminado: a partir de aquí rechaza los cambios
+     * Se llama al eliminar la encuesta, antes de esperar a que la eliminación sea persistente y borrar los ficheros
+     */
+    synchronized void marcarEliminado() {
+        eliminado = true;
+    }
+
+    /**
+     * Cierra el fragmento y borra sus ficheros (al eliminar la encuesta)
+     * Los cambios posteriores sobre el fragmento ya no se persisten
+     */
+    synchronized void borrar() {
+        eliminado = true;
+        cerrarJournal();
+        borrarFicheros(fichero.getParentFile(), encuestaId);
+    }
+
+    /**
+     * Borra los ficheros de respuestas de una encuesta
+     * @param directorio Directorio de los ficheros de respuestas
+     * @param encuestaId ID de la encuesta
+     */
+    static void borrarFicheros(File directorio, int encuestaId) {
+        new File(directorio, "encuesta_" + encuestaId + ".dat").delete();
+        new File(directorio, "encuesta_" + encuestaId + ".journal").delete();
+    }
+
+    /**
+     * Carga el fichero y reproduce el log del fragmento la primera vez que se accede a él
+     * Debe llamarse con el cerrojo del fragmento adquirido
+     */
+    private void cargar() {
+        if (cargado) {
+            return;
+        }
+        cargado = true;
+        if (fichero.exists()) {
+            try (FileChannel canal = FileChannel.open(fichero.toPath(), StandardOpenOption.READ)) {
+                SurveyCodec.Fragmento datos = SurveyCodec.readFragmento(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+                nextRespuestaId = datos.getNextRespuestaId();
+                bloque = datos.getBloqueRespuestas();
+                bloqueUsuarios = datos.getBloqueUsuarios();
+            } catch (IOException e) {
+                System.err.println("Error al cargar las respuestas de la encuesta " + encuestaId + ": " + e.getMessage());
+            }
+        }
+        if (bloque == null) {
+            respuestas = new HashMap<>();
+        }
+        if (modoJournal && ficheroJournal.length() > 0) {
+            try {
+                abrirJournal().replay(this::aplicarRegistro);
+            } catch (IOException e) {
+                System.err.println("Error al reproducir el log de la encuesta " + encuestaId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private Journal abrirJournal() throws IOException {
+        if (journal == null) {
+            File directorio = ficheroJournal.getParentFile();
+            if (directorio != null && !directorio.exists() && !directorio.mkdirs()) {
+                throw new IOException("No se pudo crear el directorio " + directorio);
+            }
+            journal = new Journal(ficheroJournal);
+            ultimoCambio = System.nanoTime();
+        }
+        return journal;
+    }
+
+    /**
+     * Cierra el log; los números de secuencia del siguiente log continúan a partir de ultimoSeq
+     * Debe llamarse con el cerrojo del fragmento adquirido
+     */
+    private void cerrarJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            seqBase = ultimoSeq;
+        }
+    }
+
+    /**
+     * Obtiene las respuestas por ID, decodificando el bloque del fichero la primera vez
+     * Debe llamarse con el cerrojo del fragmento adquirido
+     */
+    private Map<Integer, Respuesta> respuestas() {
+        cargar();
+        if (bloque != null) {
+            try {
+                respuestas = SurveyCodec.readRespuestas(bloque);
+            } catch (IOException e) {
+                System.err.println("Error al cargar las respuestas de la encuesta " + encuestaId + ": " + e.getMessage());
+                respuestas = new HashMap<>();
+            }
+            bloque = null;
+        }
+        return respuestas;
+    }
+
+    /**
+     * Obtiene el índice por usuario, construyéndolo la primera vez
+     * Si las respuestas siguen sin decodificar se usa el índice guardado en el fichero
+     * Debe llamarse con el cerrojo del fragmento adquirido
+     */
+    private IndiceUsuarios indiceUsuarios() {
+        cargar();
+        if (indiceUsuarios != null) {
+            return indiceUsuarios;
+        }
+        if (bloque != null && bloqueUsuarios != null) {
+            try {
+                indiceUsuarios = SurveyCodec.readIndiceUsuarios(bloqueUsuarios);
+            } catch (IOException e) {
+                System.err.println("Error al cargar el índice por usuario de la encuesta " + encuestaId + ": " + e.getMessage());
+            }
+        }
+        bloqueUsuarios = null;
+        if (indiceUsuarios == null) {
+            IndiceUsuarios indice = new IndiceUsuarios();
+            for (Respuesta respuesta : respuestas().values()) {
+                indice.agregar(respuesta);
+            }
+            indiceUsuarios = indice;
+        }
+        return indiceUsuarios;
+    }
+
+    /**
+     * Rechaza un cambio sobre el fragmento de una encuesta eliminada
+     * @throws IllegalArgumentException si la encuesta se ha eliminado
+     */
+    private void comprobarNoEliminado() {
+        if (eliminado) {
+            throw new IllegalArgumentException("No existe la encuesta con ID " + encuestaId);
+        }
+    }
+
+    private void asignarId(Respuesta respuesta) {
+        if (respuesta.getId() == 0) {
+            respuesta.setId(nextRespuestaId++);
+        } else {
+            nextRespuestaId = Math.max(nextRespuestaId, respuesta.getId() + 1);
+        }
+    }
+
+    private void reproducir(Respuesta respuesta) {
+        almacenar(respuesta);
+        nextRespuestaId = Math.max(nextRespuestaId, respuesta.getId() + 1);
+    }
+
+    /**
+     * Añade o reemplaza una respuesta en memoria y actualiza el índice y los resultados
+     */
+    private void almacenar(Respuesta respuesta) {
+        Respuesta anterior = respuestas().put(respuesta.getId(), respuesta);
+        actualizarIndiceUsuarios(anterior, respuesta);
+        indiceEncuestas.agregar(respuesta.getUsuario(), encuestaId);
+        if (resultados != null) {
+            resultados.agregar(respuesta);
+        }
+    }
+
+    private void actualizarIndiceUsuarios(Respuesta anterior, Respuesta nueva) {
+        if (indiceUsuarios == null) {
+            return;
+        }
+        if (anterior != null) {
+            indiceUsuarios.quitar(anterior);
+        }
+        if (nueva != null) {
+            indiceUsuarios.agregar(nueva);
+        }
+    }
+
+    /**
+     * Registra un cambio en el log del fragmento (o reescribe su fichero si no hay log)
+     * Cada snapshotInterval registros se compacta el log reescribiendo el fichero
+     * Debe llamarse con el cerrojo del fragmento adquirido
+     * @return Número de secuencia del registro (0 si no hay que esperar)
+     * @throws UncheckedIOException si el cambio no se pudo registrar
+     */
+    private long registrarCambio(byte tipo, byte[] datos) {
+        if (eliminado) {
+            return 0;
+        }
+        if (!modoJournal) {
+            modificado = true;
+            if (!guardarInstantanea()) {
+                throw new UncheckedIOException(new IOException("No se pudieron guardar las respuestas de la encuesta " + encuestaId));
+            }
+            return 0;
+        }
+        try {
+            ultimoSeq = seqBase + abrirJournal().append(tipo, datos);
+            ultimoCambio = System.nanoTime();
+            if (journal.getRecordCount() >= snapshotInterval && guardarInstantanea()) {
+                return 0;
+            }
+            return ultimoSeq;
+        } catch (IOException e) {
+            System.err.println("Error al registrar cambio en las respuestas de la encuesta " + encuestaId + ": " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            System.err.println("Error al registrar cambio en las respuestas de la encuesta " + encuestaId + ": " + e.getMessage());
+            throw e;
+        }
+    }
+}
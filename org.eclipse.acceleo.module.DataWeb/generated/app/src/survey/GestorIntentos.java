@@ -0,0 +1,256 @@
+package survey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import config.AppConfig;
+
+/**
+ * Gestor de los intentos en curso de encuestas y cuestionarios
+ * Un único planificador controla los plazos de todos los intentos (una tarea programada por
+ * intento con tiempo límite, en lugar de un Timer con su propio hilo por intento), guarda
+ * periódicamente en un solo lote las respuestas dadas desde el último guardado y entrega
+ * automáticamente los intentos cuyo plazo vence.
+ * El intervalo de guardado se configura con quiz.autosaveSeconds (por defecto 10 segundos)
+ * Implementa patrón Singleton
+ */
+public class GestorIntentos {
+    private static GestorIntentos instance;
+
+    private final SurveyManager surveyManager;
+    private final ScheduledThreadPoolExecutor planificador;
+    private final Map<Integer, IntentoCuestionario> intentos; // ID de intento -> intento en curso
+    private final Map<String, IntentoCuestionario> intentosPorUsuario; // usuario#encuestaId -> intento en curso
+    private final AtomicInteger nextIntentoId;
+    // Respuestas de intentos expirados pendientes de guardar en el siguiente lote
+    private final Queue<Respuesta> expiradas;
+    // El guardado automático toma el bloqueo exclusivo para que una copia antigua no se guarde
+    // después de la respuesta definitiva; las entregas lo comparten y se guardan en paralelo
+    private final ReentrantReadWriteLock cerrojoGuardado;
+
+    /**
+     * Constructor privado (patrón Singleton)
+     */
+    private GestorIntentos() {
+        surveyManager = SurveyManager.getInstance();
+        intentos = new ConcurrentHashMap<>();
+        intentosPorUsuario = new ConcurrentHashMap<>();
+        nextIntentoId = new AtomicInteger(1);
+        expiradas = new ConcurrentLinkedQueue<>();
+        cerrojoGuardado = new ReentrantReadWriteLock();
+
+        long intervalo;
+        try {
+            intervalo = Long.parseLong(AppConfig.getInstance().getProperty("quiz.autosaveSeconds", "10"));
+        } catch (NumberFormatException e) {
+            intervalo = 10;
+        }
+        if (intervalo <= 0) {
+            intervalo = 10;
+        }
+        planificador = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "intentos-planificador");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Los plazos cancelados al entregar se retiran de la cola en lugar de esperar a vencer
+        planificador.setRemoveOnCancelPolicy(true);
+        planificador.scheduleWithFixedDelay(this::guardarPendientes, intervalo, intervalo, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "intentos-shutdown"));
+    }
+
+    /**
+     * Obtiene la instancia única del gestor
+     * @return Instancia del gestor de intentos
+     */
+    public static synchronized GestorIntentos getInstance() {
+        if (instance == null) {
+            instance = new GestorIntentos();
+        }
+        return instance;
+    }
+
+    /**
+     * Inicia un intento sobre una encuesta, o devuelve el intento que el usuario ya tenga en curso sobre ella
+     * La respuesta se guarda vacía al empezar para que pueda continuarse aunque la aplicación se cierre
+     * @param encuesta Encuesta a responder
+     * @param usuario Usuario que responde
+     * @return Intento en curso
+     * @throws IllegalArgumentException si la encuesta o el usuario no son válidos o la encuesta no está activa
+     */
+    public IntentoCuestionario iniciar(Encuesta encuesta, String usuario) {
+        if (encuesta == null || usuario == null || usuario.isEmpty()) {
+            throw new IllegalArgumentException("La encuesta y el usuario son obligatorios");
+        }
+        if (!encuesta.isActiva()) {
+            throw new IllegalArgumentException("La encuesta " + encuesta.getId() + " no está activa");
+        }
+        String clave = claveUsuario(usuario, encuesta.getId());
+        IntentoCuestionario[] creado = new IntentoCuestionario[1];
+        IntentoCuestionario intento = intentosPorUsuario.compute(clave, (k, actual) -> {
+            if (actual != null && actual.isEnCurso()) {
+                return actual;
+            }
+            creado[0] = crearIntento(encuesta, usuario);
+            return creado[0];
+        });
+        if (creado[0] != null) {
+            // El guardado inicial se hace fuera de compute para no bloquear el mapa mientras se escribe,
+            // pero el intento ya es visible: se guarda con su cerrojo, que terminar también toma, para que
+            // una entrega concurrente no quede sobrescrita por la respuesta vacía
+            synchronized (intento) {
+                if (!intento.isEnCurso()) {
+                    return intento;
+                }
+                surveyManager.guardarRespuesta(intento.getResultado());
+                intentos.put(intento.getId(), intento);
+                programarPlazo(intento);
+            }
+        }
+        return intento;
+    }
+
+    private IntentoCuestionario crearIntento(Encuesta encuesta, String usuario) {
+        int respuestaId = surveyManager.reservarIdsRespuesta(encuesta.getId(), 1);
+        Respuesta respuesta = new Respuesta(respuestaId, encuesta.getId(), usuario);
+        long limiteMs = 0;
+        if (encuesta instanceof Cuestionario) {
+            limiteMs = TimeUnit.MINUTES.toMillis(((Cuestionario) encuesta).getTiempoLimite());
+        }
+        return new IntentoCuestionario(nextIntentoId.getAndIncrement(), this, encuesta, respuesta,
+                System.currentTimeMillis(), limiteMs);
+    }
+
+    private void programarPlazo(IntentoCuestionario intento) {
+        if (!intento.tieneLimite()) {
+            return;
+        }
+        long espera = Math.max(0, intento.getFechaLimite() - System.currentTimeMillis());
+        intento.setPlazo(planificador.schedule(() -> expirar(intento), espera, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Entrega automáticamente un intento cuyo plazo ha vencido
+     * La respuesta se guarda en lote junto con las demás expiradas en el mismo instante
+     */
+    private void expirar(IntentoCuestionario intento) {
+        Respuesta definitiva = intento.terminar(IntentoCuestionario.Estado.EXPIRADO);
+        if (definitiva == null) {
+            return;
+        }
+        olvidar(intento);
+        expiradas.add(definitiva);
+        planificador.execute(this::guardarPendientes);
+        try {
+            intento.notificarExpiracion();
+        } catch (RuntimeException e) {
+            System.err.println("Error al notificar la expiración del intento " + intento.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Termina un intento y guarda su respuesta definitiva
+     * @param intento Intento a terminar
+     * @param estadoFinal Estado final del intento
+     * @return true si se terminó, false si ya había terminado
+     */
+    boolean finalizar(IntentoCuestionario intento, IntentoCuestionario.Estado estadoFinal) {
+        cerrojoGuardado.readLock().lock();
+        try {
+            Respuesta definitiva = intento.terminar(estadoFinal);
+            if (definitiva == null) {
+                return false;
+            }
+            olvidar(intento);
+            surveyManager.guardarRespuesta(definitiva);
+            return true;
+        } finally {
+            cerrojoGuardado.readLock().unlock();
+        }
+    }
+
+    private void olvidar(IntentoCuestionario intento) {
+        intentos.remove(intento.getId());
+        intentosPorUsuario.remove(claveUsuario(intento.getUsuario(), intento.getEncuesta().getId()), intento);
+    }
+
+    /**
+     * Guarda en un solo lote los cambios de los intentos en curso y las respuestas de los intentos expirados
+     * Las expiradas van después, de modo que prevalecen sobre cualquier copia anterior del mismo intento
+     */
+    private void guardarPendientes() {
+        cerrojoGuardado.writeLock().lock();
+        try {
+            List<Respuesta> lote = new ArrayList<>();
+            for (IntentoCuestionario intento : intentos.values()) {
+                Respuesta copia = intento.tomarPendiente();
+                if (copia != null) {
+                    lote.add(copia);
+                }
+            }
+            Respuesta expirada;
+            while ((expirada = expiradas.poll()) != null) {
+                lote.add(expirada);
+            }
+            if (!lote.isEmpty()) {
+                surveyManager.guardarRespuestas(lote);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error al guardar los intentos en curso: " + e.getMessage());
+        } finally {
+            cerrojoGuardado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene un intento en curso
+     * @param id ID del intento
+     * @return Intento, o null si no existe o ya ha terminado
+     */
+    public IntentoCuestionario getIntento(int id) {
+        return intentos.get(id);
+    }
+
+    /**
+     * Obtiene el intento en curso de un usuario sobre una encuesta
+     * @param usuario Nombre de usuario
+     * @param encuestaId ID de la encuesta
+     * @return Intento, o null si no tiene ninguno en curso
+     */
+    public IntentoCuestionario getIntentoEnCurso(String usuario, int encuestaId) {
+        IntentoCuestionario intento = intentosPorUsuario.get(claveUsuario(usuario, encuestaId));
+        return intento != null && intento.isEnCurso() ? intento : null;
+    }
+
+    /**
+     * Obtiene todos los intentos en curso
+     * @return Lista de intentos en curso
+     */
+    public List<IntentoCuestionario> getIntentosEnCurso() {
+        return new ArrayList<>(intentos.values());
+    }
+
+    public int contarIntentosEnCurso() {
+        return intentos.size();
+    }
+
+    /**
+     * Detiene el planificador y guarda los cambios pendientes de los intentos en curso
+     * Los intentos que siguen en curso quedan guardados como incompletos
+     */
+    public void cerrar() {
+        planificador.shutdownNow();
+        guardarPendientes();
+    }
+
+    private static String claveUsuario(String usuario, int encuestaId) {
+        return usuario + "#" + encuestaId;
+    }
+}
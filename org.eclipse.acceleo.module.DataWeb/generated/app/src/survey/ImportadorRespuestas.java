@@ -0,0 +1,723 @@
+package survey;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importación masiva de respuestas desde CSV o JSON Lines (los formatos de ExportadorRespuestas)
+ * Funciona como una cadena de etapas comunicadas por colas acotadas: un hilo lector analiza
+ * el fichero y agrupa las respuestas en tramos, varios hilos validan y corrigen cada tramo,
+ * y el hilo que llama a importar asigna los IDs por bloques y guarda las respuestas en lotes
+ * con SurveyManager.guardarRespuestas (un único registro en el log de cada encuesta por lote).
+ * Los IDs de respuesta del fichero solo sirven para agrupar filas: cada respuesta recibe un ID nuevo
+ *
+ * Uso: java survey.ImportadorRespuestas fichero [--lote N] [--hilos N]
+ * El formato se deduce de la extensión (.csv o .jsonl, con .gz opcional)
+ */
+public class ImportadorRespuestas {
+    /** Respuestas por lote guardado si no se indica otro tamaño */
+    public static final int TAMANO_LOTE_POR_DEFECTO = 5000;
+
+    private static final int TAMANO_TRAMO = 256;   // Respuestas que pasan juntas entre etapas
+    private static final int CAPACIDAD_COLA = 64;  // Tramos en espera por cola
+    private static final int MAX_ERRORES = 20;     // Errores que se conservan para informar
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final List<Registro> FIN = new ArrayList<>(); // Marca de fin de cola
+
+    private final SurveyManager surveyManager;
+    private final int tamanoLote;
+    private final int hilos;
+
+    /**
+     * Constructor con el tamaño de lote por defecto y un validador por núcleo disponible
+     */
+    public ImportadorRespuestas() {
+        this(TAMANO_LOTE_POR_DEFECTO, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Constructor
+     * @param tamanoLote Respuestas por lote guardado
+     * @param hilos Número de hilos de validación y corrección
+     */
+    public ImportadorRespuestas(int tamanoLote, int hilos) {
+        if (tamanoLote <= 0 || hilos <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote y el número de hilos deben ser positivos");
+        }
+        this.surveyManager = SurveyManager.getInstance();
+        this.tamanoLote = tamanoLote;
+        this.hilos = hilos;
+    }
+
+    /**
+     * Resultado de una importación
+     */
+    public static class Resultado {
+        private long leidas;
+        private long importadas;
+        private long rechazadas;
+        private int lotes;
+        private long duracionMs;
+        private final List<String> errores = new ArrayList<>();
+
+        public long getLeidas() {
+            return leidas;
+        }
+
+        public long getImportadas() {
+            return importadas;
+        }
+
+        public long getRechazadas() {
+            return rechazadas;
+        }
+
+        public int getLotes() {
+            return lotes;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        /**
+         * Obtiene los primeros errores encontrados
+         * @return Mensajes de error (como máximo MAX_ERRORES)
+         */
+        public List<String> getErrores() {
+            return Collections.unmodifiableList(errores);
+        }
+
+        /**
+         * Obtiene el rendimiento de la importación
+         * @return Respuestas importadas por segundo
+         */
+        public double getRespuestasPorSegundo() {
+            return duracionMs == 0 ? importadas : importadas * 1000.0 / duracionMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Leídas: %d, importadas: %d, rechazadas: %d, lotes: %d, %d ms (%.0f respuestas/s)",
+                    leidas, importadas, rechazadas, lotes, duracionMs, getRespuestasPorSegundo());
+        }
+    }
+
+    /**
+     * Respuesta leída junto con la línea del fichero en la que empieza y, si no es válida, el motivo
+     */
+    private static class Registro {
+        private final long linea;
+        private final Respuesta respuesta;
+        private String error;
+
+        Registro(long linea, Respuesta respuesta, String error) {
+            this.linea = linea;
+            this.respuesta = respuesta;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Importa un fichero deduciendo el formato de su extensión
+     * @param origen Fichero .csv o .jsonl, opcionalmente terminado en .gz
+     * @return Resultado de la importación
+     * @throws IOException si hay un error de lectura
+     */
+    public Resultado importar(Path origen) throws IOException {
+        String nombre = origen.getFileName().toString().toLowerCase();
+        boolean gzip = nombre.endsWith(".gz");
+        if (gzip) {
+            nombre = nombre.substring(0, nombre.length() - 3);
+        }
+        ExportadorRespuestas.Formato formato = nombre.endsWith(".jsonl") || nombre.endsWith(".json")
+                ? ExportadorRespuestas.Formato.JSONL : ExportadorRespuestas.Formato.CSV;
+        return importar(origen, formato, gzip);
+    }
+
+    /**
+     * Importa un fichero
+     * @param origen Fichero de origen
+     * @param formato Formato del fichero
+     * @param gzip Si el fichero está comprimido con gzip
+     * @return Resultado de la importación
+     * @throws IOException si hay un error de lectura
+     */
+    public Resultado importar(Path origen, ExportadorRespuestas.Formato formato, boolean gzip) throws IOException {
+        long inicio = System.nanoTime();
+        Resultado resultado = new Resultado();
+        BlockingQueue<List<Registro>> leidos = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        BlockingQueue<List<Registro>> validados = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos + 1, tarea -> {
+            Thread hilo = new Thread(tarea, "importador-respuestas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        try {
+            Future<Long> lector = ejecutor.submit(() -> leer(origen, formato, gzip, leidos));
+            for (int i = 0; i < hilos; i++) {
+                ejecutor.submit(() -> validar(leidos, validados));
+            }
+            escribir(validados, resultado);
+            resultado.leidas = lector.get();
+        } catch (UncheckedIOException e) {
+            // Un lote que no llega a disco detiene la importación: no se cuenta como importado
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error al leer " + origen + ": " + e.getCause(), e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        resultado.duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        return resultado;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Etapa 1: lectura
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Lee el fichero y envía las respuestas en tramos; al terminar (o fallar) envía una marca de fin por validador
+     * @return Número de respuestas leídas (incluidas las que no se han podido analizar)
+     */
+    private long leer(Path origen, ExportadorRespuestas.Formato formato, boolean gzip,
+                      BlockingQueue<List<Registro>> salida) throws IOException, InterruptedException {
+        List<Registro> tramo = new ArrayList<>(TAMANO_TRAMO);
+        long total = 0;
+        try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ);
+             BufferedReader in = abrirEntrada(canal, gzip)) {
+            LectorRespuestas lector = formato == ExportadorRespuestas.Formato.CSV ? new LectorCsv(in) : new LectorJsonl(in);
+            Registro registro;
+            while ((registro = lector.siguiente()) != null) {
+                tramo.add(registro);
+                total++;
+                if (tramo.size() == TAMANO_TRAMO) {
+                    salida.put(tramo);
+                    tramo = new ArrayList<>(TAMANO_TRAMO);
+                }
+            }
+            if (!tramo.isEmpty()) {
+                salida.put(tramo);
+            }
+        } finally {
+            for (int i = 0; i < hilos; i++) {
+                salida.put(FIN);
+            }
+        }
+        return total;
+    }
+
+    private static BufferedReader abrirEntrada(FileChannel canal, boolean gzip) throws IOException {
+        InputStream entrada = Channels.newInputStream(canal);
+        if (gzip) {
+            entrada = new GZIPInputStream(entrada, TAMANO_BUFFER);
+        }
+        return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), TAMANO_BUFFER);
+    }
+
+    /**
+     * Analizador de un formato de entrada
+     */
+    private interface LectorRespuestas {
+        /**
+         * Lee la siguiente respuesta
+         * @return Registro leído (con error si no se ha podido analizar) o null al final del fichero
+         * @throws IOException si hay un error de lectura
+         */
+        Registro siguiente() throws IOException;
+    }
+
+    /**
+     * Lector de CSV con una fila por valor: las filas consecutivas con la misma encuesta
+     * y el mismo ID de respuesta forman una respuesta
+     */
+    private static class LectorCsv implements LectorRespuestas {
+        private static final int COLUMNAS = 9;
+
+        private final BufferedReader in;
+        private long linea;
+        private List<String> pendiente;     // Primera fila de la siguiente respuesta
+        private long lineaPendiente;
+
+        LectorCsv(BufferedReader in) throws IOException {
+            this.in = in;
+            pendiente = leerFila();
+            lineaPendiente = linea;
+            if (pendiente != null && !pendiente.isEmpty() && "encuestaId".equals(pendiente.get(0))) {
+                pendiente = leerFila(); // Cabecera
+                lineaPendiente = linea;
+            }
+        }
+
+        @Override
+        public Registro siguiente() throws IOException {
+            if (pendiente == null) {
+                return null;
+            }
+            List<String> fila = pendiente;
+            long inicio = lineaPendiente;
+            pendiente = leerFila();
+            lineaPendiente = linea;
+            if (fila.size() != COLUMNAS) {
+                return new Registro(inicio, null, "Se esperaban " + COLUMNAS + " columnas y hay " + fila.size());
+            }
+
+            Respuesta respuesta;
+            try {
+                respuesta = new Respuesta(0, Integer.parseInt(fila.get(0)), fila.get(3));
+                respuesta.setFechaRespuesta(fila.get(4));
+                respuesta.setCompletada(Boolean.parseBoolean(fila.get(5)));
+                agregarValor(respuesta, fila);
+                // Filas siguientes de la misma respuesta
+                while (pendiente != null && pendiente.size() == COLUMNAS
+                        && pendiente.get(0).equals(fila.get(0)) && pendiente.get(2).equals(fila.get(2))) {
+                    agregarValor(respuesta, pendiente);
+                    pendiente = leerFila();
+                    lineaPendiente = linea;
+                }
+            } catch (NumberFormatException e) {
+                return new Registro(inicio, null, "Número no válido: " + e.getMessage());
+            }
+            return new Registro(inicio, respuesta, null);
+        }
+
+        private static void agregarValor(Respuesta respuesta, List<String> fila) {
+            if (!fila.get(6).isEmpty()) {
+                respuesta.setRespuesta(Integer.parseInt(fila.get(6)), fila.get(8));
+            }
+        }
+
+        /**
+         * Lee una fila CSV (los campos entre comillas pueden contener saltos de línea)
+         * @return Campos de la fila o null al final del fichero
+         */
+        private List<String> leerFila() throws IOException {
+            String texto = in.readLine();
+            if (texto == null) {
+                return null;
+            }
+            linea++;
+            List<String> campos = new ArrayList<>(COLUMNAS);
+            StringBuilder campo = new StringBuilder();
+            boolean entreComillas = false;
+            int i = 0;
+            while (true) {
+                if (i == texto.length()) {
+                    if (!entreComillas) {
+                        break;
+                    }
+                    // Salto de línea dentro de un campo entre comillas
+                    texto = in.readLine();
+                    if (texto == null) {
+                        break;
+                    }
+                    linea++;
+                    campo.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = texto.charAt(i++);
+                if (entreComillas) {
+                    if (c == '"') {
+                        if (i < texto.length() && texto.charAt(i) == '"') {
+                            campo.append('"');
+                            i++;
+                        } else {
+                            entreComillas = false;
+                        }
+                    } else {
+                        campo.append(c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            campos.add(campo.toString());
+            return campos;
+        }
+    }
+
+    /**
+     * Lector de JSON Lines con un objeto por respuesta
+     */
+    private static class LectorJsonl implements LectorRespuestas {
+        private final BufferedReader in;
+        private long linea;
+
+        LectorJsonl(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public Registro siguiente() throws IOException {
+            String texto;
+            do {
+                texto = in.readLine();
+                if (texto == null) {
+                    return null;
+                }
+                linea++;
+            } while (texto.trim().isEmpty());
+
+            try {
+                Map<String, Object> objeto = new AnalizadorJson(texto).objeto();
+                Object encuestaId = objeto.get("encuestaId");
+                if (!(encuestaId instanceof Number)) {
+                    return new Registro(linea, null, "Falta encuestaId");
+                }
+                Respuesta respuesta = new Respuesta(0, ((Number) encuestaId).intValue(), (String) objeto.get("usuario"));
+                if (objeto.get("fecha") != null) {
+                    respuesta.setFechaRespuesta((String) objeto.get("fecha"));
+                }
+                respuesta.setCompletada(Boolean.TRUE.equals(objeto.get("completada")));
+                respuesta.setAprobada(Boolean.TRUE.equals(objeto.get("aprobada")));
+                Object valores = objeto.get("respuestas");
+                if (valores instanceof Map) {
+                    for (Map.Entry<?, ?> valor : ((Map<?, ?>) valores).entrySet()) {
+                        respuesta.setRespuesta(Integer.parseInt((String) valor.getKey()), (String) valor.getValue());
+                    }
+                }
+                return new Registro(linea, respuesta, null);
+            } catch (IllegalArgumentException | ClassCastException e) {
+                return new Registro(linea, null, "JSON no válido: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Analizador mínimo de JSON para las líneas de entrada (objetos, listas, cadenas, números y literales)
+     */
+    private static class AnalizadorJson {
+        private final String texto;
+        private int pos;
+
+        AnalizadorJson(String texto) {
+            this.texto = texto;
+        }
+
+        Map<String, Object> objeto() {
+            espacios();
+            esperar('{');
+            Map<String, Object> objeto = new LinkedHashMap<>();
+            espacios();
+            if (consumir('}')) {
+                return objeto;
+            }
+            do {
+                espacios();
+                String clave = cadena();
+                espacios();
+                esperar(':');
+                objeto.put(clave, valor());
+                espacios();
+            } while (consumir(','));
+            esperar('}');
+            return objeto;
+        }
+
+        private Object valor() {
+            espacios();
+            if (pos >= texto.length()) {
+                throw new IllegalArgumentException("fin inesperado");
+            }
+            char c = texto.charAt(pos);
+            if (c == '{') {
+                return objeto();
+            }
+            if (c == '[') {
+                pos++;
+                List<Object> lista = new ArrayList<>();
+                espacios();
+                if (consumir(']')) {
+                    return lista;
+                }
+                do {
+                    lista.add(valor());
+                    espacios();
+                } while (consumir(','));
+                esperar(']');
+                return lista;
+            }
+            if (c == '"') {
+                return cadena();
+            }
+            if (texto.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (texto.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (texto.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int inicio = pos;
+            while (pos < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String numero = texto.substring(inicio, pos);
+            if (numero.isEmpty()) {
+                throw new IllegalArgumentException("carácter inesperado '" + c + "' en la posición " + inicio);
+            }
+            return numero.indexOf('.') >= 0 || numero.indexOf('e') >= 0 || numero.indexOf('E') >= 0
+                    ? (Object) Double.parseDouble(numero) : (Object) Long.parseLong(numero);
+        }
+
+        private String cadena() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < texto.length()) {
+                char c = texto.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) {
+                    break;
+                }
+                char e = texto.charAt(pos++);
+                switch (e) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > texto.length()) {
+                            throw new IllegalArgumentException("escape \\u incompleto");
+                        }
+                        sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(e); // \" \\ \/
+                }
+            }
+            throw new IllegalArgumentException("cadena sin terminar");
+        }
+
+        private void espacios() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private boolean consumir(char c) {
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void esperar(char c) {
+            if (!consumir(c)) {
+                throw new IllegalArgumentException("se esperaba '" + c + "' en la posición " + pos);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Etapa 2: validación y corrección
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Valida cada respuesta (encuesta existente, usuario y preguntas de la encuesta) y corrige
+     * las completadas de los cuestionarios, que quedan con su puntuación guardada
+     * @return null (se ejecuta como Callable para que el ejecutor recoja sus excepciones)
+     */
+    private Void validar(BlockingQueue<List<Registro>> entrada, BlockingQueue<List<Registro>> salida) throws InterruptedException {
+        Map<Integer, Set<Integer>> preguntasPorEncuesta = new HashMap<>();
+        try {
+            List<Registro> tramo;
+            while ((tramo = entrada.take()) != FIN) {
+                for (Registro registro : tramo) {
+                    if (registro.error == null) {
+                        try {
+                            registro.error = validar(registro.respuesta, preguntasPorEncuesta);
+                        } catch (RuntimeException e) {
+                            registro.error = "Error al validar: " + e;
+                        }
+                    }
+                }
+                salida.put(tramo);
+            }
+        } finally {
+            salida.put(FIN);
+        }
+        return null;
+    }
+
+    private String validar(Respuesta respuesta, Map<Integer, Set<Integer>> preguntasPorEncuesta) {
+        Encuesta encuesta = surveyManager.getEncuesta(respuesta.getEncuestaId());
+        if (encuesta == null) {
+            return "No existe la encuesta con ID " + respuesta.getEncuestaId();
+        }
+        if (respuesta.getUsuario() == null || respuesta.getUsuario().isEmpty()) {
+            return "Falta el usuario";
+        }
+        Set<Integer> preguntas = preguntasPorEncuesta.computeIfAbsent(encuesta.getId(), id -> {
+            Set<Integer> ids = new HashSet<>();
+            for (Pregunta pregunta : encuesta.getPreguntas()) {
+                ids.add(pregunta.getId());
+            }
+            return ids;
+        });
+        for (Integer preguntaId : respuesta.getRespuestas().keySet()) {
+            if (!preguntas.contains(preguntaId)) {
+                return "La pregunta " + preguntaId + " no pertenece a la encuesta " + encuesta.getId();
+            }
+        }
+        if (encuesta instanceof Cuestionario && respuesta.isCompletada()) {
+            ((Cuestionario) encuesta).getClaveRespuestas().corregir(respuesta);
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Etapa 3: escritura por lotes
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Recoge los tramos validados hasta recibir la marca de fin de todos los validadores
+     * y guarda las respuestas válidas en lotes de tamanoLote
+     */
+    private void escribir(BlockingQueue<List<Registro>> entrada, Resultado resultado) throws InterruptedException {
+        List<Respuesta> lote = new ArrayList<>(tamanoLote);
+        int finalizados = 0;
+        while (finalizados < hilos) {
+            List<Registro> tramo = entrada.take();
+            if (tramo == FIN) {
+                finalizados++;
+                continue;
+            }
+            for (Registro registro : tramo) {
+                if (registro.error != null) {
+                    resultado.rechazadas++;
+                    if (resultado.errores.size() < MAX_ERRORES) {
+                        resultado.errores.add("Línea " + registro.linea + ": " + registro.error);
+                    }
+                    continue;
+                }
+                lote.add(registro.respuesta);
+                if (lote.size() == tamanoLote) {
+                    guardarLote(lote, resultado);
+                    lote = new ArrayList<>(tamanoLote);
+                }
+            }
+        }
+        guardarLote(lote, resultado);
+    }
+
+    private void guardarLote(List<Respuesta> lote, Resultado resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        // Los IDs son únicos dentro de cada encuesta: se reserva un bloque por encuesta del lote
+        Map<Integer, List<Respuesta>> porEncuesta = new HashMap<>();
+        for (Respuesta respuesta : lote) {
+            porEncuesta.computeIfAbsent(respuesta.getEncuestaId(), k -> new ArrayList<>()).add(respuesta);
+        }
+        for (Map.Entry<Integer, List<Respuesta>> grupo : porEncuesta.entrySet()) {
+            int id = surveyManager.reservarIdsRespuesta(grupo.getKey(), grupo.getValue().size());
+            for (Respuesta respuesta : grupo.getValue()) {
+                respuesta.setId(id++);
+            }
+        }
+        resultado.importadas += surveyManager.guardarRespuestas(lote);
+        resultado.lotes++;
+    }
+
+    /**
+     * Punto de entrada para importar desde la línea de comandos
+     * @param args fichero [--lote N] [--hilos N]
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: java survey.ImportadorRespuestas fichero [--lote N] [--hilos N]");
+            System.exit(1);
+        }
+        int tamanoLote = TAMANO_LOTE_POR_DEFECTO;
+        int hilos = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if ("--lote".equals(args[i]) && i + 1 < args.length) {
+                    tamanoLote = Integer.parseInt(args[++i]);
+                } else if ("--hilos".equals(args[i]) && i + 1 < args.length) {
+                    hilos = Integer.parseInt(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Argumento desconocido: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        int codigo = 0;
+        try {
+            Resultado resultado = new ImportadorRespuestas(tamanoLote, hilos).importar(Paths.get(args[0]));
+            System.out.println(resultado);
+            for (String error : resultado.getErrores()) {
+                System.out.println("  " + error);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error al importar " + args[0] + ": " + e.getMessage());
+            codigo = 1;
+        }
+        SurveyManager.getInstance().cerrar();
+        System.exit(codigo);
+    }
+}
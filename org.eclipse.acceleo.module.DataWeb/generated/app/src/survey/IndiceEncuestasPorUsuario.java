@@ -0,0 +1,144 @@
+package survey;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import persistence.AtomicFile;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+
+/**
+ * Índice global usuario -> encuestas en las que el usuario tiene respuestas
+ * Permite consultar las respuestas de un usuario accediendo solo a los fragmentos de las encuestas
+ * que ha respondido. Puede incluir encuestas de más (respuestas ya eliminadas) pero nunca de menos:
+ * cada fragmento lo guarda antes de vaciar su log, por lo que las respuestas que aún no refleja
+ * el fichero siguen en el log de su fragmento y se indexan al arrancar
+ */
+class IndiceEncuestasPorUsuario {
+    private static final int FORMAT_VERSION = 1;
+
+    private final File fichero;
+    private final Map<String, TreeSet<Integer>> porUsuario = new HashMap<>();
+    private boolean completo;   // Refleja todos los fragmentos; mientras no lo haga no se guarda
+    private boolean modificado;
+
+    /**
+     * Constructor: el índice empieza vacío e incompleto (ver cargar)
+     * @param fichero Fichero del índice
+     */
+    IndiceEncuestasPorUsuario(File fichero) {
+        this.fichero = fichero;
+    }
+
+    /**
+     * Carga el índice guardado; si no existe o no es válido queda incompleto y hay que reconstruirlo
+     */
+    synchronized void cargar() {
+        if (!fichero.exists()) {
+            return;
+        }
+        try {
+            BinaryReader in = new BinaryReader(Files.readAllBytes(fichero.toPath()));
+            in.readHeader(FORMAT_VERSION);
+            int usuarios = in.readVarint();
+            for (int i = 0; i < usuarios; i++) {
+                String usuario = in.readString();
+                TreeSet<Integer> ids = new TreeSet<>();
+                int encuestas = in.readVarint();
+                for (int j = 0; j < encuestas; j++) {
+                    ids.add(in.readInt());
+                }
+                porUsuario.put(usuario, ids);
+            }
+            completo = true;
+        } catch (IOException e) {
+            porUsuario.clear();
+            System.err.println("Error al cargar el índice de respuestas por usuario, se reconstruirá: " + e.getMessage());
+        }
+    }
+
+    synchronized boolean isCompleto() {
+        return completo;
+    }
+
+    /**
+     * Marca el índice como completo una vez indexados todos los fragmentos
+     */
+    synchronized void marcarCompleto() {
+        completo = true;
+        modificado = true;
+    }
+
+    /**
+     * Registra que un usuario tiene respuestas en una encuesta
+     * @param usuario Nombre de usuario
+     * @param encuestaId ID de la encuesta
+     */
+    synchronized void agregar(String usuario, int encuestaId) {
+        if (usuario != null && porUsuario.computeIfAbsent(usuario, k -> new TreeSet<>()).add(encuestaId)) {
+            modificado = true;
+        }
+    }
+
+    /**
+     * Elimina una encuesta del índice (al eliminar la encuesta)
+     * @param encuestaId ID de la encuesta
+     */
+    synchronized void quitarEncuesta(int encuestaId) {
+        Iterator<TreeSet<Integer>> it = porUsuario.values().iterator();
+        while (it.hasNext()) {
+            TreeSet<Integer> ids = it.next();
+            if (ids.remove(encuestaId)) {
+                modificado = true;
+                if (ids.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene las encuestas en las que un usuario tiene respuestas
+     * @param usuario Nombre de usuario
+     * @return IDs de las encuestas en orden
+     */
+    synchronized List<Integer> get(String usuario) {
+        TreeSet<Integer> ids = porUsuario.get(usuario);
+        return ids != null ? new ArrayList<>(ids) : Collections.emptyList();
+    }
+
+    /**
+     * Guarda el índice si ha cambiado y está completo
+     * @throws IOException si no se puede escribir el fichero
+     */
+    synchronized void guardar() throws IOException {
+        if (!completo || !modificado) {
+            return;
+        }
+        File directorio = fichero.getParentFile();
+        if (directorio != null && !directorio.exists() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio " + directorio);
+        }
+        AtomicFile.write(fichero, stream -> {
+            BinaryWriter out = new BinaryWriter(stream);
+            out.writeHeader(FORMAT_VERSION);
+            out.writeVarint(porUsuario.size());
+            for (Map.Entry<String, TreeSet<Integer>> usuario : porUsuario.entrySet()) {
+                out.writeString(usuario.getKey());
+                out.writeVarint(usuario.getValue().size());
+                for (Integer encuestaId : usuario.getValue()) {
+                    out.writeInt(encuestaId);
+                }
+            }
+            out.flush();
+        });
+        modificado = false;
+    }
+}
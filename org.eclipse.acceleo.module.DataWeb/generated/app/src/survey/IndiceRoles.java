@@ -0,0 +1,92 @@
+package survey;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Índice invertido rol -> encuestas activas accesibles para ese rol
+ * Las encuestas sin roles permitidos (abiertas a todos) se guardan en un único grupo común
+ * en lugar de repetirse en cada rol. Los IDs se mantienen ordenados para conservar
+ * el orden de presentación de las encuestas
+ */
+class IndiceRoles {
+    private static final TreeSet<Integer> VACIO = new TreeSet<>();
+
+    private final Map<String, TreeSet<Integer>> porRol = new HashMap<>();
+    private final TreeSet<Integer> paraTodos = new TreeSet<>();
+    // encuestaId -> roles con los que se indexó (vacía si está abierta a todos)
+    private final Map<Integer, List<String>> indexadas = new HashMap<>();
+
+    /**
+     * Indexa (o reindexa) una encuesta según su estado y sus roles actuales
+     * @param encuesta Encuesta a indexar
+     */
+    void actualizar(Encuesta encuesta) {
+        quitar(encuesta.getId());
+        if (!encuesta.isActiva()) {
+            return;
+        }
+        List<String> roles = new ArrayList<>(encuesta.getRolesPermitidos());
+        if (roles.isEmpty()) {
+            paraTodos.add(encuesta.getId());
+        } else {
+            for (String rol : roles) {
+                porRol.computeIfAbsent(rol, k -> new TreeSet<>()).add(encuesta.getId());
+            }
+        }
+        indexadas.put(encuesta.getId(), roles);
+    }
+
+    /**
+     * Elimina una encuesta del índice
+     * @param encuestaId ID de la encuesta
+     */
+    void quitar(int encuestaId) {
+        List<String> roles = indexadas.remove(encuestaId);
+        if (roles == null) {
+            return;
+        }
+        if (roles.isEmpty()) {
+            paraTodos.remove(encuestaId);
+            return;
+        }
+        for (String rol : roles) {
+            TreeSet<Integer> ids = porRol.get(rol);
+            if (ids != null) {
+                ids.remove(encuestaId);
+                if (ids.isEmpty()) {
+                    porRol.remove(rol);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene las encuestas activas accesibles para un rol, en orden de ID
+     * @param rol Rol a consultar
+     * @return IDs de las encuestas (las del rol y las abiertas a todos)
+     */
+    List<Integer> get(String rol) {
+        TreeSet<Integer> delRol = porRol.getOrDefault(rol, VACIO);
+        List<Integer> result = new ArrayList<>(delRol.size() + paraTodos.size());
+        // Mezcla de dos conjuntos ordenados y disjuntos
+        Iterator<Integer> a = delRol.iterator();
+        Iterator<Integer> b = paraTodos.iterator();
+        Integer x = a.hasNext() ? a.next() : null;
+        Integer y = b.hasNext() ? b.next() : null;
+        while (x != null || y != null) {
+            if (y == null || (x != null && x < y)) {
+                result.add(x);
+                x = a.hasNext() ? a.next() : null;
+            } else {
+                result.add(y);
+                y = b.hasNext() ? b.next() : null;
+            }
+        }
+        return result;
+    }
+}
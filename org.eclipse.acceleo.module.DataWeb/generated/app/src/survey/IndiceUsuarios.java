@@ -0,0 +1,154 @@
+package survey;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+
+/**
+ * Índice de respuestas por usuario: username -> (encuestaId -> (respuestaId -> completada))
+ * Permite consultar las respuestas y las encuestas pendientes de un usuario en tiempo
+ * proporcional a sus propios datos, sin recorrer las respuestas de todos los usuarios.
+ * Cada encuesta guarda el suyo en su fichero de respuestas para no tener que decodificarlas al construirlo
+ */
+class IndiceUsuarios {
+    private final Map<String, Map<Integer, Map<Integer, Boolean>>> porUsuario = new HashMap<>();
+
+    /**
+     * Registra (o actualiza) una respuesta de un usuario
+     * @param usuario Usuario que responde
+     * @param encuestaId ID de la encuesta
+     * @param respuestaId ID de la respuesta
+     * @param completada Si la respuesta está completada
+     */
+    void agregar(String usuario, int encuestaId, int respuestaId, boolean completada) {
+        if (usuario == null) {
+            return;
+        }
+        porUsuario.computeIfAbsent(usuario, k -> new HashMap<>())
+                .computeIfAbsent(encuestaId, k -> new HashMap<>())
+                .put(respuestaId, completada);
+    }
+
+    /**
+     * Registra una respuesta
+     * @param respuesta Respuesta a registrar
+     */
+    void agregar(Respuesta respuesta) {
+        agregar(respuesta.getUsuario(), respuesta.getEncuestaId(), respuesta.getId(), respuesta.isCompletada());
+    }
+
+    /**
+     * Elimina una respuesta del índice
+     * @param respuesta Respuesta eliminada
+     */
+    void quitar(Respuesta respuesta) {
+        Map<Integer, Map<Integer, Boolean>> encuestas = porUsuario.get(respuesta.getUsuario());
+        if (encuestas == null) {
+            return;
+        }
+        Map<Integer, Boolean> ids = encuestas.get(respuesta.getEncuestaId());
+        if (ids != null) {
+            ids.remove(respuesta.getId());
+            if (ids.isEmpty()) {
+                encuestas.remove(respuesta.getEncuestaId());
+            }
+        }
+        if (encuestas.isEmpty()) {
+            porUsuario.remove(respuesta.getUsuario());
+        }
+    }
+
+    /**
+     * Reparte el índice en un índice por encuesta
+     * @return Índices por ID de encuesta
+     */
+    Map<Integer, IndiceUsuarios> dividirPorEncuesta() {
+        Map<Integer, IndiceUsuarios> indices = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Map<Integer, Boolean>>> usuario : porUsuario.entrySet()) {
+            for (Map.Entry<Integer, Map<Integer, Boolean>> encuesta : usuario.getValue().entrySet()) {
+                indices.computeIfAbsent(encuesta.getKey(), k -> new IndiceUsuarios()).porUsuario
+                        .computeIfAbsent(usuario.getKey(), k -> new HashMap<>())
+                        .put(encuesta.getKey(), encuesta.getValue());
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Obtiene las respuestas de un usuario agrupadas por encuesta
+     * @param usuario Nombre de usuario
+     * @return Mapa (no modificable) encuestaId -> (respuestaId -> completada)
+     */
+    Map<Integer, Map<Integer, Boolean>> get(String usuario) {
+        Map<Integer, Map<Integer, Boolean>> encuestas = porUsuario.get(usuario);
+        return encuestas != null ? Collections.unmodifiableMap(encuestas) : Collections.emptyMap();
+    }
+
+    /**
+     * Obtiene los usuarios con respuestas
+     * @return Nombres de usuario (no modificable)
+     */
+    Set<String> usuarios() {
+        return Collections.unmodifiableSet(porUsuario.keySet());
+    }
+
+    /**
+     * Indica si un usuario tiene alguna respuesta completada en una encuesta
+     * @param usuario Nombre de usuario
+     * @param encuestaId ID de la encuesta
+     * @return true si ha completado la encuesta
+     */
+    boolean haCompletado(String usuario, int encuestaId) {
+        Map<Integer, Boolean> ids = get(usuario).get(encuestaId);
+        return ids != null && ids.containsValue(Boolean.TRUE);
+    }
+
+    /**
+     * Escribe el índice
+     * @param out Escritor binario
+     * @throws IOException si hay un error de escritura
+     */
+    void write(BinaryWriter out) throws IOException {
+        out.writeVarint(porUsuario.size());
+        for (Map.Entry<String, Map<Integer, Map<Integer, Boolean>>> usuario : porUsuario.entrySet()) {
+            out.writeString(usuario.getKey());
+            out.writeVarint(usuario.getValue().size());
+            for (Map.Entry<Integer, Map<Integer, Boolean>> encuesta : usuario.getValue().entrySet()) {
+                out.writeInt(encuesta.getKey());
+                out.writeVarint(encuesta.getValue().size());
+                for (Map.Entry<Integer, Boolean> respuesta : encuesta.getValue().entrySet()) {
+                    out.writeInt(respuesta.getKey());
+                    out.writeBoolean(respuesta.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee un índice escrito con write
+     * @param in Lector binario
+     * @return Índice leído
+     * @throws IOException si los datos no son válidos
+     */
+    static IndiceUsuarios read(BinaryReader in) throws IOException {
+        IndiceUsuarios indice = new IndiceUsuarios();
+        int usuarios = in.readVarint();
+        for (int i = 0; i < usuarios; i++) {
+            String usuario = in.readString();
+            int encuestas = in.readVarint();
+            for (int j = 0; j < encuestas; j++) {
+                int encuestaId = in.readInt();
+                int respuestas = in.readVarint();
+                for (int k = 0; k < respuestas; k++) {
+                    int respuestaId = in.readInt();
+                    indice.agregar(usuario, encuestaId, respuestaId, in.readBoolean());
+                }
+            }
+        }
+        return indice;
+    }
+}
@@ -0,0 +1,210 @@
+package survey;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Intento en curso de un usuario sobre una encuesta o cuestionario
+ * Contiene la respuesta que se está rellenando y, si el cuestionario tiene tiempo límite,
+ * su fecha límite. El plazo lo controla GestorIntentos, que guarda periódicamente
+ * las respuestas dadas y entrega el intento automáticamente cuando vence
+ */
+public class IntentoCuestionario {
+    /**
+     * Estados de un intento
+     */
+    public enum Estado {
+        EN_CURSO,
+        ENTREGADO,     // Entregado por el usuario
+        EXPIRADO,      // Entregado automáticamente al agotarse el tiempo
+        INTERRUMPIDO   // Abandonado sin terminar: se guarda incompleto
+    }
+
+    private final int id;
+    private final GestorIntentos gestor;
+    private final Encuesta encuesta;
+    private final Respuesta respuesta;
+    private final long inicio;
+    private final long fechaLimite; // 0 si no hay tiempo límite
+
+    private Estado estado;
+    private boolean pendiente; // Hay cambios sin guardar
+    private ScheduledFuture<?> plazo;
+    private volatile Consumer<IntentoCuestionario> observadorExpiracion;
+
+    /**
+     * Constructor
+     * @param id ID del intento
+     * @param gestor Gestor que controla el intento
+     * @param encuesta Encuesta que se responde
+     * @param respuesta Respuesta de trabajo (ya guardada con su ID)
+     * @param inicio Instante de inicio en milisegundos
+     * @param limiteMs Duración máxima en milisegundos (0 sin límite)
+     */
+    IntentoCuestionario(int id, GestorIntentos gestor, Encuesta encuesta, Respuesta respuesta, long inicio, long limiteMs) {
+        this.id = id;
+        this.gestor = gestor;
+        this.encuesta = encuesta;
+        this.respuesta = respuesta;
+        this.inicio = inicio;
+        this.fechaLimite = limiteMs > 0 ? inicio + limiteMs : 0;
+        this.estado = Estado.EN_CURSO;
+    }
+
+    /**
+     * Registra la respuesta a una pregunta
+     * El cambio se guarda en el siguiente guardado automático o al entregar el intento
+     * @param preguntaId ID de la pregunta
+     * @param valor Respuesta dada
+     * @throws IllegalStateException si el intento ya no está en curso
+     */
+    public synchronized void responder(int preguntaId, String valor) {
+        if (estado != Estado.EN_CURSO) {
+            throw new IllegalStateException("El intento " + id + " ya no está en curso (" + estado + ")");
+        }
+        respuesta.setRespuesta(preguntaId, valor);
+        pendiente = true;
+    }
+
+    /**
+     * Entrega el intento: la respuesta se guarda como completada
+     * @return true si se entregó, false si ya había terminado (p. ej. por expirar el tiempo)
+     */
+    public boolean entregar() {
+        return gestor.finalizar(this, Estado.ENTREGADO);
+    }
+
+    /**
+     * Abandona el intento sin terminarlo: la respuesta se guarda incompleta
+     * @return true si se interrumpió, false si ya había terminado
+     */
+    public boolean interrumpir() {
+        return gestor.finalizar(this, Estado.INTERRUMPIDO);
+    }
+
+    /**
+     * Establece la acción a ejecutar cuando el intento expira
+     * Se ejecuta en el hilo del planificador, por lo que debe ser breve
+     * @param observador Acción que recibe el intento expirado
+     */
+    public void setObservadorExpiracion(Consumer<IntentoCuestionario> observador) {
+        this.observadorExpiracion = observador;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Encuesta getEncuesta() {
+        return encuesta;
+    }
+
+    public String getUsuario() {
+        return respuesta.getUsuario();
+    }
+
+    public int getRespuestaId() {
+        return respuesta.getId();
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    public synchronized boolean isEnCurso() {
+        return estado == Estado.EN_CURSO;
+    }
+
+    public long getInicio() {
+        return inicio;
+    }
+
+    public boolean tieneLimite() {
+        return fechaLimite > 0;
+    }
+
+    public long getFechaLimite() {
+        return fechaLimite;
+    }
+
+    /**
+     * Obtiene el tiempo que queda para responder
+     * @return Segundos restantes (0 si ya venció), o -1 si no hay tiempo límite
+     */
+    public long getSegundosRestantes() {
+        if (fechaLimite == 0) {
+            return -1;
+        }
+        return Math.max(0, (fechaLimite - System.currentTimeMillis() + 999) / 1000);
+    }
+
+    /**
+     * Obtiene la respuesta dada a una pregunta en este intento
+     * @param preguntaId ID de la pregunta
+     * @return Respuesta dada, o null si aún no se ha respondido
+     */
+    public synchronized String getRespuesta(int preguntaId) {
+        return respuesta.getRespuesta(preguntaId);
+    }
+
+    public synchronized int getRespondidas() {
+        return respuesta.getRespuestas().size();
+    }
+
+    /**
+     * Obtiene una copia de la respuesta en su estado actual
+     * @return Copia de la respuesta del intento
+     */
+    public synchronized Respuesta getResultado() {
+        return respuesta.copiar();
+    }
+
+    synchronized void setPlazo(ScheduledFuture<?> plazo) {
+        this.plazo = plazo;
+    }
+
+    /**
+     * Toma los cambios pendientes de guardar
+     * @return Copia de la respuesta si hay cambios y el intento sigue en curso, o null
+     */
+    synchronized Respuesta tomarPendiente() {
+        if (!pendiente || estado != Estado.EN_CURSO) {
+            return null;
+        }
+        pendiente = false;
+        return respuesta.copiar();
+    }
+
+    /**
+     * Termina el intento con el estado indicado y cancela su plazo
+     * @param estadoFinal Estado final (distinto de EN_CURSO)
+     * @return Copia definitiva de la respuesta a guardar, o null si el intento ya había terminado
+     */
+    synchronized Respuesta terminar(Estado estadoFinal) {
+        if (estado != Estado.EN_CURSO) {
+            return null;
+        }
+        estado = estadoFinal;
+        pendiente = false;
+        if (plazo != null) {
+            plazo.cancel(false);
+            plazo = null;
+        }
+        // Completada si se respondió todo o si se agotó el tiempo
+        boolean completada = estadoFinal == Estado.EXPIRADO
+                || (estadoFinal == Estado.ENTREGADO && respuesta.getRespuestas().size() >= encuesta.getPreguntas().size());
+        respuesta.setCompletada(completada);
+        // Las encuestas normales se aprueban automáticamente; los cuestionarios los revisa el administrador
+        if (!(encuesta instanceof Cuestionario)) {
+            respuesta.setAprobada(true);
+        }
+        return respuesta.copiar();
+    }
+
+    void notificarExpiracion() {
+        Consumer<IntentoCuestionario> observador = observadorExpiracion;
+        if (observador != null) {
+            observador.accept(this);
+        }
+    }
+}
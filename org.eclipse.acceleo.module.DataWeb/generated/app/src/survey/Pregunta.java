@@ -25,6 +25,7 @@ public class Pregunta implements Serializable {
     private List<String> opciones;
     private String respuestaCorrecta; // Para preguntas evaluables
     private int puntuacion; // Para preguntas evaluables
+    private transient int version; // Cambia con cada modificación que afecta a la corrección
     
     /**
      * Constructor por defecto
@@ -72,6 +73,7 @@ public class Pregunta implements Serializable {
     
     public void setTipo(TipoPregunta tipo) {
         this.tipo = tipo;
+        version++;
     }
     
     public boolean isObligatoria() {
@@ -88,10 +90,12 @@ public class Pregunta implements Serializable {
     
     public void addOpcion(String opcion) {
         opciones.add(opcion);
+        version++;
     }
     
     public void removeOpcion(String opcion) {
         opciones.remove(opcion);
+        version++;
     }
     
     public String getRespuestaCorrecta() {
@@ -100,6 +104,7 @@ public class Pregunta implements Serializable {
     
     public void setRespuestaCorrecta(String respuestaCorrecta) {
         this.respuestaCorrecta = respuestaCorrecta;
+        version++;
     }
     
     public int getPuntuacion() {
@@ -108,6 +113,11 @@ public class Pregunta implements Serializable {
     
     public void setPuntuacion(int puntuacion) {
         this.puntuacion = puntuacion;
+        version++;
+    }
+    
+    int getVersion() {
+        return version;
     }
     
     /**
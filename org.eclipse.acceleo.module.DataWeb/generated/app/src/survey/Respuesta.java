@@ -1,8 +1,8 @@
 package survey;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,6 +11,8 @@ import java.util.Map;
  */
 public class Respuesta implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final int SIN_CORREGIR = Integer.MIN_VALUE;
     
     private int id;
     private int encuestaId;
@@ -20,12 +22,18 @@ public class Respuesta implements Serializable {
     private boolean completada;
     private boolean aprobada; // Para respuestas que requieren revisión
     
+    // Última corrección: se persiste con la respuesta (SIN_CORREGIR si no se ha corregido o ha cambiado
+    // desde entonces); claveCorreccion es la clave en memoria con la que se calculó, para reutilizarla
+    private transient ClaveRespuestas claveCorreccion;
+    private int puntuacion = SIN_CORREGIR;
+    private boolean superada;
+    
     /**
      * Constructor por defecto
      */
     public Respuesta() {
         this.respuestas = new HashMap<>();
-        this.fechaRespuesta = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        this.fechaRespuesta = LocalDateTime.now().format(FORMATO_FECHA);
         this.completada = false;
         this.aprobada = false;
     }
@@ -81,8 +89,11 @@ public class Respuesta implements Serializable {
         return respuestas;
     }
     
-    public void setRespuesta(int preguntaId, String respuesta) {
+    public synchronized void setRespuesta(int preguntaId, String respuesta) {
         this.respuestas.put(preguntaId, respuesta);
+        // La corrección guardada deja de ser válida
+        this.claveCorreccion = null;
+        this.puntuacion = SIN_CORREGIR;
     }
     
     public String getRespuesta(int preguntaId) {
@@ -105,6 +116,85 @@ public class Respuesta implements Serializable {
         this.aprobada = aprobada;
     }
     
+    /**
+     * Indica si la respuesta tiene guardado el resultado de una corrección
+     * @return true si se ha corregido y no ha cambiado desde entonces
+     */
+    public synchronized boolean isCorregida() {
+        return puntuacion != SIN_CORREGIR;
+    }
+    
+    /**
+     * Obtiene la puntuación de la última corrección
+     * @return Puntuación, o 0 si no se ha corregido
+     */
+    public synchronized int getPuntuacion() {
+        return puntuacion != SIN_CORREGIR ? puntuacion : 0;
+    }
+    
+    /**
+     * Indica si la última corrección alcanzó la puntuación mínima del cuestionario
+     * @return true si la supera, false si no o si no se ha corregido
+     */
+    public synchronized boolean isSuperada() {
+        return puntuacion != SIN_CORREGIR && superada;
+    }
+    
+    /**
+     * Obtiene la puntuación guardada si se calculó con la clave indicada
+     * @param clave Clave de corrección vigente
+     * @return Puntuación, o SIN_CORREGIR si no hay una corrección válida para esa clave
+     */
+    synchronized int getPuntuacion(ClaveRespuestas clave) {
+        return claveCorreccion == clave ? puntuacion : SIN_CORREGIR;
+    }
+    
+    /**
+     * Obtiene la puntuación persistida de la última corrección, sea cual sea su clave
+     * @return Puntuación, o SIN_CORREGIR si no se ha corregido
+     */
+    synchronized int getPuntuacionGuardada() {
+        return puntuacion;
+    }
+    
+    /**
+     * Guarda el resultado de una corrección
+     * @param clave Clave con la que se ha corregido
+     * @param puntuacion Puntuación obtenida
+     */
+    synchronized void setCorreccion(ClaveRespuestas clave, int puntuacion) {
+        this.claveCorreccion = clave;
+        this.puntuacion = puntuacion;
+        this.superada = clave.esAprobado(puntuacion);
+    }
+    
+    /**
+     * Restaura la corrección leída del almacén; no tiene clave, por lo que se recalcula al corregir de nuevo
+     * @param puntuacion Puntuación obtenida
+     * @param superada Si alcanzó la puntuación mínima
+     */
+    synchronized void restaurarCorreccion(int puntuacion, boolean superada) {
+        this.claveCorreccion = null;
+        this.puntuacion = puntuacion;
+        this.superada = superada;
+    }
+    
+    /**
+     * Crea una copia independiente de la respuesta (con la última corrección pero sin su clave)
+     * Permite guardar el estado de una respuesta que se sigue modificando
+     * @return Copia de la respuesta
+     */
+    synchronized Respuesta copiar() {
+        Respuesta copia = new Respuesta(id, encuestaId, usuario);
+        copia.fechaRespuesta = fechaRespuesta;
+        copia.respuestas.putAll(respuestas);
+        copia.completada = completada;
+        copia.aprobada = aprobada;
+        copia.puntuacion = puntuacion;
+        copia.superada = superada;
+        return copia;
+    }
+    
     /**
      * Calcula el porcentaje de respuestas completadas
      * @param totalPreguntas Número total de preguntas en la encuesta
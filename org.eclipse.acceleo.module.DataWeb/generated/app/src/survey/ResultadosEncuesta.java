@@ -0,0 +1,240 @@
+package survey;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultados agregados de una encuesta o cuestionario
+ * Se mantienen de forma incremental: cada respuesta guardada o eliminada actualiza los contadores
+ * en O(preguntas), de modo que las pantallas de resultados no tienen que recorrer las respuestas.
+ * Para poder descontar una respuesta modificada o eliminada se guarda, por cada respuesta,
+ * su aportación ya calculada (opción elegida en cada pregunta, completada, puntuación y aprobado)
+ */
+public class ResultadosEncuesta {
+    // Valores de la aportación de una respuesta a una pregunta
+    private static final int SIN_VALOR = -1;
+    private static final int VERDADERO = 0;
+    private static final int FALSO = 1;
+
+    private final List<Pregunta> preguntas;
+    private final Pregunta.TipoPregunta[] tipos;
+    private final Map<Integer, Integer> posicionPregunta = new HashMap<>(); // preguntaId -> posición
+    private final ClaveRespuestas clave; // null si es una encuesta
+    private final int puntuacionMaxima;
+
+    private final int[][] conteoOpciones;
+    private final int[] verdaderos;
+    private final int[] falsos;
+    private int totalRespuestas;
+    private int completadas;
+    private long sumaPuntuacion;
+    private int aprobados;
+
+    // respuestaId -> valor por pregunta (opción, VERDADERO/FALSO o SIN_VALOR) + [completada, puntuación, aprobado]
+    private final Map<Integer, int[]> aportaciones = new HashMap<>();
+
+    /**
+     * Constructor: calcula los resultados iniciales a partir de las respuestas existentes
+     * @param encuesta Encuesta a la que pertenecen los resultados
+     * @param respuestas Respuestas existentes
+     */
+    public ResultadosEncuesta(Encuesta encuesta, Iterable<Respuesta> respuestas) {
+        this.preguntas = new ArrayList<>(encuesta.getPreguntas());
+        this.clave = encuesta instanceof Cuestionario ? ((Cuestionario) encuesta).getClaveRespuestas() : null;
+        this.puntuacionMaxima = clave != null ? clave.getPuntuacionMaxima() : 0;
+        this.tipos = new Pregunta.TipoPregunta[preguntas.size()];
+        this.conteoOpciones = new int[preguntas.size()][];
+        this.verdaderos = new int[preguntas.size()];
+        this.falsos = new int[preguntas.size()];
+        for (int i = 0; i < preguntas.size(); i++) {
+            Pregunta pregunta = preguntas.get(i);
+            posicionPregunta.put(pregunta.getId(), i);
+            tipos[i] = pregunta.getTipo();
+            conteoOpciones[i] = new int[pregunta.getOpciones().size()];
+        }
+        List<Respuesta> lista = new ArrayList<>();
+        for (Respuesta respuesta : respuestas) {
+            lista.add(respuesta);
+        }
+        // Las puntuaciones iniciales se calculan en lote (en paralelo si hay muchas respuestas)
+        int[] puntuaciones = clave != null ? clave.puntuar(lista) : null;
+        for (int i = 0; i < lista.size(); i++) {
+            agregar(lista.get(i), puntuaciones != null ? puntuaciones[i] : 0);
+        }
+    }
+
+    /**
+     * Añade (o reemplaza, si ya estaba) la aportación de una respuesta
+     * @param respuesta Respuesta guardada
+     */
+    synchronized void agregar(Respuesta respuesta) {
+        agregar(respuesta, clave != null && respuesta.isCompletada() ? clave.corregir(respuesta) : 0);
+    }
+
+    private void agregar(Respuesta respuesta, int puntuacion) {
+        quitar(respuesta.getId());
+        int n = preguntas.size();
+        int[] aportacion = new int[n + 3];
+        for (int i = 0; i < n; i++) {
+            aportacion[i] = clasificar(i, respuesta.getRespuesta(preguntas.get(i).getId()));
+        }
+        aportacion[n] = respuesta.isCompletada() ? 1 : 0;
+        aportacion[n + 1] = clave != null && respuesta.isCompletada() ? puntuacion : 0;
+        aportacion[n + 2] = clave != null && respuesta.isCompletada() && clave.esAprobado(puntuacion) ? 1 : 0;
+        aplicar(aportacion, 1);
+        aportaciones.put(respuesta.getId(), aportacion);
+    }
+
+    /**
+     * Descuenta la aportación de una respuesta
+     * @param respuestaId ID de la respuesta eliminada
+     */
+    synchronized void quitar(int respuestaId) {
+        int[] aportacion = aportaciones.remove(respuestaId);
+        if (aportacion != null) {
+            aplicar(aportacion, -1);
+        }
+    }
+
+    private void aplicar(int[] aportacion, int signo) {
+        int n = preguntas.size();
+        for (int i = 0; i < n; i++) {
+            int valor = aportacion[i];
+            if (valor == SIN_VALOR) {
+                continue;
+            }
+            if (tipos[i] == Pregunta.TipoPregunta.OPCION_MULTIPLE) {
+                conteoOpciones[i][valor] += signo;
+            } else if (tipos[i] == Pregunta.TipoPregunta.VERDADERO_FALSO) {
+                if (valor == VERDADERO) {
+                    verdaderos[i] += signo;
+                } else {
+                    falsos[i] += signo;
+                }
+            }
+        }
+        totalRespuestas += signo;
+        if (aportacion[n] == 1) {
+            completadas += signo;
+            sumaPuntuacion += signo * aportacion[n + 1];
+            aprobados += signo * aportacion[n + 2];
+        }
+    }
+
+    /**
+     * Clasifica el valor de una respuesta para una pregunta
+     * @param i Posición de la pregunta
+     * @param valor Valor respondido
+     * @return Índice de opción, VERDADERO/FALSO o SIN_VALOR si no se contabiliza
+     */
+    private int clasificar(int i, String valor) {
+        if (valor == null) {
+            return SIN_VALOR;
+        }
+        if (tipos[i] == Pregunta.TipoPregunta.OPCION_MULTIPLE) {
+            try {
+                int opcion = Integer.parseInt(valor);
+                return opcion >= 0 && opcion < conteoOpciones[i].length ? opcion : SIN_VALOR;
+            } catch (NumberFormatException e) {
+                return SIN_VALOR; // Ignorar respuestas inválidas
+            }
+        }
+        if (tipos[i] == Pregunta.TipoPregunta.VERDADERO_FALSO) {
+            if ("true".equals(valor)) {
+                return VERDADERO;
+            }
+            if ("false".equals(valor)) {
+                return FALSO;
+            }
+        }
+        return SIN_VALOR;
+    }
+
+    private int posicion(int preguntaId) {
+        Integer posicion = posicionPregunta.get(preguntaId);
+        if (posicion == null) {
+            throw new IllegalArgumentException("La pregunta " + preguntaId + " no pertenece a la encuesta");
+        }
+        return posicion;
+    }
+
+    /**
+     * Obtiene el número total de respuestas
+     * @return Número de respuestas
+     */
+    public synchronized int getTotalRespuestas() {
+        return totalRespuestas;
+    }
+
+    /**
+     * Obtiene el número de respuestas completadas
+     * @return Número de respuestas completadas
+     */
+    public synchronized int getCompletadas() {
+        return completadas;
+    }
+
+    /**
+     * Obtiene el número de respuestas completadas que aprueban (solo cuestionarios)
+     * @return Número de aprobados
+     */
+    public synchronized int getAprobados() {
+        return aprobados;
+    }
+
+    /**
+     * Obtiene el porcentaje de aprobados sobre las respuestas completadas
+     * @return Porcentaje (0 si no hay respuestas completadas)
+     */
+    public synchronized double getPorcentajeAprobados() {
+        return completadas == 0 ? 0 : (double) aprobados / completadas * 100;
+    }
+
+    /**
+     * Obtiene la puntuación media de las respuestas completadas
+     * @return Puntuación media (0 si no hay respuestas completadas)
+     */
+    public synchronized double getPuntuacionMedia() {
+        return completadas == 0 ? 0 : (double) sumaPuntuacion / completadas;
+    }
+
+    /**
+     * Obtiene la puntuación máxima del cuestionario
+     * @return Puntuación máxima (0 para encuestas)
+     */
+    public int getPuntuacionMaxima() {
+        return puntuacionMaxima;
+    }
+
+    /**
+     * Obtiene el número de respuestas que eligieron cada opción de una pregunta de opción múltiple
+     * @param preguntaId ID de la pregunta
+     * @return Copia del histograma (una posición por opción)
+     * @throws IllegalArgumentException si la pregunta no pertenece a la encuesta
+     */
+    public synchronized int[] getConteoOpciones(int preguntaId) {
+        return conteoOpciones[posicion(preguntaId)].clone();
+    }
+
+    /**
+     * Obtiene el número de respuestas "verdadero" de una pregunta
+     * @param preguntaId ID de la pregunta
+     * @return Número de respuestas
+     * @throws IllegalArgumentException si la pregunta no pertenece a la encuesta
+     */
+    public synchronized int getVerdaderos(int preguntaId) {
+        return verdaderos[posicion(preguntaId)];
+    }
+
+    /**
+     * Obtiene el número de respuestas "falso" de una pregunta
+     * @param preguntaId ID de la pregunta
+     * @return Número de respuestas
+     * @throws IllegalArgumentException si la pregunta no pertenece a la encuesta
+     */
+    public synchronized int getFalsos(int preguntaId) {
+        return falsos[posicion(preguntaId)];
+    }
+}
@@ -0,0 +1,742 @@
+package survey;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
+
+/**
+ * Codificación binaria de encuestas, cuestionarios, preguntas y respuestas
+ * Sustituye a la serialización de Java: los IDs se escriben como varint y los textos
+ * repetidos (roles, opciones, usuarios, fechas) se guardan una sola vez en la tabla de cadenas
+ *
+ * Desde la versión 2 la instantánea está pensada para proyectarse en memoria: las encuestas
+ * se leen al cargar, pero las respuestas de cada encuesta forman un bloque independiente
+ * (con su propia tabla de cadenas) que solo se decodifica cuando se necesita.
+ * Estructura: cabecera | contadores y encuestas | bloques de respuestas | índice de bloques |
+ * índice de respuestas por usuario | posiciones de ambos índices (8 bytes cada una)
+ *
+ * SurveyManager guarda las respuestas de cada encuesta en su propio fichero (ver writeFragmento),
+ * por lo que sus instantáneas ya no incluyen bloques de respuestas; las que los incluyen
+ * (guardadas por versiones anteriores) se migran al cargarlas
+ *
+ * Desde la versión 4 cada respuesta guarda un byte de indicadores en lugar del booleano de aprobada,
+ * seguido de la puntuación de su última corrección si la tiene; las respuestas de versiones
+ * anteriores se leen igual (el booleano equivale a los indicadores sin corrección)
+ */
+public final class SurveyCodec {
+    /** Versión actual del formato */
+    public static final int FORMAT_VERSION = 4;
+
+    private static final int TRAILER_SIZE_V2 = 8;
+    private static final int TRAILER_SIZE = 16;
+
+    private static final int TIPO_ENCUESTA = 0;
+    private static final int TIPO_CUESTIONARIO = 1;
+
+    // Indicadores de una respuesta
+    private static final int RESPUESTA_APROBADA = 1;
+    private static final int RESPUESTA_CORREGIDA = 2;   // Le sigue la puntuación
+    private static final int RESPUESTA_SUPERADA = 4;
+
+    private SurveyCodec() {
+    }
+
+    /**
+     * Receptor de respuestas decodificadas de una en una
+     */
+    public interface ConsumidorRespuestas {
+        /**
+         * Procesa una respuesta
+         * @param respuesta Respuesta decodificada
+         * @throws IOException si falla el procesamiento (por ejemplo, al escribirla)
+         */
+        void aceptar(Respuesta respuesta) throws IOException;
+    }
+
+    /**
+     * Contenido completo de una instantánea de encuestas
+     */
+    public static final class Snapshot {
+        private final Map<Integer, Encuesta> encuestas;
+        private final Map<Integer, Map<Integer, Respuesta>> respuestas;
+        private final Map<Integer, ByteBuffer> bloquesRespuestas;
+        private final ByteBuffer bloqueUsuarios;
+        private final IndiceUsuarios indiceUsuarios;
+        private final int nextEncuestaId;
+        private final int nextRespuestaId;
+        private final int nextPreguntaId;
+
+        /**
+         * Constructor
+         * @param encuestas Encuestas por ID
+         * @param respuestas Respuestas agrupadas por encuesta (encuestaId -> (respuestaId -> Respuesta))
+         * @param nextEncuestaId Siguiente ID de encuesta
+         * @param nextRespuestaId Siguiente ID de respuesta
+         * @param nextPreguntaId Siguiente ID de pregunta
+         */
+        public Snapshot(Map<Integer, Encuesta> encuestas, Map<Integer, Map<Integer, Respuesta>> respuestas,
+                int nextEncuestaId, int nextRespuestaId, int nextPreguntaId) {
+            this(encuestas, respuestas, new HashMap<>(), nextEncuestaId, nextRespuestaId, nextPreguntaId);
+        }
+
+        /**
+         * Constructor con bloques de respuestas aún sin decodificar
+         * @param encuestas Encuestas por ID
+         * @param respuestas Respuestas ya decodificadas, agrupadas por encuesta
+         * @param bloquesRespuestas Bloques sin decodificar por ID de encuesta (ver readRespuestas)
+         * @param nextEncuestaId Siguiente ID de encuesta
+         * @param nextRespuestaId Siguiente ID de respuesta
+         * @param nextPreguntaId Siguiente ID de pregunta
+         */
+        public Snapshot(Map<Integer, Encuesta> encuestas, Map<Integer, Map<Integer, Respuesta>> respuestas,
+                Map<Integer, ByteBuffer> bloquesRespuestas, int nextEncuestaId, int nextRespuestaId, int nextPreguntaId) {
+            this(encuestas, respuestas, bloquesRespuestas, null, null, nextEncuestaId, nextRespuestaId, nextPreguntaId);
+        }
+
+        Snapshot(Map<Integer, Encuesta> encuestas, Map<Integer, Map<Integer, Respuesta>> respuestas,
+                Map<Integer, ByteBuffer> bloquesRespuestas, ByteBuffer bloqueUsuarios, IndiceUsuarios indiceUsuarios,
+                int nextEncuestaId, int nextRespuestaId, int nextPreguntaId) {
+            this.encuestas = encuestas;
+            this.respuestas = respuestas;
+            this.bloquesRespuestas = bloquesRespuestas;
+            this.bloqueUsuarios = bloqueUsuarios;
+            this.indiceUsuarios = indiceUsuarios;
+            this.nextEncuestaId = nextEncuestaId;
+            this.nextRespuestaId = nextRespuestaId;
+            this.nextPreguntaId = nextPreguntaId;
+        }
+
+        public Map<Integer, Encuesta> getEncuestas() {
+            return encuestas;
+        }
+
+        public Map<Integer, Map<Integer, Respuesta>> getRespuestas() {
+            return respuestas;
+        }
+
+        public Map<Integer, ByteBuffer> getBloquesRespuestas() {
+            return bloquesRespuestas;
+        }
+
+        /**
+         * Obtiene el índice de respuestas por usuario sin decodificar (ver readIndiceUsuarios)
+         * @return Bloque del índice o null si la instantánea no lo incluye
+         */
+        ByteBuffer getBloqueUsuarios() {
+            return bloqueUsuarios;
+        }
+
+        IndiceUsuarios getIndiceUsuarios() {
+            return indiceUsuarios;
+        }
+
+        public int getNextEncuestaId() {
+            return nextEncuestaId;
+        }
+
+        public int getNextRespuestaId() {
+            return nextRespuestaId;
+        }
+
+        public int getNextPreguntaId() {
+            return nextPreguntaId;
+        }
+    }
+
+    /**
+     * Escribe una instantánea completa
+     * Las respuestas ya decodificadas se codifican de nuevo; los bloques que nunca llegaron
+     * a decodificarse se copian tal cual, sin pasar por objetos
+     * @param stream Flujo de salida (no se cierra)
+     * @param snapshot Instantánea a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    public static void writeSnapshot(OutputStream stream, Snapshot snapshot) throws IOException {
+        BinaryWriter out = new BinaryWriter(stream);
+        out.writeHeader(FORMAT_VERSION);
+        out.writeInt(snapshot.getNextEncuestaId());
+        out.writeInt(snapshot.getNextRespuestaId());
+        out.writeInt(snapshot.getNextPreguntaId());
+        out.writeVarint(snapshot.getEncuestas().size());
+        for (Encuesta encuesta : snapshot.getEncuestas().values()) {
+            writeEncuesta(out, encuesta);
+        }
+
+        // Bloques de respuestas: encuestaId -> {posición, longitud}
+        Map<Integer, long[]> indice = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Map<Integer, Respuesta>> grupo : snapshot.getRespuestas().entrySet()) {
+            long inicio = out.size();
+            out.resetStringTable();
+            out.writeVarint(grupo.getValue().size());
+            for (Respuesta respuesta : grupo.getValue().values()) {
+                writeRespuesta(out, respuesta);
+            }
+            indice.put(grupo.getKey(), new long[] {inicio, out.size() - inicio});
+        }
+        for (Map.Entry<Integer, ByteBuffer> bloque : snapshot.getBloquesRespuestas().entrySet()) {
+            if (indice.containsKey(bloque.getKey())) {
+                continue;
+            }
+            long inicio = out.size();
+            out.writeBytes(bloque.getValue());
+            indice.put(bloque.getKey(), new long[] {inicio, out.size() - inicio});
+        }
+
+        long posicionIndice = out.size();
+        out.writeVarint(indice.size());
+        for (Map.Entry<Integer, long[]> entrada : indice.entrySet()) {
+            out.writeInt(entrada.getKey());
+            out.writeLong(entrada.getValue()[0]);
+            out.writeLong(entrada.getValue()[1]);
+        }
+
+        long posicionUsuarios = out.size();
+        out.resetStringTable();
+        IndiceUsuarios indiceUsuarios = snapshot.getIndiceUsuarios();
+        if (indiceUsuarios == null) {
+            indiceUsuarios = construirIndiceUsuarios(snapshot);
+        }
+        indiceUsuarios.write(out);
+
+        out.writeFixedLong(posicionIndice);
+        out.writeFixedLong(posicionUsuarios);
+        out.flush();
+    }
+
+    /**
+     * Lee una instantánea escrita con writeSnapshot
+     * Las encuestas se decodifican inmediatamente; las respuestas quedan como bloques sin decodificar
+     * que comparten los datos del buffer (se decodifican con readRespuestas).
+     * Las instantáneas de la versión 1 no tienen bloques y se leen completas
+     * @param buffer Datos de la instantánea desde su inicio (puede ser un fichero proyectado en memoria)
+     * @return Instantánea leída
+     * @throws IOException si los datos no son válidos o la versión no está soportada
+     */
+    public static Snapshot readSnapshot(ByteBuffer buffer) throws IOException {
+        BinaryReader in = new BinaryReader(buffer.duplicate());
+        int version = in.readHeader(FORMAT_VERSION);
+        int nextEncuestaId = in.readInt();
+        int nextRespuestaId = in.readInt();
+        int nextPreguntaId = in.readInt();
+        int numEncuestas = in.readVarint();
+        Map<Integer, Encuesta> encuestas = new HashMap<>();
+        for (int i = 0; i < numEncuestas; i++) {
+            Encuesta encuesta = readEncuesta(in);
+            encuestas.put(encuesta.getId(), encuesta);
+        }
+
+        Map<Integer, Map<Integer, Respuesta>> respuestas = new HashMap<>();
+        Map<Integer, ByteBuffer> bloques = new HashMap<>();
+        ByteBuffer bloqueUsuarios = null;
+        if (version == 1) {
+            int grupos = in.readVarint();
+            for (int i = 0; i < grupos; i++) {
+                int encuestaId = in.readInt();
+                respuestas.put(encuestaId, readGrupoRespuestas(in));
+            }
+        } else {
+            int trailer = version == 2 ? TRAILER_SIZE_V2 : TRAILER_SIZE;
+            if (buffer.limit() < trailer) {
+                throw new EOFException("Instantánea truncada");
+            }
+            long posicionIndice = buffer.getLong(buffer.limit() - trailer);
+            long finIndice = buffer.limit() - trailer;
+            if (version >= 3) {
+                long posicionUsuarios = buffer.getLong(buffer.limit() - TRAILER_SIZE_V2);
+                bloqueUsuarios = BinaryReader.slice(buffer, posicionUsuarios, finIndice - posicionUsuarios);
+                finIndice = posicionUsuarios;
+            }
+            BinaryReader indice = new BinaryReader(BinaryReader.slice(buffer, posicionIndice, finIndice - posicionIndice));
+            int numBloques = indice.readVarint();
+            for (int i = 0; i < numBloques; i++) {
+                int encuestaId = indice.readInt();
+                long inicio = indice.readLong();
+                long longitud = indice.readLong();
+                bloques.put(encuestaId, BinaryReader.slice(buffer, inicio, longitud));
+            }
+        }
+        return new Snapshot(encuestas, respuestas, bloques, bloqueUsuarios, null,
+                nextEncuestaId, nextRespuestaId, nextPreguntaId);
+    }
+
+    /**
+     * Contenido del fichero de respuestas de una encuesta
+     * Al leerlo, las respuestas y el índice por usuario quedan como bloques sin decodificar;
+     * al escribirlo, cada parte puede darse decodificada o como bloque que se copia tal cual
+     */
+    static final class Fragmento {
+        private final int nextRespuestaId;
+        private final Map<Integer, Respuesta> respuestas;
+        private final ByteBuffer bloqueRespuestas;
+        private final IndiceUsuarios indiceUsuarios;
+        private final ByteBuffer bloqueUsuarios;
+
+        /**
+         * Constructor
+         * @param nextRespuestaId Siguiente ID de respuesta de la encuesta
+         * @param respuestas Respuestas por ID (null si se usa bloqueRespuestas)
+         * @param bloqueRespuestas Respuestas sin decodificar (ver readRespuestas)
+         * @param indiceUsuarios Índice por usuario de la encuesta (null si se usa bloqueUsuarios)
+         * @param bloqueUsuarios Índice por usuario sin decodificar (ver readIndiceUsuarios)
+         */
+        Fragmento(int nextRespuestaId, Map<Integer, Respuesta> respuestas, ByteBuffer bloqueRespuestas,
+                IndiceUsuarios indiceUsuarios, ByteBuffer bloqueUsuarios) {
+            this.nextRespuestaId = nextRespuestaId;
+            this.respuestas = respuestas;
+            this.bloqueRespuestas = bloqueRespuestas;
+            this.indiceUsuarios = indiceUsuarios;
+            this.bloqueUsuarios = bloqueUsuarios;
+        }
+
+        int getNextRespuestaId() {
+            return nextRespuestaId;
+        }
+
+        ByteBuffer getBloqueRespuestas() {
+            return bloqueRespuestas;
+        }
+
+        ByteBuffer getBloqueUsuarios() {
+            return bloqueUsuarios;
+        }
+    }
+
+    /**
+     * Escribe el fichero de respuestas de una encuesta
+     * Estructura: cabecera | siguiente ID de respuesta | bloque de respuestas | índice por usuario |
+     * posiciones de ambos bloques (8 bytes cada una)
+     * @param stream Flujo de salida (no se cierra)
+     * @param fragmento Contenido a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    static void writeFragmento(OutputStream stream, Fragmento fragmento) throws IOException {
+        BinaryWriter out = new BinaryWriter(stream);
+        out.writeHeader(FORMAT_VERSION);
+        out.writeInt(fragmento.nextRespuestaId);
+
+        long posicionRespuestas = out.size();
+        if (fragmento.respuestas != null) {
+            out.resetStringTable();
+            out.writeVarint(fragmento.respuestas.size());
+            for (Respuesta respuesta : fragmento.respuestas.values()) {
+                writeRespuesta(out, respuesta);
+            }
+        } else {
+            out.writeBytes(fragmento.bloqueRespuestas);
+        }
+
+        long posicionUsuarios = out.size();
+        if (fragmento.indiceUsuarios != null) {
+            out.resetStringTable();
+            fragmento.indiceUsuarios.write(out);
+        } else {
+            out.writeBytes(fragmento.bloqueUsuarios);
+        }
+
+        out.writeFixedLong(posicionRespuestas);
+        out.writeFixedLong(posicionUsuarios);
+        out.flush();
+    }
+
+    /**
+     * Lee un fichero escrito con writeFragmento
+     * Los bloques devueltos comparten los datos del buffer
+     * @param buffer Datos del fichero desde su inicio (puede ser un fichero proyectado en memoria)
+     * @return Contenido leído, con las respuestas y el índice por usuario sin decodificar
+     * @throws IOException si los datos no son válidos o la versión no está soportada
+     */
+    static Fragmento readFragmento(ByteBuffer buffer) throws IOException {
+        BinaryReader in = new BinaryReader(buffer.duplicate());
+        in.readHeader(FORMAT_VERSION);
+        int nextRespuestaId = in.readInt();
+        if (buffer.limit() < TRAILER_SIZE) {
+            throw new EOFException("Fichero de respuestas truncado");
+        }
+        long posicionRespuestas = buffer.getLong(buffer.limit() - TRAILER_SIZE);
+        long posicionUsuarios = buffer.getLong(buffer.limit() - TRAILER_SIZE_V2);
+        long fin = buffer.limit() - TRAILER_SIZE;
+        return new Fragmento(nextRespuestaId,
+                null, BinaryReader.slice(buffer, posicionRespuestas, posicionUsuarios - posicionRespuestas),
+                null, BinaryReader.slice(buffer, posicionUsuarios, fin - posicionUsuarios));
+    }
+
+    /**
+     * Decodifica el índice de respuestas por usuario de una instantánea o de un fichero de respuestas
+     * @param bloque Bloque obtenido de Snapshot.getBloqueUsuarios o Fragmento.getBloqueUsuarios
+     * @return Índice decodificado
+     * @throws IOException si los datos no son válidos
+     */
+    static IndiceUsuarios readIndiceUsuarios(ByteBuffer bloque) throws IOException {
+        return IndiceUsuarios.read(new BinaryReader(bloque.duplicate()));
+    }
+
+    /**
+     * Construye el índice de respuestas por usuario recorriendo todas las respuestas de una instantánea
+     * (decodificando los bloques pendientes si es necesario)
+     */
+    private static IndiceUsuarios construirIndiceUsuarios(Snapshot snapshot) throws IOException {
+        IndiceUsuarios indice = new IndiceUsuarios();
+        for (Map<Integer, Respuesta> grupo : snapshot.getRespuestas().values()) {
+            for (Respuesta respuesta : grupo.values()) {
+                indice.agregar(respuesta);
+            }
+        }
+        for (Map.Entry<Integer, ByteBuffer> bloque : snapshot.getBloquesRespuestas().entrySet()) {
+            if (!snapshot.getRespuestas().containsKey(bloque.getKey())) {
+                for (Respuesta respuesta : readRespuestas(bloque.getValue()).values()) {
+                    indice.agregar(respuesta);
+                }
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Decodifica un bloque de respuestas de una instantánea
+     * @param bloque Bloque obtenido de Snapshot.getBloquesRespuestas (no se modifica su posición)
+     * @return Respuestas del bloque por ID
+     * @throws IOException si los datos no son válidos
+     */
+    public static Map<Integer, Respuesta> readRespuestas(ByteBuffer bloque) throws IOException {
+        return readGrupoRespuestas(new BinaryReader(bloque.duplicate()));
+    }
+
+    /**
+     * Recorre un bloque de respuestas decodificándolas de una en una, sin construir el mapa del bloque
+     * @param bloque Bloque obtenido de Snapshot.getBloquesRespuestas (no se modifica su posición)
+     * @param consumidor Receptor de cada respuesta
+     * @throws IOException si los datos no son válidos o si falla el consumidor
+     */
+    public static void recorrerRespuestas(ByteBuffer bloque, ConsumidorRespuestas consumidor) throws IOException {
+        BinaryReader in = new BinaryReader(bloque.duplicate());
+        int numRespuestas = in.readVarint();
+        for (int i = 0; i < numRespuestas; i++) {
+            consumidor.aceptar(readRespuesta(in));
+        }
+    }
+
+    /**
+     * Obtiene el número de respuestas de un bloque sin decodificarlo
+     * @param bloque Bloque obtenido de Snapshot.getBloquesRespuestas
+     * @return Número de respuestas
+     * @throws IOException si los datos no son válidos
+     */
+    public static int contarRespuestas(ByteBuffer bloque) throws IOException {
+        return new BinaryReader(bloque.duplicate()).readVarint();
+    }
+
+    private static Map<Integer, Respuesta> readGrupoRespuestas(BinaryReader in) throws IOException {
+        int numRespuestas = in.readVarint();
+        Map<Integer, Respuesta> grupo = new HashMap<>();
+        for (int j = 0; j < numRespuestas; j++) {
+            Respuesta respuesta = readRespuesta(in);
+            grupo.put(respuesta.getId(), respuesta);
+        }
+        return grupo;
+    }
+
+    /**
+     * Escribe una encuesta (o cuestionario) con sus preguntas
+     * @param out Escritor binario
+     * @param encuesta Encuesta a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    public static void writeEncuesta(BinaryWriter out, Encuesta encuesta) throws IOException {
+        boolean cuestionario = encuesta instanceof Cuestionario;
+        out.writeByte(cuestionario ? TIPO_CUESTIONARIO : TIPO_ENCUESTA);
+        out.writeInt(encuesta.getId());
+        out.writeString(encuesta.getTitulo());
+        out.writeString(encuesta.getDescripcion());
+        out.writeString(encuesta.getCreador());
+        out.writeString(encuesta.getFechaCreacion());
+        out.writeString(encuesta.getFechaCierre());
+        out.writeBoolean(encuesta.isActiva());
+        out.writeVarint(encuesta.getRolesPermitidos().size());
+        for (String rol : encuesta.getRolesPermitidos()) {
+            out.writeString(rol);
+        }
+        out.writeVarint(encuesta.getPreguntas().size());
+        for (Pregunta pregunta : encuesta.getPreguntas()) {
+            writePregunta(out, pregunta);
+        }
+        if (cuestionario) {
+            Cuestionario c = (Cuestionario) encuesta;
+            out.writeInt(c.getTiempoLimite());
+            out.writeInt(c.getPuntuacionMinima());
+            out.writeBoolean(c.isMostrarResultadosInmediatos());
+            out.writeBoolean(c.isAleatorio());
+        }
+    }
+
+    /**
+     * Lee una encuesta (o cuestionario) con sus preguntas
+     * @param in Lector binario
+     * @return Encuesta leída
+     * @throws IOException si los datos no son válidos
+     */
+    public static Encuesta readEncuesta(BinaryReader in) throws IOException {
+        int tipo = in.readByte();
+        if (tipo != TIPO_ENCUESTA && tipo != TIPO_CUESTIONARIO) {
+            throw new IOException("Tipo de encuesta desconocido: " + tipo);
+        }
+        Encuesta encuesta = tipo == TIPO_CUESTIONARIO ? new Cuestionario() : new Encuesta();
+        encuesta.setId(in.readInt());
+        encuesta.setTitulo(in.readString());
+        encuesta.setDescripcion(in.readString());
+        encuesta.setCreador(in.readString());
+        encuesta.setFechaCreacion(in.readString());
+        encuesta.setFechaCierre(in.readString());
+        encuesta.setActiva(in.readBoolean());
+        int roles = in.readVarint();
+        for (int i = 0; i < roles; i++) {
+            encuesta.addRolPermitido(in.readString());
+        }
+        int preguntas = in.readVarint();
+        for (int i = 0; i < preguntas; i++) {
+            encuesta.addPregunta(readPregunta(in));
+        }
+        if (tipo == TIPO_CUESTIONARIO) {
+            Cuestionario c = (Cuestionario) encuesta;
+            c.setTiempoLimite(in.readInt());
+            c.setPuntuacionMinima(in.readInt());
+            c.setMostrarResultadosInmediatos(in.readBoolean());
+            c.setAleatorio(in.readBoolean());
+        }
+        return encuesta;
+    }
+
+    /**
+     * Escribe una pregunta
+     * @param out Escritor binario
+     * @param pregunta Pregunta a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    public static void writePregunta(BinaryWriter out, Pregunta pregunta) throws IOException {
+        out.writeInt(pregunta.getId());
+        out.writeString(pregunta.getTexto());
+        out.writeVarint(pregunta.getTipo() == null ? 0 : pregunta.getTipo().ordinal() + 1);
+        out.writeBoolean(pregunta.isObligatoria());
+        out.writeVarint(pregunta.getOpciones().size());
+        for (String opcion : pregunta.getOpciones()) {
+            out.writeString(opcion);
+        }
+        out.writeString(pregunta.getRespuestaCorrecta());
+        out.writeInt(pregunta.getPuntuacion());
+    }
+
+    /**
+     * Lee una pregunta
+     * @param in Lector binario
+     * @return Pregunta leída
+     * @throws IOException si los datos no son válidos
+     */
+    public static Pregunta readPregunta(BinaryReader in) throws IOException {
+        Pregunta pregunta = new Pregunta();
+        pregunta.setId(in.readInt());
+        pregunta.setTexto(in.readString());
+        int tipo = in.readVarint();
+        Pregunta.TipoPregunta[] tipos = Pregunta.TipoPregunta.values();
+        if (tipo > tipos.length) {
+            throw new IOException("Tipo de pregunta desconocido: " + tipo);
+        }
+        pregunta.setTipo(tipo == 0 ? null : tipos[tipo - 1]);
+        pregunta.setObligatoria(in.readBoolean());
+        int opciones = in.readVarint();
+        for (int i = 0; i < opciones; i++) {
+            pregunta.addOpcion(in.readString());
+        }
+        pregunta.setRespuestaCorrecta(in.readString());
+        pregunta.setPuntuacion(in.readInt());
+        return pregunta;
+    }
+
+    /**
+     * Escribe una respuesta
+     * @param out Escritor binario
+     * @param respuesta Respuesta a escribir
+     * @throws IOException si hay un error de escritura
+     */
+    public static void writeRespuesta(BinaryWriter out, Respuesta respuesta) throws IOException {
+        out.writeInt(respuesta.getId());
+        out.writeInt(respuesta.getEncuestaId());
+        out.writeString(respuesta.getUsuario());
+        out.writeString(respuesta.getFechaRespuesta());
+        Map<Integer, String> valores = respuesta.getRespuestas();
+        out.writeVarint(valores.size());
+        for (Map.Entry<Integer, String> entry : valores.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeString(entry.getValue());
+        }
+        out.writeBoolean(respuesta.isCompletada());
+        int puntuacion = respuesta.getPuntuacionGuardada();
+        int indicadores = respuesta.isAprobada() ? RESPUESTA_APROBADA : 0;
+        if (puntuacion != Respuesta.SIN_CORREGIR) {
+            indicadores |= RESPUESTA_CORREGIDA | (respuesta.isSuperada() ? RESPUESTA_SUPERADA : 0);
+        }
+        out.writeByte(indicadores);
+        if (puntuacion != Respuesta.SIN_CORREGIR) {
+            out.writeInt(puntuacion);
+        }
+    }
+
+    /**
+     * Lee una respuesta
+     * @param in Lector binario
+     * @return Respuesta leída
+     * @throws IOException si los datos no son válidos
+     */
+    public static Respuesta readRespuesta(BinaryReader in) throws IOException {
+        Respuesta respuesta = new Respuesta();
+        respuesta.setId(in.readInt());
+        respuesta.setEncuestaId(in.readInt());
+        respuesta.setUsuario(in.readString());
+        respuesta.setFechaRespuesta(in.readString());
+        int valores = in.readVarint();
+        for (int i = 0; i < valores; i++) {
+            respuesta.setRespuesta(in.readInt(), in.readString());
+        }
+        respuesta.setCompletada(in.readBoolean());
+        int indicadores = in.readByte();
+        respuesta.setAprobada((indicadores & RESPUESTA_APROBADA) != 0);
+        if ((indicadores & RESPUESTA_CORREGIDA) != 0) {
+            respuesta.restaurarCorreccion(in.readInt(), (indicadores & RESPUESTA_SUPERADA) != 0);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Codifica una encuesta como bloque independiente (con cabecera y su propia tabla de cadenas)
+     * @param encuesta Encuesta a codificar
+     * @return Bytes de la encuesta
+     */
+    public static byte[] encodeEncuesta(Encuesta encuesta) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            BinaryWriter out = new BinaryWriter(bytes);
+            out.writeHeader(FORMAT_VERSION);
+            writeEncuesta(out, encuesta);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica un bloque generado por encodeEncuesta
+     * @param datos Bytes del bloque
+     * @return Encuesta decodificada
+     * @throws IOException si los datos no son válidos
+     */
+    public static Encuesta decodeEncuesta(byte[] datos) throws IOException {
+        BinaryReader in = new BinaryReader(datos);
+        in.readHeader(FORMAT_VERSION);
+        return readEncuesta(in);
+    }
+
+    /**
+     * Codifica una respuesta como bloque independiente (con cabecera y su propia tabla de cadenas)
+     * @param respuesta Respuesta a codificar
+     * @return Bytes de la respuesta
+     */
+    public static byte[] encodeRespuesta(Respuesta respuesta) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            BinaryWriter out = new BinaryWriter(bytes);
+            out.writeHeader(FORMAT_VERSION);
+            writeRespuesta(out, respuesta);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica un bloque generado por encodeRespuesta
+     * @param datos Bytes del bloque
+     * @return Respuesta decodificada
+     * @throws IOException si los datos no son válidos
+     */
+    public static Respuesta decodeRespuesta(byte[] datos) throws IOException {
+        BinaryReader in = new BinaryReader(datos);
+        in.readHeader(FORMAT_VERSION);
+        return readRespuesta(in);
+    }
+
+    /**
+     * Codifica un lote de respuestas como bloque independiente (con cabecera y una tabla de cadenas común)
+     * @param respuestas Respuestas a codificar
+     * @return Bytes del lote
+     */
+    public static byte[] encodeRespuestas(Collection<Respuesta> respuestas) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            BinaryWriter out = new BinaryWriter(bytes);
+            out.writeHeader(FORMAT_VERSION);
+            out.writeVarint(respuestas.size());
+            for (Respuesta respuesta : respuestas) {
+                writeRespuesta(out, respuesta);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodifica un bloque generado por encodeRespuestas
+     * @param datos Bytes del bloque
+     * @return Respuestas decodificadas, en el orden en que se codificaron
+     * @throws IOException si los datos no son válidos
+     */
+    public static List<Respuesta> decodeRespuestas(byte[] datos) throws IOException {
+        BinaryReader in = new BinaryReader(datos);
+        in.readHeader(FORMAT_VERSION);
+        int numRespuestas = in.readVarint();
+        List<Respuesta> respuestas = new ArrayList<>(numRespuestas);
+        for (int i = 0; i < numRespuestas; i++) {
+            respuestas.add(readRespuesta(in));
+        }
+        return respuestas;
+    }
+
+    /**
+     * Codifica una lista de IDs como contenido de un registro del log
+     * @param ids IDs a codificar
+     * @return Bytes del registro
+     */
+    static byte[] encodeIds(int... ids) {
+        ByteBuffer bytes = ByteBuffer.allocate(ids.length * 4);
+        for (int id : ids) {
+            bytes.putInt(id);
+        }
+        return bytes.array();
+    }
+
+    /**
+     * Decodifica los IDs de un registro generado por encodeIds
+     * @param datos Bytes del registro
+     * @return IDs contenidos en el registro
+     */
+    static int[] decodeIds(byte[] datos) {
+        ByteBuffer bytes = ByteBuffer.wrap(datos);
+        int[] ids = new int[datos.length / 4];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bytes.getInt();
+        }
+        return ids;
+    }
+}
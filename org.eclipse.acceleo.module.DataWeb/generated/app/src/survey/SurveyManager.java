@@ -2,32 +2,73 @@ package survey;
 
 import java.io.*;
 import java.util.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import config.AppConfig;
+import persistence.AtomicFile;
+import persistence.BinaryReader;
+import persistence.Journal;
 
 /**
  * Gestor centralizado para encuestas y cuestionarios
  * Implementa patrón Singleton
+ *
+ * Las encuestas se guardan en encuestas.dat con su propio log de cambios; las respuestas se reparten
+ * en un fragmento por encuesta (FragmentoRespuestas) con su propio cerrojo, fichero, log y contador
+ * de IDs, por lo que guardar respuestas no bloquea el gestor ni las respuestas de otras encuestas
  */
 public class SurveyManager {
     private static SurveyManager instance;
     
-    private Map<Integer, Encuesta> encuestas;
-    private Map<Integer, Map<Integer, Respuesta>> respuestas; // encuestaId -> (respuestaId -> Respuesta)
+    private Map<Integer, Encuesta> encuestas; // ConcurrentHashMap: se consulta sin el cerrojo del gestor
+    private final Map<Integer, FragmentoRespuestas> fragmentos = new ConcurrentHashMap<>(); // encuestaId -> respuestas
+    private final IndiceRoles indiceRoles = new IndiceRoles(); // rol -> encuestas activas accesibles
+    private final IndiceEncuestasPorUsuario indiceEncuestas = // usuario -> encuestas con respuestas suyas
+            new IndiceEncuestasPorUsuario(new File(RESPUESTAS_DIR, "usuarios.idx"));
+    private final Map<Integer, TrabajoRecorreccion> recorrecciones = new ConcurrentHashMap<>(); // Última recorrección por cuestionario
     private int nextEncuestaId;
-    private int nextRespuestaId;
     private int nextPreguntaId;
     
     private static final String DATA_FILE = "encuestas.dat";
+    private static final String JOURNAL_FILE = "encuestas.journal";
+    private static final String RESPUESTAS_DIR = "respuestas"; // Un fichero (y un log) por encuesta
+    
+    // Tipos de registro del log de cambios
+    // (los de respuestas solo aparecen en logs anteriores al almacén por encuestas)
+    private static final byte REG_ENCUESTA = 1;
+    private static final byte REG_ELIMINAR_ENCUESTA = 2;
+    private static final byte REG_RESPUESTA = 3;
+    private static final byte REG_ELIMINAR_RESPUESTA = 4;
+    private static final byte REG_LOTE_RESPUESTAS = 5;
+    
+    private Journal journal; // null en modo de persistencia "snapshot"
+    private boolean modoJournal;
+    private int snapshotInterval;
+    private int journalIdleSeconds; // Inactividad tras la que se cierra el log de un fragmento (0: nunca)
+    private ScheduledExecutorService cierreJournals;
+    private boolean migrarLog; // El log reproducido contenía respuestas (formato anterior)
     
     /**
      * Constructor privado (Singleton)
      */
     private SurveyManager() {
-        encuestas = new HashMap<>();
-        respuestas = new HashMap<>();
+        encuestas = new ConcurrentHashMap<>();
         nextEncuestaId = 1;
-        nextRespuestaId = 1;
         nextPreguntaId = 1;
+        leerConfiguracion();
+        indiceEncuestas.cargar();
         cargarDatos();
+        abrirJournal();
+        completarIndiceEncuestas();
+        for (Encuesta encuesta : encuestas.values()) {
+            vigilarAcceso(encuesta);
+        }
     }
     
     /**
@@ -50,17 +91,16 @@ public class SurveyManager {
     }
     
     /**
-     * Obtiene las encuestas accesibles para un rol específico
+     * Obtiene las encuestas activas accesibles para un rol específico
+     * Se resuelve con el índice de roles, sin recorrer todas las encuestas
      * @param rol Rol a verificar acceso
-     * @return Lista de encuestas accesibles
+     * @return Lista de encuestas activas accesibles, en orden de ID
      */
-    public List<Encuesta> getEncuestasParaRol(String rol) {
+    public synchronized List<Encuesta> getEncuestasParaRol(String rol) {
         List<Encuesta> result = new ArrayList<>();
         
-        for (Encuesta encuesta : encuestas.values()) {
-            if (encuesta.tieneAcceso(rol)) {
-                result.add(encuesta);
-            }
+        for (Integer id : indiceRoles.get(rol)) {
+            result.add(encuestas.get(id));
         }
         
         return result;
@@ -81,43 +121,174 @@ public class SurveyManager {
      * @return ID asignado a la encuesta
      */
     public int guardarEncuesta(Encuesta encuesta) {
-        if (encuesta.getId() == 0) {
-            encuesta.setId(nextEncuestaId++);
+        long seq;
+        synchronized (this) {
+            if (encuesta.getId() == 0) {
+                encuesta.setId(nextEncuestaId++);
+            }
+            
+            Encuesta anterior = encuestas.put(encuesta.getId(), encuesta);
+            if (anterior != null && anterior != encuesta) {
+                anterior.setObservador(null);
+            }
+            vigilarAcceso(encuesta);
+            FragmentoRespuestas fragmento = fragmentos.get(encuesta.getId());
+            if (fragmento != null) {
+                fragmento.invalidarResultados(); // Las preguntas pueden haber cambiado
+            }
+            seq = registrarCambio(REG_ENCUESTA, SurveyCodec.encodeEncuesta(encuesta));
         }
-        
-        encuestas.put(encuesta.getId(), encuesta);
-        guardarDatos();
+        esperarPersistencia(seq);
         return encuesta.getId();
     }
     
     /**
      * Elimina una encuesta y sus respuestas
+     * El fragmento se marca eliminado antes de soltar el cerrojo del gestor, de modo que las respuestas
+     * que se guarden a la vez se rechazan en lugar de recrear sus ficheros; estos se borran cuando
+     * la eliminación ya está persistida
      * @param id ID de la encuesta a eliminar
      * @return true si se eliminó correctamente, false si no existía
      */
     public boolean eliminarEncuesta(int id) {
-        if (!encuestas.containsKey(id)) {
-            return false;
+        long seq;
+        FragmentoRespuestas fragmento;
+        synchronized (this) {
+            if (!encuestas.containsKey(id)) {
+                return false;
+            }
+            
+            encuestas.remove(id).setObservador(null);
+            indiceRoles.quitar(id);
+            TrabajoRecorreccion recorreccion = recorrecciones.remove(id);
+            if (recorreccion != null) {
+                recorreccion.cancelar();
+            }
+            fragmento = fragmentos.remove(id);
+            if (fragmento != null) {
+                fragmento.marcarEliminado();
+            }
+            indiceEncuestas.quitarEncuesta(id);
+            seq = registrarCambio(REG_ELIMINAR_ENCUESTA, SurveyCodec.encodeIds(id));
         }
-        
-        encuestas.remove(id);
-        respuestas.remove(id);
-        guardarDatos();
+        esperarPersistencia(seq);
+        borrarRespuestas(id, fragmento);
         return true;
     }
     
+    /**
+     * Borra las respuestas de una encuesta eliminada
+     * @param id ID de la encuesta
+     * @param fragmento Fragmento de la encuesta si estaba abierto (puede ser null)
+     */
+    private void borrarRespuestas(int id, FragmentoRespuestas fragmento) {
+        if (fragmento != null) {
+            fragmento.borrar();
+        } else {
+            FragmentoRespuestas.borrarFicheros(new File(RESPUESTAS_DIR), id);
+        }
+    }
+    
+    /**
+     * Obtiene el fragmento de respuestas de una encuesta al cargar los datos, creándolo aunque la encuesta
+     * no exista (respuestas de versiones anteriores); sus ficheros se leen al usarlo por primera vez.
+     * Solo debe usarse desde el constructor: después, los accesos usan fragmentoSiExiste o fragmentoExistente
+     * @param encuestaId ID de la encuesta
+     * @return Fragmento de la encuesta
+     */
+    private FragmentoRespuestas fragmentoAlCargar(int encuestaId) {
+        return fragmentos.computeIfAbsent(encuestaId,
+                id -> new FragmentoRespuestas(new File(RESPUESTAS_DIR), id, modoJournal, snapshotInterval, indiceEncuestas));
+    }
+    
+    /**
+     * Obtiene el fragmento de una encuesta existente, creándolo en el primer acceso
+     * Solo se crea si la encuesta existe. eliminarEncuesta quita la encuesta antes de retirar su fragmento
+     * y lo marca eliminado, por lo que un acceso concurrente o no encuentra la encuesta o recibe el
+     * fragmento eliminado, que rechaza los cambios; nunca se crea un fragmento nuevo que abra otra vez
+     * sus ficheros
+     * @param encuestaId ID de la encuesta
+     * @return Fragmento de la encuesta, o null si la encuesta no existe
+     */
+    private FragmentoRespuestas fragmentoSiExiste(int encuestaId) {
+        if (!encuestas.containsKey(encuestaId)) {
+            return null;
+        }
+        return fragmentos.computeIfAbsent(encuestaId, id -> encuestas.containsKey(id)
+                ? new FragmentoRespuestas(new File(RESPUESTAS_DIR), id, modoJournal, snapshotInterval, indiceEncuestas)
+                : null);
+    }
+    
+    /**
+     * Obtiene el fragmento de una encuesta existente para guardar cambios en él (ver fragmentoSiExiste)
+     * @param encuestaId ID de la encuesta
+     * @return Fragmento de la encuesta
+     * @throws IllegalArgumentException si la encuesta no existe
+     */
+    private FragmentoRespuestas fragmentoExistente(int encuestaId) {
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        if (fragmento == null) {
+            throw new IllegalArgumentException("No existe la encuesta con ID " + encuestaId);
+        }
+        return fragmento;
+    }
+    
+    /**
+     * Obtiene los fragmentos de todas las encuestas (y de las respuestas cuya encuesta no existe)
+     * @return Fragmentos en orden de ID de encuesta
+     */
+    private List<FragmentoRespuestas> todosLosFragmentos() {
+        Set<Integer> ids = new TreeSet<>(fragmentos.keySet());
+        synchronized (this) {
+            ids.addAll(encuestas.keySet());
+        }
+        List<FragmentoRespuestas> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            result.add(fragmentoAlCargar(id));
+        }
+        return result;
+    }
+    
+    /**
+     * Indexa una encuesta por rol y se suscribe a sus cambios de estado y de roles,
+     * de modo que activar, cerrar o cambiar los roles de una encuesta ya guardada
+     * actualiza el índice aunque no se vuelva a llamar a guardarEncuesta
+     * @param encuesta Encuesta guardada
+     */
+    private void vigilarAcceso(Encuesta encuesta) {
+        encuesta.setObservador(this::actualizarAcceso);
+        indiceRoles.actualizar(encuesta);
+    }
+    
+    private synchronized void actualizarAcceso(Encuesta encuesta) {
+        if (encuestas.get(encuesta.getId()) == encuesta) {
+            indiceRoles.actualizar(encuesta);
+        }
+    }
+    
     /**
      * Obtiene todas las respuestas para una encuesta
      * @param encuestaId ID de la encuesta
      * @return Lista de respuestas
      */
     public List<Respuesta> getRespuestas(int encuestaId) {
-        Map<Integer, Respuesta> respuestasEncuesta = respuestas.get(encuestaId);
-        if (respuestasEncuesta == null) {
-            return new ArrayList<>();
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        return fragmento != null ? fragmento.getRespuestas() : new ArrayList<>();
+    }
+    
+    /**
+     * Recorre las respuestas de una encuesta de una en una, sin copiarlas a una lista
+     * Si aún no se han cargado, se decodifican directamente del fichero de la encuesta y no quedan en memoria.
+     * El recorrido se hace fuera de los cerrojos y refleja el estado de la encuesta al empezar
+     * @param encuestaId ID de la encuesta
+     * @param consumidor Receptor de cada respuesta
+     * @throws IOException si falla la lectura del fichero o el consumidor
+     */
+    public void recorrerRespuestas(int encuestaId, SurveyCodec.ConsumidorRespuestas consumidor) throws IOException {
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        if (fragmento != null) {
+            fragmento.recorrer(consumidor);
         }
-        
-        return new ArrayList<>(respuestasEncuesta.values());
     }
     
     /**
@@ -127,30 +298,67 @@ public class SurveyManager {
      * @return Respuesta o null si no existe
      */
     public Respuesta getRespuesta(int encuestaId, int respuestaId) {
-        Map<Integer, Respuesta> respuestasEncuesta = respuestas.get(encuestaId);
-        if (respuestasEncuesta == null) {
-            return null;
-        }
-        
-        return respuestasEncuesta.get(respuestaId);
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        return fragmento != null ? fragmento.get(respuestaId) : null;
     }
     
     /**
      * Guarda una respuesta
+     * Solo se bloquea el fragmento de su encuesta: las respuestas a otras encuestas se guardan en paralelo
      * @param respuesta Respuesta a guardar
-     * @return ID asignado a la respuesta
+     * @return ID asignado a la respuesta (único dentro de su encuesta)
+     * @throws IllegalArgumentException si la encuesta no existe o se está eliminando
+     * @throws UncheckedIOException si la respuesta no se pudo persistir
      */
     public int guardarRespuesta(Respuesta respuesta) {
-        if (respuesta.getId() == 0) {
-            respuesta.setId(nextRespuestaId++);
+        FragmentoRespuestas fragmento = fragmentoExistente(respuesta.getEncuestaId());
+        fragmento.esperarPersistencia(fragmento.guardar(respuesta));
+        return respuesta.getId();
+    }
+    
+    /**
+     * Guarda un lote de respuestas con un único registro en el log de cada encuesta afectada
+     * (o una única reescritura de su fichero), en lugar de uno por respuesta. Pensado para importaciones masivas
+     * @param lote Respuestas a guardar (las que tienen ID 0 reciben uno nuevo)
+     * @return Número de respuestas guardadas
+     * @throws IllegalArgumentException si alguna encuesta no existe (no se guarda ninguna respuesta)
+     * @throws UncheckedIOException si alguna respuesta no se pudo persistir (el lote no cuenta como guardado)
+     */
+    public int guardarRespuestas(List<Respuesta> lote) {
+        Map<Integer, List<Respuesta>> porEncuesta = new LinkedHashMap<>();
+        for (Respuesta respuesta : lote) {
+            porEncuesta.computeIfAbsent(respuesta.getEncuestaId(), k -> new ArrayList<>()).add(respuesta);
+        }
+        List<FragmentoRespuestas> afectados = new ArrayList<>();
+        for (Integer encuestaId : porEncuesta.keySet()) {
+            afectados.add(fragmentoExistente(encuestaId));
         }
         
-        Map<Integer, Respuesta> respuestasEncuesta = respuestas.computeIfAbsent(
-            respuesta.getEncuestaId(), k -> new HashMap<>());
-        
-        respuestasEncuesta.put(respuesta.getId(), respuesta);
-        guardarDatos();
-        return respuesta.getId();
+        // Primero se registran todos los grupos y después se espera: los logs de cada encuesta se sincronizan en paralelo
+        List<Long> secuencias = new ArrayList<>();
+        int i = 0;
+        for (List<Respuesta> grupo : porEncuesta.values()) {
+            secuencias.add(afectados.get(i++).guardarLote(grupo));
+        }
+        for (i = 0; i < afectados.size(); i++) {
+            afectados.get(i).esperarPersistencia(secuencias.get(i));
+        }
+        return lote.size();
+    }
+    
+    /**
+     * Reserva un bloque de IDs de respuesta consecutivos en una encuesta
+     * Permite asignar IDs sin pasar por el gestor en cada respuesta (p. ej. en importaciones)
+     * @param encuestaId ID de la encuesta
+     * @param cantidad Número de IDs a reservar
+     * @return Primer ID del bloque
+     * @throws IllegalArgumentException si la cantidad no es positiva o la encuesta no existe
+     */
+    public int reservarIdsRespuesta(int encuestaId, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de IDs debe ser positiva");
+        }
+        return fragmentoExistente(encuestaId).reservarIds(cantidad);
     }
     
     /**
@@ -160,41 +368,193 @@ public class SurveyManager {
      * @return true si se eliminó correctamente, false si no existía
      */
     public boolean eliminarRespuesta(int encuestaId, int respuestaId) {
-        Map<Integer, Respuesta> respuestasEncuesta = respuestas.get(encuestaId);
-        if (respuestasEncuesta == null) {
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        if (fragmento == null) {
             return false;
         }
-        
-        boolean result = respuestasEncuesta.remove(respuestaId) != null;
-        if (result) {
-            guardarDatos();
+        long seq = fragmento.eliminar(respuestaId);
+        if (seq < 0) {
+            return false;
+        }
+        fragmento.esperarPersistencia(seq);
+        return true;
+    }
+    
+    /**
+     * Obtiene todas las respuestas de un usuario
+     * El índice global por usuario limita la consulta a los fragmentos de las encuestas que el
+     * usuario ha respondido, y en cada uno se usa su índice por usuario
+     * @param usuario Nombre de usuario
+     * @return Lista de respuestas del usuario
+     */
+    public List<Respuesta> getRespuestasDeUsuario(String usuario) {
+        List<Respuesta> result = new ArrayList<>();
+        for (Integer encuestaId : indiceEncuestas.get(usuario)) {
+            FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+            if (fragmento != null) {
+                result.addAll(fragmento.getRespuestasDeUsuario(usuario));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Cuenta las respuestas de un usuario sin cargarlas
+     * Solo se consultan los fragmentos de las encuestas que el usuario ha respondido
+     * @param usuario Nombre de usuario
+     * @return Número de respuestas del usuario
+     */
+    public int contarRespuestasDeUsuario(String usuario) {
+        int total = 0;
+        for (Integer encuestaId : indiceEncuestas.get(usuario)) {
+            FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+            if (fragmento != null) {
+                total += fragmento.contarRespuestasDeUsuario(usuario);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Indica si un usuario ya ha completado una encuesta
+     * @param usuario Nombre de usuario
+     * @param encuestaId ID de la encuesta
+     * @return true si tiene alguna respuesta completada en la encuesta
+     */
+    public boolean haCompletado(String usuario, int encuestaId) {
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        return fragmento != null && fragmento.haCompletado(usuario);
+    }
+    
+    /**
+     * Obtiene las encuestas activas accesibles para un rol que el usuario aún no ha completado
+     * @param usuario Nombre de usuario
+     * @param rol Rol del usuario
+     * @return Lista de encuestas pendientes
+     */
+    public List<Encuesta> getEncuestasPendientes(String usuario, String rol) {
+        List<Encuesta> result = new ArrayList<>();
+        for (Encuesta encuesta : getEncuestasParaRol(rol)) {
+            if (encuesta.isActiva() && !haCompletado(usuario, encuesta.getId())) {
+                result.add(encuesta);
+            }
         }
         return result;
     }
     
+    /**
+     * Cuenta las respuestas de una encuesta sin decodificarlas
+     * @param encuestaId ID de la encuesta
+     * @return Número de respuestas
+     */
+    public int contarRespuestas(int encuestaId) {
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        return fragmento != null ? fragmento.contar() : 0;
+    }
+    
+    /**
+     * Recorrige en segundo plano todas las respuestas guardadas de un cuestionario con su clave actual
+     * Debe llamarse tras cambiar la respuesta correcta o la puntuación de sus preguntas,
+     * o su puntuación mínima. Si había otra recorrección en curso del mismo cuestionario, se cancela.
+     * Solo usa el cerrojo del fragmento del cuestionario; al terminar se reescribe su fichero con las
+     * nuevas puntuaciones
+     * @param encuestaId ID del cuestionario
+     * @return Trabajo ya iniciado, para consultar su progreso o cancelarlo
+     * @throws IllegalArgumentException si no existe un cuestionario con ese ID
+     */
+    public TrabajoRecorreccion recorregir(int encuestaId) {
+        Encuesta encuesta = encuestas.get(encuestaId);
+        if (!(encuesta instanceof Cuestionario)) {
+            throw new IllegalArgumentException("No existe un cuestionario con ID " + encuestaId);
+        }
+        
+        FragmentoRespuestas fragmento = fragmentoExistente(encuestaId);
+        TrabajoRecorreccion trabajo = new TrabajoRecorreccion((Cuestionario) encuesta, fragmento.getRespuestas(),
+                ForkJoinPool.commonPool(), fragmento::guardarCorrecciones);
+        TrabajoRecorreccion anterior = recorrecciones.put(encuestaId, trabajo);
+        if (anterior != null) {
+            anterior.cancelar();
+        }
+        // Si la encuesta se ha eliminado entretanto, eliminarEncuesta ya no verá este trabajo
+        if (!encuestas.containsKey(encuestaId)) {
+            recorrecciones.remove(encuestaId, trabajo);
+            throw new IllegalArgumentException("No existe un cuestionario con ID " + encuestaId);
+        }
+        return trabajo.iniciar();
+    }
+    
+    /**
+     * Obtiene los resultados agregados de una encuesta
+     * Se calculan recorriendo las respuestas solo la primera vez; después se actualizan
+     * con cada respuesta guardada o eliminada y se recalculan si se modifica la encuesta
+     * @param encuestaId ID de la encuesta
+     * @return Resultados de la encuesta o null si no existe
+     */
+    public ResultadosEncuesta getResultados(int encuestaId) {
+        Encuesta encuesta = getEncuesta(encuestaId);
+        FragmentoRespuestas fragmento = fragmentoSiExiste(encuestaId);
+        if (encuesta == null || fragmento == null) {
+            return null;
+        }
+        return fragmento.getResultados(encuesta);
+    }
+    
     /**
      * Obtiene el siguiente ID disponible para una pregunta
      * @return ID para nueva pregunta
      */
-    public int getNextPreguntaId() {
+    public synchronized int getNextPreguntaId() {
         return nextPreguntaId++;
     }
     
     /**
-     * Carga los datos desde archivo
+     * Lee el modo de persistencia y el intervalo de compactación de los logs
+     */
+    private void leerConfiguracion() {
+        AppConfig config = AppConfig.getInstance();
+        modoJournal = "journal".equalsIgnoreCase(config.getProperty("persistence.mode", "journal"));
+        try {
+            snapshotInterval = Integer.parseInt(config.getProperty("persistence.snapshotInterval", "1000"));
+        } catch (NumberFormatException e) {
+            snapshotInterval = 1000;
+        }
+        try {
+            journalIdleSeconds = Integer.parseInt(config.getProperty("persistence.journalIdleSeconds", "30"));
+        } catch (NumberFormatException e) {
+            journalIdleSeconds = 30;
+        }
+    }
+    
+    /**
+     * Carga las encuestas desde archivo
+     * Las respuestas no se leen al arrancar: cada fragmento carga su fichero en el primer acceso,
+     * por lo que el arranque no depende del número de respuestas guardadas.
+     * Si el fichero está en el formato antiguo (serialización de Java) o aún contiene las respuestas
+     * (versiones anteriores al almacén por encuestas), las respuestas se pasan a un fichero por encuesta
+     * y se reescribe en el formato actual
      */
-    @SuppressWarnings("unchecked")
     private void cargarDatos() {
         try {
             File file = new File(DATA_FILE);
             if (file.exists()) {
-                ObjectInputStream in = new ObjectInputStream(new FileInputStream(file));
-                encuestas = (Map<Integer, Encuesta>) in.readObject();
-                respuestas = (Map<Integer, Map<Integer, Respuesta>>) in.readObject();
-                nextEncuestaId = in.readInt();
-                nextRespuestaId = in.readInt();
-                nextPreguntaId = in.readInt();
-                in.close();
+                ByteBuffer datos;
+                try (FileChannel canal = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                }
+                if (BinaryReader.hasMagic(datos)) {
+                    SurveyCodec.Snapshot snapshot = SurveyCodec.readSnapshot(datos);
+                    encuestas = new ConcurrentHashMap<>(snapshot.getEncuestas());
+                    nextEncuestaId = snapshot.getNextEncuestaId();
+                    nextPreguntaId = snapshot.getNextPreguntaId();
+                    if (!snapshot.getRespuestas().isEmpty() || !snapshot.getBloquesRespuestas().isEmpty()) {
+                        migrarRespuestas(snapshot);
+                    }
+                } else {
+                    byte[] bytes = new byte[datos.remaining()];
+                    datos.get(bytes);
+                    migrarRespuestas(cargarDatosAntiguos(bytes));
+                    System.out.println("Datos de encuestas migrados al formato binario");
+                }
                 System.out.println("Datos de encuestas cargados correctamente desde " + DATA_FILE);
             } else {
                 // Crear datos de ejemplo si no existe el archivo
@@ -208,19 +568,309 @@ public class SurveyManager {
     }
     
     /**
-     * Guarda los datos en archivo
+     * Carga una instantánea guardada con la serialización de Java (formato anterior)
+     * @param datos Contenido del fichero
+     * @return Instantánea con las encuestas y las respuestas leídas
+     * @throws IOException si el contenido no es válido
      */
-    private void guardarDatos() {
+    @SuppressWarnings("unchecked")
+    private SurveyCodec.Snapshot cargarDatosAntiguos(byte[] datos) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(datos))) {
+            encuestas = new ConcurrentHashMap<>((Map<Integer, Encuesta>) in.readObject());
+            Map<Integer, Map<Integer, Respuesta>> respuestas = (Map<Integer, Map<Integer, Respuesta>>) in.readObject();
+            nextEncuestaId = in.readInt();
+            int nextRespuestaId = in.readInt();
+            nextPreguntaId = in.readInt();
+            return new SurveyCodec.Snapshot(encuestas, respuestas, nextEncuestaId, nextRespuestaId, nextPreguntaId);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Clase desconocida en " + DATA_FILE + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Pasa las respuestas de una instantánea anterior al almacén por encuestas a un fichero por encuesta
+     * Los bloques sin decodificar se copian tal cual. La instantánea se reescribe sin respuestas
+     * solo después de guardar todos los fragmentos, de modo que una interrupción repite la migración
+     * @param snapshot Instantánea con respuestas
+     * @throws IOException si el índice por usuario guardado no es válido
+     */
+    private void migrarRespuestas(SurveyCodec.Snapshot snapshot) throws IOException {
+        Map<Integer, IndiceUsuarios> indices = snapshot.getBloqueUsuarios() != null
+                ? SurveyCodec.readIndiceUsuarios(snapshot.getBloqueUsuarios()).dividirPorEncuesta()
+                : null;
+        for (Map.Entry<Integer, ByteBuffer> bloque : snapshot.getBloquesRespuestas().entrySet()) {
+            IndiceUsuarios indice = null;
+            if (indices != null) {
+                indice = indices.getOrDefault(bloque.getKey(), new IndiceUsuarios());
+            }
+            fragmentoAlCargar(bloque.getKey()).migrar(bloque.getValue(), indice, snapshot.getNextRespuestaId());
+        }
+        for (Map.Entry<Integer, Map<Integer, Respuesta>> grupo : snapshot.getRespuestas().entrySet()) {
+            FragmentoRespuestas fragmento = fragmentoAlCargar(grupo.getKey());
+            for (Respuesta respuesta : grupo.getValue().values()) {
+                fragmento.aplicar(respuesta);
+            }
+        }
+        for (FragmentoRespuestas fragmento : fragmentos.values()) {
+            fragmento.guardarInstantanea();
+        }
+        guardarDatos();
+        System.out.println("Respuestas de encuestas migradas a un fichero por encuesta en " + RESPUESTAS_DIR);
+    }
+    
+    /**
+     * Guarda las encuestas en archivo (instantánea completa, sin las respuestas)
+     * La instantánea se sustituye de forma atómica y persistente (ver AtomicFile), de modo que
+     * una interrupción no la deja a medias y el log solo se vacía cuando ya está en disco
+     * @return true si la instantánea se guardó; si es false el log no debe vaciarse
+     */
+    private synchronized boolean guardarDatos() {
         try {
-            ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(DATA_FILE));
-            out.writeObject(encuestas);
-            out.writeObject(respuestas);
-            out.writeInt(nextEncuestaId);
-            out.writeInt(nextRespuestaId);
-            out.writeInt(nextPreguntaId);
-            out.close();
+            // Las respuestas están en los ficheros de cada encuesta; el contador de respuestas ya no se usa
+            SurveyCodec.Snapshot snapshot = new SurveyCodec.Snapshot(encuestas, new HashMap<>(),
+                    nextEncuestaId, 1, nextPreguntaId);
+            AtomicFile.write(new File(DATA_FILE), out -> SurveyCodec.writeSnapshot(out, snapshot));
+            return true;
         } catch (Exception e) {
             System.err.println("Error al guardar datos de encuestas: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Abre el log de cambios y reproduce los registros posteriores a la última instantánea
+     * En modo "snapshot" (persistence.mode) se mantiene el comportamiento anterior:
+     * cada cambio reescribe el fichero completo
+     */
+    private void abrirJournal() {
+        if (!modoJournal) {
+            return;
+        }
+        
+        try {
+            journal = new Journal(new File(JOURNAL_FILE));
+            int registros = journal.replay(this::aplicarRegistro);
+            if (registros > 0) {
+                System.out.println("Reproducidos " + registros + " cambios desde " + JOURNAL_FILE);
+            }
+            if (migrarLog) {
+                // El log contenía respuestas (versión anterior): se pasan a los ficheros de cada encuesta
+                for (FragmentoRespuestas fragmento : fragmentos.values()) {
+                    fragmento.guardarInstantanea();
+                }
+                if (guardarDatos()) {
+                    journal.reset();
+                    migrarLog = false;
+                }
+            }
+            programarCierreJournals();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "survey-shutdown"));
+        } catch (IOException e) {
+            System.err.println("Error al abrir el log de encuestas, se usará la instantánea completa: " + e.getMessage());
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        }
+    }
+    
+    /**
+     * Asegura que el índice global usuario -> encuestas refleja todas las respuestas guardadas
+     * Si no había índice (datos de versiones anteriores) se construye una única vez a partir de todos
+     * los fragmentos; si lo había, solo se indexan los fragmentos con cambios pendientes en su log
+     */
+    private void completarIndiceEncuestas() {
+        if (!indiceEncuestas.isCompleto()) {
+            for (FragmentoRespuestas fragmento : todosLosFragmentos()) {
+                fragmento.indexarUsuarios();
+            }
+            indiceEncuestas.marcarCompleto();
+        } else if (modoJournal) {
+            File[] logs = new File(RESPUESTAS_DIR).listFiles(
+                    (dir, nombre) -> nombre.startsWith("encuesta_") && nombre.endsWith(".journal"));
+            for (File log : logs != null ? logs : new File[0]) {
+                String nombre = log.getName();
+                if (log.length() > 0) {
+                    try {
+                        fragmentoAlCargar(Integer.parseInt(nombre.substring(9, nombre.length() - 8))).indexarUsuarios();
+                    } catch (NumberFormatException e) {
+                        // No es el log de un fragmento
+                    }
+                }
+            }
+        }
+        try {
+            indiceEncuestas.guardar();
+        } catch (IOException e) {
+            System.err.println("Error al guardar el índice de respuestas por usuario: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Programa el cierre periódico de los logs de los fragmentos sin cambios recientes
+     * Cada log abierto mantiene un hilo escritor y un descriptor de fichero, por lo que solo
+     * se mantienen abiertos los de las encuestas con actividad
+     */
+    private void programarCierreJournals() {
+        if (journalIdleSeconds <= 0) {
+            return;
+        }
+        ScheduledThreadPoolExecutor planificador = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "survey-journals");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long inactividad = TimeUnit.SECONDS.toNanos(journalIdleSeconds);
+        planificador.scheduleWithFixedDelay(() -> {
+            for (FragmentoRespuestas fragmento : fragmentos.values()) {
+                fragmento.cerrarJournalInactivo(inactividad);
+            }
+        }, journalIdleSeconds, journalIdleSeconds, TimeUnit.SECONDS);
+        cierreJournals = planificador;
+    }
+    
+    /**
+     * Aplica un registro del log sobre los datos en memoria
+     * @param tipo Tipo de registro
+     * @param datos Contenido del registro
+     * @throws IOException si el registro no se puede interpretar
+     */
+    private void aplicarRegistro(byte tipo, byte[] datos) throws IOException {
+        switch (tipo) {
+            case REG_ENCUESTA: {
+                Encuesta encuesta = BinaryReader.hasMagic(datos) ? SurveyCodec.decodeEncuesta(datos) : (Encuesta) deserializar(datos);
+                encuestas.put(encuesta.getId(), encuesta);
+                nextEncuestaId = Math.max(nextEncuestaId, encuesta.getId() + 1);
+                for (Pregunta pregunta : encuesta.getPreguntas()) {
+                    nextPreguntaId = Math.max(nextPreguntaId, pregunta.getId() + 1);
+                }
+                break;
+            }
+            case REG_ELIMINAR_ENCUESTA: {
+                int id = SurveyCodec.decodeIds(datos)[0];
+                encuestas.remove(id);
+                indiceEncuestas.quitarEncuesta(id);
+                borrarRespuestas(id, fragmentos.remove(id));
+                break;
+            }
+            // Registros de respuestas de versiones anteriores: se aplican sobre el fragmento de su encuesta
+            case REG_RESPUESTA: {
+                Respuesta respuesta = BinaryReader.hasMagic(datos) ? SurveyCodec.decodeRespuesta(datos) : (Respuesta) deserializar(datos);
+                fragmentoAlCargar(respuesta.getEncuestaId()).aplicar(respuesta);
+                migrarLog = true;
+                break;
+            }
+            case REG_LOTE_RESPUESTAS: {
+                for (Respuesta respuesta : SurveyCodec.decodeRespuestas(datos)) {
+                    fragmentoAlCargar(respuesta.getEncuestaId()).aplicar(respuesta);
+                }
+                migrarLog = true;
+                break;
+            }
+            case REG_ELIMINAR_RESPUESTA: {
+                int[] ids = SurveyCodec.decodeIds(datos);
+                fragmentoAlCargar(ids[0]).aplicarEliminacion(ids[1]);
+                migrarLog = true;
+                break;
+            }
+            default:
+                throw new IOException("Tipo de registro desconocido: " + tipo);
+        }
+    }
+    
+    /**
+     * Registra un cambio en el log (o reescribe la instantánea si no hay log)
+     * Cada snapshotInterval registros se compacta el log guardando una instantánea completa
+     * Debe llamarse con el cerrojo del gestor adquirido para mantener el orden de los cambios
+     * @param tipo Tipo de registro
+     * @param datos Contenido del registro
+     * @return Número de secuencia del registro (0 si no hay que esperar)
+     * @throws UncheckedIOException si el cambio no se pudo registrar
+     */
+    private long registrarCambio(byte tipo, byte[] datos) {
+        if (journal == null) {
+            if (!guardarDatos()) {
+                throw new UncheckedIOException(new IOException("No se pudo guardar la instantánea de encuestas"));
+            }
+            return 0;
+        }
+        try {
+            long seq = journal.append(tipo, datos);
+            if (journal.getRecordCount() >= snapshotInterval && guardarDatos()) {
+                journal.reset();
+                return 0;
+            }
+            return seq;
+        } catch (IOException e) {
+            System.err.println("Error al registrar cambio de encuestas: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            System.err.println("Error al registrar cambio de encuestas: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Espera, fuera del cerrojo del gestor, a que un cambio esté persistido en disco
+     * Varios hilos esperando a la vez comparten una única sincronización con disco
+     * @param seq Número de secuencia devuelto por registrarCambio
+     * @throws UncheckedIOException si el cambio no se pudo persistir
+     */
+    private void esperarPersistencia(long seq) {
+        if (seq <= 0 || journal == null) {
+            return;
+        }
+        try {
+            journal.awaitDurable(seq);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error al guardar datos de encuestas: " + e.getCause().getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Guarda una instantánea final de las encuestas y de cada fragmento de respuestas
+     * y cierra los logs de cambios
+     */
+    public synchronized void cerrar() {
+        if (cierreJournals != null) {
+            cierreJournals.shutdownNow();
+            cierreJournals = null;
+        }
+        for (FragmentoRespuestas fragmento : fragmentos.values()) {
+            fragmento.cerrar();
+        }
+        try {
+            indiceEncuestas.guardar();
+        } catch (IOException e) {
+            System.err.println("Error al guardar el índice de respuestas por usuario: " + e.getMessage());
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (guardarDatos()) {
+                journal.reset();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error al compactar el log de encuestas: " + e.getMessage());
+        }
+        journal.close();
+        journal = null;
+    }
+    
+    /**
+     * Reconstruye un objeto a partir de un registro del log escrito con la serialización de Java
+     * (registros anteriores al formato binario)
+     * @param datos Bytes del registro
+     * @return Objeto deserializado
+     * @throws IOException si el contenido no es válido
+     */
+    private static Object deserializar(byte[] datos) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(datos))) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Clase desconocida en el log: " + e.getMessage());
         }
     }
     
@@ -0,0 +1,204 @@
+package survey;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recorrección en segundo plano de las respuestas guardadas de un cuestionario
+ * Se usa cuando cambia la clave de corrección (respuesta correcta, puntuación de una pregunta
+ * o puntuación mínima): reparte las respuestas en tramos sobre un ForkJoinPool, guarda en cada
+ * respuesta su nueva puntuación y si aprueba, informa del progreso y puede cancelarse.
+ * Las respuestas completadas quedan aprobadas o no según su nueva puntuación
+ */
+public class TrabajoRecorreccion {
+    // Respuestas por tramo: por debajo de este tamaño no se sigue dividiendo
+    private static final int TAMANO_TRAMO = 1024;
+
+    private final Cuestionario cuestionario;
+    private final ClaveRespuestas clave;
+    private final Respuesta[] respuestas;
+    private final ForkJoinPool pool;
+    private final Runnable alTerminar;   // Persiste las correcciones (null si no hay que hacerlo)
+
+    private final AtomicInteger corregidas = new AtomicInteger();
+    private final AtomicInteger aprobados = new AtomicInteger();
+    private volatile boolean cancelado;
+    private ForkJoinTask<Void> tarea;
+    private long inicio;
+    private volatile long fin;
+
+    /**
+     * Constructor: usa el pool común de fork-join
+     * @param cuestionario Cuestionario cuyas respuestas se recorrigen
+     * @param respuestas Respuestas a recorregir
+     */
+    public TrabajoRecorreccion(Cuestionario cuestionario, Collection<Respuesta> respuestas) {
+        this(cuestionario, respuestas, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor
+     * @param cuestionario Cuestionario cuyas respuestas se recorrigen
+     * @param respuestas Respuestas a recorregir
+     * @param pool Pool en el que ejecutar el trabajo
+     */
+    public TrabajoRecorreccion(Cuestionario cuestionario, Collection<Respuesta> respuestas, ForkJoinPool pool) {
+        this(cuestionario, respuestas, pool, null);
+    }
+
+    /**
+     * Constructor
+     * @param cuestionario Cuestionario cuyas respuestas se recorrigen
+     * @param respuestas Respuestas a recorregir
+     * @param pool Pool en el que ejecutar el trabajo
+     * @param alTerminar Acción que se ejecuta en el pool al terminar o detenerse el trabajo (puede ser null)
+     */
+    TrabajoRecorreccion(Cuestionario cuestionario, Collection<Respuesta> respuestas, ForkJoinPool pool,
+            Runnable alTerminar) {
+        if (cuestionario == null || respuestas == null || pool == null) {
+            throw new IllegalArgumentException("El cuestionario, las respuestas y el pool son obligatorios");
+        }
+        this.cuestionario = cuestionario;
+        this.clave = cuestionario.getClaveRespuestas();
+        this.respuestas = respuestas.toArray(new Respuesta[0]);
+        this.pool = pool;
+        this.alTerminar = alTerminar;
+    }
+
+    /**
+     * Inicia el trabajo en segundo plano
+     * @return El propio trabajo
+     * @throws IllegalStateException si ya se había iniciado
+     */
+    public synchronized TrabajoRecorreccion iniciar() {
+        if (tarea != null) {
+            throw new IllegalStateException("La recorrección ya se ha iniciado");
+        }
+        inicio = System.nanoTime();
+        tarea = pool.submit(new Tramo(0, respuestas.length));
+        return this;
+    }
+
+    /**
+     * Solicita la cancelación: los tramos pendientes no se procesan
+     * Las respuestas ya recorregidas conservan su nueva puntuación
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Espera a que el trabajo termine (o a que se detenga tras cancelarlo) y se persistan sus correcciones
+     */
+    public void esperar() {
+        ForkJoinTask<Void> actual;
+        synchronized (this) {
+            actual = tarea;
+        }
+        if (actual != null) {
+            actual.quietlyJoin();
+        }
+    }
+
+    public synchronized boolean isTerminado() {
+        return tarea != null && tarea.isDone();
+    }
+
+    public boolean isCancelado() {
+        return cancelado;
+    }
+
+    public Cuestionario getCuestionario() {
+        return cuestionario;
+    }
+
+    public int getTotal() {
+        return respuestas.length;
+    }
+
+    public int getCorregidas() {
+        return corregidas.get();
+    }
+
+    /**
+     * Obtiene el número de respuestas completadas que aprueban con la nueva clave
+     * @return Aprobados entre las respuestas ya recorregidas
+     */
+    public int getAprobados() {
+        return aprobados.get();
+    }
+
+    /**
+     * Obtiene el progreso del trabajo
+     * @return Porcentaje de respuestas recorregidas (0-100)
+     */
+    public double getProgreso() {
+        return respuestas.length == 0 ? 100 : corregidas.get() * 100.0 / respuestas.length;
+    }
+
+    /**
+     * Obtiene la duración del trabajo
+     * @return Milisegundos transcurridos desde el inicio (hasta el final si ya ha terminado)
+     */
+    public synchronized long getDuracionMs() {
+        if (tarea == null) {
+            return 0;
+        }
+        long hasta = fin != 0 ? fin : System.nanoTime();
+        return (hasta - inicio) / 1_000_000;
+    }
+
+    /**
+     * Tramo de respuestas [desde, hasta) que se divide por la mitad hasta alcanzar TAMANO_TRAMO
+     */
+    private class Tramo extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int desde;
+        private final int hasta;
+
+        Tramo(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (!cancelado) {
+                corregirTramo();
+            }
+            if (desde == 0 && hasta == respuestas.length) {
+                // Las respuestas ya recorregidas se persisten aunque se haya cancelado
+                if (alTerminar != null) {
+                    alTerminar.run();
+                }
+                fin = System.nanoTime();
+            }
+        }
+
+        private void corregirTramo() {
+            if (hasta - desde > TAMANO_TRAMO) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new Tramo(desde, medio), new Tramo(medio, hasta));
+                return;
+            }
+            int aprobadosTramo = 0;
+            for (int i = desde; i < hasta; i++) {
+                Respuesta respuesta = respuestas[i];
+                int puntuacion = clave.corregir(respuesta);
+                if (respuesta.isCompletada()) {
+                    boolean aprobada = clave.esAprobado(puntuacion);
+                    respuesta.setAprobada(aprobada);
+                    if (aprobada) {
+                        aprobadosTramo++;
+                    }
+                }
+            }
+            aprobados.addAndGet(aprobadosTramo);
+            corregidas.addAndGet(hasta - desde);
+        }
+    }
+}
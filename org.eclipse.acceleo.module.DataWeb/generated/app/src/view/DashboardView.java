@@ -11,7 +11,6 @@ import dao.IDAO;
 import auth.AuthManager;
 import survey.SurveyManager;
 import survey.Encuesta;
-import survey.Respuesta;
 
 /**
  * Vista del dashboard con resúmenes y estadísticas
@@ -82,15 +81,10 @@ public class DashboardView {
                 totalCuestionarios++;
             }
             
-            List<Respuesta> respuestas = surveyManager.getRespuestas(encuesta.getId());
-            totalRespuestas += respuestas.size();
-            
-            for (Respuesta respuesta : respuestas) {
-                if (respuesta.getUsuario().equals(username)) {
-                    misTotalRespuestas++;
-                }
-            }
+            // Se cuentan sin decodificar las respuestas
+            totalRespuestas += surveyManager.contarRespuestas(encuesta.getId());
         }
+        misTotalRespuestas = surveyManager.contarRespuestasDeUsuario(username);
         
         // Mostrar tarjetas con estadísticas
         System.out.println("┌─────────────────────────┐  ┌─────────────────────────┐  ┌─────────────────────────┐");
@@ -98,25 +92,9 @@ public class DashboardView {
                           String.format("%-2d", totalCuestionarios) + "  │  │  Total Respuestas: " + String.format("%-4d", totalRespuestas) + "  │");
         System.out.println("└─────────────────────────┘  └─────────────────────────┘  └─────────────────────────┘");
         
-        // Encuestas pendientes
-        int encuestasPendientes = 0;
-        for (Encuesta encuesta : encuestas) {
-            if (encuesta.isActiva()) {
-                boolean respondida = false;
-                List<Respuesta> respuestas = surveyManager.getRespuestas(encuesta.getId());
-                
-                for (Respuesta respuesta : respuestas) {
-                    if (respuesta.getUsuario().equals(username) && respuesta.isCompletada()) {
-                        respondida = true;
-                        break;
-                    }
-                }
-                
-                if (!respondida) {
-                    encuestasPendientes++;
-                }
-            }
-        }
+        // Encuestas pendientes (activas, accesibles para el rol activo y sin completar)
+        String rolActivo = authManager.getUsuarioActual().getRolActivo();
+        int encuestasPendientes = surveyManager.getEncuestasPendientes(username, rolActivo).size();
         
         if (encuestasPendientes > 0) {
             ConsoleUtils.mostrarAdvertencia("Tienes " + encuestasPendientes + " encuestas pendientes por responder");
@@ -135,8 +113,8 @@ public class DashboardView {
         // En lugar de usar entidades específicas, utilizamos las entidades genéricas del modelo
         // Esto evita errores cuando las entidades específicas no están disponibles
         try {
-            // Para cada entidad en el modelo, obtenemos su conteo y lo mostramos
-            for (Object dao : DAOFactory.getAllDAOs()) {
+            // Solo los DAOs ya cargados: el panel no debe forzar la carga de entidades que no se usan
+            for (Object dao : DAOFactory.getDAOsCargados()) {
                 if (dao instanceof IDAO) {
                     IDAO<?, ?> idao = (IDAO<?, ?>) dao;
                     String nombreEntidad = dao.getClass().getSimpleName().replace("DAO", "");
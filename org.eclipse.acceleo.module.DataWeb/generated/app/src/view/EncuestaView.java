@@ -7,8 +7,6 @@ import survey.*;
 import auth.AuthManager;
 import auth.Usuario;
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Vista para responder encuestas y cuestionarios
@@ -17,8 +15,7 @@ public class EncuestaView {
     private Scanner scanner;
     private SurveyManager surveyManager;
     private AuthManager authManager;
-    private Timer temporizador;
-    private boolean tiempoAgotado;
+    private GestorIntentos gestorIntentos;
     
     /**
      * Constructor
@@ -27,8 +24,7 @@ public class EncuestaView {
         scanner = new Scanner(System.in);
         surveyManager = SurveyManager.getInstance();
         authManager = AuthManager.getInstance();
-        temporizador = null;
-        tiempoAgotado = false;
+        gestorIntentos = GestorIntentos.getInstance();
     }
     
     /**
@@ -114,15 +110,7 @@ public class EncuestaView {
         
         // Verificar si el usuario ya ha completado esta encuesta
         String username = authManager.getUsuarioActual().getUsername();
-        List<Respuesta> respuestasUsuario = surveyManager.getRespuestas(encuesta.getId());
-        boolean yaRespondida = false;
-        
-        for (Respuesta r : respuestasUsuario) {
-            if (r.getUsuario().equals(username) && r.isCompletada()) {
-                yaRespondida = true;
-                break;
-            }
-        }
+        boolean yaRespondida = surveyManager.haCompletado(username, encuesta.getId());
         
         if (yaRespondida) {
             ConsoleUtils.mostrarAdvertencia("Usted ya ha completado esta encuesta");
@@ -130,40 +118,39 @@ public class EncuestaView {
             return;
         }
         
-        // Si es un cuestionario, iniciar temporizador
+        // Iniciar el intento (o continuar el que esté en curso): el gestor de intentos guarda
+        // las respuestas periódicamente y, si es un cuestionario, lo entrega al agotarse el tiempo
         boolean esCuestionario = encuesta instanceof Cuestionario;
-        int tiempoLimite = 0;
+        IntentoCuestionario intento = gestorIntentos.iniciar(encuesta, username);
         
-        if (esCuestionario) {
-            Cuestionario cuestionario = (Cuestionario) encuesta;
-            tiempoLimite = cuestionario.getTiempoLimite();
-            System.out.println("\nTiempo límite: " + tiempoLimite + " minutos");
-            
-            // Iniciar temporizador
-            iniciarTemporizador(tiempoLimite);
+        if (intento.getRespondidas() > 0) {
+            System.out.println("\nContinuando el intento en curso (" + intento.getRespondidas() + " preguntas respondidas)");
         }
         
-        ConsoleUtils.pausar(scanner);
-        
-        // Crear respuesta
-        Respuesta respuesta = new Respuesta();
-        respuesta.setEncuestaId(encuesta.getId());
-        respuesta.setUsuario(username);
+        if (intento.tieneLimite()) {
+            System.out.println("\nTiempo límite: " + ((Cuestionario) encuesta).getTiempoLimite() + " minutos");
+            intento.setObservadorExpiracion(i -> System.out.println("\n¡TIEMPO AGOTADO! Presione Enter para continuar..."));
+        }
         
-        // Guardar respuesta incompleta para poder continuarla después
-        int idRespuesta = surveyManager.guardarRespuesta(respuesta);
+        ConsoleUtils.pausar(scanner);
         
         // Mostrar preguntas
         List<Pregunta> preguntas = encuesta.getPreguntas();
         int totalPreguntas = preguntas.size();
-        int preguntasRespondidas = 0;
         
-        for (int i = 0; i < preguntas.size() && !tiempoAgotado; i++) {
+        for (int i = 0; i < preguntas.size() && intento.isEnCurso(); i++) {
             Pregunta pregunta = preguntas.get(i);
             
+            // Las preguntas ya respondidas en este intento no se repiten
+            if (intento.getRespuesta(pregunta.getId()) != null) {
+                continue;
+            }
+            
             ConsoleUtils.limpiarPantalla();
-            if (esCuestionario) {
-                ConsoleUtils.mostrarTitulo(encuesta.getTitulo() + " - Tiempo restante: variable minutos");
+            if (intento.tieneLimite()) {
+                long restantes = intento.getSegundosRestantes();
+                ConsoleUtils.mostrarTitulo(encuesta.getTitulo() + " - Tiempo restante: " + 
+                        String.format("%d:%02d", restantes / 60, restantes % 60));
             } else {
                 ConsoleUtils.mostrarTitulo(encuesta.getTitulo());
             }
@@ -237,43 +224,31 @@ public class EncuestaView {
                     break;
             }
             
-            // Guardar respuesta
+            // Registrar respuesta (se guarda en el siguiente guardado automático o al entregar)
             if (!respuestaTexto.isEmpty() || !pregunta.isObligatoria()) {
-                respuesta.setRespuesta(pregunta.getId(), respuestaTexto);
-                preguntasRespondidas++;
-                
-                // Actualizar respuesta parcial en la base de datos
-                surveyManager.guardarRespuesta(respuesta);
+                try {
+                    intento.responder(pregunta.getId(), respuestaTexto);
+                } catch (IllegalStateException e) {
+                    // El tiempo se agotó mientras se escribía la respuesta
+                    break;
+                }
             } else {
                 System.out.println("La respuesta es obligatoria. Por favor, proporcione una respuesta.");
                 i--; // Repetir pregunta
                 ConsoleUtils.pausar(scanner);
             }
-            
-            // Si se agotó el tiempo, salir del bucle
-            if (tiempoAgotado) {
-                ConsoleUtils.mostrarAdvertencia("\n¡Tiempo agotado! No se pueden responder más preguntas.");
-                break;
-            }
         }
         
-        // Detener temporizador si estaba activo
-        if (temporizador != null) {
-            temporizador.cancel();
-            temporizador = null;
+        // Entregar el intento si se respondieron todas las preguntas; si no, queda guardado incompleto.
+        // Si se agotó el tiempo, el gestor ya lo entregó como completado
+        boolean terminado = intento.getRespondidas() == totalPreguntas ? intento.entregar() : intento.interrumpir();
+        if (!terminado && intento.getEstado() == IntentoCuestionario.Estado.EXPIRADO) {
+            ConsoleUtils.mostrarAdvertencia("\n¡Tiempo agotado! No se pueden responder más preguntas.");
         }
         
-        // Marcar como completada si se respondieron todas las preguntas o si se agotó el tiempo
-        boolean completada = preguntasRespondidas == totalPreguntas || tiempoAgotado;
-        respuesta.setCompletada(completada);
-        
-        // Si es encuesta normal, aprobar automáticamente
-        if (!esCuestionario) {
-            respuesta.setAprobada(true);
-        }
-        
-        // Guardar respuesta final
-        surveyManager.guardarRespuesta(respuesta);
+        Respuesta respuesta = intento.getResultado();
+        boolean completada = respuesta.isCompletada();
+        int preguntasRespondidas = respuesta.getRespuestas().size();
         
         ConsoleUtils.limpiarPantalla();
         ConsoleUtils.mostrarTitulo("Encuesta Completada");
@@ -313,27 +288,6 @@ public class EncuestaView {
         ConsoleUtils.pausar(scanner);
     }
     
-    /**
-     * Inicia un temporizador para limitar el tiempo de respuesta
-     * @param minutos Tiempo límite en minutos
-     */
-    private void iniciarTemporizador(int minutos) {
-        tiempoAgotado = false;
-        
-        if (temporizador != null) {
-            temporizador.cancel();
-        }
-        
-        temporizador = new Timer();
-        temporizador.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                tiempoAgotado = true;
-                System.out.println("\n¡TIEMPO AGOTADO! Presione Enter para continuar...");
-            }
-        }, minutos * 60 * 1000);
-    }
-    
     /**
      * Muestra las respuestas del usuario actual
      */
@@ -342,40 +296,37 @@ public class EncuestaView {
         ConsoleUtils.mostrarTitulo("Mis Respuestas");
         
         String username = authManager.getUsuarioActual().getUsername();
-        List<Encuesta> encuestas = surveyManager.getEncuestas();
         
         boolean hayRespuestas = false;
         
-        for (Encuesta encuesta : encuestas) {
-            List<Respuesta> respuestas = surveyManager.getRespuestas(encuesta.getId());
-            
-            for (Respuesta respuesta : respuestas) {
-                if (respuesta.getUsuario().equals(username)) {
-                    hayRespuestas = true;
-                    
-                    String estado = respuesta.isCompletada() 
-                                   ? (respuesta.isAprobada() ? "Aprobada" : "Pendiente de aprobación") 
-                                   : "Incompleta";
-                    
-                    System.out.println("\n" + encuesta.getTitulo());
-                    System.out.println("Fecha: " + respuesta.getFechaRespuesta());
-                    System.out.println("Estado: " + estado);
-                    
-                    // Si es cuestionario y está completado, mostrar puntuación
-                    if (encuesta instanceof Cuestionario && respuesta.isCompletada()) {
-                        Cuestionario cuestionario = (Cuestionario) encuesta;
-                        int puntuacion = cuestionario.evaluarRespuesta(respuesta);
-                        int maximo = cuestionario.calcularPuntuacionMaxima();
-                        double porcentaje = maximo > 0 ? ((double) puntuacion / maximo) * 100 : 0;
-                        boolean aprobado = cuestionario.esAprobado(puntuacion);
-                        
-                        System.out.println("Puntuación: " + puntuacion + " de " + maximo + 
-                                           " (" + String.format("%.2f", porcentaje) + "%)");
-                        System.out.println("Resultado: " + (aprobado ? "APROBADO" : "NO APROBADO"));
-                    }
+        // Solo se recorren las respuestas del usuario (índice por usuario)
+        for (Respuesta respuesta : surveyManager.getRespuestasDeUsuario(username)) {
+            Encuesta encuesta = surveyManager.getEncuesta(respuesta.getEncuestaId());
+            if (encuesta != null) {
+                hayRespuestas = true;
+                
+                String estado = respuesta.isCompletada() 
+                               ? (respuesta.isAprobada() ? "Aprobada" : "Pendiente de aprobación") 
+                               : "Incompleta";
+                
+                System.out.println("\n" + encuesta.getTitulo());
+                System.out.println("Fecha: " + respuesta.getFechaRespuesta());
+                System.out.println("Estado: " + estado);
+                
+                // Si es cuestionario y está completado, mostrar puntuación
+                if (encuesta instanceof Cuestionario && respuesta.isCompletada()) {
+                    Cuestionario cuestionario = (Cuestionario) encuesta;
+                    int puntuacion = cuestionario.evaluarRespuesta(respuesta);
+                    int maximo = cuestionario.calcularPuntuacionMaxima();
+                    double porcentaje = maximo > 0 ? ((double) puntuacion / maximo) * 100 : 0;
+                    boolean aprobado = cuestionario.esAprobado(puntuacion);
                     
-                    ConsoleUtils.mostrarLinea();
+                    System.out.println("Puntuación: " + puntuacion + " de " + maximo + 
+                                       " (" + String.format("%.2f", porcentaje) + "%)");
+                    System.out.println("Resultado: " + (aprobado ? "APROBADO" : "NO APROBADO"));
                 }
+                
+                ConsoleUtils.mostrarLinea();
             }
         }
         
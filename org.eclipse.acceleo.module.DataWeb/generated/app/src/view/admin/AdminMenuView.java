@@ -1,8 +1,17 @@
 package view.admin;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Scanner;
 import view.util.ConsoleUtils;
 import auth.AuthManager;
+import dao.DAOFactory;
+import dao.IDAO;
+import dao.Page;
+import survey.ExportadorRespuestas;
+import survey.ImportadorRespuestas;
 import survey.SurveyManager;
 
 /**
@@ -114,11 +123,87 @@ public class AdminMenuView {
         
         int opcion = ConsoleUtils.leerOpcion(scanner, 0, 6);
         
-        if (opcion == 0) {
-            return;
-        } else if (opcion >= 1 && opcion <= 6) {
-            ConsoleUtils.mostrarInfo("Funcionalidad no implementada directamente. Utilice la navegación por roles.");
-            ConsoleUtils.pausar(scanner);
+        switch (opcion) {
+            case 0:
+                break;
+            case 1:
+                navegarEntidad("Cliente", DAOFactory.getDAO(model.Cliente.class));
+                break;
+            case 2:
+                navegarEntidad("Cuenta", DAOFactory.getDAO(model.Cuenta.class));
+                break;
+            case 3:
+                navegarEntidad("Transaccion", DAOFactory.getDAO(model.Transaccion.class));
+                break;
+            case 4:
+                navegarEntidad("Empleado", DAOFactory.getDAO(model.Empleado.class));
+                break;
+            case 5:
+                navegarEntidad("Prestamo", DAOFactory.getDAO(model.Prestamo.class));
+                break;
+            case 6:
+                navegarEntidad("TarjetaCredito", DAOFactory.getDAO(model.TarjetaCredito.class));
+                break;
+        }
+    }
+    
+    /**
+     * Recorre los registros de una entidad página a página usando paginación por cursor
+     * @param nombre Nombre de la entidad
+     * @param dao DAO de la entidad
+     */
+    private void navegarEntidad(String nombre, IDAO<?, ?> dao) {
+        final int tamanoPagina = 10;
+        Deque<String> cursoresAnteriores = new ArrayDeque<>(); // "" representa la primera página
+        String cursor = null;
+        boolean salir = false;
+        
+        while (!salir) {
+            Page<?> pagina = dao.getPageAfter(cursor, tamanoPagina);
+            
+            ConsoleUtils.limpiarPantalla();
+            ConsoleUtils.mostrarTitulo("Gestión de Entidades - " + nombre);
+            System.out.println("Total de registros: " + dao.count() + " | Página " + (cursoresAnteriores.size() + 1));
+            ConsoleUtils.mostrarLinea();
+            
+            if (pagina.getItems().isEmpty()) {
+                ConsoleUtils.mostrarInfo("No hay registros para mostrar");
+            }
+            int posicion = cursoresAnteriores.size() * tamanoPagina;
+            for (Object item : pagina.getItems()) {
+                ConsoleUtils.mostrarElementoLista(++posicion, item.toString());
+            }
+            ConsoleUtils.mostrarLinea();
+            
+            System.out.println("1. Página siguiente");
+            System.out.println("2. Página anterior");
+            System.out.println("0. Volver");
+            
+            int opcion = ConsoleUtils.leerOpcion(scanner, 0, 2);
+            
+            switch (opcion) {
+                case 0:
+                    salir = true;
+                    break;
+                case 1:
+                    if (pagina.hasNext()) {
+                        cursoresAnteriores.push(cursor == null ? "" : cursor);
+                        cursor = pagina.getNextCursor();
+                    } else {
+                        ConsoleUtils.mostrarInfo("No hay más páginas");
+                        ConsoleUtils.pausar(scanner);
+                    }
+                    break;
+                case 2:
+                    if (!cursoresAnteriores.isEmpty()) {
+                        String anterior = cursoresAnteriores.pop();
+                        cursor = anterior.isEmpty() ? null : anterior;
+                    } else {
+                        ConsoleUtils.mostrarInfo("Ya se encuentra en la primera página");
+                        ConsoleUtils.pausar(scanner);
+                    }
+                    break;
+            }
         }
     }
     
@@ -140,6 +225,12 @@ public class AdminMenuView {
         switch (opcion) {
             case 0:
                 break;
+            case 1:
+                importarDatos();
+                break;
+            case 2:
+                exportarDatos();
+                break;
             default:
                 ConsoleUtils.mostrarInfo("Funcionalidad no implementada");
                 ConsoleUtils.pausar(scanner);
@@ -147,6 +238,74 @@ public class AdminMenuView {
         }
     }
     
+    /**
+     * Importa respuestas desde un fichero CSV o JSON Lines (el formato se deduce de la extensión)
+     */
+    private void importarDatos() {
+        ConsoleUtils.mostrarSubtitulo("Importar Respuestas");
+        
+        String fichero = ConsoleUtils.leerString(scanner, "Fichero de origen (.csv o .jsonl, opcionalmente .gz)", null, "respuestas.csv");
+        int tamanoLote = ConsoleUtils.leerEntero(scanner, "Respuestas por lote", 
+                valor -> valor > 0, ImportadorRespuestas.TAMANO_LOTE_POR_DEFECTO);
+        
+        if (!ConsoleUtils.leerBooleano(scanner, "Las respuestas se añadirán con IDs nuevos. ¿Continuar?", true)) {
+            ConsoleUtils.mostrarInfo("Importación cancelada");
+            ConsoleUtils.pausar(scanner);
+            return;
+        }
+        
+        try {
+            ImportadorRespuestas importador = new ImportadorRespuestas(tamanoLote, 
+                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            ImportadorRespuestas.Resultado resultado = importador.importar(Paths.get(fichero));
+            ConsoleUtils.mostrarExito("Importadas " + resultado.getImportadas() + " respuestas en " 
+                    + resultado.getLotes() + " lotes (" + resultado.getDuracionMs() + " ms, " 
+                    + String.format("%.0f", resultado.getRespuestasPorSegundo()) + " respuestas/s)");
+            if (resultado.getRechazadas() > 0) {
+                ConsoleUtils.mostrarError(resultado.getRechazadas() + " respuestas rechazadas:");
+                for (String error : resultado.getErrores()) {
+                    System.out.println("  " + error);
+                }
+            }
+        } catch (IOException e) {
+            ConsoleUtils.mostrarError("Error al importar las respuestas: " + e.getMessage());
+        }
+        ConsoleUtils.pausar(scanner);
+    }
+    
+    /**
+     * Exporta las respuestas de una encuesta (o de todas) a un fichero CSV o JSON Lines
+     */
+    private void exportarDatos() {
+        ConsoleUtils.mostrarSubtitulo("Exportar Respuestas");
+        
+        int encuestaId = ConsoleUtils.leerEntero(scanner, "ID de la encuesta (0 para todas)", 
+                valor -> valor >= 0, 0);
+        int tipo = ConsoleUtils.leerEntero(scanner, "Formato (1 = CSV, 2 = JSON Lines)", 
+                valor -> valor == 1 || valor == 2, 1);
+        boolean gzip = ConsoleUtils.leerBooleano(scanner, "¿Comprimir con gzip?", false);
+        
+        ExportadorRespuestas.Formato formato = tipo == 1 ? ExportadorRespuestas.Formato.CSV : ExportadorRespuestas.Formato.JSONL;
+        String nombrePorDefecto = "respuestas" + (encuestaId > 0 ? "_" + encuestaId : "") 
+                + (tipo == 1 ? ".csv" : ".jsonl") + (gzip ? ".gz" : "");
+        String fichero = ConsoleUtils.leerString(scanner, "Fichero de destino", null, nombrePorDefecto);
+        
+        ExportadorRespuestas exportador = new ExportadorRespuestas(formato, gzip);
+        try {
+            long inicio = System.currentTimeMillis();
+            long total = encuestaId > 0 
+                    ? exportador.exportar(encuestaId, Paths.get(fichero)) 
+                    : exportador.exportarTodas(Paths.get(fichero));
+            ConsoleUtils.mostrarExito("Exportadas " + total + " respuestas (" + exportador.getValoresExportados() 
+                    + " valores) a " + fichero + " en " + (System.currentTimeMillis() - inicio) + " ms");
+        } catch (IllegalArgumentException e) {
+            ConsoleUtils.mostrarError(e.getMessage());
+        } catch (IOException e) {
+            ConsoleUtils.mostrarError("Error al exportar las respuestas: " + e.getMessage());
+        }
+        ConsoleUtils.pausar(scanner);
+    }
+    
     /**
      * Muestra el menú de estadísticas y reportes
      */
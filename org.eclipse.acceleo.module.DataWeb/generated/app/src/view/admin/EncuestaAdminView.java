@@ -2,6 +2,7 @@ package view.admin;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.Scanner;
 import view.util.ConsoleUtils;
 import survey.*;
@@ -366,9 +367,7 @@ public class EncuestaAdminView {
                     surveyManager.guardarEncuesta(encuesta);
                     break;
                 case 3:
-                    // Editar pregunta se implementaría aquí
-                    ConsoleUtils.mostrarInfo("Funcionalidad no implementada");
-                    ConsoleUtils.pausar(scanner);
+                    editarPregunta(encuesta);
                     break;
                 case 4:
                     eliminarPregunta(encuesta);
@@ -394,6 +393,7 @@ public class EncuestaAdminView {
      */
     private void editarDatosBasicos(Encuesta encuesta) {
         ConsoleUtils.mostrarSubtitulo("Editar Datos Básicos");
+        boolean cambiaCorreccion = false;
         
         String titulo = ConsoleUtils.leerString(scanner, "Título", null, encuesta.getTitulo());
         String descripcion = ConsoleUtils.leerString(scanner, "Descripción", null, encuesta.getDescripcion());
@@ -409,15 +409,136 @@ public class EncuestaAdminView {
             int puntuacionMinima = ConsoleUtils.leerEntero(scanner, "Puntuación mínima para aprobar (%)", 
                     valor -> valor > 0 && valor <= 100, cuestionario.getPuntuacionMinima());
             
+            cambiaCorreccion = puntuacionMinima != cuestionario.getPuntuacionMinima();
             cuestionario.setTiempoLimite(tiempoLimite);
             cuestionario.setPuntuacionMinima(puntuacionMinima);
         }
         
         surveyManager.guardarEncuesta(encuesta);
         ConsoleUtils.mostrarExito("Datos actualizados correctamente");
+        if (cambiaCorreccion) {
+            recorregirRespuestas((Cuestionario) encuesta);
+        }
         ConsoleUtils.pausar(scanner);
     }
     
+    /**
+     * Edita una pregunta existente
+     * En los cuestionarios, si cambia la respuesta correcta o la puntuación,
+     * se recorrigen las respuestas ya guardadas
+     * @param encuesta Encuesta a la que pertenece la pregunta
+     */
+    private void editarPregunta(Encuesta encuesta) {
+        ConsoleUtils.mostrarSubtitulo("Editar Pregunta");
+        
+        List<Pregunta> preguntas = encuesta.getPreguntas();
+        
+        if (preguntas.isEmpty()) {
+            ConsoleUtils.mostrarAdvertencia("No hay preguntas para editar");
+            ConsoleUtils.pausar(scanner);
+            return;
+        }
+        
+        for (int i = 0; i < preguntas.size(); i++) {
+            Pregunta p = preguntas.get(i);
+            System.out.println((i + 1) + ". [" + p.getTipo() + "] " + p.getTexto());
+        }
+        
+        int indice = ConsoleUtils.leerEntero(scanner, "Seleccione la pregunta a editar", 
+                valor -> valor >= 1 && valor <= preguntas.size(), null);
+        Pregunta pregunta = preguntas.get(indice - 1);
+        
+        String texto = ConsoleUtils.leerString(scanner, "Texto de la pregunta", 
+                texto2 -> !texto2.isEmpty(), pregunta.getTexto());
+        boolean obligatoria = ConsoleUtils.leerBooleano(scanner, "¿Es obligatoria?", pregunta.isObligatoria());
+        pregunta.setTexto(texto);
+        pregunta.setObligatoria(obligatoria);
+        
+        boolean cambiaCorreccion = false;
+        if (encuesta instanceof Cuestionario) {
+            String correctaAnterior = pregunta.getRespuestaCorrecta();
+            int puntuacionAnterior = pregunta.getPuntuacion();
+            Pregunta.TipoPregunta tipo = pregunta.getTipo();
+            
+            if (tipo == Pregunta.TipoPregunta.OPCION_MULTIPLE) {
+                ConsoleUtils.mostrarSubtitulo("Seleccione la respuesta correcta");
+                
+                List<String> opciones = pregunta.getOpciones();
+                for (int i = 0; i < opciones.size(); i++) {
+                    System.out.println((i + 1) + ". " + opciones.get(i));
+                }
+                
+                int actual = 1;
+                try {
+                    actual = Integer.parseInt(correctaAnterior) + 1;
+                } catch (NumberFormatException e) {
+                    // Sin respuesta correcta válida: se propone la primera opción
+                }
+                int opcion = ConsoleUtils.leerEntero(scanner, "Opción correcta", 
+                        valor -> valor >= 1 && valor <= opciones.size(), actual);
+                pregunta.setRespuestaCorrecta(String.valueOf(opcion - 1));
+            } else if (tipo == Pregunta.TipoPregunta.VERDADERO_FALSO) {
+                boolean correcta = ConsoleUtils.leerBooleano(scanner, "¿La respuesta correcta es Verdadero?", 
+                        !"false".equalsIgnoreCase(correctaAnterior));
+                pregunta.setRespuestaCorrecta(String.valueOf(correcta));
+            } else if (tipo == Pregunta.TipoPregunta.RESPUESTA_CORTA) {
+                String respuesta = ConsoleUtils.leerString(scanner, "Respuesta correcta", 
+                        texto2 -> !texto2.isEmpty(), correctaAnterior);
+                pregunta.setRespuestaCorrecta(respuesta);
+            }
+            
+            int puntuacion = ConsoleUtils.leerEntero(scanner, "Puntuación de la pregunta", 
+                    valor -> valor > 0, puntuacionAnterior);
+            pregunta.setPuntuacion(puntuacion);
+            
+            cambiaCorreccion = puntuacion != puntuacionAnterior 
+                    || !Objects.equals(correctaAnterior, pregunta.getRespuestaCorrecta());
+        }
+        
+        surveyManager.guardarEncuesta(encuesta);
+        ConsoleUtils.mostrarExito("Pregunta actualizada correctamente");
+        if (cambiaCorreccion) {
+            recorregirRespuestas((Cuestionario) encuesta);
+        }
+        ConsoleUtils.pausar(scanner);
+    }
+    
+    /**
+     * Recorrige las respuestas guardadas de un cuestionario mostrando el progreso
+     * @param cuestionario Cuestionario cuya clave de corrección ha cambiado
+     */
+    private void recorregirRespuestas(Cuestionario cuestionario) {
+        TrabajoRecorreccion trabajo = surveyManager.recorregir(cuestionario.getId());
+        if (trabajo.getTotal() == 0) {
+            return;
+        }
+        
+        ConsoleUtils.mostrarInfo("Recorrigiendo " + trabajo.getTotal() + " respuestas...");
+        while (!trabajo.isTerminado()) {
+            if (trabajo.getProgreso() < 100) {
+                ConsoleUtils.mostrarBarraProgreso((int) trabajo.getProgreso(), 40);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                trabajo.cancelar();
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        trabajo.esperar();
+        
+        if (trabajo.isCancelado()) {
+            System.out.println();
+            ConsoleUtils.mostrarAdvertencia("Recorrección cancelada (" + trabajo.getCorregidas() + " de " 
+                    + trabajo.getTotal() + " respuestas)");
+        } else {
+            ConsoleUtils.mostrarBarraProgreso(100, 40);
+            ConsoleUtils.mostrarExito("Respuestas recorregidas: " + trabajo.getCorregidas() + " (" 
+                    + trabajo.getAprobados() + " aprobadas) en " + trabajo.getDuracionMs() + " ms");
+        }
+    }
+    
     /**
      * Elimina una pregunta de una encuesta
      * @param encuesta Encuesta de la que eliminar la pregunta
@@ -501,11 +622,11 @@ public class EncuestaAdminView {
         
         for (int i = 0; i < encuestas.size(); i++) {
             Encuesta encuesta = encuestas.get(i);
-            List<Respuesta> respuestas = surveyManager.getRespuestas(encuesta.getId());
+            ResultadosEncuesta resultados = surveyManager.getResultados(encuesta.getId());
             String tipo = (encuesta instanceof Cuestionario) ? "Cuestionario" : "Encuesta";
             
             System.out.println((i + 1) + ". [" + tipo + "] " + encuesta.getTitulo() + 
-                              " - Respuestas: " + respuestas.size());
+                              " - Respuestas: " + (resultados != null ? resultados.getTotalRespuestas() : 0));
         }
         
         int indice = ConsoleUtils.leerEntero(scanner, "\nSeleccione una encuesta para ver resultados", 
@@ -525,49 +646,32 @@ public class EncuestaAdminView {
         ConsoleUtils.limpiarPantalla();
         ConsoleUtils.mostrarTitulo("Resultados: " + encuesta.getTitulo());
         
-        List<Respuesta> respuestas = surveyManager.getRespuestas(encuesta.getId());
+        // Resultados precalculados: no es necesario recorrer las respuestas
+        ResultadosEncuesta resultados = surveyManager.getResultados(encuesta.getId());
+        int totalRespuestas = resultados != null ? resultados.getTotalRespuestas() : 0;
         
-        if (respuestas.isEmpty()) {
+        if (totalRespuestas == 0) {
             ConsoleUtils.mostrarAdvertencia("No hay respuestas para esta encuesta");
             ConsoleUtils.pausar(scanner);
             return;
         }
         
-        System.out.println("Total de respuestas: " + respuestas.size());
-        System.out.println("Respuestas completadas: " + 
-                          respuestas.stream().filter(Respuesta::isCompletada).count());
+        System.out.println("Total de respuestas: " + totalRespuestas);
+        System.out.println("Respuestas completadas: " + resultados.getCompletadas());
         
         boolean esCuestionario = encuesta instanceof Cuestionario;
         
         if (esCuestionario) {
-            Cuestionario cuestionario = (Cuestionario) encuesta;
-            int totalCorrectas = 0;
-            int totalPuntuacion = 0;
-            
-            for (Respuesta r : respuestas) {
-                if (r.isCompletada()) {
-                    int puntuacion = cuestionario.evaluarRespuesta(r);
-                    totalPuntuacion += puntuacion;
-                    if (cuestionario.esAprobado(puntuacion)) {
-                        totalCorrectas++;
-                    }
-                }
-            }
-            
-            double aprobados = respuestas.isEmpty() ? 0 : 
-                              (double) totalCorrectas / respuestas.stream().filter(Respuesta::isCompletada).count() * 100;
-            double promedio = respuestas.isEmpty() ? 0 : 
-                             (double) totalPuntuacion / respuestas.stream().filter(Respuesta::isCompletada).count();
-            
-            System.out.println("Porcentaje de aprobados: " + String.format("%.2f", aprobados) + "%");
-            System.out.println("Puntuación promedio: " + String.format("%.2f", promedio) + 
-                              " de " + cuestionario.calcularPuntuacionMaxima());
+            System.out.println("Porcentaje de aprobados: " + String.format("%.2f", resultados.getPorcentajeAprobados()) + "%");
+            System.out.println("Puntuación promedio: " + String.format("%.2f", resultados.getPuntuacionMedia()) + 
+                              " de " + resultados.getPuntuacionMaxima());
         }
         
         ConsoleUtils.mostrarLinea();
         System.out.println("\nDetalle de resultados por pregunta:");
         
         List<Pregunta> preguntas = encuesta.getPreguntas();
+        List<Respuesta> respuestas = null; // Solo se cargan si hay preguntas de texto
         
         for (int i = 0; i < preguntas.size(); i++) {
             Pregunta pregunta = preguntas.get(i);
@@ -576,44 +680,20 @@ public class EncuestaAdminView {
             if (pregunta.getTipo() == Pregunta.TipoPregunta.OPCION_MULTIPLE) {
                 // Para opción múltiple mostrar estadísticas por opción
                 List<String> opciones = pregunta.getOpciones();
-                int[] conteoOpciones = new int[opciones.size()];
-                
-                for (Respuesta r : respuestas) {
-                    String resp = r.getRespuesta(pregunta.getId());
-                    if (resp != null) {
-                        try {
-                            int opcion = Integer.parseInt(resp);
-                            if (opcion >= 0 && opcion < conteoOpciones.length) {
-                                conteoOpciones[opcion]++;
-                            }
-                        } catch (NumberFormatException e) {
-                            // Ignorar respuestas inválidas
-                        }
-                    }
-                }
+                int[] conteoOpciones = resultados.getConteoOpciones(pregunta.getId());
                 
-                for (int j = 0; j < opciones.size(); j++) {
-                    double porcentaje = respuestas.isEmpty() ? 0 : 
-                                       (double) conteoOpciones[j] / respuestas.size() * 100;
+                for (int j = 0; j < opciones.size() && j < conteoOpciones.length; j++) {
+                    double porcentaje = (double) conteoOpciones[j] / totalRespuestas * 100;
                     System.out.println("   " + opciones.get(j) + ": " + 
                                       conteoOpciones[j] + " (" + String.format("%.2f", porcentaje) + "%)");
                 }
             } else if (pregunta.getTipo() == Pregunta.TipoPregunta.VERDADERO_FALSO) {
                 // Para verdadero/falso mostrar conteo de cada respuesta
-                int verdadero = 0;
-                int falso = 0;
-                
-                for (Respuesta r : respuestas) {
-                    String resp = r.getRespuesta(pregunta.getId());
-                    if ("true".equals(resp)) {
-                        verdadero++;
-                    } else if ("false".equals(resp)) {
-                        falso++;
-                    }
-                }
+                int verdadero = resultados.getVerdaderos(pregunta.getId());
+                int falso = resultados.getFalsos(pregunta.getId());
                 
-                double porcVerdadero = respuestas.isEmpty() ? 0 : (double) verdadero / respuestas.size() * 100;
-                double porcFalso = respuestas.isEmpty() ? 0 : (double) falso / respuestas.size() * 100;
+                double porcVerdadero = (double) verdadero / totalRespuestas * 100;
+                double porcFalso = (double) falso / totalRespuestas * 100;
                 
                 System.out.println("   Verdadero: " + verdadero + " (" + String.format("%.2f", porcVerdadero) + "%)");
                 System.out.println("   Falso: " + falso + " (" + String.format("%.2f", porcFalso) + "%)");
@@ -621,6 +701,9 @@ public class EncuestaAdminView {
                 // Para respuestas de texto, mostrar algunas respuestas de ejemplo
                 System.out.println("   Algunas respuestas:");
                 int mostrados = 0;
+                if (respuestas == null) {
+                    respuestas = surveyManager.getRespuestas(encuesta.getId());
+                }
                 
                 for (Respuesta r : respuestas) {
                     String resp = r.getRespuesta(pregunta.getId());
@@ -214,7 +214,7 @@ public class ConfiguracionView {
             case 3:
                 String passwordActual = ConsoleUtils.leerString(scanner, "Contraseña actual", null, "");
                 
-                if (passwordActual.equals(usuario.getPassword())) {
+                if (authManager.verificarContrasena(usuario.getUsername(), passwordActual)) {
                     String nuevaPassword = ConsoleUtils.leerString(scanner, "Nueva contraseña", 
                             valor -> !valor.isEmpty(), "");
                     String confirmacion = ConsoleUtils.leerString(scanner, "Confirmar contraseña", 